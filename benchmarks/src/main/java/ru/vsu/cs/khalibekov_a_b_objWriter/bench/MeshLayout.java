@@ -0,0 +1,33 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.bench;
+
+import ru.vsu.cs.khalibekov_a_b_objWriter.generator.MeshGenerator;
+
+// Виды сеток бенчмарков - настройки MeshGenerator для волнистой плоскости (GRID) с постоянным seed,
+// поэтому результаты разных запусков сравнимы
+public enum MeshLayout {
+    // Только треугольники, "f v v v"
+    TRIANGLES(3, false, false),
+    // Только четырёхугольники, "f v/vt ..."
+    QUADS(4, true, false),
+    // Пары треугольников вперемешку с четырёхугольниками, "f v/vt/vn"
+    MIXED(MeshGenerator.MIXED_ARITY, true, true);
+
+    private static final long SEED = 1;
+
+    private final int faceArity;
+    private final boolean textures;
+    private final boolean normals;
+
+    MeshLayout(int faceArity, boolean textures, boolean normals) {
+        this.faceArity = faceArity;
+        this.textures = textures;
+        this.normals = normals;
+    }
+
+    // Генератор сетки примерно с faces гранями (не больше)
+    public MeshGenerator generator(int faces) {
+        return MeshGenerator.withPolygonCount(MeshGenerator.Shape.GRID, faces, faceArity, SEED)
+                .setTextures(textures)
+                .setNormals(normals);
+    }
+}
@@ -0,0 +1,67 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.objreader;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.vsu.cs.khalibekov_a_b_objWriter.bench.MeshLayout;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.CompactModel;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.Model;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// Чтение файла целиком: ObjReader.read и варианты на CompactModel / отображённом файле
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx12g"})
+public class ObjReaderBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int faces;
+
+    @Param({"TRIANGLES", "QUADS", "MIXED"})
+    public MeshLayout layout;
+
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("bench-" + layout.name().toLowerCase() + "-" + faces + "-", ".obj");
+        layout.generator(faces).write(file.toString());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public Model read() throws IOException {
+        return ObjReader.read(file);
+    }
+
+    @Benchmark
+    public CompactModel readCompact() throws IOException {
+        return ObjReader.readCompact(file);
+    }
+
+    @Benchmark
+    public CompactModel readCompactMapped() throws IOException {
+        return ObjReader.readCompactMapped(file);
+    }
+}
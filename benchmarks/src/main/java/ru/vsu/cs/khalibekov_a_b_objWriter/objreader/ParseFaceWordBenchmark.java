@@ -0,0 +1,65 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.objreader;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Разбор одного слова грани "v", "v/vt", "v//vn", "v/vt/vn" старым parseFaceWord
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParseFaceWordBenchmark {
+
+    private static final int WORD_COUNT = 1024;
+
+    private final String[] words = new String[WORD_COUNT];
+    private final ArrayList<Integer> vertices = new ArrayList<Integer>();
+    private final ArrayList<Integer> textures = new ArrayList<Integer>();
+    private final ArrayList<Integer> normals = new ArrayList<Integer>();
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        for (int i = 0; i < WORD_COUNT; i++) {
+            int v = 1 + random.nextInt(10_000_000);
+            int vt = 1 + random.nextInt(1_000_000);
+            int vn = 1 + random.nextInt(100_000);
+            words[i] = switch (i % 4) {
+                case 0 -> Integer.toString(v);
+                case 1 -> v + "/" + vt;
+                case 2 -> v + "//" + vn;
+                default -> v + "/" + vt + "/" + vn;
+            };
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(WORD_COUNT)
+    public void parseFaceWord(Blackhole blackhole) {
+        for (int i = 0; i < WORD_COUNT; i++) {
+            if ((i & 63) == 0) {
+                vertices.clear();
+                textures.clear();
+                normals.clear();
+            }
+            ObjReader.parseFaceWord(words[i], vertices, textures, normals, i);
+        }
+        blackhole.consume(vertices);
+    }
+}
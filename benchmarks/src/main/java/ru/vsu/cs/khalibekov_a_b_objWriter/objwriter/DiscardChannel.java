@@ -0,0 +1,31 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.objwriter;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+// Канал, который выбрасывает всё записанное - чтобы мерить кодирование без диска
+final class DiscardChannel implements WritableByteChannel {
+
+    private long written;
+
+    @Override
+    public int write(ByteBuffer source) {
+        int count = source.remaining();
+        source.position(source.limit());
+        written += count;
+        return count;
+    }
+
+    long getWritten() {
+        return written;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return true;
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,69 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.objwriter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Форматирование координат "%.6f": ObjNumberFormatter против прежнего String.format
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FloatFormatBenchmark {
+
+    private static final int VALUE_COUNT = 1024;
+
+    // UNIT - типичные нормали и UV, LARGE - координаты крупных сцен, MIXED - с медленной веткой
+    @Param({"UNIT", "LARGE", "MIXED"})
+    public String range;
+
+    private final float[] values = new float[VALUE_COUNT];
+    private final byte[] out = new byte[VALUE_COUNT * ObjNumberFormatter.MAX_FIXED6_LENGTH];
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        for (int i = 0; i < VALUE_COUNT; i++) {
+            values[i] = switch (range) {
+                case "UNIT" -> random.nextFloat() * 2 - 1;
+                case "LARGE" -> (random.nextFloat() * 2 - 1) * 100_000;
+                default -> i % 16 == 0 ? (random.nextFloat() - 0.5f) * 1e30f : random.nextFloat() * 1000 - 500;
+            };
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUE_COUNT)
+    public int writeFixed6() {
+        int pos = 0;
+        for (float value : values) {
+            pos = ObjNumberFormatter.writeFixed6(value, out, pos);
+        }
+        return pos;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUE_COUNT)
+    public void stringFormat(Blackhole blackhole) {
+        for (float value : values) {
+            blackhole.consume(String.format(Locale.US, "%.6f", value).getBytes(StandardCharsets.US_ASCII));
+        }
+    }
+}
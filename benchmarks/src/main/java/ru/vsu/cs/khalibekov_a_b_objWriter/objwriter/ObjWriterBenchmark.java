@@ -0,0 +1,93 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.objwriter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.vsu.cs.khalibekov_a_b_objWriter.bench.MeshLayout;
+import ru.vsu.cs.khalibekov_a_b_objWriter.generator.MeshGenerator;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.CompactModel;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.Model;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// Запись модели целиком (saveModel и варианты) и кодирование одних граней без диска
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx12g"})
+public class ObjWriterBenchmark {
+
+    private static final int ENCODE_BUFFER_SIZE = 1 << 16;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int faces;
+
+    @Param({"TRIANGLES", "QUADS", "MIXED"})
+    public MeshLayout layout;
+
+    private Model model;
+    private CompactModel compactModel;
+    private String output;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        MeshGenerator generator = layout.generator(faces);
+        model = generator.generateModel();
+        compactModel = generator.generateCompactModel();
+        output = Files.createTempFile("bench-output", ".obj").toString();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(Path.of(output));
+    }
+
+    @Benchmark
+    public void saveModel() throws IOException {
+        ObjWriter.saveModel(model, output);
+    }
+
+    @Benchmark
+    public void saveCompactModel() throws IOException {
+        ObjWriter.saveCompactModel(compactModel, output);
+    }
+
+    @Benchmark
+    public void saveModelParallel() throws IOException {
+        ObjWriter.saveModelParallel(model, output);
+    }
+
+    // Кодирование строк f (бывший constructPolygonString) вместе с проверкой индексов
+    @Benchmark
+    public long encodePolygons() throws IOException {
+        DiscardChannel channel = new DiscardChannel();
+        ObjOutputBuffer buffer = new ObjOutputBuffer(channel, ENCODE_BUFFER_SIZE);
+        ObjWriter.writePolygons(buffer, model, 0, model.polygons.size());
+        buffer.flush();
+        return channel.getWritten();
+    }
+
+    @Benchmark
+    public long encodeCompactPolygons() throws IOException {
+        DiscardChannel channel = new DiscardChannel();
+        ObjOutputBuffer buffer = new ObjOutputBuffer(channel, ENCODE_BUFFER_SIZE);
+        ObjWriter.writePolygons(buffer, compactModel, 0, compactModel.getPolygonCount());
+        buffer.flush();
+        return channel.getWritten();
+    }
+}
@@ -1,27 +1,129 @@
-import ru.vsu.cs.khalibekov_a_b_objWriter.model.Model;
-import ru.vsu.cs.khalibekov_a_b_objWriter.objreader.ObjReader;
-import ru.vsu.cs.khalibekov_a_b_objWriter.objwriter.ObjWriter;
+import ru.vsu.cs.khalibekov_a_b_objWriter.batch.BatchConverter;
+import ru.vsu.cs.khalibekov_a_b_objWriter.batch.BatchReport;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.CompactModel;
+import ru.vsu.cs.khalibekov_a_b_objWriter.objwriter.ModelValidator;
+import ru.vsu.cs.khalibekov_a_b_objWriter.objwriter.ValidationReport;
+import ru.vsu.cs.khalibekov_a_b_objWriter.processing.MaterialGrouper;
+import ru.vsu.cs.khalibekov_a_b_objWriter.processing.ModelTriangulator;
+import ru.vsu.cs.khalibekov_a_b_objWriter.processing.ModelWelder;
+import ru.vsu.cs.khalibekov_a_b_objWriter.processing.NormalGenerator;
+import ru.vsu.cs.khalibekov_a_b_objWriter.processing.VertexCacheOptimizer;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.UnaryOperator;
 
+// Конвертация одного файла или всех .obj каталога (с подкаталогами):
+// чтение, необязательная обработка, запись. Код выхода 1, если хоть один файл не сконвертирован.
+// Входы *.obj.gz распаковываются при чтении, выход с именем *.gz записывается сжатым
 public class Main {
 
-    public static void main(String[] args) throws IOException {
-        String PATH = "C:\\Dev\\projects java\\Course2\\Semestr1\\CG\\TaskObjWriter\\3DModels\\Test07.obj";
-        Path fileName = Path.of(PATH);
-        String fileContent = Files.readString(fileName);
+    private static final String USAGE = """
+            Usage: Main <input.obj[.gz] | input-dir> <output.obj[.gz] | output-dir> [options]
+              --validate               fail files with index or structure problems
+              --weld [epsilon]         merge duplicate vertices, UVs and normals; epsilon in model units, default 1e-5
+              --triangulate            split polygons into triangles
+              --normals flat|smooth    regenerate normals
+              --group-materials        reorder polygons so each material is written once
+              --optimize-cache         reorder polygons for the GPU vertex cache, vertices by first use
+              --read-threads N         default 2
+              --transform-threads N    default: number of CPUs
+              --write-threads N        default 2
+              --queue N                models buffered between stages, default 4
+              --quiet                  print only failures and the summary
+            """;
 
-        Model model = ObjReader.read(fileContent);
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 2) {
+            System.err.print(USAGE);
+            System.exit(2);
+        }
+        Path input = Path.of(args[0]);
+        Path output = Path.of(args[1]);
 
-        System.out.println("Vertices: " + model.vertices.size());
-        System.out.println("Texture coordinates: " + model.textureVertices.size());
-        System.out.println("Normals: " + model.normals.size());
-        System.out.println("Polygons: " + model.polygons.size());
+        BatchConverter converter = new BatchConverter();
+        UnaryOperator<CompactModel> transform = UnaryOperator.identity();
+        boolean quiet = false;
+        for (int i = 2; i < args.length; i++) {
+            String option = args[i];
+            try {
+                switch (option) {
+                    case "--validate" -> transform = then(transform, Main::validate);
+                    case "--weld" -> {
+                        float epsilon = ModelWelder.DEFAULT_EPSILON;
+                        if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                            epsilon = Float.parseFloat(args[++i]);
+                        }
+                        // Иначе ошибка была бы у каждого файла при обработке
+                        if (!(epsilon >= 0)) {
+                            throw new IllegalArgumentException("Epsilon must not be negative: " + epsilon);
+                        }
+                        float weldEpsilon = epsilon;
+                        transform = then(transform, model -> ModelWelder.weld(model, weldEpsilon));
+                    }
+                    case "--triangulate" -> transform = then(transform, ModelTriangulator::triangulate);
+                    case "--normals" -> {
+                        NormalGenerator.Mode mode =
+                                NormalGenerator.Mode.valueOf(value(args, ++i).toUpperCase(Locale.ROOT));
+                        transform = then(transform, model -> NormalGenerator.generate(model, mode));
+                    }
+                    case "--read-threads" -> converter.setReadThreads(Integer.parseInt(value(args, ++i)));
+                    case "--transform-threads" -> converter.setTransformThreads(Integer.parseInt(value(args, ++i)));
+                    case "--write-threads" -> converter.setWriteThreads(Integer.parseInt(value(args, ++i)));
+                    case "--queue" -> converter.setQueueCapacity(Integer.parseInt(value(args, ++i)));
+                    case "--group-materials" -> transform = then(transform, MaterialGrouper::groupByMaterial);
+                    case "--optimize-cache" -> transform = then(transform, VertexCacheOptimizer::optimize);
+                    case "--quiet" -> quiet = true;
+                    default -> {
+                        System.err.println("Unknown option: " + option);
+                        System.err.print(USAGE);
+                        System.exit(2);
+                    }
+                }
+            } catch (IllegalArgumentException e) {
+                // NumberFormatException и неизвестный режим --normals - тоже неверный аргумент
+                System.err.println("Invalid value for " + option + ": " + e.getMessage());
+                System.err.print(USAGE);
+                System.exit(2);
+            }
+        }
 
-        System.out.println();
-        ObjWriter.saveModel(model, "output_model.obj");
-        System.out.println("Model saved as 'output_model.obj'");
+        boolean printAll = !quiet;
+        converter.setTransform(transform).setListener(result -> {
+            if (printAll || !result.isSucceeded()) {
+                System.out.println(result);
+            }
+        });
+        BatchReport report = Files.isDirectory(input)
+                ? converter.convertDirectory(input, output)
+                : converter.convert(List.of(input), List.of(output));
+
+        System.out.println(report);
+        if (report.getFailedCount() > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static String value(String[] args, int i) {
+        if (i >= args.length) {
+            System.err.println("Missing value for " + args[i - 1]);
+            System.exit(2);
+        }
+        return args[i];
+    }
+
+    private static UnaryOperator<CompactModel> then(UnaryOperator<CompactModel> first, UnaryOperator<CompactModel> second) {
+        return model -> second.apply(first.apply(model));
+    }
+
+    private static CompactModel validate(CompactModel model) {
+        ValidationReport report = ModelValidator.validate(model, 1);
+        if (!report.isValid()) {
+            throw new IllegalArgumentException(report.getProblems().get(0).getMessage());
+        }
+        return model;
     }
-}
\ No newline at end of file
+}
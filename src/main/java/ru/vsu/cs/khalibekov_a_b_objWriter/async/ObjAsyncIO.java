@@ -0,0 +1,260 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.async;
+
+import ru.vsu.cs.khalibekov_a_b_objWriter.metrics.ObjMetricsListener;
+import ru.vsu.cs.khalibekov_a_b_objWriter.metrics.ObjOperationStats;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.CompactModel;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.Model;
+import ru.vsu.cs.khalibekov_a_b_objWriter.objreader.ObjReader;
+import ru.vsu.cs.khalibekov_a_b_objWriter.objwriter.ObjWriter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Асинхронные чтение и запись OBJ. Каждая операция - отдельная задача (по умолчанию на виртуальном потоке),
+// одновременно выполняется не больше maxConcurrent операций, остальные ждут разрешения, почти не занимая память.
+// Так сотни операций могут быть "в полёте", а в куче одновременно строится не больше maxConcurrent моделей.
+// Отмена (future.cancel) и таймаут проверяются между кусками через ObjMetricsListener.onChunk:
+// после каждого прочитанного буфера и каждого записанного блока элементов. Прерванная запись
+// удаляет временный файл, прежний файл остаётся нетронутым. Свой listener метрик можно передать
+// вместе с таймаутом - он получает те же вызовы, что и при синхронной операции.
+public class ObjAsyncIO implements AutoCloseable {
+
+    @FunctionalInterface
+    private interface Operation<T> {
+        T run(ObjMetricsListener checkpoint) throws IOException;
+    }
+
+    private static final class DefaultHolder {
+        static final ObjAsyncIO INSTANCE = new ObjAsyncIO(Runtime.getRuntime().availableProcessors());
+    }
+
+    private final Executor executor;
+    private final ExecutorService ownedExecutor;
+    private final Semaphore permits;
+
+    // Собственные виртуальные потоки, закрываются в close()
+    public ObjAsyncIO(int maxConcurrent) {
+        this(Executors.newVirtualThreadPerTaskExecutor(), maxConcurrent, true);
+    }
+
+    // executor не закрывается - им владеет вызывающий код
+    public ObjAsyncIO(Executor executor, int maxConcurrent) {
+        this(executor, maxConcurrent, false);
+    }
+
+    private ObjAsyncIO(Executor executor, int maxConcurrent, boolean owned) {
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor must not be null");
+        }
+        if (maxConcurrent < 1) {
+            throw new IllegalArgumentException("Max concurrent operations must be positive: " + maxConcurrent);
+        }
+        this.executor = executor;
+        this.ownedExecutor = owned ? (ExecutorService) executor : null;
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    // Общий экземпляр на виртуальных потоках, по одной операции на процессор
+    public static ObjAsyncIO getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    public CompletableFuture<Model> readAsync(Path path) {
+        return readAsync(path, null);
+    }
+
+    // timeout == null - без таймаута
+    public CompletableFuture<Model> readAsync(Path path, Duration timeout) {
+        return readAsync(path, timeout, null);
+    }
+
+    // listener == null - без метрик
+    public CompletableFuture<Model> readAsync(Path path, Duration timeout, ObjMetricsListener listener) {
+        return submit(timeout, listener, checkpoint -> ObjReader.read(path, checkpoint));
+    }
+
+    public CompletableFuture<CompactModel> readCompactAsync(Path path) {
+        return readCompactAsync(path, null);
+    }
+
+    public CompletableFuture<CompactModel> readCompactAsync(Path path, Duration timeout) {
+        return readCompactAsync(path, timeout, null);
+    }
+
+    public CompletableFuture<CompactModel> readCompactAsync(Path path, Duration timeout, ObjMetricsListener listener) {
+        return submit(timeout, listener, checkpoint -> ObjReader.readCompact(path, checkpoint));
+    }
+
+    public CompletableFuture<Void> saveAsync(Model model, Path path) {
+        return saveAsync(model, path, null);
+    }
+
+    public CompletableFuture<Void> saveAsync(Model model, Path path, Duration timeout) {
+        return saveAsync(model, path, timeout, null);
+    }
+
+    public CompletableFuture<Void> saveAsync(Model model, Path path, Duration timeout, ObjMetricsListener listener) {
+        return submit(timeout, listener, checkpoint -> {
+            ObjWriter.saveModel(model, path.toString(), checkpoint);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> saveAsync(CompactModel model, Path path) {
+        return saveAsync(model, path, null);
+    }
+
+    public CompletableFuture<Void> saveAsync(CompactModel model, Path path, Duration timeout) {
+        return saveAsync(model, path, timeout, null);
+    }
+
+    public CompletableFuture<Void> saveAsync(CompactModel model, Path path, Duration timeout,
+                                             ObjMetricsListener listener) {
+        return submit(timeout, listener, checkpoint -> {
+            ObjWriter.saveCompactModel(model, path.toString(), checkpoint);
+            return null;
+        });
+    }
+
+    // Число операций, ждущих разрешения (оценка)
+    public int getQueuedCount() {
+        return permits.getQueueLength();
+    }
+
+    // Закрывает собственный executor, дожидаясь начатых операций
+    @Override
+    public void close() {
+        if (ownedExecutor != null) {
+            ownedExecutor.close();
+        }
+    }
+
+    private <T> CompletableFuture<T> submit(Duration timeout, ObjMetricsListener listener, Operation<T> operation) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Task<T> task = new Task<>(future, listener, operation);
+        if (timeout != null) {
+            future.orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        }
+        // Отменённая или просроченная задача, ждущая разрешения, сразу освобождает поток
+        future.whenComplete((result, failure) -> task.wakeIfWaiting());
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private final class Task<T> implements Runnable {
+
+        private final CompletableFuture<T> future;
+        private final ObjMetricsListener listener;
+        private final Operation<T> operation;
+        private Thread waiting;
+
+        Task(CompletableFuture<T> future, ObjMetricsListener listener, Operation<T> operation) {
+            this.future = future;
+            this.listener = listener;
+            this.operation = operation;
+        }
+
+        @Override
+        public void run() {
+            if (!acquire()) {
+                return;
+            }
+            try {
+                future.complete(operation.run(new Checkpoint(future, listener)));
+            } catch (Throwable e) {
+                // Если future уже отменена или просрочена, ошибка прерывания никуда не попадает
+                future.completeExceptionally(e);
+            } finally {
+                permits.release();
+            }
+        }
+
+        private boolean acquire() {
+            synchronized (this) {
+                if (future.isDone()) {
+                    return false;
+                }
+                waiting = Thread.currentThread();
+            }
+            boolean acquired = false;
+            try {
+                permits.acquire();
+                acquired = true;
+            } catch (InterruptedException e) {
+                future.completeExceptionally(new CancellationException("Cancelled while waiting"));
+            } finally {
+                synchronized (this) {
+                    waiting = null;
+                    // Прерывание могло прийти после получения разрешения - поток не должен его унести
+                    Thread.interrupted();
+                }
+            }
+            if (acquired && future.isDone()) {
+                permits.release();
+                return false;
+            }
+            return acquired;
+        }
+
+        synchronized void wakeIfWaiting() {
+            if (waiting != null) {
+                waiting.interrupt();
+            }
+        }
+    }
+
+    // Проверка отмены между кусками; остальные вызовы уходят listener вызывающего кода (если он есть).
+    // Исключение из onChunk прерывает чтение или запись, а запись при этом удаляет свой временный файл
+    private static final class Checkpoint implements ObjMetricsListener {
+
+        private final CompletableFuture<?> future;
+        private final ObjMetricsListener listener;
+
+        Checkpoint(CompletableFuture<?> future, ObjMetricsListener listener) {
+            this.future = future;
+            this.listener = listener;
+        }
+
+        @Override
+        public long progressInterval() {
+            return listener == null ? 0 : listener.progressInterval();
+        }
+
+        @Override
+        public void onProgress(ObjOperationStats.Operation operation, String source, long done, long total) {
+            if (listener != null) {
+                listener.onProgress(operation, source, done, total);
+            }
+        }
+
+        @Override
+        public void onChunk(ObjOperationStats.Operation operation, String source) {
+            if (future.isDone()) {
+                throw new CancellationException("Operation on " + source + " was cancelled or timed out");
+            }
+            if (listener != null) {
+                listener.onChunk(operation, source);
+            }
+        }
+
+        @Override
+        public void onFinished(ObjOperationStats stats) {
+            if (listener != null) {
+                listener.onFinished(stats);
+            }
+        }
+    }
+}
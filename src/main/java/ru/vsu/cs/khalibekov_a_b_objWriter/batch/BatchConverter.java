@@ -0,0 +1,269 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.batch;
+
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.CompactModel;
+import ru.vsu.cs.khalibekov_a_b_objWriter.objreader.ObjReader;
+import ru.vsu.cs.khalibekov_a_b_objWriter.objwriter.ObjWriter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+// Пакетная конвертация множества OBJ-файлов конвейером из трёх стадий: чтение, обработка (transform)
+// и запись. У каждой стадии свои потоки, стадии связаны ограниченными очередями: если запись отстаёт,
+// обработка и чтение блокируются на put, поэтому в памяти одновременно не больше
+// readThreads + transformThreads + writeThreads + 2 * queueCapacity моделей.
+// Буферы чтения и записи берутся из общего ограниченного пула.
+// Ошибка чтения, обработки или записи файла попадает в его BatchFileResult и не останавливает остальные.
+public class BatchConverter {
+
+    private static final class Job {
+        final int index;
+        CompactModel model;
+        long bytesRead;
+        long readNanos;
+        long transformNanos;
+
+        Job(int index) {
+            this.index = index;
+        }
+    }
+
+    // Конец очереди: по одному на каждый поток следующей стадии
+    private static final Job END = new Job(-1);
+
+    private int readThreads = 2;
+    private int transformThreads = Runtime.getRuntime().availableProcessors();
+    private int writeThreads = 2;
+    private int queueCapacity = 4;
+    private UnaryOperator<CompactModel> transform = UnaryOperator.identity();
+    private Consumer<BatchFileResult> listener = result -> {
+    };
+
+    public BatchConverter setReadThreads(int readThreads) {
+        this.readThreads = checkPositive(readThreads, "Read threads");
+        return this;
+    }
+
+    public BatchConverter setTransformThreads(int transformThreads) {
+        this.transformThreads = checkPositive(transformThreads, "Transform threads");
+        return this;
+    }
+
+    public BatchConverter setWriteThreads(int writeThreads) {
+        this.writeThreads = checkPositive(writeThreads, "Write threads");
+        return this;
+    }
+
+    // Ёмкость каждой из двух очередей между стадиями
+    public BatchConverter setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = checkPositive(queueCapacity, "Queue capacity");
+        return this;
+    }
+
+    // Обработка модели между чтением и записью (проверка, склейка вершин и т. п.). Может вернуть новую модель
+    public BatchConverter setTransform(UnaryOperator<CompactModel> transform) {
+        if (transform == null) {
+            throw new IllegalArgumentException("Transform must not be null");
+        }
+        this.transform = transform;
+        return this;
+    }
+
+    // Вызывается для каждого файла по готовности, из потоков конвейера
+    public BatchConverter setListener(Consumer<BatchFileResult> listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener must not be null");
+        }
+        this.listener = listener;
+        return this;
+    }
+
+    private static int checkPositive(int value, String name) {
+        if (value < 1) {
+            throw new IllegalArgumentException(name + " must be positive: " + value);
+        }
+        return value;
+    }
+
+    // Все *.obj и *.obj.gz из inputDirectory (с подкаталогами) в те же относительные пути внутри outputDirectory
+    public BatchReport convertDirectory(Path inputDirectory, Path outputDirectory) throws IOException, InterruptedException {
+        List<Path> inputs;
+        try (Stream<Path> files = Files.walk(inputDirectory)) {
+            inputs = files.filter(Files::isRegularFile)
+                    .filter(path -> isObjFile(path.getFileName().toString().toLowerCase(Locale.ROOT)))
+                    .sorted()
+                    .toList();
+        }
+        List<Path> outputs = new ArrayList<>(inputs.size());
+        for (Path input : inputs) {
+            outputs.add(outputDirectory.resolve(inputDirectory.relativize(input).toString()));
+        }
+        return convert(inputs, outputs);
+    }
+
+    private static boolean isObjFile(String name) {
+        return name.endsWith(".obj") || name.endsWith(".obj.gz");
+    }
+
+    // inputs.get(i) записывается в outputs.get(i); каталоги для выходных файлов создаются
+    public BatchReport convert(List<Path> inputs, List<Path> outputs) throws InterruptedException {
+        if (inputs == null || outputs == null || inputs.size() != outputs.size()) {
+            throw new IllegalArgumentException("Inputs and outputs must be lists of the same size");
+        }
+        long start = System.nanoTime();
+        BatchFileResult[] results = new BatchFileResult[inputs.size()];
+        BlockingQueue<Job> transformQueue = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<Job> writeQueue = new ArrayBlockingQueue<>(queueCapacity);
+        AtomicInteger nextInput = new AtomicInteger();
+        AtomicInteger activeReaders = new AtomicInteger(readThreads);
+        AtomicInteger activeTransformers = new AtomicInteger(transformThreads);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(readThreads + transformThreads + writeThreads, task -> {
+            Thread thread = new Thread(task, "obj-batch-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        CompletionService<Void> workers = new ExecutorCompletionService<>(pool);
+        try {
+            for (int i = 0; i < readThreads; i++) {
+                workers.submit(() -> {
+                    for (int index; (index = nextInput.getAndIncrement()) < inputs.size(); ) {
+                        Job job = read(index, inputs.get(index), outputs.get(index), results);
+                        if (job != null) {
+                            transformQueue.put(job);
+                        }
+                    }
+                    finishStage(activeReaders, transformQueue, transformThreads);
+                    return null;
+                });
+            }
+            for (int i = 0; i < transformThreads; i++) {
+                workers.submit(() -> {
+                    for (Job job; (job = transformQueue.take()) != END; ) {
+                        if (transform(job, inputs.get(job.index), outputs.get(job.index), results)) {
+                            writeQueue.put(job);
+                        }
+                    }
+                    finishStage(activeTransformers, writeQueue, writeThreads);
+                    return null;
+                });
+            }
+            for (int i = 0; i < writeThreads; i++) {
+                workers.submit(() -> {
+                    for (Job job; (job = writeQueue.take()) != END; ) {
+                        write(job, inputs.get(job.index), outputs.get(job.index), results);
+                    }
+                    return null;
+                });
+            }
+
+            // Сбой самого конвейера (например, исключение из listener) останавливает все стадии
+            for (int i = 0; i < readThreads + transformThreads + writeThreads; i++) {
+                try {
+                    workers.take().get();
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof RuntimeException runtime) {
+                        throw runtime;
+                    }
+                    if (e.getCause() instanceof Error error) {
+                        throw error;
+                    }
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return new BatchReport(Arrays.asList(results), System.nanoTime() - start);
+    }
+
+    // Последний поток стадии сообщает следующей стадии о конце работы
+    private static void finishStage(AtomicInteger active, BlockingQueue<Job> next, int nextThreads) throws InterruptedException {
+        if (active.decrementAndGet() == 0) {
+            for (int i = 0; i < nextThreads; i++) {
+                next.put(END);
+            }
+        }
+    }
+
+    private Job read(int index, Path input, Path output, BatchFileResult[] results) {
+        Job job = new Job(index);
+        long start = System.nanoTime();
+        try {
+            job.bytesRead = Files.size(input);
+            job.model = ObjReader.readCompact(input);
+            job.readNanos = System.nanoTime() - start;
+            return job;
+        } catch (IOException | RuntimeException e) {
+            job.readNanos = System.nanoTime() - start;
+            complete(job, input, output, 0, 0, e, results);
+            return null;
+        }
+    }
+
+    private boolean transform(Job job, Path input, Path output, BatchFileResult[] results) {
+        long start = System.nanoTime();
+        try {
+            job.model = transform.apply(job.model);
+            job.transformNanos = System.nanoTime() - start;
+            if (job.model == null) {
+                throw new IllegalArgumentException("Transform returned null");
+            }
+            return true;
+        } catch (RuntimeException e) {
+            job.transformNanos = System.nanoTime() - start;
+            complete(job, input, output, 0, 0, e, results);
+            return false;
+        }
+    }
+
+    // listener вызывается вне try: его исключение - сбой конвейера, а не ошибка записи файла
+    private void write(Job job, Path input, Path output, BatchFileResult[] results) {
+        long start = System.nanoTime();
+        long bytesWritten;
+        long writeNanos;
+        try {
+            Path parent = output.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            // Имя *.gz - сжатая запись (сжатые входы читаются без этого)
+            if (output.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".gz")) {
+                ObjWriter.saveCompactModelCompressed(job.model, output.toString());
+            } else {
+                ObjWriter.saveCompactModel(job.model, output.toString());
+            }
+            bytesWritten = Files.size(output);
+            writeNanos = System.nanoTime() - start;
+        } catch (IOException | RuntimeException e) {
+            complete(job, input, output, 0, System.nanoTime() - start, e, results);
+            return;
+        }
+        complete(job, input, output, bytesWritten, writeNanos, null, results);
+    }
+
+    private void complete(Job job, Path input, Path output, long bytesWritten, long writeNanos,
+                          Throwable failure, BatchFileResult[] results) {
+        job.model = null;
+        BatchFileResult result = new BatchFileResult(input, output, job.bytesRead, bytesWritten,
+                job.readNanos, job.transformNanos, writeNanos, failure);
+        results[job.index] = result;
+        listener.accept(result);
+    }
+}
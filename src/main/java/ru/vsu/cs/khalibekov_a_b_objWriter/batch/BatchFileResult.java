@@ -0,0 +1,84 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.batch;
+
+import java.nio.file.Path;
+
+// Итог конвертации одного файла. Времена стадий в наносекундах, без ожидания в очередях
+public final class BatchFileResult {
+
+    private final Path input;
+    private final Path output;
+    private final long bytesRead;
+    private final long bytesWritten;
+    private final long readNanos;
+    private final long transformNanos;
+    private final long writeNanos;
+    private final Throwable failure;
+
+    BatchFileResult(Path input, Path output, long bytesRead, long bytesWritten,
+                    long readNanos, long transformNanos, long writeNanos, Throwable failure) {
+        this.input = input;
+        this.output = output;
+        this.bytesRead = bytesRead;
+        this.bytesWritten = bytesWritten;
+        this.readNanos = readNanos;
+        this.transformNanos = transformNanos;
+        this.writeNanos = writeNanos;
+        this.failure = failure;
+    }
+
+    public Path getInput() {
+        return input;
+    }
+
+    public Path getOutput() {
+        return output;
+    }
+
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    public long getReadNanos() {
+        return readNanos;
+    }
+
+    public long getTransformNanos() {
+        return transformNanos;
+    }
+
+    public long getWriteNanos() {
+        return writeNanos;
+    }
+
+    public long getTotalNanos() {
+        return readNanos + transformNanos + writeNanos;
+    }
+
+    // Прочитанные байты в секунду по времени работы над файлом
+    public double getThroughput() {
+        long nanos = getTotalNanos();
+        return nanos > 0 ? bytesRead * 1e9 / nanos : 0;
+    }
+
+    public boolean isSucceeded() {
+        return failure == null;
+    }
+
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    @Override
+    public String toString() {
+        if (failure != null) {
+            return input + ": failed: " + failure;
+        }
+        return String.format("%s -> %s: %d -> %d bytes, read %.1f ms, transform %.1f ms, write %.1f ms, %.1f MB/s",
+                input, output, bytesRead, bytesWritten, readNanos / 1e6, transformNanos / 1e6, writeNanos / 1e6,
+                getThroughput() / (1 << 20));
+    }
+}
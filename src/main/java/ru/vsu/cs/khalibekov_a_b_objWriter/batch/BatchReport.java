@@ -0,0 +1,71 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.batch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Итог пакетной конвертации: результаты по файлам в порядке входного списка и общие суммы
+public final class BatchReport {
+
+    private final List<BatchFileResult> files;
+    private final long wallNanos;
+
+    BatchReport(List<BatchFileResult> files, long wallNanos) {
+        this.files = Collections.unmodifiableList(new ArrayList<>(files));
+        this.wallNanos = wallNanos;
+    }
+
+    public List<BatchFileResult> getFiles() {
+        return files;
+    }
+
+    public int getSucceededCount() {
+        int count = 0;
+        for (BatchFileResult file : files) {
+            if (file.isSucceeded()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public int getFailedCount() {
+        return files.size() - getSucceededCount();
+    }
+
+    public long getBytesRead() {
+        long total = 0;
+        for (BatchFileResult file : files) {
+            total += file.getBytesRead();
+        }
+        return total;
+    }
+
+    public long getBytesWritten() {
+        long total = 0;
+        for (BatchFileResult file : files) {
+            total += file.getBytesWritten();
+        }
+        return total;
+    }
+
+    public long getWallNanos() {
+        return wallNanos;
+    }
+
+    // Прочитанные байты в секунду по времени всего прогона
+    public double getThroughput() {
+        return wallNanos > 0 ? getBytesRead() * 1e9 / wallNanos : 0;
+    }
+
+    public double getFilesPerSecond() {
+        return wallNanos > 0 ? files.size() * 1e9 / wallNanos : 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d files (%d failed), %d -> %d bytes in %.3f s: %.1f MB/s, %.1f files/s",
+                files.size(), getFailedCount(), getBytesRead(), getBytesWritten(), wallNanos / 1e9,
+                getThroughput() / (1 << 20), getFilesPerSecond());
+    }
+}
@@ -0,0 +1,64 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.generator;
+
+// Псевдослучайная перестановка [0, size) без таблиц: сеть Фейстеля на ближайшем сверху
+// диапазоне из 2^(2k) чисел и "обход цикла" - значения за пределами size шифруются повторно.
+// Диапазон меньше 4 * size, поэтому в среднем хватает нескольких раундов.
+final class FeistelPermutation {
+
+    private static final int ROUNDS = 4;
+
+    private final long size;
+    private final int halfBits;
+    private final long halfMask;
+    private final long[] keys = new long[ROUNDS];
+
+    FeistelPermutation(long size, long seed) {
+        this.size = size;
+        int bits = Math.max(2, 64 - Long.numberOfLeadingZeros(Math.max(size - 1, 1)));
+        this.halfBits = (bits + 1) / 2;
+        this.halfMask = (1L << halfBits) - 1;
+        for (int i = 0; i < ROUNDS; i++) {
+            keys[i] = MeshGenerator.mix(seed + i * 0x9E3779B97F4A7C15L);
+        }
+    }
+
+    long apply(long value) {
+        do {
+            value = encrypt(value);
+        } while (value >= size);
+        return value;
+    }
+
+    long inverse(long value) {
+        do {
+            value = decrypt(value);
+        } while (value >= size);
+        return value;
+    }
+
+    private long encrypt(long value) {
+        long left = value >>> halfBits;
+        long right = value & halfMask;
+        for (int i = 0; i < ROUNDS; i++) {
+            long next = left ^ round(right, i);
+            left = right;
+            right = next;
+        }
+        return (left << halfBits) | right;
+    }
+
+    private long decrypt(long value) {
+        long left = value >>> halfBits;
+        long right = value & halfMask;
+        for (int i = ROUNDS - 1; i >= 0; i--) {
+            long previous = right ^ round(left, i);
+            right = left;
+            left = previous;
+        }
+        return (left << halfBits) | right;
+    }
+
+    private long round(long half, int i) {
+        return MeshGenerator.mix(half ^ keys[i]) & halfMask;
+    }
+}
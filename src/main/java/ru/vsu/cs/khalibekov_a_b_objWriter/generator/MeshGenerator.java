@@ -0,0 +1,473 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.generator;
+
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.CompactModel;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.Model;
+import ru.vsu.cs.khalibekov_a_b_objWriter.objreader.ObjVisitor;
+import ru.vsu.cs.khalibekov_a_b_objWriter.objwriter.ObjStreamWriter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+// Детерминированный генератор больших сеток для нагрузочных тестов и бенчмарков.
+// Каждый элемент вычисляется по своему номеру и seed, поэтому сетка любого размера
+// выдаётся потоком (generate / write) без хранения в памяти, а при одинаковых настройках
+// результат всегда один и тот же.
+// Поверхность состоит из квадратных участков resolution x resolution ячеек:
+// GRID - одна волнистая плоскость, SCAN - она же с шумом координат и дырами, как у сканов,
+// SPHERE - куб из 6 участков, спроецированный на единичную сферу (вершины на рёбрах куба дублируются).
+// Настройка (set...) не потокобезопасна, но настроенный генератор можно использовать из нескольких
+// потоков сразу: всё изменяемое состояние генерации - локальное для вызова.
+public class MeshGenerator {
+
+    public enum Shape {
+        GRID,
+        SPHERE,
+        SCAN
+    }
+
+    public enum IndexPattern {
+        // Вершины и грани по порядку сетки - индексы соседних граней близки
+        SEQUENTIAL,
+        // Грани в псевдослучайном порядке
+        SHUFFLED_FACES,
+        // Вершины и грани в псевдослучайном порядке - худший случай для кэшей
+        SHUFFLED
+    }
+
+    // Случайная смесь пар треугольников и четырёхугольников
+    public static final int MIXED_ARITY = 0;
+
+    private static final long STREAM_X = 1;
+    private static final long STREAM_Y = 2;
+    private static final long STREAM_Z = 3;
+    private static final long STREAM_HOLE = 4;
+    private static final long STREAM_ARITY = 5;
+    private static final long STREAM_VERTEX_ORDER = 6;
+    private static final long STREAM_FACE_ORDER = 7;
+
+    private static final float[][] CUBE_FACES = {
+            // нормаль, первое и второе направления участка (их векторное произведение - нормаль)
+            {1, 0, 0, 0, 1, 0, 0, 0, 1},
+            {-1, 0, 0, 0, 0, 1, 0, 1, 0},
+            {0, 1, 0, 0, 0, 1, 1, 0, 0},
+            {0, -1, 0, 1, 0, 0, 0, 0, 1},
+            {0, 0, 1, 1, 0, 0, 0, 1, 0},
+            {0, 0, -1, 0, 1, 0, 1, 0, 0}
+    };
+
+    private final Shape shape;
+    private final int resolution;
+    private final long seed;
+    private final int patches;
+    private final int vertexCount;
+
+    private int faceArity = 4;
+    private boolean textures = true;
+    private boolean normals = true;
+    private IndexPattern indexPattern = IndexPattern.SEQUENTIAL;
+    private float noise;
+    private float holeRate;
+
+    public MeshGenerator(Shape shape, int resolution, long seed) {
+        if (shape == null) {
+            throw new IllegalArgumentException("Shape must not be null");
+        }
+        if (resolution < 1) {
+            throw new IllegalArgumentException("Resolution must be positive: " + resolution);
+        }
+        this.shape = shape;
+        this.resolution = resolution;
+        this.seed = seed;
+        this.patches = shape == Shape.SPHERE ? 6 : 1;
+        long vertices = (long) patches * (resolution + 1) * (resolution + 1);
+        if (vertices > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many vertices for resolution " + resolution + ": " + vertices);
+        }
+        this.vertexCount = (int) vertices;
+        if (shape == Shape.SCAN) {
+            noise = 0.05f;
+            holeRate = 0.02f;
+        }
+    }
+
+    // Генератор с наибольшим разрешением, при котором вершин не больше vertexCount
+    public static MeshGenerator withVertexCount(Shape shape, long vertexCount, long seed) {
+        int patches = shape == Shape.SPHERE ? 6 : 1;
+        int resolution = (int) Math.min(Integer.MAX_VALUE, (long) Math.sqrt((double) vertexCount / patches) - 1);
+        return new MeshGenerator(shape, Math.max(resolution, 1), seed);
+    }
+
+    // Генератор с наибольшим разрешением, при котором граней (без дыр) не больше polygonCount,
+    // с гранями faceArity как в setFaceArity; у MIXED_ARITY - в среднем 1.5 грани на ячейку
+    public static MeshGenerator withPolygonCount(Shape shape, long polygonCount, int faceArity, long seed) {
+        int patches = shape == Shape.SPHERE ? 6 : 1;
+        double facesPerCell = faceArity == 3 ? 2 : faceArity == MIXED_ARITY ? 1.5 : 2.0 / (faceArity - 2);
+        int resolution = (int) Math.min(Integer.MAX_VALUE, (long) Math.sqrt(polygonCount / (patches * facesPerCell)));
+        return new MeshGenerator(shape, Math.max(resolution, 1), seed).setFaceArity(faceArity);
+    }
+
+    // 3 - пары треугольников, чётное n >= 4 - полосы из (n - 2) / 2 ячеек, MIXED_ARITY - смесь
+    public MeshGenerator setFaceArity(int faceArity) {
+        if (faceArity != MIXED_ARITY && faceArity != 3 && (faceArity < 4 || faceArity % 2 != 0)) {
+            throw new IllegalArgumentException("Face arity must be 3, an even number >= 4 or MIXED_ARITY: " + faceArity);
+        }
+        this.faceArity = faceArity;
+        return this;
+    }
+
+    public MeshGenerator setTextures(boolean textures) {
+        this.textures = textures;
+        return this;
+    }
+
+    public MeshGenerator setNormals(boolean normals) {
+        this.normals = normals;
+        return this;
+    }
+
+    public MeshGenerator setIndexPattern(IndexPattern indexPattern) {
+        if (indexPattern == null) {
+            throw new IllegalArgumentException("Index pattern must not be null");
+        }
+        this.indexPattern = indexPattern;
+        return this;
+    }
+
+    // Сдвиг вершин в долях шага сетки
+    public MeshGenerator setNoise(float noise) {
+        if (!(noise >= 0)) {
+            throw new IllegalArgumentException("Noise must not be negative: " + noise);
+        }
+        this.noise = noise;
+        return this;
+    }
+
+    // Доля пропущенных граней (группами, как в setFaceArity)
+    public MeshGenerator setHoleRate(float holeRate) {
+        if (!(holeRate >= 0 && holeRate <= 1)) {
+            throw new IllegalArgumentException("Hole rate must be in [0, 1]: " + holeRate);
+        }
+        this.holeRate = holeRate;
+        return this;
+    }
+
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    public int getTextureVertexCount() {
+        return textures ? vertexCount : 0;
+    }
+
+    public int getNormalCount() {
+        return normals ? vertexCount : 0;
+    }
+
+    // Проходит по всем группам граней, но ничего не вычисляет, кроме дыр и смеси
+    public int getPolygonCount() {
+        long units = unitCount();
+        long count = 0;
+        for (long unit = 0; unit < units; unit++) {
+            count += facesInUnit(unit);
+        }
+        if (count > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many polygons: " + count);
+        }
+        return (int) count;
+    }
+
+    // Выдаёт элементы в порядке v, vt, vn, f. Индексы граней отсчитываются от 0
+    public void generate(ObjVisitor visitor) {
+        FeistelPermutation vertexOrder = indexPattern == IndexPattern.SHUFFLED
+                ? new FeistelPermutation(vertexCount, seed ^ STREAM_VERTEX_ORDER) : null;
+        float[] point = new float[3];
+        float[] neighbourA = new float[3];
+        float[] neighbourB = new float[3];
+
+        for (int i = 0; i < vertexCount; i++) {
+            position(original(vertexOrder, i), point);
+            visitor.onVertex(point[0], point[1], point[2]);
+        }
+        if (textures) {
+            for (int i = 0; i < vertexCount; i++) {
+                int vertex = original(vertexOrder, i);
+                int local = vertex % ((resolution + 1) * (resolution + 1));
+                visitor.onTexCoord((float) (local / (resolution + 1)) / resolution,
+                        (float) (local % (resolution + 1)) / resolution);
+            }
+        }
+        if (normals) {
+            for (int i = 0; i < vertexCount; i++) {
+                normal(original(vertexOrder, i), point, neighbourA, neighbourB);
+                visitor.onNormal(point[0], point[1], point[2]);
+            }
+        }
+
+        long units = unitCount();
+        FeistelPermutation faceOrder = indexPattern == IndexPattern.SEQUENTIAL
+                ? null : new FeistelPermutation(units, seed ^ STREAM_FACE_ORDER);
+        int maxCorners = Math.max(4, 2 * (cellsPerUnit() + 1));
+        int[] corners = new int[maxCorners];
+        int[] v = new int[maxCorners];
+        int[] vt = textures ? new int[maxCorners] : null;
+        int[] vn = normals ? new int[maxCorners] : null;
+        for (long k = 0; k < units; k++) {
+            long unit = faceOrder == null ? k : faceOrder.apply(k);
+            int faces = facesInUnit(unit);
+            for (int face = 0; face < faces; face++) {
+                int count = unitFace(unit, face, corners);
+                for (int j = 0; j < count; j++) {
+                    int index = vertexOrder == null ? corners[j] : (int) vertexOrder.apply(corners[j]);
+                    v[j] = index;
+                    if (vt != null) {
+                        vt[j] = index;
+                    }
+                    if (vn != null) {
+                        vn[j] = index;
+                    }
+                }
+                visitor.onFace(v, vt, vn, count);
+            }
+        }
+    }
+
+    public CompactModel generateCompactModel() {
+        CompactModel model = new CompactModel();
+        generate(new ObjVisitor() {
+            @Override
+            public void onVertex(float x, float y, float z) {
+                model.addVertex(x, y, z);
+            }
+
+            @Override
+            public void onTexCoord(float u, float v) {
+                model.addTextureVertex(u, v);
+            }
+
+            @Override
+            public void onNormal(float x, float y, float z) {
+                model.addNormal(x, y, z);
+            }
+
+            @Override
+            public void onFace(int[] v, int[] vt, int[] vn, int count) {
+                model.addPolygon(v, vt, vn, count);
+            }
+        });
+        model.trimToSize();
+        return model;
+    }
+
+    public Model generateModel() {
+        return generateCompactModel().toModel();
+    }
+
+    // Пишет OBJ прямо в файл (через ObjStreamWriter с заранее известными числами элементов),
+    // память не зависит от размера сетки
+    public void write(String filename) throws IOException {
+        ObjStreamWriter writer = new ObjStreamWriter(filename, vertexCount, getTextureVertexCount(),
+                getNormalCount(), getPolygonCount());
+        try {
+            generate(new ObjVisitor() {
+                @Override
+                public void onVertex(float x, float y, float z) {
+                    try {
+                        writer.vertex(x, y, z);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+
+                @Override
+                public void onTexCoord(float u, float v) {
+                    try {
+                        writer.texCoord(u, v);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+
+                @Override
+                public void onNormal(float x, float y, float z) {
+                    try {
+                        writer.normal(x, y, z);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+
+                @Override
+                public void onFace(int[] v, int[] vt, int[] vn, int count) {
+                    try {
+                        writer.face(v, vt, vn, count);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            });
+        } catch (UncheckedIOException e) {
+            abort(writer, e.getCause());
+            throw e.getCause();
+        } catch (RuntimeException | Error e) {
+            abort(writer, e);
+            throw e;
+        }
+        writer.close();
+    }
+
+    private static void abort(ObjStreamWriter writer, Throwable failure) {
+        try {
+            writer.abort();
+        } catch (IOException suppressed) {
+            failure.addSuppressed(suppressed);
+        }
+    }
+
+    private static int original(FeistelPermutation order, int index) {
+        return order == null ? index : (int) order.inverse(index);
+    }
+
+    // Группа граней - ячейка (для 3, 4 и смеси) или полоса ячеек вдоль строки участка
+
+    private int cellsPerUnit() {
+        return faceArity <= 4 ? 1 : (faceArity - 2) / 2;
+    }
+
+    private long unitsPerRow() {
+        return (resolution + cellsPerUnit() - 1) / cellsPerUnit();
+    }
+
+    private long unitCount() {
+        return (long) patches * resolution * unitsPerRow();
+    }
+
+    private int facesInUnit(long unit) {
+        if (holeRate > 0 && random(STREAM_HOLE, unit) < holeRate) {
+            return 0;
+        }
+        return isTrianglePair(unit) ? 2 : 1;
+    }
+
+    private boolean isTrianglePair(long unit) {
+        return faceArity == 3 || (faceArity == MIXED_ARITY && random(STREAM_ARITY, unit) < 0.5);
+    }
+
+    // Записывает в corners исходные номера вершин грани face группы unit, возвращает их число
+    private int unitFace(long unit, int face, int[] corners) {
+        long unitsPerPatch = resolution * unitsPerRow();
+        int patch = (int) (unit / unitsPerPatch);
+        long inPatch = unit % unitsPerPatch;
+        int row = (int) (inPatch / unitsPerRow());
+        int column = (int) (inPatch % unitsPerRow()) * cellsPerUnit();
+        int cells = Math.min(cellsPerUnit(), resolution - column);
+
+        int base = patch * (resolution + 1) * (resolution + 1);
+        int a = base + row * (resolution + 1) + column;
+        int b = a + resolution + 1;
+        if (isTrianglePair(unit)) {
+            corners[0] = a;
+            corners[1] = face == 0 ? b : b + 1;
+            corners[2] = face == 0 ? b + 1 : a + 1;
+            return 3;
+        }
+        // Полоса: угол a, край строки row + 1 вперёд, затем край строки row обратно
+        int count = 0;
+        corners[count++] = a;
+        for (int j = 0; j <= cells; j++) {
+            corners[count++] = b + j;
+        }
+        for (int j = cells; j >= 1; j--) {
+            corners[count++] = a + j;
+        }
+        return count;
+    }
+
+    private void position(int vertex, float[] out) {
+        int perPatch = (resolution + 1) * (resolution + 1);
+        int patch = vertex / perPatch;
+        int i = (vertex % perPatch) / (resolution + 1);
+        int j = vertex % (resolution + 1);
+
+        if (shape == Shape.SPHERE) {
+            float[] axes = CUBE_FACES[patch];
+            double u = -1 + 2.0 * i / resolution;
+            double w = -1 + 2.0 * j / resolution;
+            double x = axes[0] + u * axes[3] + w * axes[6];
+            double y = axes[1] + u * axes[4] + w * axes[7];
+            double z = axes[2] + u * axes[5] + w * axes[8];
+            double radius = 1 + (noise > 0 ? noise * (2.0 / resolution) * (2 * random(STREAM_Z, vertex) - 1) : 0);
+            double scale = radius / Math.sqrt(x * x + y * y + z * z);
+            out[0] = (float) (x * scale);
+            out[1] = (float) (y * scale);
+            out[2] = (float) (z * scale);
+            return;
+        }
+
+        double x = i;
+        double y = j;
+        double z = height(x, y);
+        if (noise > 0) {
+            x += noise * (2 * random(STREAM_X, vertex) - 1);
+            y += noise * (2 * random(STREAM_Y, vertex) - 1);
+            z += noise * (2 * random(STREAM_Z, vertex) - 1);
+        }
+        out[0] = (float) x;
+        out[1] = (float) y;
+        out[2] = (float) z;
+    }
+
+    // a и b - рабочие массивы вызывающего для соседних вершин
+    private void normal(int vertex, float[] out, float[] a, float[] b) {
+        if (shape == Shape.SPHERE) {
+            position(vertex, out);
+            normalize(out[0], out[1], out[2], out);
+            return;
+        }
+        if (shape == Shape.GRID) {
+            int i = vertex / (resolution + 1);
+            int j = vertex % (resolution + 1);
+            double dx = 0.025 * Math.cos(i * 0.1) * Math.cos(j * 0.13);
+            double dy = -0.0325 * Math.sin(i * 0.1) * Math.sin(j * 0.13);
+            normalize(-dx, -dy, 1, out);
+            return;
+        }
+
+        // Скан: нормаль по соседним (зашумлённым) вершинам, как её посчитал бы сканер
+        int i = vertex / (resolution + 1);
+        int j = vertex % (resolution + 1);
+        position(vertex - (i > 0 ? resolution + 1 : 0), a);
+        position(vertex + (i < resolution ? resolution + 1 : 0), b);
+        double ux = b[0] - a[0];
+        double uy = b[1] - a[1];
+        double uz = b[2] - a[2];
+        position(vertex - (j > 0 ? 1 : 0), a);
+        position(vertex + (j < resolution ? 1 : 0), b);
+        double vx = b[0] - a[0];
+        double vy = b[1] - a[1];
+        double vz = b[2] - a[2];
+        normalize(uy * vz - uz * vy, uz * vx - ux * vz, ux * vy - uy * vx, out);
+    }
+
+    private static double height(double x, double y) {
+        return 0.25 * Math.sin(x * 0.1) * Math.cos(y * 0.13);
+    }
+
+    private static void normalize(double x, double y, double z, float[] out) {
+        double length = Math.sqrt(x * x + y * y + z * z);
+        out[0] = (float) (x / length);
+        out[1] = (float) (y / length);
+        out[2] = (float) (z / length);
+    }
+
+    // Равномерное число из [0, 1), зависящее только от seed, потока и номера
+    private double random(long stream, long index) {
+        return (mix(seed ^ mix(stream * 0xD1B54A32D192ED03L + index)) >>> 11) * 0x1.0p-53;
+    }
+
+    // Финальное перемешивание splitmix64
+    static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+}
@@ -0,0 +1,36 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.io;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+// Общий пул буферов одного размера для чтения и записи файлов подряд: при пакетной обработке тысяч файлов
+// буфер не выделяется заново на каждый файл. Пул хранит не больше capacity свободных буферов,
+// лишние возвращённые достаются GC, поэтому память пула не растёт с числом потоков.
+// Когда свободных нет, borrow() выделяет новый буфер и не ждёт.
+// Пакет io - служебные помощники ввода-вывода, общие для objreader и objwriter
+public final class BufferPool {
+
+    private final int bufferSize;
+    private final BlockingQueue<byte[]> free;
+
+    public BufferPool(int bufferSize, int capacity) {
+        if (bufferSize < 1 || capacity < 1) {
+            throw new IllegalArgumentException("Buffer size and capacity must be positive: " + bufferSize
+                    + ", " + capacity);
+        }
+        this.bufferSize = bufferSize;
+        this.free = new ArrayBlockingQueue<>(capacity);
+    }
+
+    public byte[] borrow() {
+        byte[] buffer = free.poll();
+        return buffer != null ? buffer : new byte[bufferSize];
+    }
+
+    // Буфер не должен использоваться после возврата
+    public void release(byte[] buffer) {
+        if (buffer.length == bufferSize) {
+            free.offer(buffer);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.math;
+
+import java.util.List;
+
+// Ненормированная нормаль полигона по формуле Ньюэлла: её длина равна удвоенной площади полигона,
+// нулевой вектор - у вырожденного полигона. Результат пишется в normal[0..2].
+// Координаты приводятся к double до вычитания, поэтому результат одинаков при любом источнике вершин
+public final class PolygonNormals {
+
+    private PolygonNormals() {
+    }
+
+    // Вершины полигона - vertexIndices[start..start + count), координаты в positions по 3 на вершину
+    public static void newell(float[] positions, int[] vertexIndices, int start, int count, double[] normal) {
+        normal[0] = 0;
+        normal[1] = 0;
+        normal[2] = 0;
+        for (int j = 0; j < count; j++) {
+            int a = 3 * vertexIndices[start + j];
+            int b = 3 * vertexIndices[start + (j + 1 == count ? 0 : j + 1)];
+            accumulate(normal, positions[a], positions[a + 1], positions[a + 2],
+                    positions[b], positions[b + 1], positions[b + 2]);
+        }
+    }
+
+    // То же для вершин Model; null среди вершин полигона не допускается
+    public static void newell(List<Vector3f> vertices, int[] vertexIndices, int start, int count, double[] normal) {
+        normal[0] = 0;
+        normal[1] = 0;
+        normal[2] = 0;
+        for (int j = 0; j < count; j++) {
+            Vector3f a = vertices.get(vertexIndices[start + j]);
+            Vector3f b = vertices.get(vertexIndices[start + (j + 1 == count ? 0 : j + 1)]);
+            accumulate(normal, a.x, a.y, a.z, b.x, b.y, b.z);
+        }
+    }
+
+    private static void accumulate(double[] normal, double ax, double ay, double az, double bx, double by, double bz) {
+        normal[0] += (ay - by) * (az + bz);
+        normal[1] += (az - bz) * (ax + bx);
+        normal[2] += (ax - bx) * (ay + by);
+    }
+}
@@ -0,0 +1,189 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.metrics;
+
+import ru.vsu.cs.khalibekov_a_b_objWriter.metrics.ObjOperationStats.LineType;
+import ru.vsu.cs.khalibekov_a_b_objWriter.metrics.ObjOperationStats.Operation;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+// Накопитель метрик: суммирует итоги всех операций, которым передан как listener.
+// Суммы доступны через JMX (registerMBean). Событие JFR пишет сама операция с метриками
+// (ObjOperationRecorder) при любом listener, если идёт запись JFR с включённым событием.
+// Один объект можно передавать в операции из разных потоков.
+public class ObjMetrics implements ObjMetricsListener, ObjMetricsMXBean {
+
+    private final LongAdder reads = new LongAdder();
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final LongAdder[] lines = new LongAdder[LineType.values().length];
+    private final LongAdder readNanos = new LongAdder();
+    private final LongAdder writeNanos = new LongAdder();
+    private final LongAdder ioNanos = new LongAdder();
+    private final LongAdder parseNanos = new LongAdder();
+    private final LongAdder validationNanos = new LongAdder();
+    private final LongAdder formatNanos = new LongAdder();
+    private final LongAdder allocatedBytes = new LongAdder();
+
+    private ObjectName objectName;
+
+    public ObjMetrics() {
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = new LongAdder();
+        }
+    }
+
+    @Override
+    public void onFinished(ObjOperationStats stats) {
+        boolean read = stats.getOperation() == Operation.READ;
+        (read ? reads : writes).increment();
+        (read ? bytesRead : bytesWritten).add(stats.getBytes());
+        (read ? readNanos : writeNanos).add(stats.getTotalNanos());
+        if (!stats.isSucceeded()) {
+            failures.increment();
+        }
+        for (LineType type : LineType.values()) {
+            lines[type.ordinal()].add(stats.getLineCount(type));
+        }
+        ioNanos.add(stats.getIoNanos());
+        parseNanos.add(stats.getParseNanos());
+        validationNanos.add(stats.getValidationNanos());
+        formatNanos.add(stats.getFormatNanos());
+        if (stats.getAllocatedBytes() > 0) {
+            allocatedBytes.add(stats.getAllocatedBytes());
+        }
+    }
+
+    // Регистрирует объект в платформенном MBeanServer как
+    // ru.vsu.cs.khalibekov_a_b_objWriter:type=ObjMetrics,name=<name>
+    public synchronized ObjectName registerMBean(String name) throws JMException {
+        if (objectName != null) {
+            throw new IllegalStateException("Already registered as " + objectName);
+        }
+        ObjectName candidate = new ObjectName("ru.vsu.cs.khalibekov_a_b_objWriter:type=ObjMetrics,name="
+                + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, candidate);
+        objectName = candidate;
+        return candidate;
+    }
+
+    public synchronized void unregisterMBean() throws JMException {
+        if (objectName != null) {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.unregisterMBean(objectName);
+            objectName = null;
+        }
+    }
+
+    @Override
+    public long getReadCount() {
+        return reads.sum();
+    }
+
+    @Override
+    public long getWriteCount() {
+        return writes.sum();
+    }
+
+    @Override
+    public long getFailureCount() {
+        return failures.sum();
+    }
+
+    @Override
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    @Override
+    public long getVertexLines() {
+        return lines[LineType.VERTEX.ordinal()].sum();
+    }
+
+    @Override
+    public long getTextureLines() {
+        return lines[LineType.TEXTURE.ordinal()].sum();
+    }
+
+    @Override
+    public long getNormalLines() {
+        return lines[LineType.NORMAL.ordinal()].sum();
+    }
+
+    @Override
+    public long getFaceLines() {
+        return lines[LineType.FACE.ordinal()].sum();
+    }
+
+    @Override
+    public long getOtherLines() {
+        return lines[LineType.OTHER.ordinal()].sum();
+    }
+
+    @Override
+    public long getReadNanos() {
+        return readNanos.sum();
+    }
+
+    @Override
+    public long getWriteNanos() {
+        return writeNanos.sum();
+    }
+
+    @Override
+    public long getIoNanos() {
+        return ioNanos.sum();
+    }
+
+    @Override
+    public long getParseNanos() {
+        return parseNanos.sum();
+    }
+
+    @Override
+    public long getValidationNanos() {
+        return validationNanos.sum();
+    }
+
+    @Override
+    public long getFormatNanos() {
+        return formatNanos.sum();
+    }
+
+    @Override
+    public long getAllocatedBytes() {
+        return allocatedBytes.sum();
+    }
+
+    @Override
+    public double getReadThroughput() {
+        long nanos = readNanos.sum();
+        return nanos > 0 ? bytesRead.sum() * 1e9 / nanos : 0;
+    }
+
+    @Override
+    public double getWriteThroughput() {
+        long nanos = writeNanos.sum();
+        return nanos > 0 ? bytesWritten.sum() * 1e9 / nanos : 0;
+    }
+
+    @Override
+    public void reset() {
+        for (LongAdder adder : new LongAdder[]{reads, writes, failures, bytesRead, bytesWritten, readNanos,
+                writeNanos, ioNanos, parseNanos, validationNanos, formatNanos, allocatedBytes}) {
+            adder.reset();
+        }
+        for (LongAdder adder : lines) {
+            adder.reset();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.metrics;
+
+// Получатель метрик чтения и записи OBJ - передаётся в ObjReader.read(path, listener)
+// и ObjWriter.saveModel(model, filename, listener). Методы вызываются в потоке операции.
+// Без listener (null) метрики не собираются и чтение с записью идут прежним путём.
+// Метрики есть только у однопоточных путей с listener. Чтение через отображение в память (readMapped)
+// и параллельные чтение и запись (readParallel, saveModelParallel и т. п.) не инструментированы:
+// их работа идёт в нескольких потоках, а счётчики ObjOperationRecorder - в потоке операции.
+public interface ObjMetricsListener {
+
+    // Шаг вызовов onProgress: байты при чтении, элементы (строки v, vt, vn, f) при записи.
+    // 0 - прогресс не нужен
+    default long progressInterval() {
+        return 0;
+    }
+
+    // total - размер файла или число элементов, -1 если неизвестен
+    default void onProgress(ObjOperationStats.Operation operation, String source, long done, long total) {
+    }
+
+    // Вызывается после каждого куска операции: прочитанного буфера при чтении, записанного блока элементов
+    // при записи - независимо от progressInterval. Исключение отсюда прерывает операцию
+    // (прерванная запись удаляет свой временный файл)
+    default void onChunk(ObjOperationStats.Operation operation, String source) {
+    }
+
+    // Вызывается и при успехе, и при ошибке операции
+    default void onFinished(ObjOperationStats stats) {
+    }
+}
@@ -0,0 +1,46 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.metrics;
+
+// Накопленные метрики ObjMetrics для JMX (jconsole, VisualVM, экспортёры метрик)
+public interface ObjMetricsMXBean {
+
+    long getReadCount();
+
+    long getWriteCount();
+
+    long getFailureCount();
+
+    long getBytesRead();
+
+    long getBytesWritten();
+
+    long getVertexLines();
+
+    long getTextureLines();
+
+    long getNormalLines();
+
+    long getFaceLines();
+
+    long getOtherLines();
+
+    long getReadNanos();
+
+    long getWriteNanos();
+
+    long getIoNanos();
+
+    long getParseNanos();
+
+    long getValidationNanos();
+
+    long getFormatNanos();
+
+    long getAllocatedBytes();
+
+    // Байты в секунду по всем чтениям / записям
+    double getReadThroughput();
+
+    double getWriteThroughput();
+
+    void reset();
+}
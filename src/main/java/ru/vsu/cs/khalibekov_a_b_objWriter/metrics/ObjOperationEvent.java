@@ -0,0 +1,62 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+// Событие JFR на каждую операцию с метриками (ObjReader / ObjWriter с listener); начало и конец события -
+// начало и конец операции
+@Name("ru.vsu.cs.khalibekov_a_b_objWriter.ObjOperation")
+@Label("OBJ Operation")
+@Category("OBJ")
+@Description("Read or write of an OBJ file")
+@StackTrace(false)
+final class ObjOperationEvent extends jdk.jfr.Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Source")
+    String source;
+
+    @Label("Succeeded")
+    boolean succeeded;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    @Label("Lines")
+    long lines;
+
+    @Label("Face Lines")
+    long faceLines;
+
+    @Label("Total Time")
+    @Timespan
+    long totalTime;
+
+    @Label("I/O Time")
+    @Timespan
+    long ioTime;
+
+    @Label("Parse Time")
+    @Timespan
+    long parseTime;
+
+    @Label("Validation Time")
+    @Timespan
+    long validationTime;
+
+    @Label("Format Time")
+    @Timespan
+    long formatTime;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocated;
+}
@@ -0,0 +1,244 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.metrics;
+
+import ru.vsu.cs.khalibekov_a_b_objWriter.metrics.ObjOperationStats.LineType;
+import ru.vsu.cs.khalibekov_a_b_objWriter.metrics.ObjOperationStats.Operation;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.function.LongSupplier;
+
+// Сбор метрик одной операции для ObjReader и ObjWriter. Не потокобезопасен: всё, что он считает,
+// происходит в потоке операции. Для отключённых метрик объект не создаётся (start возвращает null).
+// Событие JFR начинается при создании и записывается в finish, так что его время охватывает всю операцию.
+public final class ObjOperationRecorder {
+
+    @FunctionalInterface
+    public interface Body {
+        void run() throws IOException;
+    }
+
+    private static final com.sun.management.ThreadMXBean ALLOCATIONS = allocationCounter();
+
+    private final ObjMetricsListener listener;
+    private final Operation operation;
+    private final String source;
+    private final long total;
+    private final long interval;
+    private final long startNanos;
+    private final long startAllocated;
+    private final ObjOperationEvent event;
+
+    private final long[] lines = new long[LineType.values().length];
+    private long bytes;
+    private long ioNanos;
+    private long validationNanos;
+    private long progress;
+    private long nextProgress;
+
+    private ObjOperationRecorder(ObjMetricsListener listener, Operation operation, String source, long total) {
+        this.listener = listener;
+        this.operation = operation;
+        this.source = source;
+        this.total = total;
+        this.interval = Math.max(listener.progressInterval(), 0);
+        this.nextProgress = interval > 0 ? interval : Long.MAX_VALUE;
+        this.startAllocated = allocatedBytes();
+        ObjOperationEvent event = new ObjOperationEvent();
+        if (event.isEnabled()) {
+            event.begin();
+            this.event = event;
+        } else {
+            this.event = null;
+        }
+        this.startNanos = System.nanoTime();
+    }
+
+    // total - размер файла для чтения или число элементов для записи, -1 если неизвестен
+    public static ObjOperationRecorder start(ObjMetricsListener listener, Operation operation, String source, long total) {
+        return listener == null ? null : new ObjOperationRecorder(listener, operation, source, total);
+    }
+
+    // Выполняет body и сообщает итог listener. При recorder == null просто выполняет body
+    public static void run(ObjOperationRecorder recorder, Body body) throws IOException {
+        if (recorder == null) {
+            body.run();
+            return;
+        }
+        Throwable failure = null;
+        try {
+            body.run();
+        } catch (IOException | RuntimeException | Error e) {
+            failure = e;
+            throw e;
+        } finally {
+            recorder.finish(failure);
+        }
+    }
+
+    // Канал, считающий прочитанные байты и время в read(). Прогресс чтения идёт по байтам
+    public ReadableByteChannel wrapInput(ReadableByteChannel channel) {
+        return new ReadableByteChannel() {
+            @Override
+            public int read(ByteBuffer target) throws IOException {
+                long start = System.nanoTime();
+                int read = channel.read(target);
+                ioNanos += System.nanoTime() - start;
+                if (read > 0) {
+                    bytes += read;
+                    advance(read);
+                    listener.onChunk(operation, source);
+                }
+                return read;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return channel.isOpen();
+            }
+
+            @Override
+            public void close() throws IOException {
+                channel.close();
+            }
+        };
+    }
+
+    // То же для канала, который сам читает источник в другом потоке (распаковка gzip): байты и прогресс
+    // берутся из sourcePosition - сколько байт источника уже прочитано, - но считаются и сообщаются
+    // в потоке операции, при каждом read(). Время в read() - ожидание данных, то есть чтение с распаковкой
+    public ReadableByteChannel wrapInput(ReadableByteChannel channel, LongSupplier sourcePosition) {
+        return new ReadableByteChannel() {
+            @Override
+            public int read(ByteBuffer target) throws IOException {
+                long start = System.nanoTime();
+                int read = channel.read(target);
+                ioNanos += System.nanoTime() - start;
+                long consumed = sourcePosition.getAsLong() - bytes;
+                if (consumed > 0) {
+                    bytes += consumed;
+                    advance(consumed);
+                }
+                if (read > 0) {
+                    listener.onChunk(operation, source);
+                }
+                return read;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return channel.isOpen();
+            }
+
+            @Override
+            public void close() throws IOException {
+                channel.close();
+            }
+        };
+    }
+
+    // Канал, считающий записанные байты и время в write()
+    public WritableByteChannel wrapOutput(WritableByteChannel channel) {
+        return new WritableByteChannel() {
+            @Override
+            public int write(ByteBuffer source) throws IOException {
+                long start = System.nanoTime();
+                int written = channel.write(source);
+                ioNanos += System.nanoTime() - start;
+                bytes += written;
+                return written;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return channel.isOpen();
+            }
+
+            @Override
+            public void close() throws IOException {
+                channel.close();
+            }
+        };
+    }
+
+    public void addLines(LineType type, long count) {
+        lines[type.ordinal()] += count;
+    }
+
+    // Записанные строки; для записи они же двигают прогресс
+    public void addWritten(LineType type, long count) {
+        addLines(type, count);
+        advance(count);
+        listener.onChunk(operation, source);
+    }
+
+    public void addValidationNanos(long nanos) {
+        validationNanos += nanos;
+    }
+
+    // Сколько элементов записать до следующего вызова onProgress, но не больше max: запись с метриками
+    // идёт блоками, и блок не должен перешагнуть шаг прогресса
+    public int nextBlock(int max) {
+        return (int) Math.min(max, nextProgress - progress);
+    }
+
+    private void advance(long amount) {
+        progress += amount;
+        if (progress >= nextProgress) {
+            nextProgress = (progress / interval + 1) * interval;
+            listener.onProgress(operation, source, progress, total);
+        }
+    }
+
+    private void finish(Throwable failure) {
+        long totalNanos = System.nanoTime() - startNanos;
+        long allocated = startAllocated < 0 ? -1 : allocatedBytes() - startAllocated;
+        ObjOperationStats stats = new ObjOperationStats(operation, source, bytes, lines.clone(), totalNanos,
+                ioNanos, validationNanos, allocated, failure);
+        commitEvent(stats);
+        try {
+            listener.onFinished(stats);
+        } catch (RuntimeException e) {
+            // Ошибка получателя не должна скрыть ошибку самой операции
+            if (failure == null) {
+                throw e;
+            }
+            failure.addSuppressed(e);
+        }
+    }
+
+    private void commitEvent(ObjOperationStats stats) {
+        if (event == null || !event.shouldCommit()) {
+            return;
+        }
+        event.operation = stats.getOperation().name();
+        event.source = stats.getSource();
+        event.succeeded = stats.isSucceeded();
+        event.bytes = stats.getBytes();
+        event.lines = stats.getTotalLineCount();
+        event.faceLines = stats.getLineCount(LineType.FACE);
+        event.totalTime = stats.getTotalNanos();
+        event.ioTime = stats.getIoNanos();
+        event.parseTime = stats.getParseNanos();
+        event.validationTime = stats.getValidationNanos();
+        event.formatTime = stats.getFormatNanos();
+        event.allocated = stats.getAllocatedBytes();
+        event.commit();
+    }
+
+    private static long allocatedBytes() {
+        return ALLOCATIONS == null ? -1 : ALLOCATIONS.getCurrentThreadAllocatedBytes();
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean counter
+                && counter.isThreadAllocatedMemorySupported() && counter.isThreadAllocatedMemoryEnabled()) {
+            return counter;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,118 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.metrics;
+
+// Итог одного чтения или записи OBJ. Времена в наносекундах.
+// Время чтения делится на ввод-вывод и разбор (вместе с построением модели),
+// время записи - на проверку полигонов, форматирование текста и ввод-вывод.
+public final class ObjOperationStats {
+
+    public enum Operation {
+        READ,
+        WRITE
+    }
+
+    public enum LineType {
+        VERTEX,
+        TEXTURE,
+        NORMAL,
+        FACE,
+        // Комментарии, пустые и неизвестные строки
+        OTHER
+    }
+
+    private final Operation operation;
+    private final String source;
+    private final long bytes;
+    private final long[] lines;
+    private final long totalNanos;
+    private final long ioNanos;
+    private final long validationNanos;
+    private final long allocatedBytes;
+    private final Throwable failure;
+
+    ObjOperationStats(Operation operation, String source, long bytes, long[] lines, long totalNanos,
+                      long ioNanos, long validationNanos, long allocatedBytes, Throwable failure) {
+        this.operation = operation;
+        this.source = source;
+        this.bytes = bytes;
+        this.lines = lines;
+        this.totalNanos = totalNanos;
+        this.ioNanos = ioNanos;
+        this.validationNanos = validationNanos;
+        this.allocatedBytes = allocatedBytes;
+        this.failure = failure;
+    }
+
+    public Operation getOperation() {
+        return operation;
+    }
+
+    // Путь к файлу или описание канала
+    public String getSource() {
+        return source;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getLineCount(LineType type) {
+        return lines[type.ordinal()];
+    }
+
+    public long getTotalLineCount() {
+        long total = 0;
+        for (long count : lines) {
+            total += count;
+        }
+        return total;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public long getIoNanos() {
+        return ioNanos;
+    }
+
+    public long getParseNanos() {
+        return operation == Operation.READ ? Math.max(totalNanos - ioNanos, 0) : 0;
+    }
+
+    public long getValidationNanos() {
+        return validationNanos;
+    }
+
+    public long getFormatNanos() {
+        return operation == Operation.WRITE ? Math.max(totalNanos - ioNanos - validationNanos, 0) : 0;
+    }
+
+    // Байты, выделенные в куче потоком операции, или -1, если JVM этого не умеет
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    // Байты в секунду за всё время операции
+    public double getThroughput() {
+        return totalNanos > 0 ? bytes * 1e9 / totalNanos : 0;
+    }
+
+    public boolean isSucceeded() {
+        return failure == null;
+    }
+
+    // Исключение, которым закончилась операция, или null
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %s: %d bytes, %d lines (v %d, vt %d, vn %d, f %d, other %d), %.3f ms "
+                        + "(io %.3f, parse %.3f, validation %.3f, format %.3f), %.1f MB/s, allocated %d bytes%s",
+                operation, source, bytes, getTotalLineCount(),
+                lines[0], lines[1], lines[2], lines[3], lines[4],
+                totalNanos / 1e6, ioNanos / 1e6, getParseNanos() / 1e6, validationNanos / 1e6, getFormatNanos() / 1e6,
+                getThroughput() / (1 << 20), allocatedBytes, failure == null ? "" : ", failed: " + failure);
+    }
+}
@@ -0,0 +1,357 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.model;
+
+import ru.vsu.cs.khalibekov_a_b_objWriter.math.Vector2f;
+import ru.vsu.cs.khalibekov_a_b_objWriter.math.Vector3f;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+// Компактное представление модели на примитивных массивах.
+// Координаты лежат подряд (x, y, z, x, y, z, ...), полигоны хранятся в формате CSR:
+// индексы углов полигона i занимают [polygonOffsets[i], polygonOffsets[i + 1])
+// в массивах vertexIndices, textureVertexIndices и normalIndices.
+// Отсутствующий у угла индекс текстуры или нормали хранится как NO_INDEX.
+public class CompactModel {
+
+    public static final int NO_INDEX = Integer.MIN_VALUE;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private float[] vertices = new float[3 * INITIAL_CAPACITY];
+    private int vertexCount;
+
+    private float[] textureVertices = new float[2 * INITIAL_CAPACITY];
+    private int textureVertexCount;
+
+    private float[] normals = new float[3 * INITIAL_CAPACITY];
+    private int normalCount;
+
+    private int[] polygonOffsets = new int[INITIAL_CAPACITY + 1];
+    private int polygonCount;
+
+    private int[] vertexIndices = new int[3 * INITIAL_CAPACITY];
+    // Создаются при первом полигоне с текстурами / нормалями
+    private int[] textureVertexIndices;
+    private int[] normalIndices;
+    private int indexCount;
+
+    private final ArrayList<String> materialLibraries = new ArrayList<String>();
+    private final ArrayList<PolygonRange> polygonRanges = new ArrayList<PolygonRange>();
+
+    public CompactModel() {
+    }
+
+    // Модель поверх готовых массивов (без копирования). textureVertexIndices и normalIndices
+    // могут быть null, число углов берётся из polygonOffsets[polygonCount]
+    public CompactModel(float[] vertices, int vertexCount,
+                        float[] textureVertices, int textureVertexCount,
+                        float[] normals, int normalCount,
+                        int[] polygonOffsets, int polygonCount,
+                        int[] vertexIndices, int[] textureVertexIndices, int[] normalIndices) {
+        if (vertices.length < 3 * vertexCount || textureVertices.length < 2 * textureVertexCount
+                || normals.length < 3 * normalCount || polygonOffsets.length < polygonCount + 1) {
+            throw new IllegalArgumentException("Array is shorter than the element count");
+        }
+        int indices = polygonOffsets[polygonCount];
+        if (vertexIndices.length < indices
+                || (textureVertexIndices != null && textureVertexIndices.length < indices)
+                || (normalIndices != null && normalIndices.length < indices)) {
+            throw new IllegalArgumentException("Index array is shorter than the polygon offsets require");
+        }
+
+        this.vertices = vertices;
+        this.vertexCount = vertexCount;
+        this.textureVertices = textureVertices;
+        this.textureVertexCount = textureVertexCount;
+        this.normals = normals;
+        this.normalCount = normalCount;
+        this.polygonOffsets = polygonOffsets;
+        this.polygonCount = polygonCount;
+        this.vertexIndices = vertexIndices;
+        this.textureVertexIndices = textureVertexIndices;
+        this.normalIndices = normalIndices;
+        this.indexCount = indices;
+    }
+
+    public void addVertex(float x, float y, float z) {
+        vertices = ensureCapacity(vertices, 3 * (vertexCount + 1));
+        int pos = 3 * vertexCount++;
+        vertices[pos] = x;
+        vertices[pos + 1] = y;
+        vertices[pos + 2] = z;
+    }
+
+    public void addTextureVertex(float u, float v) {
+        textureVertices = ensureCapacity(textureVertices, 2 * (textureVertexCount + 1));
+        int pos = 2 * textureVertexCount++;
+        textureVertices[pos] = u;
+        textureVertices[pos + 1] = v;
+    }
+
+    public void addNormal(float x, float y, float z) {
+        normals = ensureCapacity(normals, 3 * (normalCount + 1));
+        int pos = 3 * normalCount++;
+        normals[pos] = x;
+        normals[pos + 1] = y;
+        normals[pos + 2] = z;
+    }
+
+    // polygonTextureIndices и polygonNormalIndices могут быть null, если у полигона их нет
+    public void addPolygon(int[] polygonVertexIndices, int[] polygonTextureIndices, int[] polygonNormalIndices, int count) {
+        int newIndexCount = indexCount + count;
+        vertexIndices = ensureCapacity(vertexIndices, newIndexCount);
+        System.arraycopy(polygonVertexIndices, 0, vertexIndices, indexCount, count);
+
+        if (polygonTextureIndices != null || textureVertexIndices != null) {
+            textureVertexIndices = ensureIndexCapacity(textureVertexIndices, newIndexCount);
+            copyOrFill(polygonTextureIndices, textureVertexIndices, indexCount, count);
+        }
+        if (polygonNormalIndices != null || normalIndices != null) {
+            normalIndices = ensureIndexCapacity(normalIndices, newIndexCount);
+            copyOrFill(polygonNormalIndices, normalIndices, indexCount, count);
+        }
+
+        indexCount = newIndexCount;
+        polygonOffsets = ensureCapacity(polygonOffsets, polygonCount + 2);
+        polygonOffsets[++polygonCount] = indexCount;
+    }
+
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    public int getTextureVertexCount() {
+        return textureVertexCount;
+    }
+
+    public int getNormalCount() {
+        return normalCount;
+    }
+
+    public int getPolygonCount() {
+        return polygonCount;
+    }
+
+    public int getIndexCount() {
+        return indexCount;
+    }
+
+    // Возвращаемые массивы - внутренние буферы модели, их длина может быть больше занятой части
+
+    public float[] getVertexData() {
+        return vertices;
+    }
+
+    public float[] getTextureVertexData() {
+        return textureVertices;
+    }
+
+    public float[] getNormalData() {
+        return normals;
+    }
+
+    public int[] getPolygonOffsets() {
+        return polygonOffsets;
+    }
+
+    public int[] getVertexIndices() {
+        return vertexIndices;
+    }
+
+    // null, если ни у одного полигона нет текстурных координат
+    public int[] getTextureVertexIndices() {
+        return textureVertexIndices;
+    }
+
+    // null, если ни у одного полигона нет нормалей
+    public int[] getNormalIndices() {
+        return normalIndices;
+    }
+
+    // Файлы материалов из строк mtllib. Список изменяемый
+    public ArrayList<String> getMaterialLibraries() {
+        return materialLibraries;
+    }
+
+    // Объекты, группы и материалы полигонов, как Model.polygonRanges. Список изменяемый
+    public ArrayList<PolygonRange> getPolygonRanges() {
+        return polygonRanges;
+    }
+
+    // Материалы и диапазоны полигонов другой модели с тем же порядком полигонов
+    // (после склейки вершин, пересчёта нормалей и т. п.)
+    public void copyGroupsFrom(CompactModel source) {
+        materialLibraries.clear();
+        materialLibraries.addAll(source.materialLibraries);
+        polygonRanges.clear();
+        polygonRanges.addAll(source.polygonRanges);
+    }
+
+    public int getPolygonSize(int polygonIndex) {
+        return polygonOffsets[polygonIndex + 1] - polygonOffsets[polygonIndex];
+    }
+
+    public void trimToSize() {
+        vertices = Arrays.copyOf(vertices, 3 * vertexCount);
+        textureVertices = Arrays.copyOf(textureVertices, 2 * textureVertexCount);
+        normals = Arrays.copyOf(normals, 3 * normalCount);
+        polygonOffsets = Arrays.copyOf(polygonOffsets, polygonCount + 1);
+        vertexIndices = Arrays.copyOf(vertexIndices, indexCount);
+        if (textureVertexIndices != null) {
+            textureVertexIndices = Arrays.copyOf(textureVertexIndices, indexCount);
+        }
+        if (normalIndices != null) {
+            normalIndices = Arrays.copyOf(normalIndices, indexCount);
+        }
+    }
+
+    public static CompactModel fromModel(Model model) {
+        CompactModel result = new CompactModel();
+        result.vertices = new float[3 * Math.max(model.vertices.size(), 1)];
+        for (Vector3f v : model.vertices) {
+            result.addVertex(v.x, v.y, v.z);
+        }
+        result.textureVertices = new float[2 * Math.max(model.textureVertices.size(), 1)];
+        for (Vector2f uv : model.textureVertices) {
+            result.addTextureVertex(uv.x, uv.y);
+        }
+        result.normals = new float[3 * Math.max(model.normals.size(), 1)];
+        for (Vector3f n : model.normals) {
+            result.addNormal(n.x, n.y, n.z);
+        }
+
+        int[] polygonVertexIndices = new int[INITIAL_CAPACITY];
+        int[] polygonTextureIndices = new int[INITIAL_CAPACITY];
+        int[] polygonNormalIndices = new int[INITIAL_CAPACITY];
+        for (int i = 0; i < model.polygons.size(); i++) {
+            Polygon polygon = model.polygons.get(i);
+            if (polygon == null || polygon.getVertexIndices() == null) {
+                throw new IllegalArgumentException("Polygon " + i + " is invalid");
+            }
+
+            ArrayList<Integer> vIndices = polygon.getVertexIndices();
+            ArrayList<Integer> tIndices = polygon.getTextureVertexIndices();
+            ArrayList<Integer> nIndices = polygon.getNormalIndices();
+            int count = vIndices.size();
+            if ((tIndices != null && tIndices.size() > count) || (nIndices != null && nIndices.size() > count)) {
+                throw new IllegalArgumentException("Polygon " + i + " has more texture or normal indices than vertices");
+            }
+
+            if (polygonVertexIndices.length < count) {
+                polygonVertexIndices = new int[count];
+                polygonTextureIndices = new int[count];
+                polygonNormalIndices = new int[count];
+            }
+            for (int j = 0; j < count; j++) {
+                polygonVertexIndices[j] = vIndices.get(j);
+            }
+            boolean hasTextures = toCornerArray(tIndices, polygonTextureIndices, count);
+            boolean hasNormals = toCornerArray(nIndices, polygonNormalIndices, count);
+            result.addPolygon(polygonVertexIndices,
+                    hasTextures ? polygonTextureIndices : null,
+                    hasNormals ? polygonNormalIndices : null,
+                    count);
+        }
+        result.materialLibraries.addAll(model.materialLibraries);
+        result.polygonRanges.addAll(model.polygonRanges);
+        return result;
+    }
+
+    public Model toModel() {
+        Model result = new Model();
+        result.vertices.ensureCapacity(vertexCount);
+        for (int i = 0; i < vertexCount; i++) {
+            result.vertices.add(new Vector3f(vertices[3 * i], vertices[3 * i + 1], vertices[3 * i + 2]));
+        }
+        result.textureVertices.ensureCapacity(textureVertexCount);
+        for (int i = 0; i < textureVertexCount; i++) {
+            result.textureVertices.add(new Vector2f(textureVertices[2 * i], textureVertices[2 * i + 1]));
+        }
+        result.normals.ensureCapacity(normalCount);
+        for (int i = 0; i < normalCount; i++) {
+            result.normals.add(new Vector3f(normals[3 * i], normals[3 * i + 1], normals[3 * i + 2]));
+        }
+
+        result.polygons.ensureCapacity(polygonCount);
+        for (int i = 0; i < polygonCount; i++) {
+            int start = polygonOffsets[i];
+            int end = polygonOffsets[i + 1];
+            ArrayList<Integer> vIndices = new ArrayList<Integer>(end - start);
+            for (int j = start; j < end; j++) {
+                vIndices.add(vertexIndices[j]);
+            }
+
+            Polygon polygon = new Polygon();
+            polygon.setVertexIndices(vIndices);
+            // Грани без индексов оставляют пустые списки Polygon, как ModelBuilder: сеттер предупреждал бы о каждой
+            ArrayList<Integer> tIndices = toIndexList(textureVertexIndices, start, end);
+            if (!tIndices.isEmpty()) {
+                polygon.setTextureVertexIndices(tIndices);
+            }
+            ArrayList<Integer> nIndices = toIndexList(normalIndices, start, end);
+            if (!nIndices.isEmpty()) {
+                polygon.setNormalIndices(nIndices);
+            }
+            result.polygons.add(polygon);
+        }
+        result.materialLibraries.addAll(materialLibraries);
+        result.polygonRanges.addAll(polygonRanges);
+        return result;
+    }
+
+    // Углы без индекса пропускаются - так же, как ObjReader заполняет списки Polygon. indices == null - пустой список
+    private static ArrayList<Integer> toIndexList(int[] indices, int start, int end) {
+        if (indices == null) {
+            return new ArrayList<Integer>(0);
+        }
+        ArrayList<Integer> result = new ArrayList<Integer>(end - start);
+        for (int j = start; j < end; j++) {
+            if (indices[j] != NO_INDEX) {
+                result.add(indices[j]);
+            }
+        }
+        return result;
+    }
+
+    private static boolean toCornerArray(ArrayList<Integer> indices, int[] target, int count) {
+        if (indices == null || indices.isEmpty()) {
+            return false;
+        }
+        for (int j = 0; j < count; j++) {
+            target[j] = j < indices.size() ? indices.get(j) : NO_INDEX;
+        }
+        return true;
+    }
+
+    private static void copyOrFill(int[] source, int[] target, int offset, int count) {
+        if (source == null) {
+            Arrays.fill(target, offset, offset + count, NO_INDEX);
+        } else {
+            System.arraycopy(source, 0, target, offset, count);
+        }
+    }
+
+    // Массив индексов, созданный позже остальных, дополняется NO_INDEX для прежних полигонов
+    private int[] ensureIndexCapacity(int[] indices, int required) {
+        if (indices == null) {
+            int[] created = new int[Math.max(required, vertexIndices.length)];
+            Arrays.fill(created, 0, indexCount, NO_INDEX);
+            return created;
+        }
+        return ensureCapacity(indices, required);
+    }
+
+    private static float[] ensureCapacity(float[] array, int required) {
+        if (array.length >= required) {
+            return array;
+        }
+        return Arrays.copyOf(array, Math.max(required, array.length + (array.length >> 1)));
+    }
+
+    private static int[] ensureCapacity(int[] array, int required) {
+        if (array.length >= required) {
+            return array;
+        }
+        return Arrays.copyOf(array, Math.max(required, array.length + (array.length >> 1)));
+    }
+}
@@ -11,4 +11,13 @@ public class Model {
     public ArrayList<Vector2f> textureVertices = new ArrayList<Vector2f>();
     public ArrayList<Vector3f> normals = new ArrayList<Vector3f>();
     public ArrayList<Polygon> polygons = new ArrayList<Polygon>();
+
+    // Файлы материалов из строк mtllib (по строке на элемент)
+    public ArrayList<String> materialLibraries = new ArrayList<String>();
+    // Объекты, группы и материалы полигонов по порядку (см. PolygonRange). Пустой список -
+    // у полигонов нет ни o, ни g, ни usemtl, ни s. Иначе первый диапазон начинается с полигона 0
+    public ArrayList<PolygonRange> polygonRanges = new ArrayList<PolygonRange>();
+
+    // Правки с последнего сохранения для ObjWriter.saveModelIncremental; null - правки не отслеживаются
+    public ModelChanges changes;
 }
@@ -0,0 +1,122 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.model;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Правки модели с последнего сохранения (для ObjWriter.saveModelIncremental): отмеченные диапазоны
+// элементов каждой секции и раскладка файла, записанного последним. Списки Model открыты,
+// поэтому изменённые элементы отмечает тот, кто их меняет (markVertex и т. п.).
+// При другом числе элементов файл всё равно переписывается целиком, но если элементы сдвинулись
+// при том же числе (удаление и вставка), отмечать нужно весь сдвинутый диапазон.
+public class ModelChanges {
+
+    public enum Section {
+        VERTICES,
+        TEXTURE_VERTICES,
+        NORMALS,
+        POLYGONS
+    }
+
+    // По секции: начало диапазона -> конец (не включая), диапазоны не пересекаются и не соприкасаются
+    private final EnumMap<Section, TreeMap<Integer, Integer>> dirty =
+            new EnumMap<Section, TreeMap<Integer, Integer>>(Section.class);
+    private SavedLayout savedLayout;
+
+    public ModelChanges() {
+        for (Section section : Section.values()) {
+            dirty.put(section, new TreeMap<Integer, Integer>());
+        }
+    }
+
+    public void markVertex(int index) {
+        mark(Section.VERTICES, index, index + 1);
+    }
+
+    public void markVertices(int from, int to) {
+        mark(Section.VERTICES, from, to);
+    }
+
+    public void markTextureVertex(int index) {
+        mark(Section.TEXTURE_VERTICES, index, index + 1);
+    }
+
+    public void markTextureVertices(int from, int to) {
+        mark(Section.TEXTURE_VERTICES, from, to);
+    }
+
+    public void markNormal(int index) {
+        mark(Section.NORMALS, index, index + 1);
+    }
+
+    public void markNormals(int from, int to) {
+        mark(Section.NORMALS, from, to);
+    }
+
+    public void markPolygon(int index) {
+        mark(Section.POLYGONS, index, index + 1);
+    }
+
+    public void markPolygons(int from, int to) {
+        mark(Section.POLYGONS, from, to);
+    }
+
+    // Элементы [from, to) секции изменены; соседние и пересекающиеся диапазоны склеиваются
+    public void mark(Section section, int from, int to) {
+        if (from < 0 || to < from) {
+            throw new IllegalArgumentException("Invalid range [" + from + ", " + to + ")");
+        }
+        if (from == to) {
+            return;
+        }
+        TreeMap<Integer, Integer> ranges = dirty.get(section);
+        Map.Entry<Integer, Integer> before = ranges.floorEntry(from);
+        if (before != null && before.getValue() >= from) {
+            from = before.getKey();
+            to = Math.max(to, before.getValue());
+        }
+        for (Map.Entry<Integer, Integer> next = ranges.ceilingEntry(from);
+             next != null && next.getKey() <= to; next = ranges.ceilingEntry(from)) {
+            to = Math.max(to, next.getValue());
+            ranges.remove(next.getKey());
+        }
+        ranges.put(from, to);
+    }
+
+    // Отмеченные диапазоны по возрастанию: пары from, to
+    public int[] getDirtyRanges(Section section) {
+        TreeMap<Integer, Integer> ranges = dirty.get(section);
+        int[] result = new int[2 * ranges.size()];
+        int i = 0;
+        for (Map.Entry<Integer, Integer> range : ranges.entrySet()) {
+            result[i++] = range.getKey();
+            result[i++] = range.getValue();
+        }
+        return result;
+    }
+
+    public boolean isClean() {
+        for (TreeMap<Integer, Integer> ranges : dirty.values()) {
+            if (!ranges.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Снимает отметки (после сохранения)
+    public void clear() {
+        for (TreeMap<Integer, Integer> ranges : dirty.values()) {
+            ranges.clear();
+        }
+    }
+
+    // Раскладка последнего сохранения; null - файл ещё не записывался или раскладка сброшена
+    public SavedLayout getSavedLayout() {
+        return savedLayout;
+    }
+
+    public void setSavedLayout(SavedLayout savedLayout) {
+        this.savedLayout = savedLayout;
+    }
+}
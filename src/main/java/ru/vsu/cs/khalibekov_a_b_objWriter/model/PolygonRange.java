@@ -0,0 +1,109 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.model;
+
+import java.util.List;
+import java.util.Objects;
+
+// Подряд идущие полигоны с одинаковыми объектом (o), группой (g), материалом (usemtl)
+// и группой сглаживания (s). Диапазон начинается с полигона firstPolygon и длится
+// до начала следующего диапазона модели (или до конца полигонов).
+// Отсутствующее имя - null, выключенное сглаживание - 0.
+public final class PolygonRange {
+
+    private final int firstPolygon;
+    private final String objectName;
+    private final String groupName;
+    private final String materialName;
+    private final int smoothingGroup;
+
+    public PolygonRange(int firstPolygon, String objectName, String groupName, String materialName, int smoothingGroup) {
+        if (firstPolygon < 0) {
+            throw new IllegalArgumentException("First polygon must not be negative: " + firstPolygon);
+        }
+        if (smoothingGroup < 0) {
+            throw new IllegalArgumentException("Smoothing group must not be negative: " + smoothingGroup);
+        }
+        this.firstPolygon = firstPolygon;
+        this.objectName = objectName;
+        this.groupName = groupName;
+        this.materialName = materialName;
+        this.smoothingGroup = smoothingGroup;
+    }
+
+    // Границы диапазонов: диапазон r - полигоны [bounds[r], bounds[r + 1]). Без диапазонов - один на все полигоны.
+    // Диапазоны должны начинаться с полигона 0 и строго возрастать, иначе IllegalArgumentException
+    public static int[] bounds(List<PolygonRange> ranges, int polygonCount) {
+        if (ranges.isEmpty()) {
+            return new int[]{0, polygonCount};
+        }
+        int[] bounds = new int[ranges.size() + 1];
+        for (int r = 0; r < ranges.size(); r++) {
+            PolygonRange range = ranges.get(r);
+            if (range == null) {
+                throw new IllegalArgumentException("Polygon range " + r + " is invalid");
+            }
+            int first = range.getFirstPolygon();
+            boolean valid = r == 0 ? first == 0 : first > bounds[r - 1] && first < polygonCount;
+            if (!valid) {
+                throw new IllegalArgumentException("Polygon range " + r + " starts at polygon " + first
+                        + ": ranges must start at 0 and increase within [0, " + polygonCount + ")");
+            }
+            bounds[r] = first;
+        }
+        bounds[ranges.size()] = polygonCount;
+        return bounds;
+    }
+
+    public int getFirstPolygon() {
+        return firstPolygon;
+    }
+
+    public String getObjectName() {
+        return objectName;
+    }
+
+    // Несколько групп одной строки g записаны через пробел
+    public String getGroupName() {
+        return groupName;
+    }
+
+    public String getMaterialName() {
+        return materialName;
+    }
+
+    public int getSmoothingGroup() {
+        return smoothingGroup;
+    }
+
+    public PolygonRange withFirstPolygon(int polygon) {
+        return polygon == firstPolygon ? this : new PolygonRange(polygon, objectName, groupName, materialName, smoothingGroup);
+    }
+
+    // Совпадают ли все атрибуты, кроме начала
+    public boolean hasSameAttributes(PolygonRange other) {
+        return smoothingGroup == other.smoothingGroup
+                && Objects.equals(objectName, other.objectName)
+                && Objects.equals(groupName, other.groupName)
+                && Objects.equals(materialName, other.materialName);
+    }
+
+    // Без объекта, группы, материала и сглаживания
+    public boolean hasNoAttributes() {
+        return objectName == null && groupName == null && materialName == null && smoothingGroup == 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof PolygonRange other && firstPolygon == other.firstPolygon && hasSameAttributes(other);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(firstPolygon, objectName, groupName, materialName, smoothingGroup);
+    }
+
+    @Override
+    public String toString() {
+        return "PolygonRange{from " + firstPolygon + ", o " + objectName + ", g " + groupName
+                + ", usemtl " + materialName + ", s " + smoothingGroup + "}";
+    }
+}
@@ -0,0 +1,93 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.model;
+
+import java.nio.file.Path;
+import java.util.List;
+
+// Где в OBJ-файле лежат записи каждой секции (ModelChanges.Section) после последнего сохранения.
+// FIXED_WIDTH - строки секции дополнены пробелами до одной ширины, запись i находится вычислением;
+// offsets секции - начала её отрезков (у v, vt, vn один отрезок, у f - по отрезку на диапазон полигонов).
+// INDEXED - файл как у ObjWriter.saveModel, offsets секции - позиции записей 0, stride, 2 * stride, ...
+// и в конце позиция за последней записью.
+// Раскладка годится, только пока размер и время изменения файла совпадают с записанными.
+public final class SavedLayout {
+
+    public enum Mode {
+        FIXED_WIDTH,
+        INDEXED
+    }
+
+    private final Path path;
+    private final long fileSize;
+    private final long modifiedTime;
+    private final Mode mode;
+    private final int stride;
+    private final int[] counts;
+    private final int[] recordWidths;
+    private final long[][] offsets;
+    private final List<String> materialLibraries;
+    private final List<PolygonRange> polygonRanges;
+
+    // counts, recordWidths и offsets - по секциям в порядке ModelChanges.Section; время изменения - в наносекундах
+    public SavedLayout(Path path, long fileSize, long modifiedTime, Mode mode, int stride, int[] counts,
+                       int[] recordWidths, long[][] offsets, List<String> materialLibraries,
+                       List<PolygonRange> polygonRanges) {
+        this.path = path;
+        this.fileSize = fileSize;
+        this.modifiedTime = modifiedTime;
+        this.mode = mode;
+        this.stride = stride;
+        this.counts = counts;
+        this.recordWidths = recordWidths;
+        this.offsets = offsets;
+        this.materialLibraries = List.copyOf(materialLibraries);
+        this.polygonRanges = List.copyOf(polygonRanges);
+    }
+
+    // Та же раскладка после правки файла на месте
+    public SavedLayout withFile(long fileSize, long modifiedTime) {
+        return new SavedLayout(path, fileSize, modifiedTime, mode, stride, counts, recordWidths, offsets,
+                materialLibraries, polygonRanges);
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    public long getModifiedTime() {
+        return modifiedTime;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    // Только для INDEXED
+    public int getStride() {
+        return stride;
+    }
+
+    public int getCount(ModelChanges.Section section) {
+        return counts[section.ordinal()];
+    }
+
+    // Ширина строки вместе с '\n', только для FIXED_WIDTH
+    public int getRecordWidth(ModelChanges.Section section) {
+        return recordWidths[section.ordinal()];
+    }
+
+    public long[] getOffsets(ModelChanges.Section section) {
+        return offsets[section.ordinal()];
+    }
+
+    public List<String> getMaterialLibraries() {
+        return materialLibraries;
+    }
+
+    public List<PolygonRange> getPolygonRanges() {
+        return polygonRanges;
+    }
+}
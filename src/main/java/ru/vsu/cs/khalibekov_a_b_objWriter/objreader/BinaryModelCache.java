@@ -0,0 +1,61 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.objreader;
+
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.CompactModel;
+import ru.vsu.cs.khalibekov_a_b_objWriter.objwriter.BinaryModelWriter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.TimeUnit;
+
+// Кэш разобранных моделей: рядом с model.obj лежит model.obj.bin в бинарном формате.
+// Кэш используется, только если размер и время изменения .obj совпадают с записанными в нём.
+// Бинарный формат не хранит mtllib и диапазоны полигонов, поэтому модели с ними не кэшируются.
+final class BinaryModelCache {
+
+    static final String CACHE_SUFFIX = ".bin";
+
+    private BinaryModelCache() {
+    }
+
+    static Path cachePath(Path objPath) {
+        return objPath.resolveSibling(objPath.getFileName() + CACHE_SUFFIX);
+    }
+
+    static CompactModel readCompact(Path objPath) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(objPath, BasicFileAttributes.class);
+        long size = attributes.size();
+        long modified = attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+        Path cache = cachePath(objPath);
+
+        try {
+            CompactModel cached = BinaryModelReader.readCompactIfFresh(cache, size, modified);
+            if (cached != null) {
+                return cached;
+            }
+        } catch (IOException e) {
+            // Кэша нет, он повреждён или записан другой версией формата - разбираем .obj заново
+        }
+
+        CompactModel model = ObjReader.readCompact(objPath);
+
+        // Файл изменился во время разбора - такой результат не кэшируем
+        BasicFileAttributes after = Files.readAttributes(objPath, BasicFileAttributes.class);
+        boolean hasGroups = !model.getMaterialLibraries().isEmpty() || !model.getPolygonRanges().isEmpty();
+        if (!hasGroups && after.size() == size && after.lastModifiedTime().to(TimeUnit.NANOSECONDS) == modified) {
+            tryWrite(model, cache, size, modified);
+        }
+        return model;
+    }
+
+    // Ошибка записи кэша (например, каталог только для чтения) не мешает чтению модели.
+    // BinaryModelWriter пишет через временный файл, так что другой процесс не увидит половину кэша
+    private static void tryWrite(CompactModel model, Path cache, long size, long modified) {
+        try {
+            BinaryModelWriter.saveCompactModel(model, cache.toString(), size, modified);
+        } catch (IOException e) {
+            // Модель уже прочитана, кэш будет создан в следующий раз
+        }
+    }
+}
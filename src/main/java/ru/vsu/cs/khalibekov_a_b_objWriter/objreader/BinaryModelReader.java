@@ -0,0 +1,170 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.objreader;
+
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.CompactModel;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.Model;
+import ru.vsu.cs.khalibekov_a_b_objWriter.objwriter.BinaryModelFormat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+// Чтение модели в бинарном формате BinaryModelFormat.
+// Массивы копируются из отображённого в память файла окнами, поэтому размер файла не ограничен 2 ГБ.
+public class BinaryModelReader {
+
+    private static final int MAP_WINDOW_SIZE = 1 << 30;
+
+    public static Model read(Path path) throws IOException {
+        return readCompact(path).toModel();
+    }
+
+    public static CompactModel readCompact(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return readCompact(channel, readHeader(channel));
+        }
+    }
+
+    // Модель, если файл записан для исходника с такими размером и временем изменения, иначе null
+    static CompactModel readCompactIfFresh(Path path, long sourceSize, long sourceModifiedTime) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Header header = readHeader(channel);
+            if (header.sourceSize != sourceSize || header.sourceModifiedTime != sourceModifiedTime) {
+                return null;
+            }
+            return readCompact(channel, header);
+        }
+    }
+
+    private static Header readHeader(FileChannel channel) throws IOException {
+        if (channel.size() < BinaryModelFormat.HEADER_SIZE) {
+            throw new IOException("Binary model file is too short");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(BinaryModelFormat.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, buffer.position()) < 0) {
+                throw new IOException("Binary model file is too short");
+            }
+        }
+
+        byte[] magic = new byte[BinaryModelFormat.MAGIC.length];
+        buffer.get(0, magic);
+        if (!Arrays.equals(magic, BinaryModelFormat.MAGIC)) {
+            throw new IOException("Not a binary model file");
+        }
+        int version = buffer.getInt(BinaryModelFormat.MAGIC.length);
+        if (version != BinaryModelFormat.VERSION) {
+            throw new IOException("Unsupported binary model version: " + version);
+        }
+
+        Header header = new Header();
+        header.flags = buffer.getInt(BinaryModelFormat.FLAGS_OFFSET);
+        int position = BinaryModelFormat.COUNTS_OFFSET;
+        header.vertexCount = buffer.getInt(position);
+        header.textureVertexCount = buffer.getInt(position + 4);
+        header.normalCount = buffer.getInt(position + 8);
+        header.polygonCount = buffer.getInt(position + 12);
+        header.indexCount = buffer.getInt(position + 16);
+        header.sourceSize = buffer.getLong(BinaryModelFormat.SOURCE_SIZE_OFFSET);
+        header.sourceModifiedTime = buffer.getLong(BinaryModelFormat.SOURCE_MODIFIED_OFFSET);
+        header.checksum = buffer.getLong(BinaryModelFormat.CHECKSUM_OFFSET);
+
+        if (header.vertexCount < 0 || header.textureVertexCount < 0 || header.normalCount < 0
+                || header.polygonCount < 0 || header.polygonCount == Integer.MAX_VALUE || header.indexCount < 0
+                || 3L * header.vertexCount > Integer.MAX_VALUE || 3L * header.normalCount > Integer.MAX_VALUE
+                || 2L * header.textureVertexCount > Integer.MAX_VALUE) {
+            throw new IOException("Corrupted binary model header");
+        }
+        long expectedSize = BinaryModelFormat.HEADER_SIZE + BinaryModelFormat.payloadSize(header.vertexCount,
+                header.textureVertexCount, header.normalCount, header.polygonCount, header.indexCount, header.flags);
+        if (channel.size() != expectedSize) {
+            throw new IOException("Binary model file size " + channel.size() + " doesn't match header (" + expectedSize + ")");
+        }
+        return header;
+    }
+
+    private static CompactModel readCompact(FileChannel channel, Header header) throws IOException {
+        CRC32C checksum = new CRC32C();
+        long position = BinaryModelFormat.HEADER_SIZE;
+
+        float[] vertices = new float[3 * header.vertexCount];
+        position = readFloats(channel, position, checksum, vertices);
+        float[] textureVertices = new float[2 * header.textureVertexCount];
+        position = readFloats(channel, position, checksum, textureVertices);
+        float[] normals = new float[3 * header.normalCount];
+        position = readFloats(channel, position, checksum, normals);
+
+        int[] polygonOffsets = new int[header.polygonCount + 1];
+        position = readInts(channel, position, checksum, polygonOffsets);
+        int[] vertexIndices = new int[header.indexCount];
+        position = readInts(channel, position, checksum, vertexIndices);
+        int[] textureVertexIndices = null;
+        if ((header.flags & BinaryModelFormat.HAS_TEXTURE_INDICES) != 0) {
+            textureVertexIndices = new int[header.indexCount];
+            position = readInts(channel, position, checksum, textureVertexIndices);
+        }
+        int[] normalIndices = null;
+        if ((header.flags & BinaryModelFormat.HAS_NORMAL_INDICES) != 0) {
+            normalIndices = new int[header.indexCount];
+            readInts(channel, position, checksum, normalIndices);
+        }
+
+        if (checksum.getValue() != header.checksum) {
+            throw new IOException("Binary model checksum mismatch");
+        }
+        if (polygonOffsets[0] != 0 || polygonOffsets[header.polygonCount] != header.indexCount) {
+            throw new IOException("Corrupted binary model polygon offsets");
+        }
+
+        return new CompactModel(vertices, header.vertexCount, textureVertices, header.textureVertexCount,
+                normals, header.normalCount, polygonOffsets, header.polygonCount,
+                vertexIndices, textureVertexIndices, normalIndices);
+    }
+
+    private static long readFloats(FileChannel channel, long position, CRC32C checksum, float[] target)
+            throws IOException {
+        int perWindow = MAP_WINDOW_SIZE / Float.BYTES;
+        for (int from = 0; from < target.length; from += perWindow) {
+            int count = Math.min(perWindow, target.length - from);
+            ByteBuffer window = map(channel, position, (long) count * Float.BYTES, checksum);
+            window.asFloatBuffer().get(target, from, count);
+            position += (long) count * Float.BYTES;
+        }
+        return position;
+    }
+
+    private static long readInts(FileChannel channel, long position, CRC32C checksum, int[] target)
+            throws IOException {
+        int perWindow = MAP_WINDOW_SIZE / Integer.BYTES;
+        for (int from = 0; from < target.length; from += perWindow) {
+            int count = Math.min(perWindow, target.length - from);
+            ByteBuffer window = map(channel, position, (long) count * Integer.BYTES, checksum);
+            window.asIntBuffer().get(target, from, count);
+            position += (long) count * Integer.BYTES;
+        }
+        return position;
+    }
+
+    private static ByteBuffer map(FileChannel channel, long position, long size, CRC32C checksum) throws IOException {
+        MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+        checksum.update(window.duplicate());
+        return window.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static final class Header {
+        int flags;
+        int vertexCount;
+        int textureVertexCount;
+        int normalCount;
+        int polygonCount;
+        int indexCount;
+        long sourceSize;
+        long sourceModifiedTime;
+        long checksum;
+    }
+}
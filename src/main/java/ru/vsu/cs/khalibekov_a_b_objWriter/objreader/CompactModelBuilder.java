@@ -0,0 +1,68 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.objreader;
+
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.CompactModel;
+
+// Собирает CompactModel из разобранных элементов без промежуточных объектов
+final class CompactModelBuilder implements ObjVisitor {
+
+    private final CompactModel model = new CompactModel();
+    private final PolygonRangeTracker groups = new PolygonRangeTracker();
+
+    CompactModel getModel() {
+        model.getMaterialLibraries().clear();
+        model.getMaterialLibraries().addAll(groups.getMaterialLibraries());
+        model.getPolygonRanges().clear();
+        model.getPolygonRanges().addAll(groups.buildRanges(model.getPolygonCount()));
+        return model;
+    }
+
+    // Строки o, g, usemtl и s как есть - для склейки кусков в ParallelObjReader
+    PolygonRangeTracker getGroups() {
+        return groups;
+    }
+
+    @Override
+    public void onVertex(float x, float y, float z) {
+        model.addVertex(x, y, z);
+    }
+
+    @Override
+    public void onTexCoord(float u, float v) {
+        model.addTextureVertex(u, v);
+    }
+
+    @Override
+    public void onNormal(float x, float y, float z) {
+        model.addNormal(x, y, z);
+    }
+
+    @Override
+    public void onFace(int[] vertexIndices, int[] textureVertexIndices, int[] normalIndices, int count) {
+        model.addPolygon(vertexIndices, textureVertexIndices, normalIndices, count);
+    }
+
+    @Override
+    public void onObject(String name) {
+        groups.onObject(name, model.getPolygonCount());
+    }
+
+    @Override
+    public void onGroup(String name) {
+        groups.onGroup(name, model.getPolygonCount());
+    }
+
+    @Override
+    public void onMaterial(String name) {
+        groups.onMaterial(name, model.getPolygonCount());
+    }
+
+    @Override
+    public void onMaterialLibrary(String fileNames) {
+        groups.onMaterialLibrary(fileNames);
+    }
+
+    @Override
+    public void onSmoothingGroup(int group) {
+        groups.onSmoothingGroup(group, model.getPolygonCount());
+    }
+}
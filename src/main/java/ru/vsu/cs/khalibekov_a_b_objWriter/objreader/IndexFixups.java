@@ -0,0 +1,35 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.objreader;
+
+import java.util.Arrays;
+
+// Позиции относительных (отрицательных) индексов, разрешённых внутри одного куска файла.
+// Такие индексы отсчитываются от локального числа элементов и при склейке кусков
+// сдвигаются на число элементов во всех предыдущих кусках.
+final class IndexFixups {
+
+    static final int VERTEX = 0;
+    static final int TEXTURE = 1;
+    static final int NORMAL = 2;
+
+    private final int[][] positions = {new int[16], new int[16], new int[16]};
+    private final int[] sizes = new int[3];
+
+    void add(int kind, int position) {
+        int[] kindPositions = positions[kind];
+        if (sizes[kind] == kindPositions.length) {
+            kindPositions = Arrays.copyOf(kindPositions, kindPositions.length * 2);
+            positions[kind] = kindPositions;
+        }
+        kindPositions[sizes[kind]++] = position;
+    }
+
+    void apply(int kind, int[] indices, int base) {
+        if (base == 0) {
+            return;
+        }
+        int[] kindPositions = positions[kind];
+        for (int i = 0; i < sizes[kind]; i++) {
+            indices[kindPositions[i]] += base;
+        }
+    }
+}
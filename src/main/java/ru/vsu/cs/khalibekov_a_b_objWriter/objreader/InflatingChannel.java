@@ -0,0 +1,261 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.objreader;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
+
+// Распаковка gzip в отдельном потоке: пока парсер разбирает один блок, следующий уже распаковывается.
+// Блоки передаются через очередь и после разбора возвращаются на повторное заполнение,
+// поэтому память ограничена BLOCK_COUNT блоками независимо от размера файла.
+// Потоки распаковки - общие демоны (INFLATERS), простаивающие завершаются сами.
+// Исходный канал не закрывается - им владеет вызывающий код.
+final class InflatingChannel implements ReadableByteChannel {
+
+    private static final int BLOCK_SIZE = 1 << 18;
+    private static final int BLOCK_COUNT = 4;
+    private static final int GZIP_MAGIC_1 = 0x1f;
+    private static final int GZIP_MAGIC_2 = 0x8b;
+
+    private static final class Block {
+        final byte[] bytes = new byte[BLOCK_SIZE];
+        int length;
+    }
+
+    // Конец потока: после него очередь больше не пополняется
+    private static final Block END = new Block();
+
+    private static final ExecutorService INFLATERS = Executors.newCachedThreadPool(task -> {
+        Thread thread = new Thread(task, "obj-gzip-inflater");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ReadableByteChannel source;
+    private final BlockingQueue<Block> filled = new ArrayBlockingQueue<Block>(BLOCK_COUNT + 1);
+    private final BlockingQueue<Block> free = new ArrayBlockingQueue<Block>(BLOCK_COUNT);
+    private volatile Throwable failure;
+    private volatile boolean closed;
+    // Сколько байт сжатого потока прочитал поток распаковки
+    private volatile long sourcePosition;
+
+    private Block current;
+    private int position;
+    private boolean eof;
+
+    private InflatingChannel(ReadableByteChannel source) {
+        this.source = source;
+        for (int i = 0; i < BLOCK_COUNT; i++) {
+            free.add(new Block());
+        }
+        INFLATERS.execute(this::inflate);
+    }
+
+    // Канал для разбора: распаковывающий (InflatingChannel), если поток начинается с сигнатуры gzip,
+    // иначе исходный. Прочитанные для проверки байты не теряются. close() результата не закрывает source
+    static ReadableByteChannel open(ReadableByteChannel source) throws IOException {
+        ByteBuffer prefix = ByteBuffer.allocate(2);
+        while (prefix.hasRemaining() && source.read(prefix) >= 0) {
+            // Канал может отдать меньше байт, чем запрошено
+        }
+        prefix.flip();
+        ReadableByteChannel input = new PrefixedChannel(prefix, source);
+        return isGzip(prefix) ? new InflatingChannel(input) : input;
+    }
+
+    // Проверка файла без изменения позиции канала
+    static boolean isGzip(FileChannel channel) throws IOException {
+        ByteBuffer prefix = ByteBuffer.allocate(2);
+        while (prefix.hasRemaining() && channel.read(prefix, prefix.position()) > 0) {
+            // Позиционное чтение тоже может быть неполным
+        }
+        prefix.flip();
+        return isGzip(prefix);
+    }
+
+    static boolean isGzip(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return isGzip(channel);
+        }
+    }
+
+    private static boolean isGzip(ByteBuffer prefix) {
+        return prefix.remaining() == 2
+                && (prefix.get(0) & 0xff) == GZIP_MAGIC_1 && (prefix.get(1) & 0xff) == GZIP_MAGIC_2;
+    }
+
+    @Override
+    public int read(ByteBuffer target) throws IOException {
+        if (closed) {
+            throw new IOException("Channel is closed");
+        }
+        if (eof) {
+            return -1;
+        }
+        int total = 0;
+        while (target.hasRemaining()) {
+            if (current == null) {
+                // Не ждём следующий блок, если что-то уже прочитано
+                Block next = total > 0 ? filled.poll() : take();
+                if (next == null) {
+                    break;
+                }
+                if (next == END) {
+                    rethrowFailure();
+                    eof = true;
+                    break;
+                }
+                current = next;
+                position = 0;
+            }
+            int count = Math.min(target.remaining(), current.length - position);
+            target.put(current.bytes, position, count);
+            position += count;
+            total += count;
+            if (position == current.length) {
+                free.add(current);
+                current = null;
+            }
+        }
+        return total == 0 && eof ? -1 : total;
+    }
+
+    // Байты сжатого потока (вместе с двумя байтами сигнатуры), которые уже прочитаны для распаковки
+    long sourcePosition() {
+        return sourcePosition;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return !closed;
+    }
+
+    // Останавливает распаковку, если разбор прервался раньше конца файла
+    @Override
+    public void close() {
+        closed = true;
+        free.clear();
+        filled.clear();
+        // Поток распаковки мог ждать свободный блок - этот блок его будит
+        free.offer(new Block());
+    }
+
+    private Block take() throws IOException {
+        try {
+            return filled.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for decompressed data");
+        }
+    }
+
+    private void rethrowFailure() throws IOException {
+        Throwable error = failure;
+        if (error instanceof IOException e) {
+            throw e;
+        }
+        if (error instanceof RuntimeException e) {
+            throw e;
+        }
+        if (error instanceof Error e) {
+            throw e;
+        }
+    }
+
+    private void inflate() {
+        // Несколько gzip-членов подряд (как у pigz и ObjWriter.saveModelCompressed) читаются как один поток
+        try (InputStream in = new GZIPInputStream(new FilterInputStream(Channels.newInputStream(source)) {
+            @Override
+            public int read() throws IOException {
+                int value = super.read();
+                if (value >= 0) {
+                    sourcePosition++;
+                }
+                return value;
+            }
+
+            @Override
+            public int read(byte[] bytes, int offset, int length) throws IOException {
+                int read = super.read(bytes, offset, length);
+                if (read > 0) {
+                    sourcePosition += read;
+                }
+                return read;
+            }
+
+            @Override
+            public void close() {
+                // Исходный канал закрывает его владелец
+            }
+        }, 1 << 16)) {
+            while (!closed) {
+                Block block = free.take();
+                if (closed) {
+                    break;
+                }
+                int length = 0;
+                int read = 0;
+                while (length < block.bytes.length && (read = in.read(block.bytes, length, block.bytes.length - length)) >= 0) {
+                    length += read;
+                }
+                if (length > 0) {
+                    block.length = length;
+                    filled.put(block);
+                }
+                if (read < 0) {
+                    break;
+                }
+            }
+        } catch (Throwable e) {
+            failure = e;
+        }
+        if (!closed) {
+            filled.offer(END);
+        }
+    }
+
+    // Возвращает сначала уже прочитанные байты, затем продолжает чтение из source
+    private static final class PrefixedChannel implements ReadableByteChannel {
+
+        private final ByteBuffer prefix;
+        private final ReadableByteChannel source;
+
+        PrefixedChannel(ByteBuffer prefix, ReadableByteChannel source) {
+            this.prefix = prefix;
+            this.source = source;
+        }
+
+        @Override
+        public int read(ByteBuffer target) throws IOException {
+            if (!prefix.hasRemaining()) {
+                return source.read(target);
+            }
+            int count = Math.min(prefix.remaining(), target.remaining());
+            for (int i = 0; i < count; i++) {
+                target.put(prefix.get());
+            }
+            return count;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return source.isOpen();
+        }
+
+        @Override
+        public void close() {
+            // Исходный канал закрывает его владелец
+        }
+    }
+}
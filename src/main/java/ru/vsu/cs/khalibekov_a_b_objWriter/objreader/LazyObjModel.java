@@ -0,0 +1,324 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.objreader;
+
+import ru.vsu.cs.khalibekov_a_b_objWriter.math.Vector2f;
+import ru.vsu.cs.khalibekov_a_b_objWriter.math.Vector3f;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.CompactModel;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.Polygon;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Ленивое представление большого OBJ-файла. Элементы разбираются по запросу блоками по stride записей
+// (позиции блоков берутся из ObjIndex), последние разобранные блоки хранятся в LRU-кэше.
+// Доступ к грани 40 000 000 стоит чтения и разбора одного блока, а не всего файла.
+// Индексы элементов отсчитываются от 0, как в Model. Ошибки чтения бросаются как UncheckedIOException,
+// ошибки разбора - как ObjReaderException с номером строки в файле.
+// Методы потокобезопасны: блоки читаются и разбираются вне блокировки, под ней только LRU-кэш,
+// а одновременные запросы одного блока ждут один разбор. Файл остаётся открытым до close().
+public class LazyObjModel implements AutoCloseable {
+
+    public static final int DEFAULT_CACHE_BLOCKS = 64;
+
+    private final FileChannel channel;
+    private final ObjIndex index;
+    // Доступ только под synchronized (cache)
+    private final Map<Long, CompactModel> cache;
+    // Блоки, которые разбираются сейчас
+    private final Map<Long, CompletableFuture<CompactModel>> loading = new ConcurrentHashMap<>();
+
+    private LazyObjModel(FileChannel channel, ObjIndex index, int cacheBlocks) {
+        this.channel = channel;
+        this.index = index;
+        this.cache = new LinkedHashMap<Long, CompactModel>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CompactModel> eldest) {
+                return size() > cacheBlocks;
+            }
+        };
+    }
+
+    public static LazyObjModel open(Path path) throws IOException {
+        return open(path, ObjIndex.DEFAULT_STRIDE, DEFAULT_CACHE_BLOCKS);
+    }
+
+    // Индекс берётся из model.obj.idx или строится одним проходом по файлу и сохраняется туда
+    public static LazyObjModel open(Path path, int stride, int cacheBlocks) throws IOException {
+        if (cacheBlocks < 1) {
+            throw new IllegalArgumentException("Cache must hold at least one block: " + cacheBlocks);
+        }
+        // Записи читаются по смещениям в файле, а в сжатом их нет
+        if (InflatingChannel.isGzip(path)) {
+            throw new IOException("Lazy access needs an uncompressed OBJ file: " + path);
+        }
+        ObjIndex index = ObjIndex.load(path, stride);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        if (channel.size() != index.sourceSize) {
+            channel.close();
+            throw new IOException("File changed while indexing: " + path);
+        }
+        return new LazyObjModel(channel, index, cacheBlocks);
+    }
+
+    public int getVertexCount() {
+        return index.counts[ObjIndex.VERTEX];
+    }
+
+    public int getTextureVertexCount() {
+        return index.counts[ObjIndex.TEXTURE];
+    }
+
+    public int getNormalCount() {
+        return index.counts[ObjIndex.NORMAL];
+    }
+
+    public int getPolygonCount() {
+        return index.counts[ObjIndex.FACE];
+    }
+
+    public Vector3f getVertex(int vertexIndex) {
+        Objects.checkIndex(vertexIndex, getVertexCount());
+        float[] data = block(ObjIndex.VERTEX, vertexIndex / index.stride).getVertexData();
+        int i = 3 * (vertexIndex % index.stride);
+        return new Vector3f(data[i], data[i + 1], data[i + 2]);
+    }
+
+    public Vector2f getTextureVertex(int textureIndex) {
+        Objects.checkIndex(textureIndex, getTextureVertexCount());
+        float[] data = block(ObjIndex.TEXTURE, textureIndex / index.stride).getTextureVertexData();
+        int i = 2 * (textureIndex % index.stride);
+        return new Vector2f(data[i], data[i + 1]);
+    }
+
+    public Vector3f getNormal(int normalIndex) {
+        Objects.checkIndex(normalIndex, getNormalCount());
+        float[] data = block(ObjIndex.NORMAL, normalIndex / index.stride).getNormalData();
+        int i = 3 * (normalIndex % index.stride);
+        return new Vector3f(data[i], data[i + 1], data[i + 2]);
+    }
+
+    // Полигон такой же, как model.polygons.get(polygonIndex) у ObjReader.read
+    public Polygon getPolygon(int polygonIndex) {
+        Objects.checkIndex(polygonIndex, getPolygonCount());
+        ModelBuilder builder = new ModelBuilder();
+        readPolygons(polygonIndex, polygonIndex + 1, builder);
+        return builder.getModel().polygons.get(0);
+    }
+
+    // Вершины [from, to) подряд по 3 координаты
+    public float[] getVertexData(int from, int to) {
+        return elementData(ObjIndex.VERTEX, from, to, 3);
+    }
+
+    public float[] getTextureVertexData(int from, int to) {
+        return elementData(ObjIndex.TEXTURE, from, to, 2);
+    }
+
+    public float[] getNormalData(int from, int to) {
+        return elementData(ObjIndex.NORMAL, from, to, 3);
+    }
+
+    // Полигоны [from, to) передаются в visitor.onFace так же, как при потоковом разборе
+    public void readPolygons(int from, int to, ObjVisitor visitor) {
+        Objects.checkFromToIndex(from, to, getPolygonCount());
+        int[] vertices = new int[16];
+        int[] textures = new int[16];
+        int[] normals = new int[16];
+        for (int polygon = from; polygon < to; ) {
+            int blockIndex = polygon / index.stride;
+            CompactModel block = block(ObjIndex.FACE, blockIndex);
+            int[] offsets = block.getPolygonOffsets();
+            int blockEnd = Math.min(to, (blockIndex + 1) * index.stride);
+            for (; polygon < blockEnd; polygon++) {
+                int local = polygon - blockIndex * index.stride;
+                int start = offsets[local];
+                int count = offsets[local + 1] - start;
+                if (vertices.length < count) {
+                    vertices = new int[count];
+                    textures = new int[count];
+                    normals = new int[count];
+                }
+                System.arraycopy(block.getVertexIndices(), start, vertices, 0, count);
+                boolean hasTextures = copyCorners(block.getTextureVertexIndices(), start, count, textures);
+                boolean hasNormals = copyCorners(block.getNormalIndices(), start, count, normals);
+                visitor.onFace(vertices, hasTextures ? textures : null, hasNormals ? normals : null, count);
+            }
+        }
+    }
+
+    // Число блоков в кэше
+    public int getCachedBlockCount() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (cache) {
+            cache.clear();
+        }
+        channel.close();
+    }
+
+    // false, если ни у одного угла нет индекса - как у парсера
+    private static boolean copyCorners(int[] source, int start, int count, int[] target) {
+        if (source == null) {
+            return false;
+        }
+        boolean any = false;
+        for (int j = 0; j < count; j++) {
+            target[j] = source[start + j];
+            any |= target[j] != CompactModel.NO_INDEX;
+        }
+        return any;
+    }
+
+    private float[] elementData(int type, int from, int to, int components) {
+        Objects.checkFromToIndex(from, to, index.counts[type]);
+        float[] result = new float[(to - from) * components];
+        for (int element = from; element < to; ) {
+            int blockIndex = element / index.stride;
+            CompactModel block = block(type, blockIndex);
+            float[] data = switch (type) {
+                case ObjIndex.VERTEX -> block.getVertexData();
+                case ObjIndex.TEXTURE -> block.getTextureVertexData();
+                default -> block.getNormalData();
+            };
+            int blockEnd = Math.min(to, (blockIndex + 1) * index.stride);
+            int local = element - blockIndex * index.stride;
+            System.arraycopy(data, local * components, result, (element - from) * components,
+                    (blockEnd - element) * components);
+            element = blockEnd;
+        }
+        return result;
+    }
+
+    // Блок из кэша или разобранный заново. В блоке только элементы его типа
+    private CompactModel block(int type, int blockIndex) {
+        long key = (long) type << 32 | blockIndex;
+        CompactModel block = cached(key);
+        if (block != null) {
+            return block;
+        }
+        CompletableFuture<CompactModel> created = new CompletableFuture<>();
+        CompletableFuture<CompactModel> pending = loading.putIfAbsent(key, created);
+        if (pending != null) {
+            return await(pending);
+        }
+        try {
+            // Блок мог попасть в кэш между cached() и putIfAbsent
+            block = cached(key);
+            if (block == null) {
+                block = decode(type, blockIndex);
+                synchronized (cache) {
+                    cache.put(key, block);
+                }
+            }
+            created.complete(block);
+            return block;
+        } catch (IOException e) {
+            UncheckedIOException failure = new UncheckedIOException(e);
+            created.completeExceptionally(failure);
+            throw failure;
+        } catch (RuntimeException | Error e) {
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, created);
+        }
+    }
+
+    private CompactModel cached(long key) {
+        synchronized (cache) {
+            return cache.get(key);
+        }
+    }
+
+    // Ошибка разбора в другом потоке бросается и здесь
+    private static CompactModel await(CompletableFuture<CompactModel> pending) {
+        try {
+            return pending.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException failure) {
+                throw failure;
+            }
+            if (e.getCause() instanceof Error failure) {
+                throw failure;
+            }
+            throw e;
+        }
+    }
+
+    private CompactModel decode(int type, int blockIndex) throws IOException {
+        long start = index.blockStart(type, blockIndex);
+        long length = index.blockEnd(type, blockIndex) - start;
+        if (length > Integer.MAX_VALUE - 8) {
+            throw new IOException("Block " + blockIndex + " is too large: " + length + " bytes");
+        }
+        byte[] bytes = new byte[(int) length];
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, start + buffer.position()) < 0) {
+                throw new IOException("File was truncated after indexing");
+            }
+        }
+
+        CompactModel block = new CompactModel();
+        ObjParser parser = new ObjParser();
+        index.resume(parser, type, blockIndex);
+        parser.parse(new ObjLineReader(bytes), collector(type, block));
+        block.trimToSize();
+
+        int expected = Math.min(index.stride, index.counts[type] - blockIndex * index.stride);
+        int decoded = switch (type) {
+            case ObjIndex.VERTEX -> block.getVertexCount();
+            case ObjIndex.TEXTURE -> block.getTextureVertexCount();
+            case ObjIndex.NORMAL -> block.getNormalCount();
+            default -> block.getPolygonCount();
+        };
+        if (decoded != expected) {
+            throw new IOException("File changed after indexing: block " + blockIndex + " has " + decoded
+                    + " records instead of " + expected);
+        }
+        return block;
+    }
+
+    private static ObjVisitor collector(int type, CompactModel block) {
+        return switch (type) {
+            case ObjIndex.VERTEX -> new ObjVisitor() {
+                @Override
+                public void onVertex(float x, float y, float z) {
+                    block.addVertex(x, y, z);
+                }
+            };
+            case ObjIndex.TEXTURE -> new ObjVisitor() {
+                @Override
+                public void onTexCoord(float u, float v) {
+                    block.addTextureVertex(u, v);
+                }
+            };
+            case ObjIndex.NORMAL -> new ObjVisitor() {
+                @Override
+                public void onNormal(float x, float y, float z) {
+                    block.addNormal(x, y, z);
+                }
+            };
+            default -> new ObjVisitor() {
+                @Override
+                public void onFace(int[] v, int[] vt, int[] vn, int count) {
+                    block.addPolygon(v, vt, vn, count);
+                }
+            };
+        };
+    }
+}
@@ -0,0 +1,112 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.objreader;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+// Строки файла прямо из отображённой в память области, без копирования в кучу.
+// Один MappedByteBuffer ограничен 2 ГБ, поэтому файл отображается окнами:
+// следующее окно начинается с первой недочитанной строки текущего.
+final class MappedObjLineReader implements ObjLineSource {
+
+    static final int DEFAULT_WINDOW_SIZE = 1 << 30;
+
+    private final FileChannel channel;
+    private final long size;
+    private final int windowSize;
+
+    private MappedByteBuffer window;
+    private long windowStart;
+    private int limit;
+    private int next;
+
+    private int lineStart;
+    private int lineEnd;
+
+    MappedObjLineReader(FileChannel channel) throws IOException {
+        this(channel, DEFAULT_WINDOW_SIZE);
+    }
+
+    MappedObjLineReader(FileChannel channel, int windowSize) throws IOException {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("Window size must be positive: " + windowSize);
+        }
+        this.channel = channel;
+        this.size = channel.size();
+        this.windowSize = windowSize;
+        map(0);
+    }
+
+    @Override
+    public ByteBuffer buffer() {
+        return window;
+    }
+
+    @Override
+    public int lineStart() {
+        return lineStart;
+    }
+
+    @Override
+    public int lineEnd() {
+        return lineEnd;
+    }
+
+    // Позиция в файле, с которой начинается текущее окно: строка лежит с windowStart() + lineStart()
+    long windowStart() {
+        return windowStart;
+    }
+
+    @Override
+    public boolean nextLine() throws IOException {
+        int scanPos = next;
+        while (true) {
+            boolean lastWindow = windowStart + limit == size;
+            for (int i = scanPos; i < limit; i++) {
+                byte b = window.get(i);
+                if (b == '\n') {
+                    lineStart = next;
+                    lineEnd = i;
+                    next = i + 1;
+                    return true;
+                }
+                if (b == '\r') {
+                    if (i + 1 == limit && !lastWindow) {
+                        // Нужно увидеть следующий байт, чтобы не разорвать \r\n
+                        break;
+                    }
+                    lineStart = next;
+                    lineEnd = i;
+                    next = (i + 1 < limit && window.get(i + 1) == '\n') ? i + 2 : i + 1;
+                    return true;
+                }
+                scanPos = i + 1;
+            }
+
+            if (lastWindow) {
+                if (next < limit) {
+                    lineStart = next;
+                    lineEnd = limit;
+                    next = limit;
+                    return true;
+                }
+                return false;
+            }
+
+            if (next == 0) {
+                throw new IOException("Line at offset " + windowStart + " is longer than " + windowSize + " bytes");
+            }
+            scanPos -= next;
+            map(windowStart + next);
+        }
+    }
+
+    // Старое окно освобождается сборщиком мусора
+    private void map(long position) throws IOException {
+        windowStart = position;
+        limit = (int) Math.min(windowSize, size - position);
+        next = 0;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, position, limit);
+    }
+}
@@ -0,0 +1,93 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.objreader;
+
+import ru.vsu.cs.khalibekov_a_b_objWriter.math.Vector2f;
+import ru.vsu.cs.khalibekov_a_b_objWriter.math.Vector3f;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.CompactModel;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.Model;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.Polygon;
+
+import java.util.ArrayList;
+
+// Собирает Model из разобранных элементов
+final class ModelBuilder implements ObjVisitor {
+
+    private final Model model = new Model();
+    private final PolygonRangeTracker groups = new PolygonRangeTracker();
+
+    Model getModel() {
+        model.materialLibraries.clear();
+        model.materialLibraries.addAll(groups.getMaterialLibraries());
+        model.polygonRanges = groups.buildRanges(model.polygons.size());
+        return model;
+    }
+
+    @Override
+    public void onVertex(float x, float y, float z) {
+        model.vertices.add(new Vector3f(x, y, z));
+    }
+
+    @Override
+    public void onTexCoord(float u, float v) {
+        model.textureVertices.add(new Vector2f(u, v));
+    }
+
+    @Override
+    public void onNormal(float x, float y, float z) {
+        model.normals.add(new Vector3f(x, y, z));
+    }
+
+    @Override
+    public void onFace(int[] vertexIndices, int[] textureVertexIndices, int[] normalIndices, int count) {
+        ArrayList<Integer> onePolygonVertexIndices = new ArrayList<Integer>(count);
+        for (int i = 0; i < count; i++) {
+            onePolygonVertexIndices.add(vertexIndices[i]);
+        }
+
+        Polygon result = new Polygon();
+        result.setVertexIndices(onePolygonVertexIndices);
+        // Пустые списки у Polygon уже есть, а сеттер предупреждал бы о каждой такой грани
+        if (textureVertexIndices != null) {
+            result.setTextureVertexIndices(toIndexList(textureVertexIndices, count));
+        }
+        if (normalIndices != null) {
+            result.setNormalIndices(toIndexList(normalIndices, count));
+        }
+        model.polygons.add(result);
+    }
+
+    @Override
+    public void onObject(String name) {
+        groups.onObject(name, model.polygons.size());
+    }
+
+    @Override
+    public void onGroup(String name) {
+        groups.onGroup(name, model.polygons.size());
+    }
+
+    @Override
+    public void onMaterial(String name) {
+        groups.onMaterial(name, model.polygons.size());
+    }
+
+    @Override
+    public void onMaterialLibrary(String fileNames) {
+        groups.onMaterialLibrary(fileNames);
+    }
+
+    @Override
+    public void onSmoothingGroup(int group) {
+        groups.onSmoothingGroup(group, model.polygons.size());
+    }
+
+    // В списках Polygon углы без индекса пропускаются
+    private static ArrayList<Integer> toIndexList(int[] indices, int count) {
+        ArrayList<Integer> result = new ArrayList<Integer>(count);
+        for (int i = 0; i < count; i++) {
+            if (indices[i] != CompactModel.NO_INDEX) {
+                result.add(indices[i]);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,276 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.objreader;
+
+import ru.vsu.cs.khalibekov_a_b_objWriter.io.AtomicFiles;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+// Индекс OBJ-файла для произвольного доступа. Записи каждого типа (v, vt, vn, f) делятся на блоки
+// по stride штук; для блока запоминается позиция его первой записи в файле, число строк до неё
+// и число вершин, текстурных координат и нормалей, объявленных раньше (для относительных индексов граней).
+// Индекс хранится рядом с файлом (model.obj.idx) и, как BinaryModelCache, используется,
+// только пока размер и время изменения .obj совпадают с записанными в нём.
+// Формат (little-endian): заголовок HEADER_SIZE байт - magic "OBJI", версия, stride, 0,
+// размер и время изменения .obj, CRC32C данных, число записей каждого типа;
+// затем для каждого типа позиция конца последней записи; затем блоки всех типов по порядку:
+// long позиция и 4 int (строк до блока, вершин, текстурных координат, нормалей).
+final class ObjIndex {
+
+    static final String INDEX_SUFFIX = ".idx";
+    static final int DEFAULT_STRIDE = 4096;
+
+    static final int VERTEX = 0;
+    static final int TEXTURE = 1;
+    static final int NORMAL = 2;
+    static final int FACE = 3;
+    private static final int TYPE_COUNT = 4;
+
+    private static final byte[] MAGIC = "OBJI".getBytes(StandardCharsets.US_ASCII);
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int CHECKSUM_OFFSET = 32;
+    private static final int COUNTS_OFFSET = 40;
+    private static final int STATE_SIZE = 4;
+    private static final int BLOCK_SIZE = Long.BYTES + STATE_SIZE * Integer.BYTES;
+
+    final int stride;
+    final long sourceSize;
+    final long sourceModifiedTime;
+    final int[] counts = new int[TYPE_COUNT];
+    final long[] endOffsets = new long[TYPE_COUNT];
+    final long[][] blockOffsets = new long[TYPE_COUNT][];
+    // По STATE_SIZE чисел на блок: строк до блока, вершин, текстурных координат, нормалей
+    final int[][] blockStates = new int[TYPE_COUNT][];
+
+    private ObjIndex(int stride, long sourceSize, long sourceModifiedTime) {
+        this.stride = stride;
+        this.sourceSize = sourceSize;
+        this.sourceModifiedTime = sourceModifiedTime;
+    }
+
+    static Path indexPath(Path objPath) {
+        return objPath.resolveSibling(objPath.getFileName() + INDEX_SUFFIX);
+    }
+
+    // Индекс из файла рядом с .obj, если он свежий и с тем же stride, иначе новый проход по файлу.
+    // Новый индекс сохраняется, если .obj не менялся во время прохода
+    static ObjIndex load(Path objPath, int stride) throws IOException {
+        checkStride(stride);
+        BasicFileAttributes attributes = Files.readAttributes(objPath, BasicFileAttributes.class);
+        long size = attributes.size();
+        long modified = attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+        Path indexPath = indexPath(objPath);
+
+        try {
+            ObjIndex cached = read(indexPath);
+            if (cached.stride == stride && cached.sourceSize == size && cached.sourceModifiedTime == modified) {
+                return cached;
+            }
+        } catch (IOException e) {
+            // Индекса нет, он повреждён или записан другой версией формата - строим заново
+        }
+
+        ObjIndex index = build(objPath, stride, size, modified);
+        BasicFileAttributes after = Files.readAttributes(objPath, BasicFileAttributes.class);
+        if (after.size() == size && after.lastModifiedTime().to(TimeUnit.NANOSECONDS) == modified) {
+            try {
+                index.write(indexPath);
+            } catch (IOException e) {
+                // Каталог только для чтения и т. п. - индекс будет построен в следующий раз
+            }
+        }
+        return index;
+    }
+
+    static ObjIndex build(Path objPath, int stride) throws IOException {
+        checkStride(stride);
+        BasicFileAttributes attributes = Files.readAttributes(objPath, BasicFileAttributes.class);
+        return build(objPath, stride, attributes.size(), attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS));
+    }
+
+    // Проход без разбора чисел: у каждой строки определяется только первое слово
+    private static ObjIndex build(Path objPath, int stride, long size, long modified) throws IOException {
+        ObjIndex index = new ObjIndex(stride, size, modified);
+        long[][] offsets = new long[TYPE_COUNT][16];
+        int[][] states = new int[TYPE_COUNT][16 * STATE_SIZE];
+        int[] blocks = new int[TYPE_COUNT];
+        int[] counts = index.counts;
+        int lineIndex = 0;
+
+        try (FileChannel channel = FileChannel.open(objPath, StandardOpenOption.READ)) {
+            MappedObjLineReader lines = new MappedObjLineReader(channel);
+            ObjTokenizer tokenizer = new ObjTokenizer();
+            while (lines.nextLine()) {
+                tokenizer.reset(lines.buffer(), lines.lineStart(), lines.lineEnd());
+                if (tokenizer.isBlankLine()) {
+                    continue;
+                }
+                int type = switch (tokenizer.readLineToken()) {
+                    case ObjTokenizer.TOKEN_VERTEX -> VERTEX;
+                    case ObjTokenizer.TOKEN_TEXTURE -> TEXTURE;
+                    case ObjTokenizer.TOKEN_NORMAL -> NORMAL;
+                    case ObjTokenizer.TOKEN_FACE -> FACE;
+                    default -> -1;
+                };
+                if (type >= 0) {
+                    if (counts[type] % stride == 0) {
+                        int block = blocks[type]++;
+                        if (offsets[type].length == block) {
+                            offsets[type] = Arrays.copyOf(offsets[type], 2 * block);
+                            states[type] = Arrays.copyOf(states[type], 2 * block * STATE_SIZE);
+                        }
+                        offsets[type][block] = lines.windowStart() + lines.lineStart();
+                        int[] state = states[type];
+                        state[block * STATE_SIZE] = lineIndex;
+                        state[block * STATE_SIZE + 1] = counts[VERTEX];
+                        state[block * STATE_SIZE + 2] = counts[TEXTURE];
+                        state[block * STATE_SIZE + 3] = counts[NORMAL];
+                    }
+                    if (counts[type] == Integer.MAX_VALUE) {
+                        throw new ObjReaderException("Too many elements for an index", lineIndex + 1);
+                    }
+                    counts[type]++;
+                    index.endOffsets[type] = lines.windowStart() + lines.lineEnd();
+                }
+                lineIndex++;
+            }
+        }
+
+        for (int type = 0; type < TYPE_COUNT; type++) {
+            index.blockOffsets[type] = Arrays.copyOf(offsets[type], blocks[type]);
+            index.blockStates[type] = Arrays.copyOf(states[type], blocks[type] * STATE_SIZE);
+        }
+        return index;
+    }
+
+    int blockCount(int type) {
+        return blockOffsets[type].length;
+    }
+
+    // Байты [blockStart, blockEnd) содержат все записи блока (и, возможно, строки других типов между ними)
+    long blockStart(int type, int block) {
+        return blockOffsets[type][block];
+    }
+
+    long blockEnd(int type, int block) {
+        return block + 1 < blockCount(type) ? blockOffsets[type][block + 1] : endOffsets[type];
+    }
+
+    // Парсер, настроенный на разбор с начала блока
+    void resume(ObjParser parser, int type, int block) {
+        int[] state = blockStates[type];
+        int base = block * STATE_SIZE;
+        parser.resume(state[base], state[base + 1], state[base + 2], state[base + 3]);
+    }
+
+    private static void checkStride(int stride) {
+        if (stride < 1) {
+            throw new IllegalArgumentException("Stride must be positive: " + stride);
+        }
+    }
+
+    private static ObjIndex read(Path indexPath) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(indexPath)).order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.capacity() < HEADER_SIZE) {
+            throw new IOException("Index file is too short");
+        }
+        byte[] magic = new byte[MAGIC.length];
+        buffer.get(0, magic);
+        if (!Arrays.equals(magic, MAGIC) || buffer.getInt(MAGIC.length) != VERSION) {
+            throw new IOException("Not an OBJ index file or unsupported version");
+        }
+        CRC32C checksum = new CRC32C();
+        checksum.update(buffer.slice(HEADER_SIZE, buffer.capacity() - HEADER_SIZE));
+        if (checksum.getValue() != buffer.getLong(CHECKSUM_OFFSET)) {
+            throw new IOException("Index file checksum mismatch");
+        }
+
+        ObjIndex index = new ObjIndex(buffer.getInt(8), buffer.getLong(16), buffer.getLong(24));
+        checkStride(index.stride);
+        long expectedSize = HEADER_SIZE + (long) Long.BYTES * TYPE_COUNT;
+        for (int type = 0; type < TYPE_COUNT; type++) {
+            int count = buffer.getInt(COUNTS_OFFSET + type * Integer.BYTES);
+            if (count < 0) {
+                throw new IOException("Index file is corrupted");
+            }
+            index.counts[type] = count;
+            expectedSize += (long) BLOCK_SIZE * blockCount(count, index.stride);
+        }
+        if (expectedSize != buffer.capacity()) {
+            throw new IOException("Index file is corrupted");
+        }
+
+        buffer.position(HEADER_SIZE);
+        for (int type = 0; type < TYPE_COUNT; type++) {
+            index.endOffsets[type] = buffer.getLong();
+        }
+        for (int type = 0; type < TYPE_COUNT; type++) {
+            int blocks = blockCount(index.counts[type], index.stride);
+            long[] offsets = new long[blocks];
+            int[] states = new int[blocks * STATE_SIZE];
+            for (int block = 0; block < blocks; block++) {
+                offsets[block] = buffer.getLong();
+                for (int k = 0; k < STATE_SIZE; k++) {
+                    states[block * STATE_SIZE + k] = buffer.getInt();
+                }
+            }
+            index.blockOffsets[type] = offsets;
+            index.blockStates[type] = states;
+        }
+        return index;
+    }
+
+    private static int blockCount(int count, int stride) {
+        return count / stride + (count % stride == 0 ? 0 : 1);
+    }
+
+    // Через временный файл, чтобы другой процесс не прочитал половину индекса
+    void write(Path indexPath) throws IOException {
+        long size = HEADER_SIZE + (long) Long.BYTES * TYPE_COUNT;
+        for (int type = 0; type < TYPE_COUNT; type++) {
+            size += (long) BLOCK_SIZE * blockCount(type);
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Index is too large: " + size + " bytes");
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(MAGIC).putInt(VERSION).putInt(stride).putInt(0)
+                .putLong(sourceSize).putLong(sourceModifiedTime).putLong(0);
+        for (int count : counts) {
+            buffer.putInt(count);
+        }
+        buffer.position(HEADER_SIZE);
+        for (long end : endOffsets) {
+            buffer.putLong(end);
+        }
+        for (int type = 0; type < TYPE_COUNT; type++) {
+            for (int block = 0; block < blockCount(type); block++) {
+                buffer.putLong(blockOffsets[type][block]);
+                for (int k = 0; k < STATE_SIZE; k++) {
+                    buffer.putInt(blockStates[type][block * STATE_SIZE + k]);
+                }
+            }
+        }
+        CRC32C checksum = new CRC32C();
+        checksum.update(buffer.slice(HEADER_SIZE, buffer.capacity() - HEADER_SIZE));
+        buffer.putLong(CHECKSUM_OFFSET, checksum.getValue());
+
+        buffer.rewind();
+        AtomicFiles.writeAtomically(indexPath.toString(), channel -> {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        });
+    }
+}
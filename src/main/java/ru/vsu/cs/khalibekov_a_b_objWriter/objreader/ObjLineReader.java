@@ -0,0 +1,122 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.objreader;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+// Делит байтовый поток на строки без создания String.
+// Разделители строк те же, что у BufferedReader: \n, \r и \r\n.
+final class ObjLineReader implements ObjLineSource {
+
+    private final ReadableByteChannel channel;
+
+    private byte[] bytes;
+    private ByteBuffer buffer;
+    private int limit;
+    private int next;
+    private boolean eof;
+
+    private int lineStart;
+    private int lineEnd;
+
+    ObjLineReader(ReadableByteChannel channel, int bufferSize) {
+        this(channel, new byte[bufferSize]);
+    }
+
+    // Чтение через готовый массив (переиспользуемый между файлами); длинная строка заменит его большим
+    ObjLineReader(ReadableByteChannel channel, byte[] buffer) {
+        this.channel = channel;
+        this.bytes = buffer;
+        this.buffer = ByteBuffer.wrap(bytes);
+    }
+
+    ObjLineReader(byte[] content) {
+        this.channel = null;
+        this.bytes = content;
+        this.buffer = ByteBuffer.wrap(content);
+        this.limit = content.length;
+        this.eof = true;
+    }
+
+    @Override
+    public ByteBuffer buffer() {
+        return buffer;
+    }
+
+    @Override
+    public int lineStart() {
+        return lineStart;
+    }
+
+    @Override
+    public int lineEnd() {
+        return lineEnd;
+    }
+
+    @Override
+    public boolean nextLine() throws IOException {
+        int scanPos = next;
+        while (true) {
+            for (int i = scanPos; i < limit; i++) {
+                byte b = bytes[i];
+                if (b == '\n') {
+                    lineStart = next;
+                    lineEnd = i;
+                    next = i + 1;
+                    return true;
+                }
+                if (b == '\r') {
+                    if (i + 1 == limit && !eof) {
+                        // Нужно увидеть следующий байт, чтобы не разорвать \r\n
+                        break;
+                    }
+                    lineStart = next;
+                    lineEnd = i;
+                    next = (i + 1 < limit && bytes[i + 1] == '\n') ? i + 2 : i + 1;
+                    return true;
+                }
+                scanPos = i + 1;
+            }
+
+            if (eof) {
+                if (next < limit) {
+                    lineStart = next;
+                    lineEnd = limit;
+                    next = limit;
+                    return true;
+                }
+                return false;
+            }
+
+            scanPos -= next;
+            fill();
+        }
+    }
+
+    private void fill() throws IOException {
+        int remaining = limit - next;
+        if (next == 0 && limit == bytes.length) {
+            // Строка не помещается в буфер - расширяем его
+            byte[] grown = new byte[bytes.length * 2];
+            System.arraycopy(bytes, 0, grown, 0, limit);
+            bytes = grown;
+            buffer = ByteBuffer.wrap(bytes);
+        } else if (next > 0) {
+            System.arraycopy(bytes, next, bytes, 0, remaining);
+        }
+        next = 0;
+        limit = remaining;
+
+        ByteBuffer target = ByteBuffer.wrap(bytes, limit, bytes.length - limit);
+        int read;
+        do {
+            read = channel.read(target);
+        } while (read == 0);
+
+        if (read < 0) {
+            eof = true;
+        } else {
+            limit += read;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.objreader;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+// Источник строк для ObjParser: строка - это диапазон [lineStart, lineEnd) в buffer()
+interface ObjLineSource {
+
+    boolean nextLine() throws IOException;
+
+    // Буфер с текущей строкой. Может меняться между вызовами nextLine()
+    ByteBuffer buffer();
+
+    int lineStart();
+
+    int lineEnd();
+}
@@ -0,0 +1,46 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.objreader;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Строка файла как CharSequence без копирования. Байты декодируются из UTF-8
+// только при первом обращении, поэтому непрочитанные строки ничего не стоят.
+final class ObjLineView implements CharSequence {
+
+    private ByteBuffer buffer;
+    private int start;
+    private int end;
+    private String decoded;
+
+    void set(ByteBuffer buffer, int start, int end) {
+        this.buffer = buffer;
+        this.start = start;
+        this.end = end;
+        this.decoded = null;
+    }
+
+    @Override
+    public int length() {
+        return toString().length();
+    }
+
+    @Override
+    public char charAt(int index) {
+        return toString().charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int from, int to) {
+        return toString().subSequence(from, to);
+    }
+
+    @Override
+    public String toString() {
+        if (decoded == null) {
+            byte[] bytes = new byte[end - start];
+            buffer.get(start, bytes);
+            decoded = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return decoded;
+    }
+}
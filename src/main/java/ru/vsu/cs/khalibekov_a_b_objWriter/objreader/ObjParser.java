@@ -0,0 +1,252 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.objreader;
+
+import ru.vsu.cs.khalibekov_a_b_objWriter.metrics.ObjOperationRecorder;
+import ru.vsu.cs.khalibekov_a_b_objWriter.metrics.ObjOperationStats.LineType;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.CompactModel;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+// Разбор строк OBJ-файла с передачей элементов в ObjVisitor.
+// Хранит состояние одного прохода: номер строки и буферы индексов грани.
+final class ObjParser {
+
+    private static final int INITIAL_FACE_CAPACITY = 16;
+
+    private final ObjTokenizer tokenizer = new ObjTokenizer();
+    private final ObjLineView unknownLine = new ObjLineView();
+
+    private int[] faceVertexIndices = new int[INITIAL_FACE_CAPACITY];
+    private int[] faceTextureVertexIndices = new int[INITIAL_FACE_CAPACITY];
+    private int[] faceNormalIndices = new int[INITIAL_FACE_CAPACITY];
+
+    private int lineInd;
+
+    private int vertexCount;
+    private int textureVertexCount;
+    private int normalCount;
+    private int faceCount;
+    private int cornerCount;
+
+    // Если задан, парсер разбирает кусок файла и запоминает, какие индексы
+    // отсчитаны от локального числа элементов
+    private final IndexFixups fixups;
+
+    ObjParser() {
+        this(null);
+    }
+
+    ObjParser(IndexFixups fixups) {
+        this.fixups = fixups;
+    }
+
+    void parse(ObjLineSource lineReader, ObjVisitor visitor) throws IOException {
+        while (lineReader.nextLine()) {
+            parseLine(lineReader.buffer(), lineReader.lineStart(), lineReader.lineEnd(), visitor);
+        }
+    }
+
+    void parseLine(ByteBuffer buffer, int start, int end, ObjVisitor visitor) {
+        tokenizer.reset(buffer, start, end);
+        if (tokenizer.isBlankLine()) {
+            return;
+        }
+
+        ++lineInd;
+        switch (tokenizer.readLineToken()) {
+            case ObjTokenizer.TOKEN_VERTEX -> parseVertex(visitor);
+            case ObjTokenizer.TOKEN_TEXTURE -> parseTextureVertex(visitor);
+            case ObjTokenizer.TOKEN_NORMAL -> parseNormal(visitor);
+            case ObjTokenizer.TOKEN_FACE -> parseFace(visitor);
+            case ObjTokenizer.TOKEN_OBJECT -> {
+                reportUnknownLine(buffer, start, end, visitor);
+                visitor.onObject(tokenizer.remainingWords());
+            }
+            case ObjTokenizer.TOKEN_GROUP -> {
+                reportUnknownLine(buffer, start, end, visitor);
+                visitor.onGroup(tokenizer.remainingWords());
+            }
+            case ObjTokenizer.TOKEN_MATERIAL -> {
+                reportUnknownLine(buffer, start, end, visitor);
+                visitor.onMaterial(tokenizer.remainingWords());
+            }
+            case ObjTokenizer.TOKEN_MATERIAL_LIBRARY -> {
+                reportUnknownLine(buffer, start, end, visitor);
+                String fileNames = tokenizer.remainingWords();
+                if (fileNames != null) {
+                    visitor.onMaterialLibrary(fileNames);
+                }
+            }
+            case ObjTokenizer.TOKEN_SMOOTHING_GROUP -> {
+                reportUnknownLine(buffer, start, end, visitor);
+                visitor.onSmoothingGroup(parseSmoothingGroup());
+            }
+            default -> {
+                if (start < end) {
+                    reportUnknownLine(buffer, start, end, visitor);
+                }
+            }
+        }
+    }
+
+    private void reportUnknownLine(ByteBuffer buffer, int start, int end, ObjVisitor visitor) {
+        unknownLine.set(buffer, start, end);
+        visitor.onUnknownLine(unknownLine, lineInd);
+    }
+
+    // "s", "s off" и "s 0" выключают сглаживание. Раньше строки s пропускались целиком,
+    // поэтому и нечисловое значение не ошибка, а тоже выключенное сглаживание
+    private int parseSmoothingGroup() {
+        if (!tokenizer.nextWord() || tokenizer.isWordOff()) {
+            return 0;
+        }
+        try {
+            return Math.max(tokenizer.wordAsInt(), 0);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    // Продолжение разбора с середины файла: число уже учтённых строк и элементов,
+    // объявленных раньше (от них отсчитываются относительные индексы граней)
+    void resume(int lineIndex, int vertices, int textureVertices, int normals) {
+        lineInd = lineIndex;
+        vertexCount = vertices;
+        textureVertexCount = textureVertices;
+        normalCount = normals;
+    }
+
+    // Число учтённых строк: строки из одних пробелов не считаются, как и раньше
+    int lineCount() {
+        return lineInd;
+    }
+
+    // Число разобранных строк каждого типа
+    void recordLineCounts(ObjOperationRecorder recorder) {
+        recorder.addLines(LineType.VERTEX, vertexCount);
+        recorder.addLines(LineType.TEXTURE, textureVertexCount);
+        recorder.addLines(LineType.NORMAL, normalCount);
+        recorder.addLines(LineType.FACE, faceCount);
+        recorder.addLines(LineType.OTHER, lineInd - vertexCount - textureVertexCount - normalCount - faceCount);
+    }
+
+    private void parseVertex(ObjVisitor visitor) {
+        int argumentCount = tokenizer.countRemainingWords();
+        if (argumentCount > 3) {
+            throw new ObjReaderException("Too many vertex arguments. Expected 3, got " + argumentCount, lineInd);
+        }
+
+        String tooFewMessage = "Too few vertex arguments.";
+        float x = nextFloat(tooFewMessage);
+        float y = nextFloat(tooFewMessage);
+        float z = nextFloat(tooFewMessage);
+        visitor.onVertex(x, y, z);
+        vertexCount++;
+    }
+
+    private void parseTextureVertex(ObjVisitor visitor) {
+        int argumentCount = tokenizer.countRemainingWords();
+        if (argumentCount > 2) {
+            throw new ObjReaderException("Too many texture vertex arguments. Expected 2, got " + argumentCount, lineInd);
+        }
+
+        String tooFewMessage = "Too few texture vertex arguments.";
+        float u = nextFloat(tooFewMessage);
+        float v = nextFloat(tooFewMessage);
+        visitor.onTexCoord(u, v);
+        textureVertexCount++;
+    }
+
+    private void parseNormal(ObjVisitor visitor) {
+        int argumentCount = tokenizer.countRemainingWords();
+        if (argumentCount > 3) {
+            throw new ObjReaderException("Too many normal arguments. Expected 3, got " + argumentCount, lineInd);
+        }
+
+        String tooFewMessage = "Too few normal arguments.";
+        float x = nextFloat(tooFewMessage);
+        float y = nextFloat(tooFewMessage);
+        float z = nextFloat(tooFewMessage);
+        visitor.onNormal(x, y, z);
+        normalCount++;
+    }
+
+    private float nextFloat(String tooFewMessage) {
+        if (!tokenizer.nextWord()) {
+            throw new ObjReaderException(tooFewMessage, lineInd);
+        }
+        try {
+            return tokenizer.wordAsFloat();
+        } catch (NumberFormatException e) {
+            throw new ObjReaderException("Failed to parse float value.", lineInd);
+        }
+    }
+
+    private void parseFace(ObjVisitor visitor) {
+        int count = tokenizer.countRemainingWords();
+        if (faceVertexIndices.length < count) {
+            faceVertexIndices = new int[count];
+            faceTextureVertexIndices = new int[count];
+            faceNormalIndices = new int[count];
+        }
+
+        boolean hasTextures = false;
+        boolean hasNormals = false;
+        try {
+            for (int i = 0; tokenizer.nextWord(); i++) {
+                int textureIndex = CompactModel.NO_INDEX;
+                int normalIndex = CompactModel.NO_INDEX;
+                switch (tokenizer.splitFaceWord()) {
+                    case 1 -> {
+                        faceVertexIndices[i] = resolveIndex(tokenizer.fieldAsInt(0), IndexFixups.VERTEX, i);
+                    }
+                    case 2 -> {
+                        faceVertexIndices[i] = resolveIndex(tokenizer.fieldAsInt(0), IndexFixups.VERTEX, i);
+                        textureIndex = resolveIndex(tokenizer.fieldAsInt(1), IndexFixups.TEXTURE, i);
+                    }
+                    case 3 -> {
+                        faceVertexIndices[i] = resolveIndex(tokenizer.fieldAsInt(0), IndexFixups.VERTEX, i);
+                        normalIndex = resolveIndex(tokenizer.fieldAsInt(2), IndexFixups.NORMAL, i);
+                        if (!tokenizer.isFieldEmpty(1)) {
+                            textureIndex = resolveIndex(tokenizer.fieldAsInt(1), IndexFixups.TEXTURE, i);
+                        }
+                    }
+                    default -> {
+                        throw new ObjReaderException("Invalid element size.", lineInd);
+                    }
+                }
+                faceTextureVertexIndices[i] = textureIndex;
+                faceNormalIndices[i] = normalIndex;
+                hasTextures |= textureIndex != CompactModel.NO_INDEX;
+                hasNormals |= normalIndex != CompactModel.NO_INDEX;
+            }
+
+        } catch(NumberFormatException e) {
+            throw new ObjReaderException("Failed to parse int value.", lineInd);
+        }
+
+        visitor.onFace(faceVertexIndices,
+                hasTextures ? faceTextureVertexIndices : null,
+                hasNormals ? faceNormalIndices : null,
+                count);
+        cornerCount += count;
+        faceCount++;
+    }
+
+    // Индексы OBJ начинаются с 1, отрицательные отсчитываются от последнего
+    // объявленного элемента (-1 - последний). Ноль остаётся некорректным индексом -1.
+    private int resolveIndex(int index, int kind, int corner) {
+        if (index >= 0) {
+            return index - 1;
+        }
+        if (fixups != null) {
+            fixups.add(kind, cornerCount + corner);
+        }
+        int declared = switch (kind) {
+            case IndexFixups.VERTEX -> vertexCount;
+            case IndexFixups.TEXTURE -> textureVertexCount;
+            default -> normalCount;
+        };
+        return declared + index;
+    }
+}
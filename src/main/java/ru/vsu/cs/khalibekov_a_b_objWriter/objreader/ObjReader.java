@@ -1,47 +1,225 @@
 package ru.vsu.cs.khalibekov_a_b_objWriter.objreader;
 
+import ru.vsu.cs.khalibekov_a_b_objWriter.io.BufferPool;
 import ru.vsu.cs.khalibekov_a_b_objWriter.math.Vector2f;
 import ru.vsu.cs.khalibekov_a_b_objWriter.math.Vector3f;
+import ru.vsu.cs.khalibekov_a_b_objWriter.metrics.ObjMetricsListener;
+import ru.vsu.cs.khalibekov_a_b_objWriter.metrics.ObjOperationRecorder;
+import ru.vsu.cs.khalibekov_a_b_objWriter.metrics.ObjOperationStats;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.CompactModel;
 import ru.vsu.cs.khalibekov_a_b_objWriter.model.Model;
 import ru.vsu.cs.khalibekov_a_b_objWriter.model.Polygon;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Scanner;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 public class ObjReader {
 
-	private static final String OBJ_VERTEX_TOKEN = "v";
-	private static final String OBJ_TEXTURE_TOKEN = "vt";
-	private static final String OBJ_NORMAL_TOKEN = "vn";
-	private static final String OBJ_FACE_TOKEN = "f";
+	private static final int READ_BUFFER_SIZE = 1 << 16;
+
+	// Буферы чтения переиспользуются от файла к файлу из общего ограниченного пула (как буферы записи в ObjWriter)
+	private static final BufferPool READ_BUFFERS = new BufferPool(READ_BUFFER_SIZE,
+			Math.min(Runtime.getRuntime().availableProcessors(), 8));
 
 	public static Model read(String fileContent) {
-		Model result = new Model();
-
-		int lineInd = 0;
-		Scanner scanner = new Scanner(fileContent);
-		while (scanner.hasNextLine()) {
-			final String line = scanner.nextLine();
-			ArrayList<String> wordsInLine = new ArrayList<String>(Arrays.asList(line.split("\\s+")));
-			if (wordsInLine.isEmpty()) {
-				continue;
-			}
+		ModelBuilder builder = new ModelBuilder();
+		read(fileContent, builder);
+		return builder.getModel();
+	}
+
+	public static Model read(Path path) throws IOException {
+		ModelBuilder builder = new ModelBuilder();
+		read(path, builder);
+		return builder.getModel();
+	}
 
-			final String token = wordsInLine.get(0);
-			wordsInLine.remove(0);
+	// Поток не закрывается - им владеет вызывающий код
+	public static Model read(InputStream in) throws IOException {
+		return read(Channels.newChannel(in));
+	}
 
-			++lineInd;
-			switch (token) {
-				case OBJ_VERTEX_TOKEN -> result.vertices.add(parseVertex(wordsInLine, lineInd));
-				case OBJ_TEXTURE_TOKEN -> result.textureVertices.add(parseTextureVertex(wordsInLine, lineInd));
-				case OBJ_NORMAL_TOKEN -> result.normals.add(parseNormal(wordsInLine, lineInd));
-				case OBJ_FACE_TOKEN -> result.polygons.add(parseFace(wordsInLine, lineInd));
-				default -> {}
-			}
+	// Канал не закрывается - им владеет вызывающий код
+	public static Model read(ReadableByteChannel channel) throws IOException {
+		ModelBuilder builder = new ModelBuilder();
+		read(channel, builder);
+		return builder.getModel();
+	}
+
+	public static CompactModel readCompact(String fileContent) {
+		CompactModelBuilder builder = new CompactModelBuilder();
+		read(fileContent, builder);
+		return builder.getModel();
+	}
+
+	public static CompactModel readCompact(Path path) throws IOException {
+		CompactModelBuilder builder = new CompactModelBuilder();
+		read(path, builder);
+		return builder.getModel();
+	}
+
+	// Поток не закрывается - им владеет вызывающий код
+	public static CompactModel readCompact(InputStream in) throws IOException {
+		return readCompact(Channels.newChannel(in));
+	}
+
+	// Канал не закрывается - им владеет вызывающий код
+	public static CompactModel readCompact(ReadableByteChannel channel) throws IOException {
+		CompactModelBuilder builder = new CompactModelBuilder();
+		read(channel, builder);
+		return builder.getModel();
+	}
+
+	// Разбор прямо из отображённого в память файла: без копирования содержимого в кучу,
+	// подходит для очень больших файлов на локальном диске
+	public static Model readMapped(Path path) throws IOException {
+		ModelBuilder builder = new ModelBuilder();
+		readMapped(path, builder);
+		return builder.getModel();
+	}
+
+	public static CompactModel readCompactMapped(Path path) throws IOException {
+		CompactModelBuilder builder = new CompactModelBuilder();
+		readMapped(path, builder);
+		return builder.getModel();
+	}
+
+	// Чтение через бинарный кэш рядом с файлом (model.obj.bin). Кэш создаётся при первом чтении
+	// и используется, пока размер и время изменения .obj не поменялись
+	public static Model readCached(Path path) throws IOException {
+		return BinaryModelCache.readCompact(path).toModel();
+	}
+
+	public static CompactModel readCompactCached(Path path) throws IOException {
+		return BinaryModelCache.readCompact(path);
+	}
+
+	// Ленивый доступ к элементам по номеру без разбора всего файла. Индекс позиций записей
+	// создаётся одним проходом и кэшируется рядом с файлом (model.obj.idx)
+	public static LazyObjModel openLazy(Path path) throws IOException {
+		return LazyObjModel.open(path);
+	}
+
+	// Параллельный разбор кусками на общем ForkJoinPool. Результат и ошибки те же, что у read(Path)
+	public static Model readParallel(Path path) throws IOException {
+		return readParallel(path, ForkJoinPool.commonPool());
+	}
+
+	public static Model readParallel(Path path, Executor executor) throws IOException {
+		return ParallelObjReader.read(path, executor, ParallelObjReader.DEFAULT_CHUNK_SIZE);
+	}
+
+	public static CompactModel readCompactParallel(Path path) throws IOException {
+		return readCompactParallel(path, ForkJoinPool.commonPool());
+	}
+
+	public static CompactModel readCompactParallel(Path path, Executor executor) throws IOException {
+		return ParallelObjReader.readCompact(path, executor, ParallelObjReader.DEFAULT_CHUNK_SIZE);
+	}
+
+	// Потоковый разбор: элементы передаются в visitor по мере чтения, модель не строится,
+	// поэтому память не зависит от размера файла
+	public static void read(String fileContent, ObjVisitor visitor) {
+		try {
+			new ObjParser().parse(new ObjLineReader(fileContent.getBytes(StandardCharsets.UTF_8)), visitor);
+		} catch (IOException e) {
+			// Чтение из массива не бросает IOException
+			throw new UncheckedIOException(e);
 		}
+	}
 
-		return result;
+	public static void read(Path path, ObjVisitor visitor) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			read(channel, visitor);
+		}
+	}
+
+	// Поток не закрывается - им владеет вызывающий код
+	public static void read(InputStream in, ObjVisitor visitor) throws IOException {
+		read(Channels.newChannel(in), visitor);
+	}
+
+	// Канал не закрывается - им владеет вызывающий код.
+	// Сжатый gzip поток (model.obj.gz) распознаётся по сигнатуре и распаковывается в отдельном потоке
+	public static void read(ReadableByteChannel channel, ObjVisitor visitor) throws IOException {
+		byte[] buffer = READ_BUFFERS.borrow();
+		try (ReadableByteChannel input = InflatingChannel.open(channel)) {
+			new ObjParser().parse(new ObjLineReader(input, buffer), visitor);
+		} finally {
+			READ_BUFFERS.release(buffer);
+		}
+	}
+
+	// Чтение с метриками (байты, строки по типам, время ввода-вывода и разбора, прогресс по байтам).
+	// При listener == null то же, что read(path)
+	public static Model read(Path path, ObjMetricsListener listener) throws IOException {
+		ModelBuilder builder = new ModelBuilder();
+		read(path, builder, listener);
+		return builder.getModel();
+	}
+
+	public static CompactModel readCompact(Path path, ObjMetricsListener listener) throws IOException {
+		CompactModelBuilder builder = new CompactModelBuilder();
+		read(path, builder, listener);
+		return builder.getModel();
+	}
+
+	public static void read(Path path, ObjVisitor visitor, ObjMetricsListener listener) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			read(channel, visitor, listener, path.toString(), channel.size());
+		}
+	}
+
+	// Канал не закрывается - им владеет вызывающий код
+	public static void read(ReadableByteChannel channel, ObjVisitor visitor, ObjMetricsListener listener) throws IOException {
+		long size = channel instanceof FileChannel file ? file.size() - file.position() : -1;
+		read(channel, visitor, listener, channel.toString(), size);
+	}
+
+	private static void read(ReadableByteChannel channel, ObjVisitor visitor, ObjMetricsListener listener,
+							 String source, long size) throws IOException {
+		ObjOperationRecorder recorder = ObjOperationRecorder.start(listener, ObjOperationStats.Operation.READ, source, size);
+		if (recorder == null) {
+			read(channel, visitor);
+			return;
+		}
+		ObjParser parser = new ObjParser();
+		ObjOperationRecorder.run(recorder, () -> {
+			try {
+				// Байты и прогресс считаются по сжатому файлу, но в потоке разбора: у сжатого - по тому,
+				// сколько его прочитал поток распаковки
+				byte[] buffer = READ_BUFFERS.borrow();
+				try (ReadableByteChannel input = InflatingChannel.open(channel)) {
+					ReadableByteChannel counted = input instanceof InflatingChannel inflating
+							? recorder.wrapInput(input, inflating::sourcePosition) : recorder.wrapInput(input);
+					parser.parse(new ObjLineReader(counted, buffer), visitor);
+				} finally {
+					READ_BUFFERS.release(buffer);
+				}
+			} finally {
+				parser.recordLineCounts(recorder);
+			}
+		});
+	}
+
+	// Сжатый файл отобразить нельзя - он читается как в read(path, visitor)
+	public static void readMapped(Path path, ObjVisitor visitor) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			if (InflatingChannel.isGzip(channel)) {
+				read(channel, visitor);
+				return;
+			}
+			new ObjParser().parse(new MappedObjLineReader(channel), visitor);
+		}
 	}
 
 	public static Vector3f parseVertex(final ArrayList<String> wordsInLineWithoutToken, int lineInd) {
@@ -1,7 +1,23 @@
 package ru.vsu.cs.khalibekov_a_b_objWriter.objreader;
 
 public class ObjReaderException extends RuntimeException {
+    private final String errorMessage;
+    private final int lineInd;
+
     public ObjReaderException(String errorMessage, int lineInd) {
         super("Error parsing OBJ file on line: " + lineInd + ". " + errorMessage);
+        this.errorMessage = errorMessage;
+        this.lineInd = lineInd;
+    }
+
+    public int getLineInd() {
+        return lineInd;
+    }
+
+    // Та же ошибка для строки, номер которой сдвинут на lineOffset (разбор по частям)
+    ObjReaderException shiftLine(int lineOffset) {
+        ObjReaderException shifted = new ObjReaderException(errorMessage, lineInd + lineOffset);
+        shifted.setStackTrace(getStackTrace());
+        return shifted;
     }
-}
\ No newline at end of file
+}
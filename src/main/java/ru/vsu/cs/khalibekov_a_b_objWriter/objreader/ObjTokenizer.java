@@ -0,0 +1,348 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.objreader;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Курсор по одной строке OBJ-файла. Разбирает слова, float и индексы граней
+// прямо в буфере, не создавая String и списков на каждую строку.
+// Слова разделяются так же, как line.split("\\s+"), а числа читаются так же,
+// как Float.parseFloat / Integer.parseInt: редкие случаи (NaN, hex, очень длинные
+// мантиссы, не-ASCII цифры) отдаются стандартным методам.
+final class ObjTokenizer {
+
+    static final int TOKEN_UNKNOWN = 0;
+    static final int TOKEN_VERTEX = 1;
+    static final int TOKEN_TEXTURE = 2;
+    static final int TOKEN_NORMAL = 3;
+    static final int TOKEN_FACE = 4;
+    static final int TOKEN_OBJECT = 5;
+    static final int TOKEN_GROUP = 6;
+    static final int TOKEN_MATERIAL = 7;
+    static final int TOKEN_MATERIAL_LIBRARY = 8;
+    static final int TOKEN_SMOOTHING_GROUP = 9;
+
+    private static final byte[] USEMTL = "usemtl".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] MTLLIB = "mtllib".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] OFF = "off".getBytes(StandardCharsets.US_ASCII);
+
+    private static final int MAX_FACE_FIELDS = 3;
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private ByteBuffer buffer;
+    private int lineStart;
+    private int lineEnd;
+    private int pos;
+
+    private int wordStart;
+    private int wordEnd;
+
+    private final int[] fieldStart = new int[MAX_FACE_FIELDS];
+    private final int[] fieldEnd = new int[MAX_FACE_FIELDS];
+
+    void reset(ByteBuffer buffer, int start, int end) {
+        this.buffer = buffer;
+        this.lineStart = start;
+        this.lineEnd = end;
+        this.pos = start;
+    }
+
+    // Непустая строка из одних пробелов: split("\\s+") вернёт пустой массив
+    boolean isBlankLine() {
+        if (lineStart == lineEnd) {
+            return false;
+        }
+        for (int i = lineStart; i < lineEnd; i++) {
+            if (!isWhitespace(buffer.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Первое слово строки. Если строка начинается с пробела, первое слово пустое
+    int readLineToken() {
+        pos = lineStart;
+        if (pos < lineEnd && isWhitespace(buffer.get(pos))) {
+            return TOKEN_UNKNOWN;
+        }
+        int start = pos;
+        while (pos < lineEnd && !isWhitespace(buffer.get(pos))) {
+            pos++;
+        }
+        int length = pos - start;
+        byte first = length > 0 ? buffer.get(start) : 0;
+        if (length == 1) {
+            if (first == 'v') {
+                return TOKEN_VERTEX;
+            }
+            if (first == 'f') {
+                return TOKEN_FACE;
+            }
+            if (first == 'o') {
+                return TOKEN_OBJECT;
+            }
+            if (first == 'g') {
+                return TOKEN_GROUP;
+            }
+            if (first == 's') {
+                return TOKEN_SMOOTHING_GROUP;
+            }
+        } else if (length == 2 && first == 'v') {
+            byte second = buffer.get(start + 1);
+            if (second == 't') {
+                return TOKEN_TEXTURE;
+            }
+            if (second == 'n') {
+                return TOKEN_NORMAL;
+            }
+        } else if (matches(start, pos, USEMTL)) {
+            return TOKEN_MATERIAL;
+        } else if (matches(start, pos, MTLLIB)) {
+            return TOKEN_MATERIAL_LIBRARY;
+        }
+        return TOKEN_UNKNOWN;
+    }
+
+    // Оставшиеся слова строки через один пробел (имя объекта, группы, материала) или null, если слов нет
+    String remainingWords() {
+        StringBuilder result = null;
+        while (nextWord()) {
+            if (result == null) {
+                result = new StringBuilder();
+            } else {
+                result.append(' ');
+            }
+            result.append(decode(wordStart, wordEnd));
+        }
+        return result == null ? null : result.toString();
+    }
+
+    boolean isWordOff() {
+        return matches(wordStart, wordEnd, OFF);
+    }
+
+    int countRemainingWords() {
+        int count = 0;
+        int i = pos;
+        while (true) {
+            while (i < lineEnd && isWhitespace(buffer.get(i))) {
+                i++;
+            }
+            if (i == lineEnd) {
+                return count;
+            }
+            count++;
+            while (i < lineEnd && !isWhitespace(buffer.get(i))) {
+                i++;
+            }
+        }
+    }
+
+    boolean nextWord() {
+        while (pos < lineEnd && isWhitespace(buffer.get(pos))) {
+            pos++;
+        }
+        if (pos == lineEnd) {
+            return false;
+        }
+        wordStart = pos;
+        while (pos < lineEnd && !isWhitespace(buffer.get(pos))) {
+            pos++;
+        }
+        wordEnd = pos;
+        return true;
+    }
+
+    float wordAsFloat() {
+        return parseFloat(wordStart, wordEnd);
+    }
+
+    int wordAsInt() {
+        return parseInt(wordStart, wordEnd);
+    }
+
+    // Делит текущее слово по '/' так же, как word.split("/"):
+    // завершающие пустые поля отбрасываются. Возвращает число полей,
+    // значение больше 3 означает некорректный элемент.
+    int splitFaceWord() {
+        int end = wordEnd;
+        while (end > wordStart && buffer.get(end - 1) == '/') {
+            end--;
+        }
+        if (end == wordStart) {
+            return 0;
+        }
+
+        int count = 0;
+        int start = wordStart;
+        for (int i = wordStart; i <= end; i++) {
+            if (i == end || buffer.get(i) == '/') {
+                if (count == MAX_FACE_FIELDS) {
+                    return MAX_FACE_FIELDS + 1;
+                }
+                fieldStart[count] = start;
+                fieldEnd[count] = i;
+                count++;
+                start = i + 1;
+            }
+        }
+        return count;
+    }
+
+    boolean isFieldEmpty(int field) {
+        return fieldStart[field] == fieldEnd[field];
+    }
+
+    int fieldAsInt(int field) {
+        return parseInt(fieldStart[field], fieldEnd[field]);
+    }
+
+    private int parseInt(int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end) {
+            byte sign = buffer.get(i);
+            if (sign == '-' || sign == '+') {
+                negative = sign == '-';
+                i++;
+            }
+        }
+        if (i == end || end - i > 9) {
+            // Пустое поле, возможное переполнение и т.п. - решает Integer.parseInt
+            return Integer.parseInt(decode(start, end));
+        }
+
+        int value = 0;
+        for (; i < end; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return Integer.parseInt(decode(start, end));
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    // Быстрый путь: мантисса до 2^53 и порядок до 10^22 дают точно округлённый double.
+    // Приведение к float может дать двойное округление только если double попал ровно
+    // в середину между соседними float - такие значения отдаются Float.parseFloat.
+    private float parseFloat(int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end) {
+            byte sign = buffer.get(i);
+            if (sign == '-' || sign == '+') {
+                negative = sign == '-';
+                i++;
+            }
+        }
+
+        long mantissa = 0;
+        int significantDigits = 0;
+        int digits = 0;
+        int exponent = 0;
+
+        for (; i < end; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                break;
+            }
+            digits++;
+            if (mantissa != 0 || digit != 0) {
+                if (++significantDigits > 18) {
+                    return Float.parseFloat(decode(start, end));
+                }
+                mantissa = mantissa * 10 + digit;
+            }
+        }
+        if (i < end && buffer.get(i) == '.') {
+            i++;
+            for (; i < end; i++) {
+                int digit = buffer.get(i) - '0';
+                if (digit < 0 || digit > 9) {
+                    break;
+                }
+                digits++;
+                exponent--;
+                if (mantissa != 0 || digit != 0) {
+                    if (++significantDigits > 18) {
+                        return Float.parseFloat(decode(start, end));
+                    }
+                    mantissa = mantissa * 10 + digit;
+                }
+            }
+        }
+        if (digits == 0) {
+            return Float.parseFloat(decode(start, end));
+        }
+        if (i < end && (buffer.get(i) == 'e' || buffer.get(i) == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+                negativeExponent = buffer.get(i) == '-';
+                i++;
+            }
+            if (i == end || end - i > 4) {
+                return Float.parseFloat(decode(start, end));
+            }
+            int explicitExponent = 0;
+            for (; i < end; i++) {
+                int digit = buffer.get(i) - '0';
+                if (digit < 0 || digit > 9) {
+                    return Float.parseFloat(decode(start, end));
+                }
+                explicitExponent = explicitExponent * 10 + digit;
+            }
+            exponent += negativeExponent ? -explicitExponent : explicitExponent;
+        }
+        if (i != end) {
+            return Float.parseFloat(decode(start, end));
+        }
+
+        if (mantissa == 0) {
+            return negative ? -0.0f : 0.0f;
+        }
+        if (mantissa >= MAX_EXACT_MANTISSA || exponent < -22 || exponent > 22) {
+            return Float.parseFloat(decode(start, end));
+        }
+
+        double value = exponent >= 0
+                ? mantissa * POWERS_OF_TEN[exponent]
+                : mantissa / POWERS_OF_TEN[-exponent];
+        long bits = Double.doubleToRawLongBits(value);
+        if (value < Float.MIN_NORMAL || value > Float.MAX_VALUE || (bits & 0x1FFFFFFFL) == 0x10000000L) {
+            return Float.parseFloat(decode(start, end));
+        }
+        float result = (float) value;
+        return negative ? -result : result;
+    }
+
+    private boolean matches(int start, int end, byte[] keyword) {
+        if (end - start != keyword.length) {
+            return false;
+        }
+        for (int i = 0; i < keyword.length; i++) {
+            if (buffer.get(start + i) != keyword[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String decode(int start, int end) {
+        byte[] bytes = new byte[end - start];
+        for (int i = start; i < end; i++) {
+            bytes[i - start] = buffer.get(i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Те же символы, что и \s в java.util.regex
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == 0x0B || b == '\f' || b == '\r';
+    }
+}
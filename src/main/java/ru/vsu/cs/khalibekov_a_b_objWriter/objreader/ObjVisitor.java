@@ -0,0 +1,46 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.objreader;
+
+// Получатель элементов OBJ-файла при потоковом разборе (ObjReader.read(..., ObjVisitor)).
+// Все методы по умолчанию ничего не делают - достаточно переопределить нужные.
+// Индексы в onFace() уже переведены в отсчёт от 0, относительные (отрицательные) разрешены.
+// Массивы в onFace() переиспользуются парсером и действительны только во время вызова.
+// Отсутствующие у угла индексы текстуры / нормали передаются как CompactModel.NO_INDEX,
+// а если их нет ни у одного угла - массив равен null.
+public interface ObjVisitor {
+
+    default void onVertex(float x, float y, float z) {
+    }
+
+    default void onTexCoord(float u, float v) {
+    }
+
+    default void onNormal(float x, float y, float z) {
+    }
+
+    default void onFace(int[] v, int[] vt, int[] vn, int count) {
+    }
+
+    // Непустая строка, которую парсер не разбирает в элементы (комментарии, неизвестные команды).
+    // Строки o, g, usemtl, mtllib и s тоже приходят сюда, а сразу после - в свой метод ниже.
+    // line действительна только во время вызова, для сохранения нужен line.toString()
+    default void onUnknownLine(CharSequence line, int lineInd) {
+    }
+
+    // Имена - остаток строки, слова через один пробел; null, если имени нет ("g" без аргументов)
+
+    default void onObject(String name) {
+    }
+
+    default void onGroup(String name) {
+    }
+
+    default void onMaterial(String name) {
+    }
+
+    default void onMaterialLibrary(String fileNames) {
+    }
+
+    // "s off" и "s 0" передаются как 0
+    default void onSmoothingGroup(int group) {
+    }
+}
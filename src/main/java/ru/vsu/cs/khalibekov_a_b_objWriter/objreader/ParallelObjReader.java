@@ -0,0 +1,357 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.objreader;
+
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.CompactModel;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.Model;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+// Параллельный разбор: файл делится на куски по границам строк, куски разбираются
+// независимо, а результаты склеиваются в порядке следования в файле.
+// Номера строк в ошибках и относительные индексы пересчитываются при склейке,
+// поэтому результат совпадает с последовательным ObjReader.
+final class ParallelObjReader {
+
+    static final int DEFAULT_CHUNK_SIZE = 8 << 20;
+
+    private static final int BOUNDARY_PROBE_SIZE = 4096;
+
+    private ParallelObjReader() {
+    }
+
+    // Сжатый файл нельзя разрезать по байтовым смещениям - он разбирается последовательно
+    static CompactModel readCompact(Path path, Executor executor, int chunkSize) throws IOException {
+        if (InflatingChannel.isGzip(path)) {
+            return ObjReader.readCompact(path);
+        }
+        List<Chunk> chunks = parseChunks(path, executor, chunkSize);
+
+        int vertexCount = 0;
+        int textureVertexCount = 0;
+        int normalCount = 0;
+        int polygonCount = 0;
+        int indexCount = 0;
+        boolean hasTextures = false;
+        boolean hasNormals = false;
+        for (Chunk chunk : chunks) {
+            CompactModel part = chunk.model;
+            vertexCount += part.getVertexCount();
+            textureVertexCount += part.getTextureVertexCount();
+            normalCount += part.getNormalCount();
+            polygonCount += part.getPolygonCount();
+            indexCount += part.getIndexCount();
+            hasTextures |= part.getTextureVertexIndices() != null;
+            hasNormals |= part.getNormalIndices() != null;
+        }
+
+        float[] vertices = new float[3 * vertexCount];
+        float[] textureVertices = new float[2 * textureVertexCount];
+        float[] normals = new float[3 * normalCount];
+        int[] polygonOffsets = new int[polygonCount + 1];
+        int[] vertexIndices = new int[indexCount];
+        int[] textureVertexIndices = hasTextures ? new int[indexCount] : null;
+        int[] normalIndices = hasNormals ? new int[indexCount] : null;
+
+        List<CompletableFuture<Void>> copies = new ArrayList<CompletableFuture<Void>>(chunks.size());
+        for (Chunk chunk : chunks) {
+            copies.add(CompletableFuture.runAsync(() -> {
+                CompactModel part = chunk.model;
+                chunk.applyFixups();
+                System.arraycopy(part.getVertexData(), 0, vertices, 3 * chunk.vertexBase, 3 * part.getVertexCount());
+                System.arraycopy(part.getTextureVertexData(), 0, textureVertices, 2 * chunk.textureVertexBase,
+                        2 * part.getTextureVertexCount());
+                System.arraycopy(part.getNormalData(), 0, normals, 3 * chunk.normalBase, 3 * part.getNormalCount());
+
+                int[] partOffsets = part.getPolygonOffsets();
+                for (int i = 1; i <= part.getPolygonCount(); i++) {
+                    polygonOffsets[chunk.polygonBase + i] = chunk.indexBase + partOffsets[i];
+                }
+                int partIndexCount = part.getIndexCount();
+                System.arraycopy(part.getVertexIndices(), 0, vertexIndices, chunk.indexBase, partIndexCount);
+                copyIndices(part.getTextureVertexIndices(), textureVertexIndices, chunk.indexBase, partIndexCount);
+                copyIndices(part.getNormalIndices(), normalIndices, chunk.indexBase, partIndexCount);
+            }, executor));
+        }
+        join(copies);
+
+        CompactModel result = new CompactModel(vertices, vertexCount, textureVertices, textureVertexCount,
+                normals, normalCount, polygonOffsets, polygonCount, vertexIndices, textureVertexIndices, normalIndices);
+        PolygonRangeTracker groups = mergeGroups(chunks);
+        result.getMaterialLibraries().addAll(groups.getMaterialLibraries());
+        result.getPolygonRanges().addAll(groups.buildRanges(polygonCount));
+        return result;
+    }
+
+    static Model read(Path path, Executor executor, int chunkSize) throws IOException {
+        if (InflatingChannel.isGzip(path)) {
+            return ObjReader.read(path);
+        }
+        List<Chunk> chunks = parseChunks(path, executor, chunkSize);
+
+        List<CompletableFuture<Model>> parts = new ArrayList<CompletableFuture<Model>>(chunks.size());
+        for (Chunk chunk : chunks) {
+            parts.add(CompletableFuture.supplyAsync(() -> {
+                chunk.applyFixups();
+                return chunk.model.toModel();
+            }, executor));
+        }
+        join(parts);
+
+        Model result = new Model();
+        Chunk last = chunks.get(chunks.size() - 1);
+        result.vertices.ensureCapacity(last.vertexBase + last.model.getVertexCount());
+        result.textureVertices.ensureCapacity(last.textureVertexBase + last.model.getTextureVertexCount());
+        result.normals.ensureCapacity(last.normalBase + last.model.getNormalCount());
+        result.polygons.ensureCapacity(last.polygonBase + last.model.getPolygonCount());
+        for (CompletableFuture<Model> future : parts) {
+            Model part = future.join();
+            result.vertices.addAll(part.vertices);
+            result.textureVertices.addAll(part.textureVertices);
+            result.normals.addAll(part.normals);
+            result.polygons.addAll(part.polygons);
+        }
+        PolygonRangeTracker groups = mergeGroups(chunks);
+        result.materialLibraries.addAll(groups.getMaterialLibraries());
+        result.polygonRanges = groups.buildRanges(result.polygons.size());
+        return result;
+    }
+
+    // Материал или группа, объявленные в одном куске, действуют и в следующих
+    private static PolygonRangeTracker mergeGroups(List<Chunk> chunks) {
+        PolygonRangeTracker merged = new PolygonRangeTracker();
+        for (Chunk chunk : chunks) {
+            merged.append(chunk.groups, chunk.polygonBase);
+        }
+        return merged;
+    }
+
+    private static List<Chunk> parseChunks(Path path, Executor executor, int chunkSize) throws IOException {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long[] bounds = splitAtLines(channel, chunkSize);
+
+            List<CompletableFuture<Chunk>> futures = new ArrayList<CompletableFuture<Chunk>>(bounds.length - 1);
+            for (int i = 0; i + 1 < bounds.length; i++) {
+                long start = bounds[i];
+                long end = bounds[i + 1];
+                futures.add(CompletableFuture.supplyAsync(() -> parseChunk(channel, start, end), executor));
+            }
+
+            // Первая по порядку ошибка - та же, что дал бы последовательный разбор
+            List<Chunk> chunks = new ArrayList<Chunk>(futures.size());
+            int lineOffset = 0;
+            for (int i = 0; i < futures.size(); i++) {
+                Chunk chunk;
+                try {
+                    chunk = futures.get(i).get();
+                } catch (ExecutionException e) {
+                    cancel(futures, i + 1);
+                    Throwable cause = e.getCause();
+                    if (cause instanceof ObjReaderException) {
+                        throw ((ObjReaderException) cause).shiftLine(lineOffset);
+                    }
+                    if (cause instanceof UncheckedIOException) {
+                        throw ((UncheckedIOException) cause).getCause();
+                    }
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    }
+                    if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    throw new IOException(cause);
+                } catch (InterruptedException e) {
+                    cancel(futures, i);
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("OBJ parsing was interrupted");
+                }
+                lineOffset += chunk.lineCount;
+                chunks.add(chunk);
+            }
+
+            assignBases(chunks);
+            return chunks;
+        }
+    }
+
+    private static Chunk parseChunk(FileChannel channel, long start, long end) {
+        byte[] bytes = new byte[(int) (end - start)];
+        try {
+            ByteBuffer target = ByteBuffer.wrap(bytes);
+            while (target.hasRemaining()) {
+                if (channel.read(target, start + target.position()) < 0) {
+                    throw new IOException("File was truncated while reading");
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        IndexFixups fixups = new IndexFixups();
+        ObjParser parser = new ObjParser(fixups);
+        CompactModelBuilder builder = new CompactModelBuilder();
+        try {
+            parser.parse(new ObjLineReader(bytes), builder);
+        } catch (IOException e) {
+            // Чтение из массива не бросает IOException
+            throw new UncheckedIOException(e);
+        }
+        return new Chunk(builder.getModel(), builder.getGroups(), fixups, parser.lineCount());
+    }
+
+    // Границы кусков: каждая граница стоит сразу после конца строки (\n, \r или \r\n)
+    static long[] splitAtLines(FileChannel channel, long chunkSize) throws IOException {
+        long size = channel.size();
+        List<Long> bounds = new ArrayList<Long>();
+        bounds.add(0L);
+
+        ByteBuffer probe = ByteBuffer.allocate(BOUNDARY_PROBE_SIZE);
+        long position = 0;
+        while (size - position > chunkSize) {
+            long next = findLineEnd(channel, probe, position + chunkSize, size);
+            if (next >= size) {
+                break;
+            }
+            bounds.add(next);
+            position = next;
+        }
+        bounds.add(size);
+
+        long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = bounds.get(i);
+        }
+        return result;
+    }
+
+    private static long findLineEnd(FileChannel channel, ByteBuffer probe, long from, long size) throws IOException {
+        long position = from;
+        while (position < size) {
+            probe.clear();
+            int read = channel.read(probe, position);
+            if (read <= 0) {
+                return size;
+            }
+            for (int i = 0; i < read; i++) {
+                byte b = probe.get(i);
+                if (b == '\n') {
+                    return position + i + 1;
+                }
+                if (b == '\r') {
+                    if (i + 1 < read) {
+                        return probe.get(i + 1) == '\n' ? position + i + 2 : position + i + 1;
+                    }
+                    // \r - последний прочитанный байт, смотрим следующий
+                    ByteBuffer single = ByteBuffer.allocate(1);
+                    long after = position + i + 1;
+                    if (channel.read(single, after) == 1 && single.get(0) == '\n') {
+                        return after + 1;
+                    }
+                    return after;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static void assignBases(List<Chunk> chunks) {
+        int vertexBase = 0;
+        int textureVertexBase = 0;
+        int normalBase = 0;
+        int polygonBase = 0;
+        int indexBase = 0;
+        for (Chunk chunk : chunks) {
+            chunk.vertexBase = vertexBase;
+            chunk.textureVertexBase = textureVertexBase;
+            chunk.normalBase = normalBase;
+            chunk.polygonBase = polygonBase;
+            chunk.indexBase = indexBase;
+            vertexBase += chunk.model.getVertexCount();
+            textureVertexBase += chunk.model.getTextureVertexCount();
+            normalBase += chunk.model.getNormalCount();
+            polygonBase += chunk.model.getPolygonCount();
+            indexBase += chunk.model.getIndexCount();
+        }
+    }
+
+    private static void copyIndices(int[] source, int[] target, int offset, int count) {
+        if (target == null) {
+            return;
+        }
+        if (source == null) {
+            Arrays.fill(target, offset, offset + count, CompactModel.NO_INDEX);
+        } else {
+            System.arraycopy(source, 0, target, offset, count);
+        }
+    }
+
+    private static void cancel(List<? extends CompletableFuture<?>> futures, int from) {
+        for (int i = from; i < futures.size(); i++) {
+            futures.get(i).cancel(false);
+        }
+    }
+
+    private static void join(List<? extends CompletableFuture<?>> futures) {
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CancellationException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    private static final class Chunk {
+        final CompactModel model;
+        final PolygonRangeTracker groups;
+        final IndexFixups fixups;
+        final int lineCount;
+
+        int vertexBase;
+        int textureVertexBase;
+        int normalBase;
+        int polygonBase;
+        int indexBase;
+
+        Chunk(CompactModel model, PolygonRangeTracker groups, IndexFixups fixups, int lineCount) {
+            this.model = model;
+            this.groups = groups;
+            this.fixups = fixups;
+            this.lineCount = lineCount;
+        }
+
+        // Относительные индексы куска отсчитаны от его начала - сдвигаем на предыдущие куски
+        void applyFixups() {
+            fixups.apply(IndexFixups.VERTEX, model.getVertexIndices(), vertexBase);
+            if (model.getTextureVertexIndices() != null) {
+                fixups.apply(IndexFixups.TEXTURE, model.getTextureVertexIndices(), textureVertexBase);
+            }
+            if (model.getNormalIndices() != null) {
+                fixups.apply(IndexFixups.NORMAL, model.getNormalIndices(), normalBase);
+            }
+        }
+    }
+}
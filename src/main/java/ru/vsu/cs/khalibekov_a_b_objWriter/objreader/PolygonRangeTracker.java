@@ -0,0 +1,110 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.objreader;
+
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.PolygonRange;
+
+import java.util.ArrayList;
+
+// Запоминает строки o, g, usemtl и s вместе с числом полигонов перед ними, а в конце
+// превращает их в диапазоны полигонов. Хранятся именно изменения, а не состояние:
+// кусок файла при параллельном разборе не знает, какие материал и группа действуют
+// в его начале, - это выясняется при склейке (append) кусков по порядку.
+final class PolygonRangeTracker {
+
+    private static final int OBJECT = 0;
+    private static final int GROUP = 1;
+    private static final int MATERIAL = 2;
+    private static final int SMOOTHING = 3;
+
+    private static final class Change {
+        final int polygon;
+        final int kind;
+        final String name;
+        final int smoothingGroup;
+
+        Change(int polygon, int kind, String name, int smoothingGroup) {
+            this.polygon = polygon;
+            this.kind = kind;
+            this.name = name;
+            this.smoothingGroup = smoothingGroup;
+        }
+    }
+
+    private final ArrayList<Change> changes = new ArrayList<Change>();
+    private final ArrayList<String> materialLibraries = new ArrayList<String>();
+
+    void onObject(String name, int polygonCount) {
+        changes.add(new Change(polygonCount, OBJECT, name, 0));
+    }
+
+    void onGroup(String name, int polygonCount) {
+        changes.add(new Change(polygonCount, GROUP, name, 0));
+    }
+
+    void onMaterial(String name, int polygonCount) {
+        changes.add(new Change(polygonCount, MATERIAL, name, 0));
+    }
+
+    void onSmoothingGroup(int group, int polygonCount) {
+        changes.add(new Change(polygonCount, SMOOTHING, null, group));
+    }
+
+    void onMaterialLibrary(String fileNames) {
+        materialLibraries.add(fileNames);
+    }
+
+    ArrayList<String> getMaterialLibraries() {
+        return materialLibraries;
+    }
+
+    // Изменения следующего куска файла, полигоны которого начинаются с polygonBase
+    void append(PolygonRangeTracker next, int polygonBase) {
+        for (Change change : next.changes) {
+            changes.add(new Change(polygonBase + change.polygon, change.kind, change.name, change.smoothingGroup));
+        }
+        materialLibraries.addAll(next.materialLibraries);
+    }
+
+    // Диапазоны покрывают все полигоны, соседние различаются атрибутами, пустых нет.
+    // Если ни у одного полигона нет атрибутов, список пуст
+    ArrayList<PolygonRange> buildRanges(int polygonCount) {
+        ArrayList<PolygonRange> ranges = new ArrayList<PolygonRange>();
+        if (changes.isEmpty() || polygonCount == 0) {
+            return ranges;
+        }
+
+        String objectName = null;
+        String groupName = null;
+        String materialName = null;
+        int smoothingGroup = 0;
+        ranges.add(new PolygonRange(0, null, null, null, 0));
+        for (Change change : changes) {
+            if (change.polygon >= polygonCount) {
+                break;
+            }
+            switch (change.kind) {
+                case OBJECT -> objectName = change.name;
+                case GROUP -> groupName = change.name;
+                case MATERIAL -> materialName = change.name;
+                default -> smoothingGroup = change.smoothingGroup;
+            }
+            PolygonRange range = new PolygonRange(change.polygon, objectName, groupName, materialName, smoothingGroup);
+
+            // Несколько строк подряд без граней между ними меняют один и тот же диапазон
+            PolygonRange last = ranges.get(ranges.size() - 1);
+            if (last.getFirstPolygon() == range.getFirstPolygon()) {
+                ranges.remove(ranges.size() - 1);
+                if (!ranges.isEmpty() && ranges.get(ranges.size() - 1).hasSameAttributes(range)) {
+                    continue;
+                }
+            } else if (last.hasSameAttributes(range)) {
+                continue;
+            }
+            ranges.add(range);
+        }
+
+        if (ranges.size() == 1 && ranges.get(0).hasNoAttributes()) {
+            ranges.clear();
+        }
+        return ranges;
+    }
+}
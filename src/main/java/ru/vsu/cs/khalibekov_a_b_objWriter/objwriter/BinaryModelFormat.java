@@ -0,0 +1,49 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.objwriter;
+
+import java.nio.charset.StandardCharsets;
+
+// Бинарный формат модели (все числа little-endian).
+// Заголовок, HEADER_SIZE байт:
+//   0  magic "OBJB"
+//   4  int  версия формата
+//   8  int  флаги (HAS_TEXTURE_INDICES, HAS_NORMAL_INDICES)
+//   12 int  число вершин, 16 - текстурных координат, 20 - нормалей, 24 - полигонов, 28 - углов
+//   32 long размер исходного .obj или -1
+//   40 long время изменения исходного .obj в наносекундах или -1
+//   48 long CRC32C данных после заголовка
+// Данные: float-массивы вершин, текстурных координат и нормалей, int-массив смещений
+// полигонов (polygonCount + 1), индексы вершин и, если заданы флаги, индексы текстур и нормалей.
+public final class BinaryModelFormat {
+
+    public static final byte[] MAGIC = "OBJB".getBytes(StandardCharsets.US_ASCII);
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 64;
+
+    public static final int HAS_TEXTURE_INDICES = 1;
+    public static final int HAS_NORMAL_INDICES = 1 << 1;
+
+    public static final int FLAGS_OFFSET = 8;
+    public static final int COUNTS_OFFSET = 12;
+    public static final int SOURCE_SIZE_OFFSET = 32;
+    public static final int SOURCE_MODIFIED_OFFSET = 40;
+    public static final int CHECKSUM_OFFSET = 48;
+
+    public static final long NO_SOURCE = -1;
+
+    private BinaryModelFormat() {
+    }
+
+    // Размер данных после заголовка в байтах
+    public static long payloadSize(int vertexCount, int textureVertexCount, int normalCount,
+                                   int polygonCount, int indexCount, int flags) {
+        long indexArrays = 1;
+        if ((flags & HAS_TEXTURE_INDICES) != 0) {
+            indexArrays++;
+        }
+        if ((flags & HAS_NORMAL_INDICES) != 0) {
+            indexArrays++;
+        }
+        return Float.BYTES * (3L * vertexCount + 2L * textureVertexCount + 3L * normalCount)
+                + Integer.BYTES * (polygonCount + 1L + indexArrays * indexCount);
+    }
+}
@@ -0,0 +1,125 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.objwriter;
+
+import ru.vsu.cs.khalibekov_a_b_objWriter.io.AtomicFiles;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.CompactModel;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.Model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32C;
+
+// Запись модели в бинарном формате BinaryModelFormat
+public class BinaryModelWriter {
+
+    private static final int CHUNK_SIZE = 1 << 20;
+
+    public static void saveModel(Model model, String filename) throws IOException {
+        if (model == null) {
+            throw new IOException("Invalid model provided!");
+        }
+        saveCompactModel(toCompactModel(model), filename);
+    }
+
+    public static void saveCompactModel(CompactModel model, String filename) throws IOException {
+        saveCompactModel(model, filename, BinaryModelFormat.NO_SOURCE, BinaryModelFormat.NO_SOURCE);
+    }
+
+    // sourceSize и sourceModifiedTime описывают .obj, из которого получена модель (для кэша)
+    public static void saveCompactModel(CompactModel model, String filename,
+                                        long sourceSize, long sourceModifiedTime) throws IOException {
+        if (model == null) {
+            throw new IOException("Invalid model provided!");
+        }
+
+        int flags = flags(model);
+        int indexCount = model.getIndexCount();
+        AtomicFiles.writeAtomically(filename, channel -> {
+            ByteBuffer chunk = ByteBuffer.allocateDirect(CHUNK_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            CRC32C checksum = new CRC32C();
+
+            channel.position(BinaryModelFormat.HEADER_SIZE);
+            writeFloats(channel, chunk, checksum, model.getVertexData(), 3 * model.getVertexCount());
+            writeFloats(channel, chunk, checksum, model.getTextureVertexData(), 2 * model.getTextureVertexCount());
+            writeFloats(channel, chunk, checksum, model.getNormalData(), 3 * model.getNormalCount());
+            writeInts(channel, chunk, checksum, model.getPolygonOffsets(), model.getPolygonCount() + 1);
+            writeInts(channel, chunk, checksum, model.getVertexIndices(), indexCount);
+            if (model.getTextureVertexIndices() != null) {
+                writeInts(channel, chunk, checksum, model.getTextureVertexIndices(), indexCount);
+            }
+            if (model.getNormalIndices() != null) {
+                writeInts(channel, chunk, checksum, model.getNormalIndices(), indexCount);
+            }
+
+            // Заголовок пишется последним, когда известна контрольная сумма
+            ByteBuffer header = ByteBuffer.allocate(BinaryModelFormat.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.put(BinaryModelFormat.MAGIC);
+            header.putInt(BinaryModelFormat.VERSION);
+            header.putInt(flags);
+            header.putInt(model.getVertexCount());
+            header.putInt(model.getTextureVertexCount());
+            header.putInt(model.getNormalCount());
+            header.putInt(model.getPolygonCount());
+            header.putInt(indexCount);
+            header.putLong(sourceSize);
+            header.putLong(sourceModifiedTime);
+            header.putLong(checksum.getValue());
+            header.clear();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+        });
+    }
+
+    private static int flags(CompactModel model) {
+        int flags = 0;
+        if (model.getTextureVertexIndices() != null) {
+            flags |= BinaryModelFormat.HAS_TEXTURE_INDICES;
+        }
+        if (model.getNormalIndices() != null) {
+            flags |= BinaryModelFormat.HAS_NORMAL_INDICES;
+        }
+        return flags;
+    }
+
+    private static CompactModel toCompactModel(Model model) throws IOException {
+        try {
+            return CompactModel.fromModel(model);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    private static void writeFloats(FileChannel channel, ByteBuffer chunk, CRC32C checksum,
+                                    float[] data, int length) throws IOException {
+        int perChunk = chunk.capacity() / Float.BYTES;
+        for (int from = 0; from < length; from += perChunk) {
+            int count = Math.min(perChunk, length - from);
+            chunk.clear();
+            chunk.asFloatBuffer().put(data, from, count);
+            chunk.limit(count * Float.BYTES);
+            writeChunk(channel, chunk, checksum);
+        }
+    }
+
+    private static void writeInts(FileChannel channel, ByteBuffer chunk, CRC32C checksum,
+                                  int[] data, int length) throws IOException {
+        int perChunk = chunk.capacity() / Integer.BYTES;
+        for (int from = 0; from < length; from += perChunk) {
+            int count = Math.min(perChunk, length - from);
+            chunk.clear();
+            chunk.asIntBuffer().put(data, from, count);
+            chunk.limit(count * Integer.BYTES);
+            writeChunk(channel, chunk, checksum);
+        }
+    }
+
+    private static void writeChunk(FileChannel channel, ByteBuffer chunk, CRC32C checksum) throws IOException {
+        checksum.update(chunk);
+        chunk.flip();
+        while (chunk.hasRemaining()) {
+            channel.write(chunk);
+        }
+    }
+}
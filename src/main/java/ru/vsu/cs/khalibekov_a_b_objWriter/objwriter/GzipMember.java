@@ -0,0 +1,139 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.objwriter;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+// Один gzip-член из независимо сжатых блоков (как у pigz): каждый блок сжимается своим Deflater
+// и дополняется до границы байта (SYNC_FLUSH), поэтому блоки можно сжимать параллельно и просто
+// склеить по порядку. Контрольная сумма всего файла собирается из сумм блоков без повторного чтения.
+final class GzipMember {
+
+    // ID1 ID2, deflate, без флагов и времени, XFL 0, ОС неизвестна
+    private static final byte[] HEADER = {0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    // Последний пустой блок с фиксированными кодами: BFINAL = 1, BTYPE = 01, код конца блока
+    private static final byte[] FINAL_BLOCK = {3, 0};
+
+    private static final int CRC32_POLYNOMIAL = 0xedb88320;
+
+    // Deflater держит нативную память zlib, поэтому свободные хранятся в ограниченном общем пуле
+    // и сбрасываются между блоками. Не поместившиеся в пул и сломанные ошибкой освобождаются end()
+    private static final BlockingQueue<Deflater> DEFLATERS =
+            new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors());
+
+    private int crc;
+    private long length;
+
+    static ByteBuffer header() {
+        return ByteBuffer.wrap(HEADER.clone());
+    }
+
+    // Сжатый блок, который можно поставить между любыми другими такими же блоками
+    static ByteBuffer deflate(ByteBuffer raw) {
+        ByteBuffer out = ByteBuffer.allocate(raw.remaining() + (raw.remaining() >> 3) + 64);
+        if (!raw.hasRemaining()) {
+            return out.flip();
+        }
+        Deflater deflater = DEFLATERS.poll();
+        if (deflater == null) {
+            deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        }
+        try {
+            deflater.setInput(raw.duplicate());
+            while (true) {
+                int space = out.remaining();
+                // Заполненный до конца буфер значит, что сброс ещё не закончен
+                if (deflater.deflate(out, Deflater.SYNC_FLUSH) < space) {
+                    break;
+                }
+                out = ByteBuffer.allocate(2 * out.capacity()).put(out.flip());
+            }
+        } catch (RuntimeException | Error e) {
+            deflater.end();
+            throw e;
+        }
+        deflater.reset();
+        if (!DEFLATERS.offer(deflater)) {
+            deflater.end();
+        }
+        return out.flip();
+    }
+
+    static int crc32(ByteBuffer raw) {
+        CRC32 crc = new CRC32();
+        crc.update(raw.duplicate());
+        return (int) crc.getValue();
+    }
+
+    // Блоки добавляются в порядке записи
+    void append(int blockCrc, long blockLength) {
+        crc = combine(crc, blockCrc, blockLength);
+        length += blockLength;
+    }
+
+    // Завершающий блок, CRC32 и длина несжатых данных по модулю 2^32
+    ByteBuffer trailer() {
+        ByteBuffer trailer = ByteBuffer.allocate(FINAL_BLOCK.length + 8).order(ByteOrder.LITTLE_ENDIAN);
+        trailer.put(FINAL_BLOCK).putInt(crc).putInt((int) length);
+        return trailer.flip();
+    }
+
+    // CRC32 склейки двух кусков по их суммам и длине второго (crc32_combine из zlib):
+    // сдвиг первой суммы на length2 нулевых байт - умножение на степень матрицы над GF(2)
+    static int combine(int crc1, int crc2, long length2) {
+        if (length2 <= 0) {
+            return crc1;
+        }
+        int[] even = new int[32];
+        int[] odd = new int[32];
+        // Оператор сдвига на один бит
+        odd[0] = CRC32_POLYNOMIAL;
+        int row = 1;
+        for (int n = 1; n < 32; n++) {
+            odd[n] = row;
+            row <<= 1;
+        }
+        // Сдвиг на два и на четыре бита
+        square(even, odd);
+        square(odd, even);
+
+        int result = crc1;
+        do {
+            // Сдвиг на байт, два байта и т. д. по битам length2
+            square(even, odd);
+            if ((length2 & 1) != 0) {
+                result = times(even, result);
+            }
+            length2 >>= 1;
+            if (length2 == 0) {
+                break;
+            }
+            square(odd, even);
+            if ((length2 & 1) != 0) {
+                result = times(odd, result);
+            }
+            length2 >>= 1;
+        } while (length2 != 0);
+        return result ^ crc2;
+    }
+
+    private static int times(int[] matrix, int vector) {
+        int sum = 0;
+        for (int i = 0; vector != 0; i++, vector >>>= 1) {
+            if ((vector & 1) != 0) {
+                sum ^= matrix[i];
+            }
+        }
+        return sum;
+    }
+
+    private static void square(int[] square, int[] matrix) {
+        for (int n = 0; n < 32; n++) {
+            square[n] = times(matrix, matrix[n]);
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.objwriter;
+
+import ru.vsu.cs.khalibekov_a_b_objWriter.io.AtomicFiles;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.Model;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.ModelChanges;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.ModelChanges.Section;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.SavedLayout;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Сохранение с правкой файла на месте (ObjWriter.saveModelIncremental). При полной записи запоминается,
+// где лежат записи (SavedLayout), при следующем сохранении заново кодируются только отмеченные
+// в ModelChanges записи и пишутся поверх старых:
+// FIXED_WIDTH - каждая запись на своё место, если помещается в ширину строки;
+// INDEXED - блоки по STRIDE записей целиком, если длина блока в байтах не изменилась.
+// Сначала кодируются все правки, и только если все помещаются, файл открывается на запись,
+// иначе он переписывается целиком.
+final class IncrementalObjWriter {
+
+    static final int STRIDE = 1024;
+    // Запас ширины строк FIXED_WIDTH: правка, после которой строка стала на пару символов длиннее
+    // (знак минус, ещё одна цифра), помещается на место
+    static final int WIDTH_SLACK = 2;
+
+    private static final Section[] SECTIONS = Section.values();
+
+    private IncrementalObjWriter() {
+    }
+
+    // true - файл исправлен на месте, false - записан целиком
+    static boolean save(Model model, String filename, SavedLayout.Mode mode) throws IOException {
+        if (model.changes == null) {
+            model.changes = new ModelChanges();
+        }
+        ModelChanges changes = model.changes;
+        Path path = Path.of(filename).toAbsolutePath().normalize();
+        SavedLayout layout = changes.getSavedLayout();
+        if (layout != null && layout.getMode() == mode && matches(model, layout, path)) {
+            List<Patch> patches = encodePatches(model, changes, layout);
+            if (patches != null) {
+                // Оборванная правка оставляет файл неизвестно каким - раскладка сбрасывается до её окончания
+                changes.setSavedLayout(null);
+                apply(path, patches);
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                changes.setSavedLayout(layout.withFile(attributes.size(),
+                        attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS)));
+                changes.clear();
+                return true;
+            }
+        }
+
+        SavedLayout written = writeFull(model, filename, path, mode);
+        changes.setSavedLayout(written);
+        changes.clear();
+        return false;
+    }
+
+    // Кусок файла для перезаписи
+    private record Patch(long position, ByteBuffer bytes) {
+    }
+
+    // Файл тот же и не менялся с последнего сохранения, а число элементов и строки между ними - прежние
+    private static boolean matches(Model model, SavedLayout layout, Path path) throws IOException {
+        if (!layout.getPath().equals(path)) {
+            return false;
+        }
+        int[] counts = counts(model);
+        for (Section section : SECTIONS) {
+            if (layout.getCount(section) != counts[section.ordinal()]) {
+                return false;
+            }
+        }
+        if (!layout.getMaterialLibraries().equals(model.materialLibraries)
+                || !layout.getPolygonRanges().equals(model.polygonRanges)) {
+            return false;
+        }
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            return attributes.size() == layout.getFileSize()
+                    && attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS) == layout.getModifiedTime();
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    // Все правки в памяти; null - какая-то запись не помещается на место старой
+    private static List<Patch> encodePatches(Model model, ModelChanges changes, SavedLayout layout) throws IOException {
+        List<Patch> patches = new ArrayList<Patch>();
+        ObjOutputBuffer scratch = new ObjOutputBuffer(256);
+        int[] bounds = ObjWriter.rangeBounds(model.polygonRanges, model.polygons.size());
+        for (Section section : SECTIONS) {
+            int count = layout.getCount(section);
+            int[] dirty = changes.getDirtyRanges(section);
+            long[] offsets = layout.getOffsets(section);
+            int lastBlock = -1;
+            for (int r = 0; r < dirty.length; r += 2) {
+                int from = dirty[r];
+                int to = Math.min(dirty[r + 1], count);
+                if (from >= to) {
+                    continue;
+                }
+                if (layout.getMode() == SavedLayout.Mode.FIXED_WIDTH) {
+                    int width = layout.getRecordWidth(section);
+                    // Отрезок f не переходит через строки o, g, usemtl, s между диапазонами
+                    while (from < to) {
+                        int segment = section == Section.POLYGONS ? segmentOf(bounds, from) : 0;
+                        int segmentFirst = section == Section.POLYGONS ? bounds[segment] : 0;
+                        int end = section == Section.POLYGONS ? Math.min(to, bounds[segment + 1]) : to;
+                        ObjOutputBuffer out = new ObjOutputBuffer(width * (end - from));
+                        for (int i = from; i < end; i++) {
+                            scratch.clear();
+                            encode(scratch, model, section, i, i + 1);
+                            if (!writePadded(out, scratch, width)) {
+                                return null;
+                            }
+                        }
+                        patches.add(new Patch(offsets[segment] + (long) (from - segmentFirst) * width,
+                                out.toByteBuffer()));
+                        from = end;
+                    }
+                } else {
+                    for (int block = Math.max(from / STRIDE, lastBlock + 1); block <= (to - 1) / STRIDE; block++) {
+                        ObjOutputBuffer out = new ObjOutputBuffer(4096);
+                        encodeBlock(out, model, section, bounds, block * STRIDE, Math.min(count, (block + 1) * STRIDE));
+                        if (out.size() != offsets[block + 1] - offsets[block]) {
+                            return null;
+                        }
+                        patches.add(new Patch(offsets[block], out.toByteBuffer()));
+                        lastBlock = block;
+                    }
+                }
+            }
+        }
+        return patches;
+    }
+
+    private static void apply(Path path, List<Patch> patches) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            for (Patch patch : patches) {
+                ByteBuffer bytes = patch.bytes();
+                long position = patch.position();
+                while (bytes.hasRemaining()) {
+                    position += channel.write(bytes, position);
+                }
+            }
+        }
+    }
+
+    // Записи [from, to) блока INDEXED; у f - со строками o, g, usemtl, s диапазонов, которые начинаются
+    // внутри блока или сразу за ним (в полном файле они стоят перед позицией следующего блока)
+    private static void encodeBlock(ObjOutputBuffer out, Model model, Section section, int[] bounds,
+                                    int from, int to) throws IOException {
+        if (section != Section.POLYGONS) {
+            encode(out, model, section, from, to);
+            return;
+        }
+        int segment = segmentOf(bounds, from);
+        while (true) {
+            int end = Math.min(to, bounds[segment + 1]);
+            ObjWriter.writePolygons(out, model, from, end);
+            if (end == bounds[segment + 1] && segment + 2 < bounds.length) {
+                segment++;
+                ObjWriter.writeRangeStatements(out, model.polygonRanges.get(segment - 1), model.polygonRanges.get(segment));
+            }
+            if (end == to) {
+                return;
+            }
+            from = end;
+        }
+    }
+
+    private static SavedLayout writeFull(Model model, String filename, Path path, SavedLayout.Mode mode) throws IOException {
+        int[] counts = counts(model);
+        int[] widths = new int[SECTIONS.length];
+        ObjOutputBuffer scratch = new ObjOutputBuffer(256);
+        if (mode == SavedLayout.Mode.FIXED_WIDTH) {
+            for (Section section : SECTIONS) {
+                int width = 0;
+                for (int i = 0; i < counts[section.ordinal()]; i++) {
+                    scratch.clear();
+                    encode(scratch, model, section, i, i + 1);
+                    width = Math.max(width, scratch.size());
+                }
+                widths[section.ordinal()] = width == 0 ? 0 : width + WIDTH_SLACK;
+            }
+        }
+
+        long[][] offsets = new long[SECTIONS.length][];
+        AtomicFiles.writeAtomically(filename, channel -> {
+            byte[] buffer = ObjWriter.borrowWriteBuffer();
+            try {
+                ObjOutputBuffer writer = new ObjOutputBuffer(channel, buffer);
+                ObjWriter.writeHeader(writer, counts[0], counts[1], counts[2], counts[3]);
+                ObjWriter.writeMaterialLibraries(writer, model.materialLibraries);
+
+                for (Section section : SECTIONS) {
+                    int index = section.ordinal();
+                    int count = counts[index];
+                    int[] bounds = section == Section.POLYGONS
+                            ? ObjWriter.rangeBounds(model.polygonRanges, count) : new int[]{0, count};
+                    long[] sectionOffsets = mode == SavedLayout.Mode.FIXED_WIDTH
+                            ? new long[bounds.length - 1] : new long[(count + STRIDE - 1) / STRIDE + 1];
+                    offsets[index] = sectionOffsets;
+                    int[] segment = {0};
+                    ObjWriter.RangeWriter body = (from, to) -> {
+                        if (mode == SavedLayout.Mode.FIXED_WIDTH) {
+                            sectionOffsets[segment[0]++] = writer.position();
+                            for (int i = from; i < to; i++) {
+                                scratch.clear();
+                                encode(scratch, model, section, i, i + 1);
+                                if (!writePadded(writer, scratch, widths[index])) {
+                                    throw new IOException("Model changed while saving: " + section + " " + i);
+                                }
+                            }
+                        } else {
+                            // Позиция каждой STRIDE-й записи, записи между ними пишутся подряд
+                            for (int run = from; run < to; ) {
+                                if (run % STRIDE == 0) {
+                                    sectionOffsets[run / STRIDE] = writer.position();
+                                }
+                                int runEnd = Math.min(to, (run / STRIDE + 1) * STRIDE);
+                                encode(writer, model, section, run, runEnd);
+                                run = runEnd;
+                            }
+                        }
+                    };
+                    if (section == Section.POLYGONS) {
+                        ObjWriter.writeGroupedPolygons(writer, model.polygonRanges, count, body);
+                    } else {
+                        body.write(0, count);
+                    }
+                    if (mode == SavedLayout.Mode.INDEXED) {
+                        sectionOffsets[sectionOffsets.length - 1] = writer.position();
+                    }
+                    if (section != Section.POLYGONS) {
+                        ObjWriter.writeSectionEnd(writer, count);
+                    }
+                }
+                writer.flush();
+            } finally {
+                ObjWriter.returnWriteBuffer(buffer);
+            }
+        });
+
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        return new SavedLayout(path, attributes.size(), attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS),
+                mode, STRIDE, counts, widths, offsets, model.materialLibraries, model.polygonRanges);
+    }
+
+    // Записи [from, to) секции в том же виде, что у ObjWriter.saveModel (полигоны проверяются)
+    private static void encode(ObjOutputBuffer out, Model model, Section section, int from, int to) throws IOException {
+        switch (section) {
+            case VERTICES -> ObjWriter.writeVertices(out, model.vertices, ObjWriter.VERTEX_PREFIX, from, to);
+            case TEXTURE_VERTICES -> ObjWriter.writeTextureCoordinates(out, model.textureVertices, from, to);
+            case NORMALS -> ObjWriter.writeVertices(out, model.normals, ObjWriter.NORMAL_PREFIX, from, to);
+            case POLYGONS -> ObjWriter.writePolygons(out, model, from, to);
+        }
+    }
+
+    // Строка из record (с '\n' в конце), дополненная пробелами перед '\n' до width; false - не помещается
+    private static boolean writePadded(ObjOutputBuffer out, ObjOutputBuffer record, int width) throws IOException {
+        int length = record.size();
+        if (length > width) {
+            return false;
+        }
+        out.write(record.toByteBuffer().array(), 0, length - 1);
+        for (int i = length; i < width; i++) {
+            out.writeByte(' ');
+        }
+        out.writeByte('\n');
+        return true;
+    }
+
+    // Диапазон полигонов, в который входит полигон
+    private static int segmentOf(int[] bounds, int polygon) {
+        int found = Arrays.binarySearch(bounds, 0, bounds.length - 1, polygon);
+        return found >= 0 ? found : -found - 2;
+    }
+
+    private static int[] counts(Model model) {
+        return new int[]{model.vertices.size(), model.textureVertices.size(),
+                model.normals.size(), model.polygons.size()};
+    }
+}
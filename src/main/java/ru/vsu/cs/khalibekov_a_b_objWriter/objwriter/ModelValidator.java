@@ -0,0 +1,309 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.objwriter;
+
+import ru.vsu.cs.khalibekov_a_b_objWriter.math.PolygonNormals;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.CompactModel;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.Model;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.Polygon;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+// Проверка полигонов модели без записи: в отличие от ObjWriter не останавливается
+// на первой ошибке, а собирает все проблемы в ValidationReport.
+// Полигоны проверяются кусками по CHUNK_SIZE, куски могут проверяться параллельно.
+public class ModelValidator {
+
+    public static final int DEFAULT_MAX_PROBLEMS = 100;
+
+    static final int CHUNK_SIZE = 1 << 16;
+
+    public static ValidationReport validate(Model model) {
+        return validate(model, DEFAULT_MAX_PROBLEMS);
+    }
+
+    public static ValidationReport validate(Model model, int maxProblems) {
+        checkModel(model);
+        ValidationReport report = new ValidationReport(maxProblems);
+        validateRange(model, 0, model.polygons.size(), true, report);
+        return report;
+    }
+
+    public static ValidationReport validateParallel(Model model, int maxProblems) {
+        return validateParallel(model, maxProblems, ForkJoinPool.commonPool());
+    }
+
+    public static ValidationReport validateParallel(Model model, int maxProblems, Executor executor) {
+        checkModel(model);
+        return validateChunks(model.polygons.size(), maxProblems, executor,
+                (from, to, report) -> validateRange(model, from, to, true, report));
+    }
+
+    public static ValidationReport validate(CompactModel model) {
+        return validate(model, DEFAULT_MAX_PROBLEMS);
+    }
+
+    public static ValidationReport validate(CompactModel model, int maxProblems) {
+        checkModel(model);
+        ValidationReport report = new ValidationReport(maxProblems);
+        validateRange(model, 0, model.getPolygonCount(), true, report);
+        return report;
+    }
+
+    public static ValidationReport validateParallel(CompactModel model, int maxProblems) {
+        return validateParallel(model, maxProblems, ForkJoinPool.commonPool());
+    }
+
+    public static ValidationReport validateParallel(CompactModel model, int maxProblems, Executor executor) {
+        checkModel(model);
+        return validateChunks(model.getPolygonCount(), maxProblems, executor,
+                (from, to, report) -> validateRange(model, from, to, true, report));
+    }
+
+    @FunctionalInterface
+    private interface ChunkValidator {
+        void validate(int from, int to, ValidationReport report);
+    }
+
+    private static void checkModel(Object model) {
+        if (model == null) {
+            throw new IllegalArgumentException("Invalid model provided!");
+        }
+    }
+
+    // Каждый кусок хранит не больше maxProblems своих проблем, отчёты склеиваются по порядку,
+    // поэтому результат совпадает с последовательной проверкой
+    private static ValidationReport validateChunks(int polygonCount, int maxProblems, Executor executor,
+                                                   ChunkValidator validator) {
+        List<CompletableFuture<ValidationReport>> chunks = new ArrayList<CompletableFuture<ValidationReport>>();
+        for (int from = 0; from < polygonCount; from += CHUNK_SIZE) {
+            int chunkFrom = from;
+            int chunkTo = Math.min(polygonCount, from + CHUNK_SIZE);
+            chunks.add(CompletableFuture.supplyAsync(() -> {
+                ValidationReport report = new ValidationReport(maxProblems);
+                validator.validate(chunkFrom, chunkTo, report);
+                return report;
+            }, executor));
+        }
+
+        ValidationReport result = new ValidationReport(maxProblems);
+        try {
+            for (CompletableFuture<ValidationReport> chunk : chunks) {
+                result.append(chunk.join());
+            }
+        } catch (CompletionException e) {
+            for (CompletableFuture<ValidationReport> chunk : chunks) {
+                chunk.cancel(false);
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        return result;
+    }
+
+    static void validateRange(Model model, int from, int to, boolean checkDegenerate, ValidationReport report) {
+        for (int i = from; i < to; i++) {
+            checkPolygon(model, i, checkDegenerate, report);
+        }
+    }
+
+    static void validateRange(CompactModel model, int from, int to, boolean checkDegenerate, ValidationReport report) {
+        for (int i = from; i < to; i++) {
+            checkPolygon(model, i, checkDegenerate, report);
+        }
+    }
+
+    // Проверки идут в том же порядке, что и раньше в ObjWriter, поэтому первая проблема
+    // полигона совпадает с ошибкой, на которой останавливается запись
+    static void checkPolygon(Model model, int polygonIndex, boolean checkDegenerate, ValidationReport report) {
+        Polygon polygon = model.polygons.get(polygonIndex);
+        if (polygon == null) {
+            report.add(ValidationProblem.Type.NULL_POLYGON, polygonIndex, () -> "Polygon " + polygonIndex + " is invalid");
+            return;
+        }
+
+        ArrayList<Integer> vIndices = polygon.getVertexIndices();
+        ArrayList<Integer> tIndices = polygon.getTextureVertexIndices();
+        ArrayList<Integer> nIndices = polygon.getNormalIndices();
+        if (vIndices == null || vIndices.isEmpty()) {
+            report.add(ValidationProblem.Type.NO_VERTICES, polygonIndex, () -> "Polygon " + polygonIndex + " has no vertices");
+            return;
+        }
+
+        int vertexCount = vIndices.size();
+        boolean hasTextures = tIndices != null && !tIndices.isEmpty();
+        boolean hasNormals = nIndices != null && !nIndices.isEmpty();
+        if (hasTextures && tIndices.size() != vertexCount) {
+            report.add(ValidationProblem.Type.TEXTURE_COUNT_MISMATCH, polygonIndex, () -> "Polygon " + polygonIndex
+                    + ": UV count mismatch (" + tIndices.size() + " vs " + vertexCount + ")");
+        }
+        if (hasNormals && nIndices.size() != vertexCount) {
+            report.add(ValidationProblem.Type.NORMAL_COUNT_MISMATCH, polygonIndex, () -> "Polygon " + polygonIndex
+                    + ": Normal count mismatch (" + nIndices.size() + " vs " + vertexCount + ")");
+        }
+
+        boolean verticesInRange = checkIndexRange(polygonIndex, vIndices, ValidationProblem.Type.VERTEX_INDEX_OUT_OF_RANGE,
+                "vertex", model.vertices.size(), report);
+        if (hasTextures) {
+            checkIndexRange(polygonIndex, tIndices, ValidationProblem.Type.TEXTURE_INDEX_OUT_OF_RANGE,
+                    "texture", model.textureVertices.size(), report);
+        }
+        if (hasNormals) {
+            checkIndexRange(polygonIndex, nIndices, ValidationProblem.Type.NORMAL_INDEX_OUT_OF_RANGE,
+                    "normal", model.normals.size(), report);
+        }
+
+        if (checkDegenerate && verticesInRange) {
+            int[] corners = new int[vertexCount];
+            for (int j = 0; j < vertexCount; j++) {
+                corners[j] = vIndices.get(j);
+            }
+            checkDegenerate(polygonIndex, corners, 0, vertexCount, model, null, report);
+        }
+    }
+
+    static void checkPolygon(CompactModel model, int polygonIndex, boolean checkDegenerate, ValidationReport report) {
+        int[] offsets = model.getPolygonOffsets();
+        int start = offsets[polygonIndex];
+        int end = offsets[polygonIndex + 1];
+        if (start == end) {
+            report.add(ValidationProblem.Type.NO_VERTICES, polygonIndex, () -> "Polygon " + polygonIndex + " has no vertices");
+            return;
+        }
+
+        int[] vIndices = model.getVertexIndices();
+        int[] tIndices = model.getTextureVertexIndices();
+        int[] nIndices = model.getNormalIndices();
+        int vertexCount = end - start;
+        int textureCount = countPresent(tIndices, start, end);
+        int normalCount = countPresent(nIndices, start, end);
+        if (textureCount != 0 && textureCount != vertexCount) {
+            report.add(ValidationProblem.Type.TEXTURE_COUNT_MISMATCH, polygonIndex, () -> "Polygon " + polygonIndex
+                    + ": UV count mismatch (" + textureCount + " vs " + vertexCount + ")");
+        }
+        if (normalCount != 0 && normalCount != vertexCount) {
+            report.add(ValidationProblem.Type.NORMAL_COUNT_MISMATCH, polygonIndex, () -> "Polygon " + polygonIndex
+                    + ": Normal count mismatch (" + normalCount + " vs " + vertexCount + ")");
+        }
+
+        boolean verticesInRange = checkIndexRange(polygonIndex, vIndices, start, end,
+                ValidationProblem.Type.VERTEX_INDEX_OUT_OF_RANGE, "vertex", model.getVertexCount(), report);
+        if (textureCount != 0) {
+            checkIndexRange(polygonIndex, tIndices, start, end,
+                    ValidationProblem.Type.TEXTURE_INDEX_OUT_OF_RANGE, "texture", model.getTextureVertexCount(), report);
+        }
+        if (normalCount != 0) {
+            checkIndexRange(polygonIndex, nIndices, start, end,
+                    ValidationProblem.Type.NORMAL_INDEX_OUT_OF_RANGE, "normal", model.getNormalCount(), report);
+        }
+
+        if (checkDegenerate && verticesInRange) {
+            checkDegenerate(polygonIndex, vIndices, start, end, null, model.getVertexData(), report);
+        }
+    }
+
+    private static int countPresent(int[] indices, int start, int end) {
+        if (indices == null) {
+            return 0;
+        }
+        int count = 0;
+        for (int j = start; j < end; j++) {
+            if (indices[j] != CompactModel.NO_INDEX) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static boolean checkIndexRange(int polygonIndex, ArrayList<Integer> indices, ValidationProblem.Type type,
+                                           String name, int maxValue, ValidationReport report) {
+        boolean inRange = true;
+        for (int i = 0; i < indices.size(); i++) {
+            Integer idx = indices.get(i);
+            if (idx == null || idx < 0 || idx >= maxValue) {
+                int corner = i;
+                report.add(type, polygonIndex, () -> String.format("Polygon %d, %s %d: index %s out of range [0, %d]",
+                        polygonIndex, name, corner, idx, maxValue - 1));
+                inRange = false;
+            }
+        }
+        return inRange;
+    }
+
+    private static boolean checkIndexRange(int polygonIndex, int[] indices, int start, int end,
+                                           ValidationProblem.Type type, String name, int maxValue,
+                                           ValidationReport report) {
+        boolean inRange = true;
+        for (int j = start; j < end; j++) {
+            int idx = indices[j];
+            if (idx < 0 || idx >= maxValue) {
+                int corner = j - start;
+                report.add(type, polygonIndex, () -> String.format("Polygon %d, %s %d: index %d out of range [0, %d]",
+                        polygonIndex, name, corner, idx, maxValue - 1));
+                inRange = false;
+            }
+        }
+        return inRange;
+    }
+
+    // Координаты берутся из model или из плоского массива vertexData
+    private static void checkDegenerate(int polygonIndex, int[] corners, int start, int end,
+                                        Model model, float[] vertexData, ValidationReport report) {
+        int distinct = countDistinct(corners, start, end);
+        if (distinct < 3) {
+            report.add(ValidationProblem.Type.DEGENERATE_POLYGON, polygonIndex, () -> "Polygon " + polygonIndex
+                    + " is degenerate: " + distinct + " distinct vertices");
+            return;
+        }
+
+        // Нулевая нормаль Ньюэлла - нулевая площадь
+        double[] normal = new double[3];
+        if (model != null) {
+            for (int j = start; j < end; j++) {
+                if (model.vertices.get(corners[j]) == null) {
+                    return;
+                }
+            }
+            PolygonNormals.newell(model.vertices, corners, start, end - start, normal);
+        } else {
+            PolygonNormals.newell(vertexData, corners, start, end - start, normal);
+        }
+        if (normal[0] == 0 && normal[1] == 0 && normal[2] == 0) {
+            report.add(ValidationProblem.Type.DEGENERATE_POLYGON, polygonIndex, () -> "Polygon " + polygonIndex
+                    + " is degenerate: zero area");
+        }
+    }
+
+    private static int countDistinct(int[] corners, int start, int end) {
+        int count = end - start;
+        if (count <= 8) {
+            int distinct = 0;
+            for (int j = start; j < end; j++) {
+                boolean seen = false;
+                for (int k = start; k < j && !seen; k++) {
+                    seen = corners[k] == corners[j];
+                }
+                if (!seen) {
+                    distinct++;
+                }
+            }
+            return distinct;
+        }
+
+        int[] sorted = Arrays.copyOfRange(corners, start, end);
+        Arrays.sort(sorted);
+        int distinct = 1;
+        for (int j = 1; j < sorted.length; j++) {
+            if (sorted[j] != sorted[j - 1]) {
+                distinct++;
+            }
+        }
+        return distinct;
+    }
+}
@@ -0,0 +1,103 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.objwriter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+// Запись чисел в ASCII прямо в массив байт.
+// Результат writeFixed6 совпадает с String.format(Locale.US, "%.6f", value).
+final class ObjNumberFormatter {
+
+    // Максимальная длина int вместе со знаком
+    static final int MAX_INT_LENGTH = 11;
+    // Максимальная длина writeFixed6: "-" + 39 цифр Float.MAX_VALUE + ".000000"
+    static final int MAX_FIXED6_LENGTH = 47;
+
+    private static final long FRACTION_SCALE = 1_000_000L;
+    private static final int FRACTION_DIGITS = 6;
+
+    private ObjNumberFormatter() {
+    }
+
+    // float = m * 2^e точно, поэтому m * 10^6 * 2^e можно округлить в целых числах.
+    // %.6f округляет HALF_UP цифры Double.toString((double) value); эти цифры отличаются
+    // от точного значения меньше чем на пол-ulp double, а точное значение float никогда
+    // не лежит так близко к границе округления, если не совпадает с ней - отсюда совпадение.
+    static int writeFixed6(float value, byte[] out, int pos) {
+        if (!isFastFixed6(value)) {
+            byte[] text = formatFallback(value);
+            System.arraycopy(text, 0, out, pos, text.length);
+            return pos + text.length;
+        }
+
+        int bits = Float.floatToRawIntBits(value);
+        int biasedExponent = (bits >>> 23) & 0xFF;
+        long mantissa = bits & 0x7FFFFF;
+        int exponent;
+        if (biasedExponent == 0) {
+            exponent = -149;
+        } else {
+            mantissa |= 0x800000;
+            exponent = biasedExponent - 150;
+        }
+
+        long scaled = mantissa * FRACTION_SCALE;
+        long rounded;
+        if (exponent >= 0) {
+            rounded = scaled << exponent;
+        } else if (-exponent > 45) {
+            // scaled < 2^44, значит значение меньше половины последнего знака
+            rounded = 0;
+        } else {
+            int shift = -exponent;
+            rounded = scaled >> shift;
+            long remainder = scaled & ((1L << shift) - 1);
+            if (remainder >= 1L << (shift - 1)) {
+                rounded++;
+            }
+        }
+
+        if (bits < 0) {
+            out[pos++] = '-';
+        }
+        pos = writePositiveLong(rounded / FRACTION_SCALE, out, pos);
+        out[pos++] = '.';
+        long fraction = rounded % FRACTION_SCALE;
+        for (int i = FRACTION_DIGITS - 1; i >= 0; i--) {
+            out[pos + i] = (byte) ('0' + fraction % 10);
+            fraction /= 10;
+        }
+        return pos + FRACTION_DIGITS;
+    }
+
+    static int writeInt(int value, byte[] out, int pos) {
+        long magnitude = value;
+        if (magnitude < 0) {
+            out[pos++] = '-';
+            magnitude = -magnitude;
+        }
+        return writePositiveLong(magnitude, out, pos);
+    }
+
+    private static int writePositiveLong(long value, byte[] out, int pos) {
+        int length = 1;
+        for (long rest = value / 10; rest != 0; rest /= 10) {
+            length++;
+        }
+        for (int i = pos + length - 1; i >= pos; i--) {
+            out[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        return pos + length;
+    }
+
+    // Быстрый путь работает для конечных значений меньше 2^42: дальше
+    // m * 10^6 * 2^e не помещается в long, а %.6f печатает лишь 17 значащих цифр
+    private static boolean isFastFixed6(float value) {
+        int biasedExponent = (Float.floatToRawIntBits(value) >>> 23) & 0xFF;
+        return biasedExponent - 150 <= 18;
+    }
+
+    private static byte[] formatFallback(float value) {
+        return String.format(Locale.US, "%.6f", value).getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,115 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.objwriter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// Переиспользуемый байтовый буфер для текста OBJ.
+// Сбрасывается в канал крупными блоками, когда заканчивается место.
+// Без канала буфер просто растёт - так куски файла кодируются в памяти.
+final class ObjOutputBuffer {
+
+    private final WritableByteChannel channel;
+    private byte[] bytes;
+    private int size;
+    // Сколько байт уже ушло в канал
+    private long flushed;
+
+    ObjOutputBuffer(WritableByteChannel channel, int capacity) {
+        this(channel, new byte[capacity]);
+    }
+
+    // Запись через готовый массив (переиспользуемый между файлами)
+    ObjOutputBuffer(WritableByteChannel channel, byte[] bytes) {
+        this.channel = channel;
+        this.bytes = bytes;
+    }
+
+    ObjOutputBuffer(int initialCapacity) {
+        this(null, initialCapacity);
+    }
+
+    void writeAscii(String text) throws IOException {
+        write(text.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    void write(byte[] encoded) throws IOException {
+        write(encoded, 0, encoded.length);
+    }
+
+    void write(byte[] encoded, int offset, int length) throws IOException {
+        if (channel != null && length > bytes.length) {
+            flush();
+            channelWrite(ByteBuffer.wrap(encoded, offset, length));
+            return;
+        }
+        ensure(length);
+        System.arraycopy(encoded, offset, bytes, size, length);
+        size += length;
+    }
+
+    void writeByte(char value) throws IOException {
+        ensure(1);
+        bytes[size++] = (byte) value;
+    }
+
+    void writeInt(int value) throws IOException {
+        ensure(ObjNumberFormatter.MAX_INT_LENGTH);
+        size = ObjNumberFormatter.writeInt(value, bytes, size);
+    }
+
+    void writeFixed6(float value) throws IOException {
+        ensure(ObjNumberFormatter.MAX_FIXED6_LENGTH);
+        size = ObjNumberFormatter.writeFixed6(value, bytes, size);
+    }
+
+    // Закодированные байты буфера без канала
+    ByteBuffer toByteBuffer() {
+        return ByteBuffer.wrap(bytes, 0, size);
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Позиция следующего байта от начала записи (с учётом сброшенного в канал)
+    long position() {
+        return flushed + size;
+    }
+
+    // Забывает накопленные байты - для буфера без канала, который кодирует по одной записи
+    void clear() {
+        size = 0;
+    }
+
+    // Для буфера без канала ничего не делает
+    void flush() throws IOException {
+        if (channel != null && size > 0) {
+            channelWrite(ByteBuffer.wrap(bytes, 0, size));
+            size = 0;
+        }
+    }
+
+    private void ensure(int length) throws IOException {
+        if (bytes.length - size < length) {
+            if (channel == null) {
+                grow(length);
+            } else {
+                flush();
+            }
+        }
+    }
+
+    private void grow(int length) {
+        bytes = Arrays.copyOf(bytes, Math.max(size + length, bytes.length * 2));
+    }
+
+    private void channelWrite(ByteBuffer data) throws IOException {
+        flushed += data.remaining();
+        while (data.hasRemaining()) {
+            channel.write(data);
+        }
+    }
+}
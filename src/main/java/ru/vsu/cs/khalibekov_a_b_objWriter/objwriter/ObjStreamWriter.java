@@ -0,0 +1,334 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.objwriter;
+
+import ru.vsu.cs.khalibekov_a_b_objWriter.io.AtomicFiles;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.CompactModel;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Потоковая запись OBJ без модели в памяти. Элементы можно передавать в любом порядке:
+// каждая секция (v, vt, vn, f) копится в своём временном файле рядом с целевым,
+// а close() пишет заголовок с итоговыми числами и склеивает секции в том же виде,
+// что и ObjWriter.saveModel. Память - четыре буфера фиксированного размера.
+// Индексы в face() отсчитываются от 0, как в CompactModel.
+// Если модель не удалось построить до конца, нужно вызвать abort() вместо close().
+// Если числа элементов известны заранее (конструктор с числами), временных секций нет:
+// заголовок пишется сразу, а элементы идут прямо в файл и должны приходить по порядку v, vt, vn, f.
+public class ObjStreamWriter implements Closeable {
+
+    private static final int SPILL_BUFFER_SIZE = 1 << 16;
+
+    private static final int VERTICES = 0;
+    private static final int TEXTURES = 1;
+    private static final int NORMALS = 2;
+    private static final int POLYGONS = 3;
+    private static final String[] SECTION_NAMES = {"v", "vt", "vn", "f"};
+    private static final String[] INDEX_NAMES = {"vertex", "texture", "normal"};
+
+    private final String filename;
+    private final FileChannel[] spills = new FileChannel[4];
+    private final ObjOutputBuffer[] buffers = new ObjOutputBuffer[4];
+    private final int[] counts = new int[4];
+
+    // Заранее объявленные числа элементов, временный файл и текущая секция прямой записи
+    private final int[] declared;
+    private Path direct;
+    private int currentSection;
+
+    // Наибольший индекс каждого вида и где он встретился - проверяется в close(),
+    // когда известно итоговое число элементов
+    private final int[] maxIndex = {-1, -1, -1};
+    private final int[] maxIndexPolygon = new int[3];
+    private final int[] maxIndexCorner = new int[3];
+
+    private boolean closed;
+
+    public ObjStreamWriter(String filename) throws IOException {
+        this.filename = filename;
+        this.declared = null;
+        Path target = Path.of(filename).toAbsolutePath();
+        try {
+            for (int i = 0; i < spills.length; i++) {
+                Path spill = Files.createTempFile(target.getParent(),
+                        "." + target.getFileName() + ".", "." + SECTION_NAMES[i] + ".tmp");
+                spills[i] = FileChannel.open(spill, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                        StandardOpenOption.DELETE_ON_CLOSE);
+                buffers[i] = new ObjOutputBuffer(spills[i], SPILL_BUFFER_SIZE);
+            }
+        } catch (IOException | RuntimeException e) {
+            closeSpills(e);
+            throw e;
+        }
+    }
+
+    public ObjStreamWriter(String filename, int vertexCount, int textureCount,
+                           int normalCount, int polygonCount) throws IOException {
+        if (vertexCount < 0 || textureCount < 0 || normalCount < 0 || polygonCount < 0) {
+            throw new IllegalArgumentException("Element count must not be negative");
+        }
+        this.filename = filename;
+        this.declared = new int[]{vertexCount, textureCount, normalCount, polygonCount};
+        this.direct = AtomicFiles.temporaryFileFor(Path.of(filename));
+        try {
+            spills[0] = FileChannel.open(direct, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            ObjOutputBuffer out = new ObjOutputBuffer(spills[0], ObjWriter.WRITE_BUFFER_SIZE);
+            for (int i = 0; i < buffers.length; i++) {
+                buffers[i] = out;
+            }
+            ObjWriter.writeHeader(out, vertexCount, textureCount, normalCount, polygonCount);
+        } catch (IOException | RuntimeException e) {
+            closeSpills(e);
+            AtomicFiles.deleteQuietly(direct, e);
+            throw e;
+        }
+    }
+
+    public void vertex(float x, float y, float z) throws IOException {
+        ObjOutputBuffer out = section(VERTICES);
+        out.write(ObjWriter.VERTEX_PREFIX);
+        writeVector(out, x, y, z);
+    }
+
+    public void texCoord(float u, float v) throws IOException {
+        ObjOutputBuffer out = section(TEXTURES);
+        out.write(ObjWriter.TEXTURE_PREFIX);
+        out.writeFixed6(u);
+        out.writeByte(' ');
+        out.writeFixed6(v);
+        out.writeByte('\n');
+    }
+
+    public void normal(float x, float y, float z) throws IOException {
+        ObjOutputBuffer out = section(NORMALS);
+        out.write(ObjWriter.NORMAL_PREFIX);
+        writeVector(out, x, y, z);
+    }
+
+    public void face(int... v) throws IOException {
+        face(v, null, null, v.length);
+    }
+
+    // vt и vn могут быть null или содержать CompactModel.NO_INDEX у отдельных углов
+    public void face(int[] v, int[] vt, int[] vn, int count) throws IOException {
+        ensureOpen();
+        int polygonIndex = counts[POLYGONS];
+        if (count <= 0) {
+            throw new IOException("Polygon " + polygonIndex + " has no vertices");
+        }
+        int textureCount = countPresent(vt, count);
+        int normalCount = countPresent(vn, count);
+        if (textureCount != 0 && textureCount != count) {
+            throw new IOException("Polygon " + polygonIndex + ": UV count mismatch (" +
+                    textureCount + " vs " + count + ")");
+        }
+        if (normalCount != 0 && normalCount != count) {
+            throw new IOException("Polygon " + polygonIndex + ": Normal count mismatch (" +
+                    normalCount + " vs " + count + ")");
+        }
+        checkIndices(VERTICES, v, count, polygonIndex);
+        if (textureCount != 0) {
+            checkIndices(TEXTURES, vt, count, polygonIndex);
+        }
+        if (normalCount != 0) {
+            checkIndices(NORMALS, vn, count, polygonIndex);
+        }
+
+        ObjWriter.writeFace(section(POLYGONS), v, vt, vn, 0, count);
+    }
+
+    public int getVertexCount() {
+        return counts[VERTICES];
+    }
+
+    public int getTextureVertexCount() {
+        return counts[TEXTURES];
+    }
+
+    public int getNormalCount() {
+        return counts[NORMALS];
+    }
+
+    public int getPolygonCount() {
+        return counts[POLYGONS];
+    }
+
+    // Проверяет индексы граней и атомарно записывает файл. Временные файлы удаляются в любом случае
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (declared != null) {
+                finishDirect();
+            } else {
+                checkMaxIndices();
+                for (ObjOutputBuffer buffer : buffers) {
+                    buffer.flush();
+                }
+
+                AtomicFiles.writeAtomically(filename, channel -> {
+                    ObjOutputBuffer out = new ObjOutputBuffer(channel, 256);
+                    ObjWriter.writeHeader(out, counts[VERTICES], counts[TEXTURES], counts[NORMALS], counts[POLYGONS]);
+                    out.flush();
+                    for (int section = VERTICES; section <= POLYGONS; section++) {
+                        transfer(spills[section], channel);
+                        if (section != POLYGONS) {
+                            ObjWriter.writeSectionEnd(out, counts[section]);
+                            out.flush();
+                        }
+                    }
+                });
+            }
+        } catch (IOException | RuntimeException e) {
+            closeSpills(e);
+            if (direct != null) {
+                AtomicFiles.deleteQuietly(direct, e);
+            }
+            throw e;
+        }
+        closeSpills(null);
+    }
+
+    // Отменяет запись: целевой файл не создаётся и не меняется
+    public void abort() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        IOException failure = new IOException("Failed to remove spill files");
+        closeSpills(failure);
+        if (direct != null) {
+            AtomicFiles.deleteQuietly(direct, failure);
+        }
+        if (failure.getSuppressed().length > 0) {
+            throw failure;
+        }
+    }
+
+    private void checkMaxIndices() throws IOException {
+        for (int kind = VERTICES; kind <= NORMALS; kind++) {
+            if (maxIndex[kind] >= counts[kind]) {
+                throw new IOException(String.format("Polygon %d, %s %d: index %d out of range [0, %d]",
+                        maxIndexPolygon[kind], INDEX_NAMES[kind], maxIndexCorner[kind],
+                        maxIndex[kind], counts[kind] - 1));
+            }
+        }
+    }
+
+    private ObjOutputBuffer section(int section) throws IOException {
+        ensureOpen();
+        if (declared != null) {
+            advanceTo(section);
+            if (counts[section] == declared[section]) {
+                throw new IOException("More " + SECTION_NAMES[section] + " elements than declared (" +
+                        declared[section] + ")");
+            }
+        }
+        counts[section]++;
+        return buffers[section];
+    }
+
+    // Прямая запись: закрывает секции до нужной, возвращаться к прошлым нельзя
+    private void advanceTo(int target) throws IOException {
+        if (target < currentSection) {
+            throw new IOException("Element " + SECTION_NAMES[target] + " after " + SECTION_NAMES[currentSection] +
+                    ": elements must come in order v, vt, vn, f when counts are declared");
+        }
+        for (; currentSection < target; currentSection++) {
+            ObjWriter.writeSectionEnd(buffers[currentSection], counts[currentSection]);
+        }
+    }
+
+    private void finishDirect() throws IOException {
+        for (int kind = VERTICES; kind <= POLYGONS; kind++) {
+            if (counts[kind] != declared[kind]) {
+                throw new IOException("Declared " + declared[kind] + " " + SECTION_NAMES[kind] +
+                        " elements, written " + counts[kind]);
+            }
+        }
+        checkMaxIndices();
+        advanceTo(POLYGONS);
+        buffers[POLYGONS].flush();
+        spills[0].close();
+        AtomicFiles.replaceAtomically(direct, Path.of(filename));
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Writer is closed");
+        }
+    }
+
+    private static void writeVector(ObjOutputBuffer out, float x, float y, float z) throws IOException {
+        out.writeFixed6(x);
+        out.writeByte(' ');
+        out.writeFixed6(y);
+        out.writeByte(' ');
+        out.writeFixed6(z);
+        out.writeByte('\n');
+    }
+
+    private static int countPresent(int[] indices, int count) {
+        if (indices == null) {
+            return 0;
+        }
+        int present = 0;
+        for (int i = 0; i < count; i++) {
+            if (indices[i] != CompactModel.NO_INDEX) {
+                present++;
+            }
+        }
+        return present;
+    }
+
+    private void checkIndices(int kind, int[] indices, int count, int polygonIndex) throws IOException {
+        for (int i = 0; i < count; i++) {
+            int index = indices[i];
+            if (index < 0) {
+                throw new IOException(String.format("Polygon %d, %s %d: index %d out of range [0, %d]",
+                        polygonIndex, INDEX_NAMES[kind], i, index, counts[kind] - 1));
+            }
+            if (index > maxIndex[kind]) {
+                maxIndex[kind] = index;
+                maxIndexPolygon[kind] = polygonIndex;
+                maxIndexCorner[kind] = i;
+            }
+        }
+    }
+
+    private static void transfer(FileChannel source, FileChannel target) throws IOException {
+        long size = source.size();
+        long position = 0;
+        while (position < size) {
+            position += source.transferTo(position, size - position, target);
+        }
+    }
+
+    // Ошибки закрытия добавляются к failure, если он задан
+    private void closeSpills(Exception failure) throws IOException {
+        IOException closeError = null;
+        for (FileChannel spill : spills) {
+            if (spill == null) {
+                continue;
+            }
+            try {
+                spill.close();
+            } catch (IOException e) {
+                if (failure != null) {
+                    failure.addSuppressed(e);
+                } else if (closeError == null) {
+                    closeError = e;
+                }
+            }
+        }
+        if (closeError != null) {
+            throw closeError;
+        }
+    }
+}
@@ -1,147 +1,488 @@
 package ru.vsu.cs.khalibekov_a_b_objWriter.objwriter;
 
+import ru.vsu.cs.khalibekov_a_b_objWriter.io.AtomicFiles;
+import ru.vsu.cs.khalibekov_a_b_objWriter.io.BufferPool;
 import ru.vsu.cs.khalibekov_a_b_objWriter.math.Vector2f;
 import ru.vsu.cs.khalibekov_a_b_objWriter.math.Vector3f;
+import ru.vsu.cs.khalibekov_a_b_objWriter.metrics.ObjMetricsListener;
+import ru.vsu.cs.khalibekov_a_b_objWriter.metrics.ObjOperationRecorder;
+import ru.vsu.cs.khalibekov_a_b_objWriter.metrics.ObjOperationStats;
+import ru.vsu.cs.khalibekov_a_b_objWriter.metrics.ObjOperationStats.LineType;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.CompactModel;
 import ru.vsu.cs.khalibekov_a_b_objWriter.model.Model;
 import ru.vsu.cs.khalibekov_a_b_objWriter.model.Polygon;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.PolygonRange;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.SavedLayout;
 
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.Locale;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 public class ObjWriter {
 
+    static final int WRITE_BUFFER_SIZE = 1 << 20;
+
+    static final byte[] VERTEX_PREFIX = "v ".getBytes(StandardCharsets.US_ASCII);
+    static final byte[] TEXTURE_PREFIX = "vt ".getBytes(StandardCharsets.US_ASCII);
+    static final byte[] NORMAL_PREFIX = "vn ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] FACE_PREFIX = "f".getBytes(StandardCharsets.US_ASCII);
+
+    // Атрибуты полигонов до первого диапазона
+    private static final PolygonRange NO_ATTRIBUTES = new PolygonRange(0, null, null, null, 0);
+
+    // Буферы записи переиспользуются от файла к файлу - при пакетной записи тысяч файлов это убирает
+    // по мегабайту мусора на файл. Пул общий и ограничен, а не на поток, так что долгоживущие потоки
+    // не держат по мегабайту каждый. Запись, начатая внутри другой (например, из listener), получит свой буфер
+    private static final BufferPool WRITE_BUFFERS = new BufferPool(WRITE_BUFFER_SIZE,
+            Math.min(Runtime.getRuntime().availableProcessors(), 4));
+
+    // При записи с метриками элементы пишутся (а полигоны и проверяются) блоками не больше такого размера
+    private static final int RECORDED_BLOCK_SIZE = 1 << 12;
+
     public static void saveModel(Model model, String filename) throws IOException {
+        saveModel(model, filename, null);
+    }
+
+    // Запись с метриками (байты, строки по типам, время проверки, форматирования и ввода-вывода,
+    // прогресс по элементам). При listener == null то же, что saveModel(model, filename)
+    public static void saveModel(Model model, String filename, ObjMetricsListener listener) throws IOException {
         if (model == null) {
             throw new IOException("Invalid model provided!");
         }
 
-        try (FileWriter fileWriter = new FileWriter(filename)) {
-            writeHeader(fileWriter, model);
+        long elements = (long) model.vertices.size() + model.textureVertices.size()
+                + model.normals.size() + model.polygons.size();
+        ObjOperationRecorder recorder = ObjOperationRecorder.start(listener, ObjOperationStats.Operation.WRITE,
+                filename, elements);
+        ObjOperationRecorder.run(recorder, () -> AtomicFiles.writeAtomically(filename, channel -> {
+            byte[] buffer = borrowWriteBuffer();
+            try {
+                ObjOutputBuffer writer = new ObjOutputBuffer(recorder == null ? channel : recorder.wrapOutput(channel),
+                        buffer);
+                writeHeader(writer, model.vertices.size(), model.textureVertices.size(),
+                        model.normals.size(), model.polygons.size());
+                writeMaterialLibraries(writer, model.materialLibraries);
 
-            writeVertices(fileWriter, model.vertices);
-            writeTextureCoordinates(fileWriter, model.textureVertices);
-            writeNormals(fileWriter, model.normals);
+                writeSection(writer, recorder, LineType.VERTEX, model.vertices.size(),
+                        (from, to) -> writeVertices(writer, model.vertices, VERTEX_PREFIX, from, to));
+                writeSection(writer, recorder, LineType.TEXTURE, model.textureVertices.size(),
+                        (from, to) -> writeTextureCoordinates(writer, model.textureVertices, from, to));
+                writeSection(writer, recorder, LineType.NORMAL, model.normals.size(),
+                        (from, to) -> writeVertices(writer, model.normals, NORMAL_PREFIX, from, to));
 
-            writePolygons(fileWriter, model);
+                writeGroupedPolygons(writer, model.polygonRanges, model.polygons.size(), (from, to) -> {
+                    if (recorder == null) {
+                        writePolygons(writer, model, from, to);
+                    } else {
+                        writePolygons(writer, model, recorder, from, to);
+                    }
+                });
+                writer.flush();
+            } finally {
+                returnWriteBuffer(buffer);
+            }
+        }));
+    }
+
+    // Сохранение с правкой файла на месте, режим INDEXED. Если модель уже сохранялась в этот файл этим методом, файл с тех пор
+    // не менялся, а число элементов, mtllib и диапазоны полигонов те же, переписываются только записи,
+    // отмеченные в model.changes (отслеживание включается первым вызовом). Иначе, или если новые записи
+    // не помещаются на место старых, файл записывается целиком, как saveModel, и запоминается его раскладка.
+    // Правка на месте, в отличие от полной записи, не атомарна.
+    // true - файл исправлен на месте
+    public static boolean saveModelIncremental(Model model, String filename) throws IOException {
+        return saveModelIncremental(model, filename, SavedLayout.Mode.INDEXED);
+    }
+
+    // FIXED_WIDTH - строки каждой секции дополнены пробелами до одной ширины (с запасом в два символа), и правка
+    // на месте не зависит от длины соседних записей; этот режим - для редакторов, которые сохраняют часто.
+    // INDEXED - файл побайтно как у saveModel, но правка на месте возможна, только если длина блока
+    // из 1024 записей в байтах не изменилась: почти любая правка, меняющая число цифр или знак числа,
+    // приводит к полной перезаписи
+    public static boolean saveModelIncremental(Model model, String filename, SavedLayout.Mode mode) throws IOException {
+        if (model == null) {
+            throw new IOException("Invalid model provided!");
+        }
+        if (mode == null) {
+            throw new IllegalArgumentException("Layout mode must not be null");
         }
+        return IncrementalObjWriter.save(model, filename, mode);
     }
 
-    private static void writeHeader(FileWriter writer, Model model) throws IOException {
-        writer.write("# Created by ObjWriter\n");
-        writer.write("# Vertices: " + model.vertices.size() + "\n");
-        writer.write("# Texture coordinates: " + model.textureVertices.size() + "\n");
-        writer.write("# Normals: " + model.normals.size() + "\n");
-        writer.write("# Polygons: " + model.polygons.size() + "\n\n");
+    public static void saveCompactModel(CompactModel model, String filename) throws IOException {
+        saveCompactModel(model, filename, null);
     }
 
-    private static void writeVertices(FileWriter writer, ArrayList<Vector3f> vertices) throws IOException {
-        for (Vector3f v : vertices) {
-            writer.write(String.format(Locale.US, "v %.6f %.6f %.6f\n", v.x, v.y, v.z));
+    public static void saveCompactModel(CompactModel model, String filename, ObjMetricsListener listener) throws IOException {
+        if (model == null) {
+            throw new IOException("Invalid model provided!");
         }
-        if (!vertices.isEmpty()) writer.write("\n");
+
+        long elements = (long) model.getVertexCount() + model.getTextureVertexCount()
+                + model.getNormalCount() + model.getPolygonCount();
+        ObjOperationRecorder recorder = ObjOperationRecorder.start(listener, ObjOperationStats.Operation.WRITE,
+                filename, elements);
+        ObjOperationRecorder.run(recorder, () -> AtomicFiles.writeAtomically(filename, channel -> {
+            byte[] buffer = borrowWriteBuffer();
+            try {
+                ObjOutputBuffer writer = new ObjOutputBuffer(recorder == null ? channel : recorder.wrapOutput(channel),
+                        buffer);
+                writeHeader(writer, model.getVertexCount(), model.getTextureVertexCount(),
+                        model.getNormalCount(), model.getPolygonCount());
+                writeMaterialLibraries(writer, model.getMaterialLibraries());
+
+                writeSection(writer, recorder, LineType.VERTEX, model.getVertexCount(),
+                        (from, to) -> writeElements(writer, VERTEX_PREFIX, model.getVertexData(), from, to, 3));
+                writeSection(writer, recorder, LineType.TEXTURE, model.getTextureVertexCount(),
+                        (from, to) -> writeElements(writer, TEXTURE_PREFIX, model.getTextureVertexData(), from, to, 2));
+                writeSection(writer, recorder, LineType.NORMAL, model.getNormalCount(),
+                        (from, to) -> writeElements(writer, NORMAL_PREFIX, model.getNormalData(), from, to, 3));
+
+                writeGroupedPolygons(writer, model.getPolygonRanges(), model.getPolygonCount(), (from, to) -> {
+                    if (recorder == null) {
+                        writePolygons(writer, model, from, to);
+                    } else {
+                        writePolygons(writer, model, recorder, from, to);
+                    }
+                });
+                writer.flush();
+            } finally {
+                returnWriteBuffer(buffer);
+            }
+        }));
+    }
+
+    static byte[] borrowWriteBuffer() {
+        return WRITE_BUFFERS.borrow();
+    }
+
+    static void returnWriteBuffer(byte[] buffer) {
+        WRITE_BUFFERS.release(buffer);
     }
 
-    private static void writeTextureCoordinates(FileWriter writer, ArrayList<Vector2f> textures) throws IOException {
-        for (Vector2f uv : textures) {
-            writer.write(String.format(Locale.US, "vt %.6f %.6f\n", uv.x, uv.y));
+    @FunctionalInterface
+    interface RangeWriter {
+        void write(int from, int to) throws IOException;
+    }
+
+    // Секция целиком, а при записи с метриками - блоками до RECORDED_BLOCK_SIZE элементов, разрезанными
+    // по шагу прогресса (recorder.nextBlock), с прогрессом после каждого блока
+    private static void writeSection(ObjOutputBuffer writer, ObjOperationRecorder recorder, LineType type,
+                                     int count, RangeWriter body) throws IOException {
+        if (recorder == null) {
+            body.write(0, count);
+        } else {
+            for (int from = 0; from < count; ) {
+                int to = Math.min(from + recorder.nextBlock(RECORDED_BLOCK_SIZE), count);
+                body.write(from, to);
+                recorder.addWritten(type, to - from);
+                from = to;
+            }
         }
-        if (!textures.isEmpty()) writer.write("\n");
+        writeSectionEnd(writer, count);
     }
 
-    private static void writeNormals(FileWriter writer, ArrayList<Vector3f> normals) throws IOException {
-        for (Vector3f n : normals) {
-            writer.write(String.format(Locale.US, "vn %.6f %.6f %.6f\n", n.x, n.y, n.z));
+    // Полигоны блоками: сначала проверка всего блока (её время считается отдельно), затем запись
+    private static void writePolygons(ObjOutputBuffer writer, Model model, ObjOperationRecorder recorder,
+                                      int first, int end) throws IOException {
+        ValidationReport problems = new ValidationReport(1);
+        for (int from = first, to; from < end; from = to) {
+            to = Math.min(from + recorder.nextBlock(RECORDED_BLOCK_SIZE), end);
+            long start = System.nanoTime();
+            for (int i = from; i < to; i++) {
+                ModelValidator.checkPolygon(model, i, false, problems);
+                throwFirstProblem(problems);
+            }
+            recorder.addValidationNanos(System.nanoTime() - start);
+
+            for (int i = from; i < to; i++) {
+                Polygon polygon = model.polygons.get(i);
+                writePolygon(writer, polygon.getVertexIndices(), polygon.getTextureVertexIndices(), polygon.getNormalIndices());
+            }
+            recorder.addWritten(LineType.FACE, to - from);
         }
-        if (!normals.isEmpty()) writer.write("\n");
     }
 
-    private static void writePolygons(FileWriter writer, Model model) throws IOException {
-        for (int i = 0; i < model.polygons.size(); i++) {
-            Polygon polygon = model.polygons.get(i);
+    private static void writePolygons(ObjOutputBuffer writer, CompactModel model, ObjOperationRecorder recorder,
+                                      int first, int end) throws IOException {
+        int[] offsets = model.getPolygonOffsets();
+        ValidationReport problems = new ValidationReport(1);
+        for (int from = first, to; from < end; from = to) {
+            to = Math.min(from + recorder.nextBlock(RECORDED_BLOCK_SIZE), end);
+            long start = System.nanoTime();
+            for (int i = from; i < to; i++) {
+                ModelValidator.checkPolygon(model, i, false, problems);
+                throwFirstProblem(problems);
+            }
+            recorder.addValidationNanos(System.nanoTime() - start);
 
-            if (polygon == null) {
-                throw new IOException("Polygon " + i + " is invalid");
+            for (int i = from; i < to; i++) {
+                writeFace(writer, model.getVertexIndices(), model.getTextureVertexIndices(), model.getNormalIndices(),
+                        offsets[i], offsets[i + 1]);
             }
+            recorder.addWritten(LineType.FACE, to - from);
+        }
+    }
 
-            ArrayList<Integer> vIndices = polygon.getVertexIndices();
-            ArrayList<Integer> tIndices = polygon.getTextureVertexIndices();
-            ArrayList<Integer> nIndices = polygon.getNormalIndices();
+    // Параллельная запись на общем ForkJoinPool. Файл побайтно совпадает с saveModel
+    public static void saveModelParallel(Model model, String filename) throws IOException {
+        saveModelParallel(model, filename, ForkJoinPool.commonPool());
+    }
 
-            validatePolygon(i, vIndices, tIndices, nIndices,
-                    model.vertices.size(), model.textureVertices.size(), model.normals.size());
+    public static void saveModelParallel(Model model, String filename, Executor executor) throws IOException {
+        if (model == null) {
+            throw new IOException("Invalid model provided!");
+        }
+        ParallelObjWriter.saveModel(model, filename, executor);
+    }
+
+    public static void saveCompactModelParallel(CompactModel model, String filename) throws IOException {
+        saveCompactModelParallel(model, filename, ForkJoinPool.commonPool());
+    }
 
-            writer.write(constructPolygonString(vIndices, tIndices, nIndices) + "\n");
+    public static void saveCompactModelParallel(CompactModel model, String filename, Executor executor) throws IOException {
+        if (model == null) {
+            throw new IOException("Invalid model provided!");
         }
+        ParallelObjWriter.saveCompactModel(model, filename, executor);
     }
 
-    private static void validatePolygon(int polygonIndex,
-                                        ArrayList<Integer> vIndices,
-                                        ArrayList<Integer> tIndices,
-                                        ArrayList<Integer> nIndices,
-                                        int totalVertices, int totalTextures, int totalNormals) throws IOException {
+    // Запись в gzip (model.obj.gz): куски файла сжимаются параллельно и независимо,
+    // поэтому сжатие занимает все ядра. Распакованный файл побайтно совпадает с saveModel,
+    // а ObjReader читает такой файл напрямую
+    public static void saveModelCompressed(Model model, String filename) throws IOException {
+        saveModelCompressed(model, filename, ForkJoinPool.commonPool());
+    }
 
-        if (vIndices == null || vIndices.isEmpty()) {
-            throw new IOException("Polygon " + polygonIndex + " has no vertices");
+    public static void saveModelCompressed(Model model, String filename, Executor executor) throws IOException {
+        if (model == null) {
+            throw new IOException("Invalid model provided!");
         }
+        ParallelObjWriter.saveModelCompressed(model, filename, executor);
+    }
 
-        int vertexCount = vIndices.size();
+    public static void saveCompactModelCompressed(CompactModel model, String filename) throws IOException {
+        saveCompactModelCompressed(model, filename, ForkJoinPool.commonPool());
+    }
 
-        if (tIndices != null && !tIndices.isEmpty() && tIndices.size() != vertexCount) {
-            throw new IOException("Polygon " + polygonIndex + ": UV count mismatch (" +
-                    tIndices.size() + " vs " + vertexCount + ")");
+    public static void saveCompactModelCompressed(CompactModel model, String filename, Executor executor) throws IOException {
+        if (model == null) {
+            throw new IOException("Invalid model provided!");
         }
+        ParallelObjWriter.saveCompactModelCompressed(model, filename, executor);
+    }
+
+    static void writeHeader(ObjOutputBuffer writer, int vertexCount, int textureCount,
+                                    int normalCount, int polygonCount) throws IOException {
+        writer.writeAscii("# Created by ObjWriter\n");
+        writer.writeAscii("# Vertices: " + vertexCount + "\n");
+        writer.writeAscii("# Texture coordinates: " + textureCount + "\n");
+        writer.writeAscii("# Normals: " + normalCount + "\n");
+        writer.writeAscii("# Polygons: " + polygonCount + "\n\n");
+    }
 
-        if (nIndices != null && !nIndices.isEmpty() && nIndices.size() != vertexCount) {
-            throw new IOException("Polygon " + polygonIndex + ": Normal count mismatch (" +
-                    nIndices.size() + " vs " + vertexCount + ")");
+    // Строки mtllib после заголовка
+    static void writeMaterialLibraries(ObjOutputBuffer writer, List<String> libraries) throws IOException {
+        for (String fileNames : libraries) {
+            writeStatement(writer, "mtllib", fileNames);
         }
+        writeSectionEnd(writer, libraries.size());
+    }
 
-        // Валидация границ индексов
-        validateIndexRange(polygonIndex, vIndices, "vertex", totalVertices);
-        if (tIndices != null && !tIndices.isEmpty()) {
-            validateIndexRange(polygonIndex, tIndices, "texture", totalTextures);
+    // PolygonRange.bounds с ошибкой записи вместо IllegalArgumentException
+    static int[] rangeBounds(List<PolygonRange> ranges, int polygonCount) throws IOException {
+        try {
+            return PolygonRange.bounds(ranges, polygonCount);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage(), e);
         }
-        if (nIndices != null && !nIndices.isEmpty()) {
-            validateIndexRange(polygonIndex, nIndices, "normal", totalNormals);
+    }
+
+    // Полигоны по диапазонам, перед каждым - строки o, g, usemtl и s, которыми он отличается от предыдущего
+    static void writeGroupedPolygons(ObjOutputBuffer writer, List<PolygonRange> ranges, int polygonCount,
+                                     RangeWriter body) throws IOException {
+        int[] bounds = rangeBounds(ranges, polygonCount);
+        for (int r = 0; r + 1 < bounds.length; r++) {
+            if (!ranges.isEmpty()) {
+                writeRangeStatements(writer, r == 0 ? null : ranges.get(r - 1), ranges.get(r));
+            }
+            body.write(bounds[r], bounds[r + 1]);
         }
     }
 
-    private static void validateIndexRange(int polygonIndex, ArrayList<Integer> indices,
-                                           String type, int maxValue) throws IOException {
-        for (int i = 0; i < indices.size(); i++) {
-            int idx = indices.get(i);
-            if (idx < 0 || idx >= maxValue) {
-                throw new IOException(String.format("Polygon %d, %s %d: index %d out of range [0, %d]",
-                        polygonIndex, type, i, idx, maxValue - 1));
+    // previous == null - первый диапазон
+    static void writeRangeStatements(ObjOutputBuffer writer, PolygonRange previous, PolygonRange range) throws IOException {
+        if (previous == null) {
+            previous = NO_ATTRIBUTES;
+        }
+        if (!Objects.equals(previous.getObjectName(), range.getObjectName())) {
+            writeStatement(writer, "o", range.getObjectName());
+        }
+        if (!Objects.equals(previous.getGroupName(), range.getGroupName())) {
+            writeStatement(writer, "g", range.getGroupName());
+        }
+        if (!Objects.equals(previous.getMaterialName(), range.getMaterialName())) {
+            writeStatement(writer, "usemtl", range.getMaterialName());
+        }
+        if (previous.getSmoothingGroup() != range.getSmoothingGroup()) {
+            int group = range.getSmoothingGroup();
+            writer.writeAscii(group == 0 ? "s off\n" : "s " + group + "\n");
+        }
+    }
+
+    // Команда с именем (в UTF-8); без имени - одна команда, как её прочитает ObjReader
+    private static void writeStatement(ObjOutputBuffer writer, String keyword, String name) throws IOException {
+        writer.writeAscii(keyword);
+        if (name != null) {
+            writer.writeByte(' ');
+            writer.write(name.getBytes(StandardCharsets.UTF_8));
+        }
+        writer.writeByte('\n');
+    }
+
+    // Пустая строка после непустой секции
+    static void writeSectionEnd(ObjOutputBuffer writer, int count) throws IOException {
+        if (count > 0) writer.writeByte('\n');
+    }
+
+    // Элементы [from, to) плоского массива по components чисел на элемент
+    static void writeElements(ObjOutputBuffer writer, byte[] prefix, float[] data,
+                              int from, int to, int components) throws IOException {
+        int end = to * components;
+        for (int i = from * components; i < end; i += components) {
+            writer.write(prefix);
+            writer.writeFixed6(data[i]);
+            for (int j = 1; j < components; j++) {
+                writer.writeByte(' ');
+                writer.writeFixed6(data[i + j]);
+            }
+            writer.writeByte('\n');
+        }
+    }
+
+    // Вершины или нормали [from, to)
+    static void writeVertices(ObjOutputBuffer writer, ArrayList<Vector3f> vertices, byte[] prefix,
+                              int from, int to) throws IOException {
+        for (int i = from; i < to; i++) {
+            writer.write(prefix);
+            writeVector(writer, vertices.get(i));
+        }
+    }
+
+    static void writeTextureCoordinates(ObjOutputBuffer writer, ArrayList<Vector2f> textures,
+                                        int from, int to) throws IOException {
+        for (int i = from; i < to; i++) {
+            Vector2f uv = textures.get(i);
+            writer.write(TEXTURE_PREFIX);
+            writer.writeFixed6(uv.x);
+            writer.writeByte(' ');
+            writer.writeFixed6(uv.y);
+            writer.writeByte('\n');
+        }
+    }
+
+    private static void writeVector(ObjOutputBuffer writer, Vector3f v) throws IOException {
+        writer.writeFixed6(v.x);
+        writer.writeByte(' ');
+        writer.writeFixed6(v.y);
+        writer.writeByte(' ');
+        writer.writeFixed6(v.z);
+        writer.writeByte('\n');
+    }
+
+    // Полигоны [from, to) проверяются и записываются по одному
+    static void writePolygons(ObjOutputBuffer writer, Model model, int from, int to) throws IOException {
+        ValidationReport problems = new ValidationReport(1);
+        for (int i = from; i < to; i++) {
+            ModelValidator.checkPolygon(model, i, false, problems);
+            throwFirstProblem(problems);
+
+            Polygon polygon = model.polygons.get(i);
+            writePolygon(writer, polygon.getVertexIndices(), polygon.getTextureVertexIndices(), polygon.getNormalIndices());
+        }
+    }
+
+    private static void throwFirstProblem(ValidationReport problems) throws IOException {
+        if (!problems.isEmpty()) {
+            throw new IOException(problems.getProblems().get(0).getMessage());
+        }
+    }
+
+    static void writePolygons(ObjOutputBuffer writer, CompactModel model, int from, int to) throws IOException {
+        int[] offsets = model.getPolygonOffsets();
+        int[] vIndices = model.getVertexIndices();
+        int[] tIndices = model.getTextureVertexIndices();
+        int[] nIndices = model.getNormalIndices();
+
+        ValidationReport problems = new ValidationReport(1);
+        for (int i = from; i < to; i++) {
+            int start = offsets[i];
+            int end = offsets[i + 1];
+
+            ModelValidator.checkPolygon(model, i, false, problems);
+            throwFirstProblem(problems);
+
+            writeFace(writer, vIndices, tIndices, nIndices, start, end);
+        }
+    }
+
+    // Строка f для углов [start, end). tIndices и nIndices могут быть null или содержать NO_INDEX
+    static void writeFace(ObjOutputBuffer writer, int[] vIndices, int[] tIndices, int[] nIndices,
+                          int start, int end) throws IOException {
+        writer.write(FACE_PREFIX);
+        for (int j = start; j < end; j++) {
+            writer.writeByte(' ');
+            writer.writeInt(vIndices[j] + 1);
+
+            boolean hasTex = tIndices != null && tIndices[j] != CompactModel.NO_INDEX;
+            boolean hasNorm = nIndices != null && nIndices[j] != CompactModel.NO_INDEX;
+            if (hasTex) {
+                writer.writeByte('/');
+                writer.writeInt(tIndices[j] + 1);
+            } else if (hasNorm) {
+                writer.writeByte('/');
+            }
+            if (hasNorm) {
+                writer.writeByte('/');
+                writer.writeInt(nIndices[j] + 1);
             }
         }
+        writer.writeByte('\n');
     }
 
-    private static String constructPolygonString(ArrayList<Integer> vIndices,
-                                                 ArrayList<Integer> tIndices,
-                                                 ArrayList<Integer> nIndices) {
+    private static void writePolygon(ObjOutputBuffer writer,
+                                     ArrayList<Integer> vIndices,
+                                     ArrayList<Integer> tIndices,
+                                     ArrayList<Integer> nIndices) throws IOException {
 
-        StringBuilder polygonBuilder = new StringBuilder("f");
+        writer.write(FACE_PREFIX);
 
         for (int i = 0; i < vIndices.size(); i++) {
-            polygonBuilder.append(" ");
-            polygonBuilder.append(vIndices.get(i) + 1);
+            writer.writeByte(' ');
+            writer.writeInt(vIndices.get(i) + 1);
 
             boolean hasTex = tIndices != null && !tIndices.isEmpty() && i < tIndices.size();
             boolean hasNorm = nIndices != null && !nIndices.isEmpty() && i < nIndices.size();
 
             if (hasTex && hasNorm) {
-                polygonBuilder.append("/").append(tIndices.get(i) + 1)
-                        .append("/").append(nIndices.get(i) + 1);
+                writer.writeByte('/');
+                writer.writeInt(tIndices.get(i) + 1);
+                writer.writeByte('/');
+                writer.writeInt(nIndices.get(i) + 1);
             } else if (hasTex) {
-                polygonBuilder.append("/").append(tIndices.get(i) + 1);
+                writer.writeByte('/');
+                writer.writeInt(tIndices.get(i) + 1);
             } else if (hasNorm) {
-                polygonBuilder.append("//").append(nIndices.get(i) + 1);
+                writer.writeByte('/');
+                writer.writeByte('/');
+                writer.writeInt(nIndices.get(i) + 1);
             }
         }
 
-        return polygonBuilder.toString();
+        writer.writeByte('\n');
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,229 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.objwriter;
+
+import ru.vsu.cs.khalibekov_a_b_objWriter.io.AtomicFiles;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.CompactModel;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.Model;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.PolygonRange;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+// Параллельная запись: каждая секция файла делится на куски по SLICE_SIZE элементов,
+// куски кодируются (и полигоны проверяются) на пуле потоков, а готовые буферы пишутся
+// в исходном порядке собирающей записью FileChannel. Результат побайтно совпадает
+// с последовательным ObjWriter, а ошибкой становится первый по порядку неверный полигон.
+// При сжатой записи куски ещё и сжимаются на том же пуле, а файл остаётся одним gzip-потоком.
+final class ParallelObjWriter {
+
+    static final int SLICE_SIZE = 1 << 16;
+
+    // Примерный размер одной строки v/vt/vn/f для начальной ёмкости буфера куска
+    private static final int BYTES_PER_ELEMENT = 32;
+    private static final int SMALL_SLICE_SIZE = 256;
+
+    private ParallelObjWriter() {
+    }
+
+    @FunctionalInterface
+    interface SliceEncoder {
+        void encode(ObjOutputBuffer out) throws IOException;
+    }
+
+    @FunctionalInterface
+    interface RangeEncoder {
+        void encode(ObjOutputBuffer out, int from, int to) throws IOException;
+    }
+
+    private record Slice(int sizeHint, SliceEncoder encoder) {
+    }
+
+    // Готовый к записи кусок. Для сжатой записи - ещё CRC32 и длина несжатых байт
+    private record EncodedSlice(ByteBuffer bytes, int crc, long length) {
+    }
+
+    static void saveModel(Model model, String filename, Executor executor) throws IOException {
+        write(filename, slices(model), executor, false);
+    }
+
+    static void saveCompactModel(CompactModel model, String filename, Executor executor) throws IOException {
+        write(filename, slices(model), executor, false);
+    }
+
+    // Те же байты, сжатые в gzip: каждый кусок сжимается отдельно там же, где кодируется
+    static void saveModelCompressed(Model model, String filename, Executor executor) throws IOException {
+        write(filename, slices(model), executor, true);
+    }
+
+    static void saveCompactModelCompressed(CompactModel model, String filename, Executor executor) throws IOException {
+        write(filename, slices(model), executor, true);
+    }
+
+    private static List<Slice> slices(Model model) throws IOException {
+        List<Slice> slices = new ArrayList<Slice>();
+        slices.add(new Slice(SMALL_SLICE_SIZE, out -> ObjWriter.writeHeader(out, model.vertices.size(),
+                model.textureVertices.size(), model.normals.size(), model.polygons.size())));
+        slices.add(new Slice(SMALL_SLICE_SIZE, out -> ObjWriter.writeMaterialLibraries(out, model.materialLibraries)));
+
+        addSection(slices, model.vertices.size(), (out, from, to) ->
+                ObjWriter.writeVertices(out, model.vertices, ObjWriter.VERTEX_PREFIX, from, to));
+        addSection(slices, model.textureVertices.size(), (out, from, to) ->
+                ObjWriter.writeTextureCoordinates(out, model.textureVertices, from, to));
+        addSection(slices, model.normals.size(), (out, from, to) ->
+                ObjWriter.writeVertices(out, model.normals, ObjWriter.NORMAL_PREFIX, from, to));
+        addPolygonSlices(slices, model.polygonRanges, model.polygons.size(), (out, from, to) ->
+                ObjWriter.writePolygons(out, model, from, to));
+        return slices;
+    }
+
+    private static List<Slice> slices(CompactModel model) throws IOException {
+        List<Slice> slices = new ArrayList<Slice>();
+        slices.add(new Slice(SMALL_SLICE_SIZE, out -> ObjWriter.writeHeader(out, model.getVertexCount(),
+                model.getTextureVertexCount(), model.getNormalCount(), model.getPolygonCount())));
+        slices.add(new Slice(SMALL_SLICE_SIZE, out -> ObjWriter.writeMaterialLibraries(out, model.getMaterialLibraries())));
+
+        addSection(slices, model.getVertexCount(), (out, from, to) ->
+                ObjWriter.writeElements(out, ObjWriter.VERTEX_PREFIX, model.getVertexData(), from, to, 3));
+        addSection(slices, model.getTextureVertexCount(), (out, from, to) ->
+                ObjWriter.writeElements(out, ObjWriter.TEXTURE_PREFIX, model.getTextureVertexData(), from, to, 2));
+        addSection(slices, model.getNormalCount(), (out, from, to) ->
+                ObjWriter.writeElements(out, ObjWriter.NORMAL_PREFIX, model.getNormalData(), from, to, 3));
+        addPolygonSlices(slices, model.getPolygonRanges(), model.getPolygonCount(), (out, from, to) ->
+                ObjWriter.writePolygons(out, model, from, to));
+        return slices;
+    }
+
+    // Куски секции и завершающая её пустая строка
+    private static void addSection(List<Slice> slices, int count, RangeEncoder encoder) {
+        addSlices(slices, count, encoder);
+        slices.add(new Slice(SMALL_SLICE_SIZE, out -> ObjWriter.writeSectionEnd(out, count)));
+    }
+
+    // Каждый диапазон полигонов режется на куски отдельно, перед ним - кусок со строками o, g, usemtl и s
+    private static void addPolygonSlices(List<Slice> slices, List<PolygonRange> ranges, int count,
+                                         RangeEncoder encoder) throws IOException {
+        int[] bounds = ObjWriter.rangeBounds(ranges, count);
+        for (int r = 0; r + 1 < bounds.length; r++) {
+            if (!ranges.isEmpty()) {
+                PolygonRange previous = r == 0 ? null : ranges.get(r - 1);
+                PolygonRange range = ranges.get(r);
+                slices.add(new Slice(SMALL_SLICE_SIZE, out -> ObjWriter.writeRangeStatements(out, previous, range)));
+            }
+            addSlices(slices, bounds[r], bounds[r + 1], encoder);
+        }
+    }
+
+    private static void addSlices(List<Slice> slices, int count, RangeEncoder encoder) {
+        addSlices(slices, 0, count, encoder);
+    }
+
+    private static void addSlices(List<Slice> slices, int first, int end, RangeEncoder encoder) {
+        for (int from = first; from < end; from += SLICE_SIZE) {
+            int sliceFrom = from;
+            int sliceTo = Math.min(end, from + SLICE_SIZE);
+            slices.add(new Slice(BYTES_PER_ELEMENT * (sliceTo - sliceFrom),
+                    out -> encoder.encode(out, sliceFrom, sliceTo)));
+        }
+    }
+
+    // Одновременно кодируется не больше window кусков, чтобы память не росла с размером модели
+    private static void write(String filename, List<Slice> slices, Executor executor, boolean compressed) throws IOException {
+        int window = 2 * Runtime.getRuntime().availableProcessors() + 2;
+        ArrayDeque<CompletableFuture<EncodedSlice>> inFlight = new ArrayDeque<CompletableFuture<EncodedSlice>>();
+
+        try {
+            AtomicFiles.writeAtomically(filename, channel -> {
+                if (!compressed) {
+                    writeInOrder(channel, slices, inFlight, window, executor, null);
+                    return;
+                }
+                GzipMember gzip = new GzipMember();
+                writeFully(channel, new ByteBuffer[]{GzipMember.header()});
+                writeInOrder(channel, slices, inFlight, window, executor, gzip);
+                writeFully(channel, new ByteBuffer[]{gzip.trailer()});
+            });
+        } finally {
+            for (CompletableFuture<EncodedSlice> future : inFlight) {
+                future.cancel(false);
+            }
+        }
+    }
+
+    // gzip == null - запись без сжатия
+    private static void writeInOrder(FileChannel channel, List<Slice> slices,
+                                     ArrayDeque<CompletableFuture<EncodedSlice>> inFlight,
+                                     int window, Executor executor, GzipMember gzip) throws IOException {
+        int next = 0;
+        List<ByteBuffer> batch = new ArrayList<ByteBuffer>();
+        while (next < slices.size() || !inFlight.isEmpty()) {
+            while (next < slices.size() && inFlight.size() < window) {
+                inFlight.add(encodeAsync(slices.get(next++), executor, gzip != null));
+            }
+
+            batch.clear();
+            do {
+                EncodedSlice slice = await(inFlight.poll());
+                if (gzip != null) {
+                    gzip.append(slice.crc(), slice.length());
+                }
+                batch.add(slice.bytes());
+            } while (!inFlight.isEmpty() && inFlight.peek().isDone());
+            writeFully(channel, batch.toArray(new ByteBuffer[0]));
+        }
+    }
+
+    private static CompletableFuture<EncodedSlice> encodeAsync(Slice slice, Executor executor, boolean compressed) {
+        return CompletableFuture.supplyAsync(() -> {
+            ObjOutputBuffer out = new ObjOutputBuffer(slice.sizeHint());
+            try {
+                slice.encoder().encode(out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            ByteBuffer bytes = out.toByteBuffer();
+            if (!compressed) {
+                return new EncodedSlice(bytes, 0, bytes.remaining());
+            }
+            return new EncodedSlice(GzipMember.deflate(bytes), GzipMember.crc32(bytes), bytes.remaining());
+        }, executor);
+    }
+
+    private static EncodedSlice await(CompletableFuture<EncodedSlice> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        } catch (CancellationException e) {
+            throw new InterruptedIOException("OBJ writing was cancelled");
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer[] buffers) throws IOException {
+        long remaining = 0;
+        for (ByteBuffer buffer : buffers) {
+            remaining += buffer.remaining();
+        }
+        while (remaining > 0) {
+            remaining -= channel.write(buffers);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.objwriter;
+
+// Одна найденная ModelValidator проблема полигона
+public final class ValidationProblem {
+
+    public enum Type {
+        NULL_POLYGON,
+        NO_VERTICES,
+        TEXTURE_COUNT_MISMATCH,
+        NORMAL_COUNT_MISMATCH,
+        VERTEX_INDEX_OUT_OF_RANGE,
+        TEXTURE_INDEX_OUT_OF_RANGE,
+        NORMAL_INDEX_OUT_OF_RANGE,
+        // Меньше трёх различных вершин или нулевая площадь. Запись такой полигон не прерывает
+        DEGENERATE_POLYGON;
+
+        public boolean isError() {
+            return this != DEGENERATE_POLYGON;
+        }
+    }
+
+    private final Type type;
+    private final int polygonIndex;
+    private final String message;
+
+    ValidationProblem(Type type, int polygonIndex, String message) {
+        this.type = type;
+        this.polygonIndex = polygonIndex;
+        this.message = message;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getPolygonIndex() {
+        return polygonIndex;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return message;
+    }
+}
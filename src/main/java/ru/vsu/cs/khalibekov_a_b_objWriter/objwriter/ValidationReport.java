@@ -0,0 +1,94 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.objwriter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+// Результат ModelValidator. Хранит не больше maxProblems первых по номеру полигона проблем,
+// но считает все найденные проблемы каждого типа.
+public final class ValidationReport {
+
+    private static final ValidationProblem.Type[] TYPES = ValidationProblem.Type.values();
+
+    private final int maxProblems;
+    private final ArrayList<ValidationProblem> problems = new ArrayList<ValidationProblem>();
+    private final long[] counts = new long[TYPES.length];
+
+    ValidationReport(int maxProblems) {
+        if (maxProblems < 0) {
+            throw new IllegalArgumentException("Max problems must not be negative: " + maxProblems);
+        }
+        this.maxProblems = maxProblems;
+    }
+
+    // Сообщение строится, только если проблема попадает в отчёт
+    void add(ValidationProblem.Type type, int polygonIndex, Supplier<String> message) {
+        counts[type.ordinal()]++;
+        if (problems.size() < maxProblems) {
+            problems.add(new ValidationProblem(type, polygonIndex, message.get()));
+        }
+    }
+
+    // Отчёт по следующему куску полигонов
+    void append(ValidationReport next) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += next.counts[i];
+        }
+        for (int i = 0; i < next.problems.size() && problems.size() < maxProblems; i++) {
+            problems.add(next.problems.get(i));
+        }
+    }
+
+    boolean isEmpty() {
+        return problems.isEmpty();
+    }
+
+    public boolean isValid() {
+        return getErrorCount() == 0;
+    }
+
+    public List<ValidationProblem> getProblems() {
+        return Collections.unmodifiableList(problems);
+    }
+
+    public long getProblemCount() {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        return total;
+    }
+
+    public long getErrorCount() {
+        long total = 0;
+        for (ValidationProblem.Type type : TYPES) {
+            if (type.isError()) {
+                total += counts[type.ordinal()];
+            }
+        }
+        return total;
+    }
+
+    public long getCount(ValidationProblem.Type type) {
+        return counts[type.ordinal()];
+    }
+
+    // Найдено больше проблем, чем попало в отчёт
+    public boolean isTruncated() {
+        return getProblemCount() > problems.size();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        result.append("Problems: ").append(getProblemCount()).append(", errors: ").append(getErrorCount());
+        for (ValidationProblem problem : problems) {
+            result.append('\n').append(problem.getMessage());
+        }
+        if (isTruncated()) {
+            result.append("\n... and ").append(getProblemCount() - problems.size()).append(" more");
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,37 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.processing;
+
+import ru.vsu.cs.khalibekov_a_b_objWriter.math.Vector3f;
+
+import java.util.Locale;
+
+// Результат запроса к ModelBvh: полигон модели, точка на нём и расстояние до неё
+// (для луча - от начала луча вдоль направления, для ближайшей точки - от точки запроса)
+public final class BvhHit {
+
+    private final int polygonIndex;
+    private final float distance;
+    private final Vector3f point;
+
+    BvhHit(int polygonIndex, float distance, Vector3f point) {
+        this.polygonIndex = polygonIndex;
+        this.distance = distance;
+        this.point = point;
+    }
+
+    public int getPolygonIndex() {
+        return polygonIndex;
+    }
+
+    public float getDistance() {
+        return distance;
+    }
+
+    public Vector3f getPoint() {
+        return point;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "polygon %d at %s, distance %.6f", polygonIndex, point, distance);
+    }
+}
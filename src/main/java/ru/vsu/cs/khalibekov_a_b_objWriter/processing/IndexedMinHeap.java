@@ -0,0 +1,122 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.processing;
+
+import java.util.Arrays;
+
+// Двоичная куча элементов [0, capacity) с ключом на каждый элемент: ключ уже лежащего
+// в куче элемента меняется на месте (без повторных записей и ленивого удаления)
+final class IndexedMinHeap {
+
+    private final int[] heap;
+    private final int[] position;
+    private final double[] keys;
+    private int size;
+
+    IndexedMinHeap(int capacity) {
+        heap = new int[capacity];
+        position = new int[capacity];
+        keys = new double[capacity];
+        Arrays.fill(position, -1);
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean contains(int element) {
+        return position[element] >= 0;
+    }
+
+    double key(int element) {
+        return keys[element];
+    }
+
+    // Добавляет элемент или меняет его ключ
+    void update(int element, double key) {
+        int pos = position[element];
+        if (pos < 0) {
+            pos = size++;
+            heap[pos] = element;
+            position[element] = pos;
+            keys[element] = key;
+            siftUp(pos);
+            return;
+        }
+        double old = keys[element];
+        keys[element] = key;
+        if (key < old) {
+            siftUp(pos);
+        } else {
+            siftDown(pos);
+        }
+    }
+
+    void remove(int element) {
+        int pos = position[element];
+        if (pos < 0) {
+            return;
+        }
+        position[element] = -1;
+        int last = heap[--size];
+        if (pos == size) {
+            return;
+        }
+        heap[pos] = last;
+        position[last] = pos;
+        siftDown(pos);
+        siftUp(position[last]);
+    }
+
+    int peek() {
+        return heap[0];
+    }
+
+    int poll() {
+        int top = heap[0];
+        remove(top);
+        return top;
+    }
+
+    private void siftUp(int pos) {
+        int element = heap[pos];
+        double key = keys[element];
+        while (pos > 0) {
+            int parent = (pos - 1) >>> 1;
+            int parentElement = heap[parent];
+            if (keys[parentElement] <= key) {
+                break;
+            }
+            heap[pos] = parentElement;
+            position[parentElement] = pos;
+            pos = parent;
+        }
+        heap[pos] = element;
+        position[element] = pos;
+    }
+
+    private void siftDown(int pos) {
+        int element = heap[pos];
+        double key = keys[element];
+        while (true) {
+            int child = 2 * pos + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && keys[heap[child + 1]] < keys[heap[child]]) {
+                child++;
+            }
+            int childElement = heap[child];
+            if (keys[childElement] >= key) {
+                break;
+            }
+            heap[pos] = childElement;
+            position[childElement] = pos;
+            pos = child;
+        }
+        heap[pos] = element;
+        position[element] = pos;
+    }
+}
@@ -0,0 +1,250 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.processing;
+
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.CompactModel;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.PolygonRange;
+import ru.vsu.cs.khalibekov_a_b_objWriter.objreader.ObjVisitor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Собирает MaterialBatches прямо при разборе (ObjReader.read(path, builder)): каждая грань сразу
+// разбивается на треугольники (PolygonTriangulator) и дописывается в пакет текущего материала,
+// а её углы склеиваются в общий буфер вершин по хэшу (вершина, текстура, нормаль).
+// Вершины, текстуры и нормали грани должны быть объявлены до неё - иначе IllegalArgumentException,
+// как у ModelTriangulator.
+public class MaterialBatchBuilder implements ObjVisitor {
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int EMPTY = -1;
+
+    private static final class Batch {
+        final String materialName;
+        int[] indices = new int[3 * INITIAL_CAPACITY];
+        int size;
+
+        Batch(String materialName) {
+            this.materialName = materialName;
+        }
+    }
+
+    private float[] vertices = new float[3 * INITIAL_CAPACITY];
+    private int vertexCount;
+    private float[] textureVertices = new float[2 * INITIAL_CAPACITY];
+    private int textureVertexCount;
+    private float[] normals = new float[3 * INITIAL_CAPACITY];
+    private int normalCount;
+
+    // Уникальные углы и хэш-таблица номеров углов с открытой адресацией
+    private int[] cornerVertices = new int[INITIAL_CAPACITY];
+    private int[] cornerTextures = new int[INITIAL_CAPACITY];
+    private int[] cornerNormals = new int[INITIAL_CAPACITY];
+    private int cornerCount;
+    private boolean hasTextures;
+    private boolean hasNormals;
+    private int[] table = newTable(4 * INITIAL_CAPACITY);
+
+    private final List<Batch> batches = new ArrayList<Batch>();
+    private final Map<String, Batch> batchByMaterial = new HashMap<String, Batch>();
+    private Batch current;
+
+    private final PolygonTriangulator triangulator = new PolygonTriangulator();
+    private int[] triangles = new int[3 * INITIAL_CAPACITY];
+    private int polygonCount;
+
+    @Override
+    public void onVertex(float x, float y, float z) {
+        vertices = ensureCapacity(vertices, 3 * (vertexCount + 1));
+        int pos = 3 * vertexCount++;
+        vertices[pos] = x;
+        vertices[pos + 1] = y;
+        vertices[pos + 2] = z;
+    }
+
+    @Override
+    public void onTexCoord(float u, float v) {
+        textureVertices = ensureCapacity(textureVertices, 2 * (textureVertexCount + 1));
+        int pos = 2 * textureVertexCount++;
+        textureVertices[pos] = u;
+        textureVertices[pos + 1] = v;
+    }
+
+    @Override
+    public void onNormal(float x, float y, float z) {
+        normals = ensureCapacity(normals, 3 * (normalCount + 1));
+        int pos = 3 * normalCount++;
+        normals[pos] = x;
+        normals[pos + 1] = y;
+        normals[pos + 2] = z;
+    }
+
+    @Override
+    public void onMaterial(String name) {
+        current = batchByMaterial.get(name);
+        if (current == null) {
+            current = new Batch(name);
+            batchByMaterial.put(name, current);
+            batches.add(current);
+        }
+    }
+
+    @Override
+    public void onFace(int[] v, int[] vt, int[] vn, int count) {
+        int polygonIndex = polygonCount++;
+        for (int j = 0; j < count; j++) {
+            ParallelChunks.checkIndex(v[j], polygonIndex, "vertex", j, vertexCount);
+            if (vt != null && vt[j] != CompactModel.NO_INDEX) {
+                ParallelChunks.checkIndex(vt[j], polygonIndex, "texture", j, textureVertexCount);
+            }
+            if (vn != null && vn[j] != CompactModel.NO_INDEX) {
+                ParallelChunks.checkIndex(vn[j], polygonIndex, "normal", j, normalCount);
+            }
+        }
+        if (triangles.length < 3 * count) {
+            triangles = new int[3 * count];
+        }
+        int produced = triangulator.triangulate(vertices, v, 0, count, triangles);
+        if (produced == 0) {
+            return;
+        }
+        if (current == null) {
+            onMaterial(null);
+        }
+
+        Batch batch = current;
+        batch.indices = ensureCapacity(batch.indices, batch.size + 3 * produced);
+        for (int k = 0; k < 3 * produced; k++) {
+            int corner = triangles[k];
+            batch.indices[batch.size++] = cornerIndex(v[corner],
+                    vt == null ? CompactModel.NO_INDEX : vt[corner],
+                    vn == null ? CompactModel.NO_INDEX : vn[corner]);
+        }
+    }
+
+    // Полигоны модели по её диапазонам материалов
+    void replay(CompactModel model) {
+        vertices = Arrays.copyOf(model.getVertexData(), 3 * model.getVertexCount());
+        vertexCount = model.getVertexCount();
+        textureVertices = Arrays.copyOf(model.getTextureVertexData(), 2 * model.getTextureVertexCount());
+        textureVertexCount = model.getTextureVertexCount();
+        normals = Arrays.copyOf(model.getNormalData(), 3 * model.getNormalCount());
+        normalCount = model.getNormalCount();
+
+        int[] offsets = model.getPolygonOffsets();
+        int[] vIndices = model.getVertexIndices();
+        int[] tIndices = model.getTextureVertexIndices();
+        int[] nIndices = model.getNormalIndices();
+        List<PolygonRange> ranges = model.getPolygonRanges();
+        int[] v = new int[INITIAL_CAPACITY];
+        int[] vt = new int[INITIAL_CAPACITY];
+        int[] vn = new int[INITIAL_CAPACITY];
+        int nextRange = 0;
+        for (int i = 0; i < model.getPolygonCount(); i++) {
+            while (nextRange < ranges.size() && ranges.get(nextRange).getFirstPolygon() <= i) {
+                onMaterial(ranges.get(nextRange++).getMaterialName());
+            }
+            int start = offsets[i];
+            int count = offsets[i + 1] - start;
+            if (v.length < count) {
+                v = new int[count];
+                vt = new int[count];
+                vn = new int[count];
+            }
+            System.arraycopy(vIndices, start, v, 0, count);
+            if (tIndices != null) {
+                System.arraycopy(tIndices, start, vt, 0, count);
+            }
+            if (nIndices != null) {
+                System.arraycopy(nIndices, start, vn, 0, count);
+            }
+            onFace(v, tIndices == null ? null : vt, nIndices == null ? null : vn, count);
+        }
+    }
+
+    public MaterialBatches getBatches() {
+        int[] batchOffsets = new int[batches.size() + 1];
+        List<String> materialNames = new ArrayList<String>(batches.size());
+        for (int b = 0; b < batches.size(); b++) {
+            materialNames.add(batches.get(b).materialName);
+            batchOffsets[b + 1] = batchOffsets[b] + batches.get(b).size;
+        }
+        int[] indices = new int[batchOffsets[batches.size()]];
+        for (int b = 0; b < batches.size(); b++) {
+            System.arraycopy(batches.get(b).indices, 0, indices, batchOffsets[b], batches.get(b).size);
+        }
+        return new MaterialBatches(
+                Arrays.copyOf(vertices, 3 * vertexCount), vertexCount,
+                Arrays.copyOf(textureVertices, 2 * textureVertexCount), textureVertexCount,
+                Arrays.copyOf(normals, 3 * normalCount), normalCount,
+                cornerCount, Arrays.copyOf(cornerVertices, cornerCount),
+                hasTextures ? Arrays.copyOf(cornerTextures, cornerCount) : null,
+                hasNormals ? Arrays.copyOf(cornerNormals, cornerCount) : null,
+                materialNames, batchOffsets, indices);
+    }
+
+    private int cornerIndex(int vertex, int texture, int normal) {
+        int mask = table.length - 1;
+        int slot = hash(vertex, texture, normal) & mask;
+        while (table[slot] != EMPTY) {
+            int corner = table[slot];
+            if (cornerVertices[corner] == vertex && cornerTextures[corner] == texture && cornerNormals[corner] == normal) {
+                return corner;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        int corner = cornerCount++;
+        cornerVertices = ensureCapacity(cornerVertices, cornerCount);
+        cornerTextures = ensureCapacity(cornerTextures, cornerCount);
+        cornerNormals = ensureCapacity(cornerNormals, cornerCount);
+        cornerVertices[corner] = vertex;
+        cornerTextures[corner] = texture;
+        cornerNormals[corner] = normal;
+        hasTextures |= texture != CompactModel.NO_INDEX;
+        hasNormals |= normal != CompactModel.NO_INDEX;
+        table[slot] = corner;
+        if (2 * cornerCount > table.length) {
+            rehash();
+        }
+        return corner;
+    }
+
+    private void rehash() {
+        table = newTable(2 * table.length);
+        int mask = table.length - 1;
+        for (int corner = 0; corner < cornerCount; corner++) {
+            int slot = hash(cornerVertices[corner], cornerTextures[corner], cornerNormals[corner]) & mask;
+            while (table[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = corner;
+        }
+    }
+
+    private static int[] newTable(int size) {
+        int[] table = new int[size];
+        Arrays.fill(table, EMPTY);
+        return table;
+    }
+
+    private static int hash(int vertex, int texture, int normal) {
+        int h = vertex * 0x9E3779B1 + texture * 0x85EBCA77 + normal * 0xC2B2AE3D;
+        return h ^ (h >>> 15);
+    }
+
+    private static float[] ensureCapacity(float[] array, int required) {
+        if (array.length >= required) {
+            return array;
+        }
+        return Arrays.copyOf(array, Math.max(required, array.length + (array.length >> 1)));
+    }
+
+    private static int[] ensureCapacity(int[] array, int required) {
+        if (array.length >= required) {
+            return array;
+        }
+        return Arrays.copyOf(array, Math.max(required, array.length + (array.length >> 1)));
+    }
+}
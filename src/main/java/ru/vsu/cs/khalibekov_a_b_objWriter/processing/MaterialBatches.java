@@ -0,0 +1,180 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.processing;
+
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.CompactModel;
+import ru.vsu.cs.khalibekov_a_b_objWriter.objreader.ObjReader;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+// Треугольники модели, собранные по материалам в готовые для отрисовки пакеты.
+// Уникальные сочетания (вершина, текстура, нормаль) углов образуют общий буфер вершин,
+// а индексы треугольников лежат в одном массиве: пакет b занимает
+// [getBatchOffset(b), getBatchOffset(b) + getBatchIndexCount(b)) - один вызов отрисовки на материал.
+// Пакеты идут в порядке первого появления материала, треугольники внутри - в порядке файла.
+public final class MaterialBatches {
+
+    private final float[] vertices;
+    private final int vertexCount;
+    private final float[] textureVertices;
+    private final int textureVertexCount;
+    private final float[] normals;
+    private final int normalCount;
+
+    private final int cornerCount;
+    private final int[] cornerVertexIndices;
+    private final int[] cornerTextureIndices;
+    private final int[] cornerNormalIndices;
+
+    private final List<String> materialNames;
+    private final int[] batchOffsets;
+    private final int[] indices;
+
+    MaterialBatches(float[] vertices, int vertexCount, float[] textureVertices, int textureVertexCount,
+                    float[] normals, int normalCount, int cornerCount, int[] cornerVertexIndices,
+                    int[] cornerTextureIndices, int[] cornerNormalIndices,
+                    List<String> materialNames, int[] batchOffsets, int[] indices) {
+        this.vertices = vertices;
+        this.vertexCount = vertexCount;
+        this.textureVertices = textureVertices;
+        this.textureVertexCount = textureVertexCount;
+        this.normals = normals;
+        this.normalCount = normalCount;
+        this.cornerCount = cornerCount;
+        this.cornerVertexIndices = cornerVertexIndices;
+        this.cornerTextureIndices = cornerTextureIndices;
+        this.cornerNormalIndices = cornerNormalIndices;
+        this.materialNames = materialNames;
+        this.batchOffsets = batchOffsets;
+        this.indices = indices;
+    }
+
+    // Пакеты за один проход по файлу, без промежуточной модели
+    public static MaterialBatches read(Path path) throws IOException {
+        MaterialBatchBuilder builder = new MaterialBatchBuilder();
+        ObjReader.read(path, builder);
+        return builder.getBatches();
+    }
+
+    // Материалы берутся из model.getPolygonRanges()
+    public static MaterialBatches fromModel(CompactModel model) {
+        if (model == null) {
+            throw new IllegalArgumentException("Invalid model provided!");
+        }
+        MaterialBatchBuilder builder = new MaterialBatchBuilder();
+        builder.replay(model);
+        return builder.getBatches();
+    }
+
+    public int getBatchCount() {
+        return materialNames.size();
+    }
+
+    // null - полигоны до первой строки usemtl или после usemtl без имени
+    public String getMaterialName(int batch) {
+        return materialNames.get(batch);
+    }
+
+    public int getBatchOffset(int batch) {
+        return batchOffsets[batch];
+    }
+
+    public int getBatchIndexCount(int batch) {
+        return batchOffsets[batch + 1] - batchOffsets[batch];
+    }
+
+    // Номер пакета материала или -1
+    public int findBatch(String materialName) {
+        return materialNames.indexOf(materialName);
+    }
+
+    // Индексы углов (getCornerCount()), по три на треугольник, все пакеты подряд
+    public int[] getIndices() {
+        return indices;
+    }
+
+    public int getTriangleCount() {
+        return indices.length / 3;
+    }
+
+    public int getCornerCount() {
+        return cornerCount;
+    }
+
+    public int[] getCornerVertexIndices() {
+        return cornerVertexIndices;
+    }
+
+    // null, если текстурных координат нет ни у одного угла. Иначе отсутствующие - CompactModel.NO_INDEX
+    public int[] getCornerTextureIndices() {
+        return cornerTextureIndices;
+    }
+
+    // null, если нормалей нет ни у одного угла
+    public int[] getCornerNormalIndices() {
+        return cornerNormalIndices;
+    }
+
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    public float[] getVertexData() {
+        return vertices;
+    }
+
+    public int getTextureVertexCount() {
+        return textureVertexCount;
+    }
+
+    public float[] getTextureVertexData() {
+        return textureVertices;
+    }
+
+    public int getNormalCount() {
+        return normalCount;
+    }
+
+    public float[] getNormalData() {
+        return normals;
+    }
+
+    // Число float на угол в getInterleavedVertices(): позиция, затем текстура и нормаль, если они есть
+    public int getStride() {
+        return 3 + (cornerTextureIndices != null ? 2 : 0) + (cornerNormalIndices != null ? 3 : 0);
+    }
+
+    // Буфер вершин для отрисовки: атрибуты углов подряд по getStride() float.
+    // Отсутствующие у угла текстура или нормаль записываются нулями
+    public float[] getInterleavedVertices() {
+        int stride = getStride();
+        float[] result = new float[cornerCount * stride];
+        for (int corner = 0; corner < cornerCount; corner++) {
+            int target = corner * stride;
+            target = copyAttribute(vertices, vertexCount, 3, cornerVertexIndices[corner], corner, "vertex", result, target);
+            if (cornerTextureIndices != null) {
+                target = copyAttribute(textureVertices, textureVertexCount, 2, cornerTextureIndices[corner], corner,
+                        "texture", result, target);
+            }
+            if (cornerNormalIndices != null) {
+                copyAttribute(normals, normalCount, 3, cornerNormalIndices[corner], corner, "normal", result, target);
+            }
+        }
+        return result;
+    }
+
+    private static int copyAttribute(float[] data, int count, int components, int index, int corner, String name,
+                                     float[] result, int target) {
+        if (index != CompactModel.NO_INDEX) {
+            if (index < 0 || index >= count) {
+                throw new IllegalArgumentException(String.format("Corner %d, %s: index %d out of range [0, %d]",
+                        corner, name, index, count - 1));
+            }
+            System.arraycopy(data, components * index, result, target, components);
+        } else {
+            Arrays.fill(result, target, target + components, 0);
+        }
+        return target + components;
+    }
+}
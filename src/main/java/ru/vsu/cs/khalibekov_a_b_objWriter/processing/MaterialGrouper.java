@@ -0,0 +1,133 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.processing;
+
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.CompactModel;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.Model;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.Polygon;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.PolygonRange;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Перестановка полигонов так, чтобы полигоны каждого материала шли подряд: тогда ObjWriter
+// пишет по одной строке usemtl на материал, а при отрисовке на материал нужен один вызов.
+// Материалы группируются внутри каждой пары объект / группа (o, g), чтобы структура объектов
+// и групп не менялась: пары идут в порядке первого появления, внутри пары материалы - тоже,
+// диапазоны одного материала - в исходном порядке, полигоны внутри диапазона не переставляются.
+// Вершины, текстуры и нормали не меняются.
+// Модель без диапазонов возвращается как есть.
+public class MaterialGrouper {
+
+    public static CompactModel groupByMaterial(CompactModel model) {
+        if (model == null) {
+            throw new IllegalArgumentException("Invalid model provided!");
+        }
+        List<PolygonRange> ranges = model.getPolygonRanges();
+        if (ranges.isEmpty()) {
+            // Материалов нет - переставлять нечего
+            return model;
+        }
+        int polygonCount = model.getPolygonCount();
+        int[] bounds = PolygonRange.bounds(ranges, polygonCount);
+        int[] order = rangeOrder(ranges);
+
+        int[] offsets = model.getPolygonOffsets();
+        int[] vIndices = model.getVertexIndices();
+        int[] tIndices = model.getTextureVertexIndices();
+        int[] nIndices = model.getNormalIndices();
+        int indexCount = model.getIndexCount();
+        int[] resultOffsets = new int[polygonCount + 1];
+        int[] resultVertices = new int[Math.max(indexCount, 1)];
+        int[] resultTextures = tIndices == null ? null : new int[resultVertices.length];
+        int[] resultNormals = nIndices == null ? null : new int[resultVertices.length];
+
+        List<PolygonRange> resultRanges = new ArrayList<PolygonRange>(ranges.size());
+        int polygon = 0;
+        for (int r : order) {
+            int from = bounds[r];
+            int to = bounds[r + 1];
+            addRange(resultRanges, ranges.get(r).withFirstPolygon(polygon));
+
+            int start = offsets[from];
+            int length = offsets[to] - start;
+            int target = resultOffsets[polygon];
+            System.arraycopy(vIndices, start, resultVertices, target, length);
+            if (tIndices != null) {
+                System.arraycopy(tIndices, start, resultTextures, target, length);
+            }
+            if (nIndices != null) {
+                System.arraycopy(nIndices, start, resultNormals, target, length);
+            }
+            for (int i = from; i < to; i++) {
+                resultOffsets[polygon + 1] = resultOffsets[polygon] + offsets[i + 1] - offsets[i];
+                polygon++;
+            }
+        }
+
+        int vertexCount = model.getVertexCount();
+        int textureCount = model.getTextureVertexCount();
+        int normalCount = model.getNormalCount();
+        CompactModel result = new CompactModel(
+                Arrays.copyOf(model.getVertexData(), 3 * vertexCount), vertexCount,
+                Arrays.copyOf(model.getTextureVertexData(), 2 * textureCount), textureCount,
+                Arrays.copyOf(model.getNormalData(), 3 * normalCount), normalCount,
+                resultOffsets, polygonCount,
+                resultVertices, resultTextures, resultNormals);
+        result.getMaterialLibraries().addAll(model.getMaterialLibraries());
+        result.getPolygonRanges().addAll(resultRanges);
+        return result;
+    }
+
+    // Переставляет полигоны модели на месте (сами объекты Polygon остаются теми же)
+    public static void groupByMaterial(Model model) {
+        if (model == null) {
+            throw new IllegalArgumentException("Invalid model provided!");
+        }
+        if (model.polygonRanges.isEmpty()) {
+            return;
+        }
+        int[] bounds = PolygonRange.bounds(model.polygonRanges, model.polygons.size());
+        int[] order = rangeOrder(model.polygonRanges);
+
+        ArrayList<Polygon> polygons = new ArrayList<Polygon>(model.polygons.size());
+        ArrayList<PolygonRange> ranges = new ArrayList<PolygonRange>(model.polygonRanges.size());
+        for (int r : order) {
+            addRange(ranges, model.polygonRanges.get(r).withFirstPolygon(polygons.size()));
+            polygons.addAll(model.polygons.subList(bounds[r], bounds[r + 1]));
+        }
+        model.polygons = polygons;
+        model.polygonRanges = ranges;
+    }
+
+    // Диапазоны, стабильно упорядоченные по объекту и группе (в порядке первого появления пары o, g),
+    // а внутри них - по материалу (в порядке первого появления материала в этой паре)
+    private static int[] rangeOrder(List<PolygonRange> ranges) {
+        Map<List<String>, Map<String, List<Integer>>> byBlock =
+                new LinkedHashMap<List<String>, Map<String, List<Integer>>>();
+        for (int r = 0; r < ranges.size(); r++) {
+            PolygonRange range = ranges.get(r);
+            byBlock.computeIfAbsent(Arrays.asList(range.getObjectName(), range.getGroupName()),
+                            block -> new LinkedHashMap<String, List<Integer>>())
+                    .computeIfAbsent(range.getMaterialName(), name -> new ArrayList<Integer>()).add(r);
+        }
+        int[] order = new int[ranges.size()];
+        int next = 0;
+        for (Map<String, List<Integer>> byMaterial : byBlock.values()) {
+            for (List<Integer> materialRanges : byMaterial.values()) {
+                for (int r : materialRanges) {
+                    order[next++] = r;
+                }
+            }
+        }
+        return order;
+    }
+
+    // Соседние диапазоны с одинаковыми атрибутами склеиваются
+    private static void addRange(List<PolygonRange> ranges, PolygonRange range) {
+        if (ranges.isEmpty() || !ranges.get(ranges.size() - 1).hasSameAttributes(range)) {
+            ranges.add(range);
+        }
+    }
+}
@@ -0,0 +1,673 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.processing;
+
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.CompactModel;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.Model;
+import ru.vsu.cs.khalibekov_a_b_objWriter.objwriter.ObjWriter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+// Упрощение сетки для уровней детализации (LOD): стягивание рёбер по квадрикам ошибки (Garland, Heckbert).
+// Модель сначала разбивается на треугольники (ModelTriangulator). Вершина u стягивается в соседнюю v
+// (положение v не меняется, поэтому текстуры и нормали берутся готовые), очередь вершин по цене
+// стягивания - куча с ключом на вершину, который пересчитывается у соседей после каждого стягивания.
+// Швы сохраняются: вершины, у углов которых разные текстуры или нормали, края сетки и неманифолдные
+// вершины не двигаются. Стягивание не выполняется, если оно переворачивает треугольник или склеивает
+// лишнее (условие связи). Полигоны остаются в своих диапазонах (o, g, usemtl, s), неиспользуемые
+// вершины, текстуры и нормали удаляются.
+public class MeshSimplifier {
+
+    // Треугольник после стягивания не должен поворачиваться больше чем примерно на 75 градусов
+    private static final double MIN_NORMAL_COSINE = 0.25;
+
+    // ratio - доля оставляемых треугольников, (0, 1]
+    public static CompactModel simplify(CompactModel model, float ratio) {
+        checkModel(model);
+        checkRatio(ratio);
+        return simplifyTriangles(ModelTriangulator.triangulate(model), ratio);
+    }
+
+    public static Model simplify(Model model, float ratio) {
+        checkModel(model);
+        return simplify(CompactModel.fromModel(model), ratio).toModel();
+    }
+
+    // Цепочка LOD за один вызов: каждый уровень строится из исходной модели (а не из предыдущего уровня),
+    // поэтому уровни независимы и считаются параллельно на ForkJoinPool
+    public static List<CompactModel> generateLods(CompactModel model, float[] ratios) {
+        return generateLods(model, ratios, ForkJoinPool.commonPool());
+    }
+
+    public static List<CompactModel> generateLods(CompactModel model, float[] ratios, Executor executor) {
+        checkModel(model);
+        checkRatios(ratios);
+        CompactModel triangles = ModelTriangulator.triangulate(model, executor);
+        List<CompletableFuture<CompactModel>> lods = new ArrayList<CompletableFuture<CompactModel>>(ratios.length);
+        for (float ratio : ratios) {
+            lods.add(CompletableFuture.supplyAsync(() -> simplifyTriangles(triangles, ratio), executor));
+        }
+        List<CompactModel> result = new ArrayList<CompactModel>(ratios.length);
+        for (CompletableFuture<CompactModel> lod : lods) {
+            result.add(join(lod, lods));
+        }
+        return result;
+    }
+
+    public static List<Model> generateLods(Model model, float[] ratios) {
+        return generateLods(model, ratios, ForkJoinPool.commonPool());
+    }
+
+    public static List<Model> generateLods(Model model, float[] ratios, Executor executor) {
+        checkModel(model);
+        List<Model> result = new ArrayList<Model>(ratios.length);
+        for (CompactModel lod : generateLods(CompactModel.fromModel(model), ratios, executor)) {
+            result.add(lod.toModel());
+        }
+        return result;
+    }
+
+    // Уровни пишутся в отдельные файлы (model.obj -> model_lod0.obj, model_lod1.obj, ...) сразу по готовности,
+    // имя *.gz - сжатая запись. Возвращает пути файлов по порядку ratios
+    public static List<Path> saveLods(Model model, float[] ratios, String filename) throws IOException {
+        return saveLods(model, ratios, filename, ForkJoinPool.commonPool());
+    }
+
+    public static List<Path> saveLods(Model model, float[] ratios, String filename, Executor executor) throws IOException {
+        checkModel(model);
+        checkRatios(ratios);
+        CompactModel triangles = ModelTriangulator.triangulate(CompactModel.fromModel(model), executor);
+        boolean compressed = filename.toLowerCase(Locale.ROOT).endsWith(".gz");
+        List<CompletableFuture<Path>> files = new ArrayList<CompletableFuture<Path>>(ratios.length);
+        for (int lod = 0; lod < ratios.length; lod++) {
+            float ratio = ratios[lod];
+            String lodFilename = lodFileName(filename, lod);
+            files.add(CompletableFuture.supplyAsync(() -> {
+                CompactModel simplified = simplifyTriangles(triangles, ratio);
+                try {
+                    if (compressed) {
+                        ObjWriter.saveCompactModelCompressed(simplified, lodFilename);
+                    } else {
+                        ObjWriter.saveCompactModel(simplified, lodFilename);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return Path.of(lodFilename);
+            }, executor));
+        }
+        List<Path> result = new ArrayList<Path>(ratios.length);
+        try {
+            for (CompletableFuture<Path> file : files) {
+                result.add(join(file, files));
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return result;
+    }
+
+    // Номер уровня ставится перед расширением .obj (или .obj.gz), а без него - в конец имени
+    static String lodFileName(String filename, int lod) {
+        String lower = filename.toLowerCase(Locale.ROOT);
+        int extension = lower.endsWith(".obj.gz") ? filename.length() - 7
+                : lower.endsWith(".obj") ? filename.length() - 4 : filename.length();
+        return filename.substring(0, extension) + "_lod" + lod + filename.substring(extension);
+    }
+
+    private static <T> T join(CompletableFuture<T> future, List<? extends CompletableFuture<?>> all) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            for (CompletableFuture<?> other : all) {
+                other.cancel(false);
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static CompactModel simplifyTriangles(CompactModel triangles, float ratio) {
+        Simplification simplification = new Simplification(triangles);
+        simplification.collapseTo((int) Math.ceil((double) ratio * simplification.aliveCount));
+        return simplification.toModel(triangles);
+    }
+
+    private static void checkRatios(float[] ratios) {
+        if (ratios == null || ratios.length == 0) {
+            throw new IllegalArgumentException("At least one LOD ratio is required");
+        }
+        for (float ratio : ratios) {
+            checkRatio(ratio);
+        }
+    }
+
+    private static void checkRatio(float ratio) {
+        if (!(ratio > 0 && ratio <= 1)) {
+            throw new IllegalArgumentException("LOD ratio must be in (0, 1]: " + ratio);
+        }
+    }
+
+    private static void checkModel(Object model) {
+        if (model == null) {
+            throw new IllegalArgumentException("Invalid model provided!");
+        }
+    }
+
+    // Состояние одного упрощения. Треугольник t - углы [3t, 3t + 3) в corners (и в textures, normals)
+    private static final class Simplification {
+
+        private final float[] positions;
+        private final int vertexCount;
+        private final int triangleCount;
+        private final int[] corners;
+        private final int[] textures;
+        private final int[] normals;
+        private final boolean[] alive;
+        private int aliveCount;
+
+        // Треугольники вершины; удалённые треугольники вычищаются при слиянии списков
+        private final int[][] adjacency;
+        private final int[] adjacencySize;
+
+        // Квадрика вершины - 10 коэффициентов симметричной матрицы 4x4
+        private final double[] quadrics;
+        // Вес длины ребра в цене: на плоских участках (нулевая ошибка) первыми стягиваются короткие
+        // рёбра, и треугольники не собираются веером вокруг одной вершины
+        private double lengthWeight;
+        private final boolean[] locked;
+        private final int[] target;
+        private final IndexedMinHeap heap;
+
+        private final int[] mark;
+        private int markStamp;
+        private final int[] seen;
+        private int seenStamp;
+        private final double[] before = new double[3];
+        private final double[] after = new double[3];
+        private int[] candidates = new int[16];
+        private double[] candidateCosts = new double[16];
+
+        Simplification(CompactModel model) {
+            positions = model.getVertexData();
+            vertexCount = model.getVertexCount();
+            triangleCount = model.getPolygonCount();
+            corners = Arrays.copyOf(model.getVertexIndices(), 3 * triangleCount);
+            textures = model.getTextureVertexIndices() == null ? null
+                    : Arrays.copyOf(model.getTextureVertexIndices(), 3 * triangleCount);
+            normals = model.getNormalIndices() == null ? null
+                    : Arrays.copyOf(model.getNormalIndices(), 3 * triangleCount);
+            checkIndices(textures, "texture", model.getTextureVertexCount());
+            checkIndices(normals, "normal", model.getNormalCount());
+
+            // Треугольники с повторной вершиной не имеют площади - они сразу отбрасываются
+            alive = new boolean[triangleCount];
+            adjacencySize = new int[vertexCount];
+            for (int t = 0; t < triangleCount; t++) {
+                int a = corners[3 * t];
+                int b = corners[3 * t + 1];
+                int c = corners[3 * t + 2];
+                if (a != b && b != c && a != c) {
+                    alive[t] = true;
+                    aliveCount++;
+                    adjacencySize[a]++;
+                    adjacencySize[b]++;
+                    adjacencySize[c]++;
+                }
+            }
+            adjacency = new int[vertexCount][];
+            for (int v = 0; v < vertexCount; v++) {
+                adjacency[v] = new int[adjacencySize[v]];
+                adjacencySize[v] = 0;
+            }
+            quadrics = new double[10 * vertexCount];
+            for (int t = 0; t < triangleCount; t++) {
+                if (alive[t]) {
+                    for (int k = 0; k < 3; k++) {
+                        int v = corners[3 * t + k];
+                        adjacency[v][adjacencySize[v]++] = t;
+                    }
+                    addPlaneQuadric(t);
+                }
+            }
+            // Тысячная доля средней площади треугольника
+            lengthWeight = aliveCount == 0 ? 0 : 1e-3 * lengthWeight / aliveCount;
+
+            locked = new boolean[vertexCount];
+            for (int v = 0; v < vertexCount; v++) {
+                locked[v] = hasSeam(v) || !isManifoldDisk(v);
+            }
+            mark = new int[vertexCount];
+            seen = new int[vertexCount];
+            target = new int[vertexCount];
+            heap = new IndexedMinHeap(vertexCount);
+            for (int v = 0; v < vertexCount; v++) {
+                if (!locked[v] && adjacencySize[v] > 0) {
+                    evaluate(v);
+                }
+            }
+        }
+
+        void collapseTo(int targetTriangles) {
+            while (aliveCount > targetTriangles && !heap.isEmpty()) {
+                int u = heap.peek();
+                int v = target[u];
+                // Окрестность могла измениться после оценки - тогда вершина оценивается заново
+                if (!canCollapse(u, v)) {
+                    evaluate(u);
+                    continue;
+                }
+                heap.poll();
+                collapse(u, v);
+            }
+        }
+
+        CompactModel toModel(CompactModel source) {
+            int[] producedBefore = new int[triangleCount + 1];
+            int[] vertexMap = new int[vertexCount];
+            int[] textureMap = new int[source.getTextureVertexCount()];
+            int[] normalMap = new int[source.getNormalCount()];
+            for (int t = 0; t < triangleCount; t++) {
+                producedBefore[t + 1] = producedBefore[t] + (alive[t] ? 1 : 0);
+                if (alive[t]) {
+                    for (int j = 3 * t; j < 3 * t + 3; j++) {
+                        vertexMap[corners[j]] = 1;
+                        if (textures != null && textures[j] != CompactModel.NO_INDEX) {
+                            textureMap[textures[j]] = 1;
+                        }
+                        if (normals != null && normals[j] != CompactModel.NO_INDEX) {
+                            normalMap[normals[j]] = 1;
+                        }
+                    }
+                }
+            }
+            float[] resultVertices = compact(positions, 3, vertexMap);
+            float[] resultTextures = compact(source.getTextureVertexData(), 2, textureMap);
+            float[] resultNormals = compact(source.getNormalData(), 3, normalMap);
+
+            int kept = producedBefore[triangleCount];
+            int[] offsets = new int[kept + 1];
+            int[] vIndices = new int[Math.max(3 * kept, 1)];
+            int[] tIndices = textures == null ? null : new int[vIndices.length];
+            int[] nIndices = normals == null ? null : new int[vIndices.length];
+            int next = 0;
+            for (int t = 0; t < triangleCount; t++) {
+                if (!alive[t]) {
+                    continue;
+                }
+                for (int k = 0; k < 3; k++) {
+                    int j = 3 * t + k;
+                    vIndices[3 * next + k] = vertexMap[corners[j]];
+                    if (tIndices != null) {
+                        tIndices[3 * next + k] = remap(textures[j], textureMap);
+                    }
+                    if (nIndices != null) {
+                        nIndices[3 * next + k] = remap(normals[j], normalMap);
+                    }
+                }
+                offsets[++next] = 3 * next;
+            }
+
+            CompactModel result = new CompactModel(
+                    resultVertices, resultVertices.length / 3,
+                    resultTextures, resultTextures.length / 2,
+                    resultNormals, resultNormals.length / 3,
+                    offsets, kept, vIndices, tIndices, nIndices);
+            result.getMaterialLibraries().addAll(source.getMaterialLibraries());
+            result.getPolygonRanges().addAll(PolygonRanges.remap(source.getPolygonRanges(), producedBefore));
+            return result;
+        }
+
+        // Лучшая цель стягивания вершины u; без допустимой цели вершина уходит из кучи.
+        // Соседи проверяются по возрастанию цены до первого допустимого - полная проверка дорогая
+        private void evaluate(int u) {
+            seenStamp++;
+            int count = 0;
+            for (int i = 0; i < adjacencySize[u]; i++) {
+                int t = adjacency[u][i];
+                if (!alive[t]) {
+                    continue;
+                }
+                for (int k = 0; k < 3; k++) {
+                    int v = corners[3 * t + k];
+                    if (v == u || seen[v] == seenStamp) {
+                        continue;
+                    }
+                    seen[v] = seenStamp;
+                    if (count == candidates.length) {
+                        candidates = Arrays.copyOf(candidates, 2 * count);
+                        candidateCosts = Arrays.copyOf(candidateCosts, 2 * count);
+                    }
+                    candidates[count] = v;
+                    candidateCosts[count++] = collapseCost(u, v);
+                }
+            }
+            while (count > 0) {
+                int best = 0;
+                for (int i = 1; i < count; i++) {
+                    if (candidateCosts[i] < candidateCosts[best]) {
+                        best = i;
+                    }
+                }
+                int v = candidates[best];
+                if (canCollapse(u, v)) {
+                    target[u] = v;
+                    heap.update(u, candidateCosts[best]);
+                    return;
+                }
+                count--;
+                candidates[best] = candidates[count];
+                candidateCosts[best] = candidateCosts[count];
+            }
+            heap.remove(u);
+        }
+
+        private boolean canCollapse(int u, int v) {
+            // Ребро u-v - между ровно двумя треугольниками, и в них у v одни и те же текстура и нормаль
+            int shared = 0;
+            int sharedCorner = -1;
+            for (int i = 0; i < adjacencySize[u]; i++) {
+                int t = adjacency[u][i];
+                int corner = alive[t] ? cornerOf(t, v) : -1;
+                if (corner < 0) {
+                    continue;
+                }
+                if (++shared > 2 || (sharedCorner >= 0 && !sameAttributes(sharedCorner, corner))) {
+                    return false;
+                }
+                sharedCorner = corner;
+            }
+            if (shared != 2) {
+                return false;
+            }
+
+            // Условие связи: общие соседи u и v - только две вершины напротив ребра
+            markStamp += 2;
+            int stamp = markStamp;
+            for (int i = 0; i < adjacencySize[v]; i++) {
+                int t = adjacency[v][i];
+                if (alive[t]) {
+                    for (int k = 0; k < 3; k++) {
+                        mark[corners[3 * t + k]] = stamp;
+                    }
+                }
+            }
+            int common = 0;
+            for (int i = 0; i < adjacencySize[u]; i++) {
+                int t = adjacency[u][i];
+                if (alive[t]) {
+                    for (int k = 0; k < 3; k++) {
+                        int w = corners[3 * t + k];
+                        if (w != u && w != v && mark[w] == stamp) {
+                            mark[w] = stamp + 1;
+                            common++;
+                        }
+                    }
+                }
+            }
+            if (common != 2) {
+                return false;
+            }
+
+            // Остальные треугольники u не должны переворачиваться или вырождаться
+            for (int i = 0; i < adjacencySize[u]; i++) {
+                int t = adjacency[u][i];
+                if (alive[t] && cornerOf(t, v) < 0 && flips(t, u, v)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void collapse(int u, int v) {
+            int attributes = -1;
+            for (int i = 0; i < adjacencySize[u] && attributes < 0; i++) {
+                int t = adjacency[u][i];
+                if (alive[t]) {
+                    attributes = cornerOf(t, v);
+                }
+            }
+            int texture = textures == null ? 0 : textures[attributes];
+            int normal = normals == null ? 0 : normals[attributes];
+
+            // Треугольники ребра исчезают, остальные треугольники u переходят к v с текстурой и нормалью v
+            int[] moved = adjacency[u];
+            int movedCount = 0;
+            for (int i = 0; i < adjacencySize[u]; i++) {
+                int t = moved[i];
+                if (!alive[t]) {
+                    continue;
+                }
+                if (cornerOf(t, v) >= 0) {
+                    alive[t] = false;
+                    aliveCount--;
+                    continue;
+                }
+                int corner = cornerOf(t, u);
+                corners[corner] = v;
+                if (textures != null) {
+                    textures[corner] = texture;
+                }
+                if (normals != null) {
+                    normals[corner] = normal;
+                }
+                moved[movedCount++] = t;
+            }
+            mergeAdjacency(v, moved, movedCount);
+            adjacency[u] = null;
+            adjacencySize[u] = 0;
+            for (int q = 0; q < 10; q++) {
+                quadrics[10 * v + q] += quadrics[10 * u + q];
+            }
+
+            // Цены стягивания изменились у v и всех её соседей
+            markStamp += 2;
+            int stamp = markStamp;
+            for (int i = 0; i < adjacencySize[v]; i++) {
+                int t = adjacency[v][i];
+                for (int k = 0; k < 3; k++) {
+                    int w = corners[3 * t + k];
+                    if (mark[w] != stamp) {
+                        mark[w] = stamp;
+                        if (!locked[w]) {
+                            evaluate(w);
+                        }
+                    }
+                }
+            }
+        }
+
+        // Живые треугольники v и добавленные
+        private void mergeAdjacency(int v, int[] added, int addedCount) {
+            int[] list = adjacency[v];
+            int size = 0;
+            for (int i = 0; i < adjacencySize[v]; i++) {
+                if (alive[list[i]]) {
+                    list[size++] = list[i];
+                }
+            }
+            if (list.length < size + addedCount) {
+                list = Arrays.copyOf(list, Math.max(size + addedCount, list.length + (list.length >> 1)));
+                adjacency[v] = list;
+            }
+            System.arraycopy(added, 0, list, size, addedCount);
+            adjacencySize[v] = size + addedCount;
+        }
+
+        private boolean flips(int t, int u, int v) {
+            int base = 3 * t;
+            normal(corners[base], corners[base + 1], corners[base + 2], -1, -1, before);
+            normal(corners[base], corners[base + 1], corners[base + 2], u, v, after);
+            double dot = before[0] * after[0] + before[1] * after[1] + before[2] * after[2];
+            double lengths = Math.sqrt((before[0] * before[0] + before[1] * before[1] + before[2] * before[2])
+                    * (after[0] * after[0] + after[1] * after[1] + after[2] * after[2]));
+            return lengths == 0 || dot < MIN_NORMAL_COSINE * lengths;
+        }
+
+        // Ненормированная нормаль треугольника (a, b, c), в котором вершина from заменена на to
+        private void normal(int a, int b, int c, int from, int to, double[] n) {
+            int pa = 3 * (a == from ? to : a);
+            int pb = 3 * (b == from ? to : b);
+            int pc = 3 * (c == from ? to : c);
+            double abx = positions[pb] - positions[pa];
+            double aby = positions[pb + 1] - positions[pa + 1];
+            double abz = positions[pb + 2] - positions[pa + 2];
+            double acx = positions[pc] - positions[pa];
+            double acy = positions[pc + 1] - positions[pa + 1];
+            double acz = positions[pc + 2] - positions[pa + 2];
+            n[0] = aby * acz - abz * acy;
+            n[1] = abz * acx - abx * acz;
+            n[2] = abx * acy - aby * acx;
+        }
+
+        // Квадрика плоскости треугольника с весом - его площадью
+        private void addPlaneQuadric(int t) {
+            double[] n = before;
+            normal(corners[3 * t], corners[3 * t + 1], corners[3 * t + 2], -1, -1, n);
+            double length = Math.sqrt(n[0] * n[0] + n[1] * n[1] + n[2] * n[2]);
+            if (length == 0) {
+                return;
+            }
+            double a = n[0] / length;
+            double b = n[1] / length;
+            double c = n[2] / length;
+            int p = 3 * corners[3 * t];
+            double d = -(a * positions[p] + b * positions[p + 1] + c * positions[p + 2]);
+            double w = length / 2;
+            lengthWeight += w;
+            double[] plane = {a * a, a * b, a * c, a * d, b * b, b * c, b * d, c * c, c * d, d * d};
+            for (int k = 0; k < 3; k++) {
+                int q = 10 * corners[3 * t + k];
+                for (int i = 0; i < 10; i++) {
+                    quadrics[q + i] += w * plane[i];
+                }
+            }
+        }
+
+        // Ошибка суммы квадрик u и v в точке v
+        private double collapseCost(int u, int v) {
+            int p = 3 * v;
+            double x = positions[p];
+            double y = positions[p + 1];
+            double z = positions[p + 2];
+            int qu = 10 * u;
+            int qv = 10 * v;
+            double[] q = quadrics;
+            double error = (q[qu] + q[qv]) * x * x + 2 * (q[qu + 1] + q[qv + 1]) * x * y
+                    + 2 * (q[qu + 2] + q[qv + 2]) * x * z + 2 * (q[qu + 3] + q[qv + 3]) * x
+                    + (q[qu + 4] + q[qv + 4]) * y * y + 2 * (q[qu + 5] + q[qv + 5]) * y * z
+                    + 2 * (q[qu + 6] + q[qv + 6]) * y
+                    + (q[qu + 7] + q[qv + 7]) * z * z + 2 * (q[qu + 8] + q[qv + 8]) * z
+                    + (q[qu + 9] + q[qv + 9]);
+            double dx = positions[3 * u] - x;
+            double dy = positions[3 * u + 1] - y;
+            double dz = positions[3 * u + 2] - z;
+            return Math.max(error, 0) + lengthWeight * (dx * dx + dy * dy + dz * dz);
+        }
+
+        // Шов: углы вершины ссылаются на разные текстуры или нормали
+        private boolean hasSeam(int v) {
+            int first = -1;
+            for (int i = 0; i < adjacencySize[v]; i++) {
+                int corner = cornerOf(adjacency[v][i], v);
+                if (first < 0) {
+                    first = corner;
+                } else if (!sameAttributes(first, corner)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // Треугольники вершины образуют один замкнутый веер с согласованной ориентацией:
+        // у каждого ребра из вершины ровно два треугольника, и обход по ним возвращается в начало
+        private boolean isManifoldDisk(int v) {
+            int count = adjacencySize[v];
+            if (count < 3) {
+                return false;
+            }
+            int start = adjacency[v][0];
+            int t = start;
+            for (int step = 0; step < count; step++) {
+                int corner = cornerOf(t, v);
+                int nextVertex = corners[3 * t + (corner - 3 * t + 1) % 3];
+                // Следующий треугольник веера - тот, у которого nextVertex идёт перед v
+                int next = -1;
+                for (int i = 0; i < count; i++) {
+                    int other = adjacency[v][i];
+                    int otherCorner = cornerOf(other, v);
+                    if (corners[3 * other + (otherCorner - 3 * other + 2) % 3] == nextVertex) {
+                        if (next >= 0) {
+                            return false;
+                        }
+                        next = other;
+                    }
+                }
+                if (next < 0) {
+                    return false;
+                }
+                t = next;
+                if (t == start) {
+                    return step == count - 1;
+                }
+            }
+            return false;
+        }
+
+        private int cornerOf(int t, int v) {
+            int base = 3 * t;
+            if (corners[base] == v) {
+                return base;
+            }
+            if (corners[base + 1] == v) {
+                return base + 1;
+            }
+            return corners[base + 2] == v ? base + 2 : -1;
+        }
+
+        private boolean sameAttributes(int corner, int other) {
+            return (textures == null || textures[corner] == textures[other])
+                    && (normals == null || normals[corner] == normals[other]);
+        }
+
+        private void checkIndices(int[] indices, String name, int count) {
+            if (indices == null) {
+                return;
+            }
+            for (int j = 0; j < indices.length; j++) {
+                if (indices[j] != CompactModel.NO_INDEX) {
+                    ParallelChunks.checkIndex(indices[j], j / 3, name, j % 3, count);
+                }
+            }
+        }
+
+        private static int remap(int index, int[] map) {
+            return index == CompactModel.NO_INDEX ? index : map[index];
+        }
+
+        // Оставляет элементы с map[i] != 0 и записывает в map их новые номера (-1 - элемент удалён)
+        private static float[] compact(float[] data, int components, int[] map) {
+            int kept = 0;
+            for (int i = 0; i < map.length; i++) {
+                map[i] = map[i] != 0 ? kept++ : -1;
+            }
+            float[] result = new float[components * kept];
+            for (int i = 0; i < map.length; i++) {
+                if (map[i] >= 0) {
+                    System.arraycopy(data, components * i, result, components * map[i], components);
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,941 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.processing;
+
+import ru.vsu.cs.khalibekov_a_b_objWriter.math.Vector2f;
+import ru.vsu.cs.khalibekov_a_b_objWriter.math.Vector3f;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.Model;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.Polygon;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Иерархия ограничивающих объёмов (BVH) над треугольниками модели (полигоны разбиваются веером)
+// для выбора лучом, выделения рамкой и поиска ближайшей точки без перебора всех полигонов.
+// Узлы лежат в плоских массивах: у внутреннего узла потомки идут парой (first, first + 1),
+// лист - отрезок треугольников [first, first + count). Разбиение - SAH по корзинам центров.
+// Верхние уровни делятся на вызывающем потоке, затем поддеревья строятся параллельно на Executor.
+// refit пересчитывает рамки после сдвига вершин без перестройки; если изменились сами полигоны
+// или вершины сдвинулись сильно, дерево нужно построить заново.
+// Запросы можно выполнять из нескольких потоков одновременно, но не во время refit.
+// Координаты вершин должны быть конечными: NaN и бесконечность - IllegalArgumentException.
+public final class ModelBvh {
+
+    private static final int BIN_COUNT = 16;
+    // Узлы до LEAF_SIZE треугольников не делятся, до MAX_LEAF_SIZE - если разбиение не выгодно по SAH
+    private static final int LEAF_SIZE = 4;
+    private static final int MAX_LEAF_SIZE = 16;
+    // Поддеревья меньше этого строятся одной задачей
+    private static final int TASK_SIZE = 1 << 14;
+
+    private final Model model;
+    private final float[] positions;
+    // Треугольники (по 3 вершины) и их полигоны в порядке листьев
+    private final int[] triangles;
+    private final int[] trianglePolygons;
+    private final int triangleCount;
+
+    // Рамка узла - minX, minY, minZ, maxX, maxY, maxZ
+    private final float[] nodeBounds;
+    private final int[] nodeFirst;
+    private final int[] nodeCount;
+    private final int[] nodeParent;
+    private final int nodeTotal;
+
+    // Для refit по вершинам: треугольники каждой вершины (CSR) и листья треугольников, строятся при первом вызове
+    private int[] vertexTriangleOffsets;
+    private int[] vertexTriangles;
+    private int[] triangleLeaf;
+    private final float[] refitBox = new float[6];
+    private final float[] refitTriangle = new float[6];
+
+    public static ModelBvh build(Model model) {
+        return build(model, Runnable::run);
+    }
+
+    public static ModelBvh buildParallel(Model model) {
+        return build(model, ForkJoinPool.commonPool());
+    }
+
+    public static ModelBvh build(Model model, Executor executor) {
+        if (model == null) {
+            throw new IllegalArgumentException("Invalid model provided!");
+        }
+        return new ModelBvh(model, executor);
+    }
+
+    private ModelBvh(Model model, Executor executor) {
+        this.model = model;
+        int vertexCount = model.vertices.size();
+        positions = new float[3 * vertexCount];
+        ParallelChunks.run(vertexCount, executor, this::readPositions);
+
+        int polygonCount = model.polygons.size();
+        int[] firstTriangle = new int[polygonCount + 1];
+        for (int p = 0; p < polygonCount; p++) {
+            Polygon polygon = model.polygons.get(p);
+            if (polygon == null || polygon.getVertexIndices() == null) {
+                throw new IllegalArgumentException("Polygon " + p + " is invalid");
+            }
+            firstTriangle[p + 1] = firstTriangle[p] + Math.max(polygon.getVertexIndices().size() - 2, 0);
+        }
+        triangleCount = firstTriangle[polygonCount];
+        int[] unordered = new int[3 * triangleCount];
+        int[] unorderedPolygons = new int[triangleCount];
+        ParallelChunks.run(polygonCount, executor, (from, to) -> {
+            for (int p = from; p < to; p++) {
+                List<Integer> indices = model.polygons.get(p).getVertexIndices();
+                for (int k = 0; k < indices.size(); k++) {
+                    ParallelChunks.checkIndex(indices.get(k), p, "vertex", k, vertexCount);
+                }
+                int t = firstTriangle[p];
+                for (int k = 2; k < indices.size(); k++, t++) {
+                    unordered[3 * t] = indices.get(0);
+                    unordered[3 * t + 1] = indices.get(k - 1);
+                    unordered[3 * t + 2] = indices.get(k);
+                    unorderedPolygons[t] = p;
+                }
+            }
+        });
+
+        // Рамки и центры треугольников, по ним идёт разбиение
+        float[] boxes = new float[6 * triangleCount];
+        float[] centroids = new float[3 * triangleCount];
+        int[] order = new int[triangleCount];
+        ParallelChunks.run(triangleCount, executor, (from, to) -> {
+            for (int t = from; t < to; t++) {
+                triangleBounds(unordered, t, boxes, 6 * t);
+                for (int axis = 0; axis < 3; axis++) {
+                    centroids[3 * t + axis] = (boxes[6 * t + axis] + boxes[6 * t + 3 + axis]) / 2;
+                }
+                order[t] = t;
+            }
+        });
+
+        int capacity = Math.max(2 * triangleCount - 1, 1);
+        float[] bounds = new float[6 * capacity];
+        int[] first = new int[capacity];
+        int[] count = new int[capacity];
+        int[] parent = new int[capacity];
+        AtomicInteger nextNode = new AtomicInteger(1);
+        parent[0] = -1;
+        if (triangleCount > 0) {
+            Builder top = new Builder(boxes, centroids, order, bounds, first, count, parent, nextNode);
+            ArrayDeque<int[]> pending = new ArrayDeque<int[]>();
+            List<int[]> subtrees = new ArrayList<int[]>();
+            pending.add(new int[]{0, 0, triangleCount});
+            while (!pending.isEmpty()) {
+                int[] job = pending.poll();
+                if (job[2] - job[1] <= TASK_SIZE) {
+                    subtrees.add(job);
+                    continue;
+                }
+                int mid = top.split(job[0], job[1], job[2]);
+                if (mid >= 0) {
+                    pending.add(new int[]{first[job[0]], job[1], mid});
+                    pending.add(new int[]{first[job[0]] + 1, mid, job[2]});
+                }
+            }
+            ParallelChunks.run(subtrees.size(), 1, executor, (from, to) -> {
+                Builder builder = new Builder(boxes, centroids, order, bounds, first, count, parent, nextNode);
+                for (int i = from; i < to; i++) {
+                    int[] job = subtrees.get(i);
+                    builder.buildSubtree(job[0], job[1], job[2]);
+                }
+            });
+        }
+        nodeTotal = triangleCount == 0 ? 0 : nextNode.get();
+        nodeBounds = Arrays.copyOf(bounds, 6 * nodeTotal);
+        nodeFirst = Arrays.copyOf(first, nodeTotal);
+        nodeCount = Arrays.copyOf(count, nodeTotal);
+        nodeParent = Arrays.copyOf(parent, nodeTotal);
+
+        triangles = new int[3 * triangleCount];
+        trianglePolygons = new int[triangleCount];
+        ParallelChunks.run(triangleCount, executor, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                System.arraycopy(unordered, 3 * order[i], triangles, 3 * i, 3);
+                trianglePolygons[i] = unorderedPolygons[order[i]];
+            }
+        });
+    }
+
+    public Model getModel() {
+        return model;
+    }
+
+    public int getTriangleCount() {
+        return triangleCount;
+    }
+
+    public int getNodeCount() {
+        return nodeTotal;
+    }
+
+    // Пересчёт всех рамок по текущим координатам model.vertices.
+    // После исключения из-за неверной вершины дерево нужно построить заново
+    public void refit() {
+        checkVertexCount();
+        readPositions(0, model.vertices.size());
+        // Потомки всегда создаются после родителя, поэтому обратный порядок идёт снизу вверх
+        for (int node = nodeTotal - 1; node >= 0; node--) {
+            refitNode(node);
+        }
+    }
+
+    // Пересчёт после сдвига перечисленных вершин: обновляются их листья и предки, пока рамки меняются
+    public void refit(int... vertexIndices) {
+        checkVertexCount();
+        int vertexCount = model.vertices.size();
+        for (int v : vertexIndices) {
+            if (v < 0 || v >= vertexCount) {
+                throw new IllegalArgumentException(String.format("Vertex index %d out of range [0, %d]",
+                        v, vertexCount - 1));
+            }
+            // До изменения дерева, чтобы при ошибке оно осталось прежним
+            checkVertex(v, model.vertices.get(v));
+        }
+        if (triangleLeaf == null) {
+            buildVertexTriangles();
+        }
+        BitSet dirty = new BitSet(nodeTotal);
+        for (int v : vertexIndices) {
+            readPositions(v, v + 1);
+            for (int i = vertexTriangleOffsets[v]; i < vertexTriangleOffsets[v + 1]; i++) {
+                dirty.set(triangleLeaf[vertexTriangles[i]]);
+            }
+        }
+        for (int leaf = dirty.nextSetBit(0); leaf >= 0; leaf = dirty.nextSetBit(leaf + 1)) {
+            refitNode(leaf);
+        }
+        for (int leaf = dirty.nextSetBit(0); leaf >= 0; leaf = dirty.nextSetBit(leaf + 1)) {
+            for (int node = nodeParent[leaf]; node >= 0 && refitNode(node); node = nodeParent[node]) {
+                // подъём, пока рамка предка меняется
+            }
+        }
+    }
+
+    // Ближайшее пересечение луча с поверхностью (треугольники двусторонние) или null
+    public BvhHit raycast(Vector3f origin, Vector3f direction) {
+        return raycast(origin, direction, Float.POSITIVE_INFINITY);
+    }
+
+    public BvhHit raycast(Vector3f origin, Vector3f direction, float maxDistance) {
+        double length = Math.sqrt((double) direction.x * direction.x + (double) direction.y * direction.y
+                + (double) direction.z * direction.z);
+        if (!(length > 0) || Double.isInfinite(length)) {
+            throw new IllegalArgumentException("Ray direction must be a non-zero vector: " + direction);
+        }
+        double[] ray = {origin.x, origin.y, origin.z,
+                direction.x / length, direction.y / length, direction.z / length,
+                length / direction.x, length / direction.y, length / direction.z};
+        double best = maxDistance;
+        int bestTriangle = -1;
+        int[] stack = new int[64];
+        int top = 0;
+        if (nodeTotal > 0 && rayEntry(0, ray) < best) {
+            stack[top++] = 0;
+        }
+        while (top > 0) {
+            int node = stack[--top];
+            if (rayEntry(node, ray) >= best) {
+                continue;
+            }
+            if (nodeCount[node] > 0) {
+                for (int t = nodeFirst[node]; t < nodeFirst[node] + nodeCount[node]; t++) {
+                    double distance = intersect(t, ray);
+                    if (distance >= 0 && distance < best) {
+                        best = distance;
+                        bestTriangle = t;
+                    }
+                }
+                continue;
+            }
+            int left = nodeFirst[node];
+            double leftEntry = rayEntry(left, ray);
+            double rightEntry = rayEntry(left + 1, ray);
+            if (top + 2 > stack.length) {
+                stack = Arrays.copyOf(stack, 2 * stack.length);
+            }
+            // Ближний потомок кладётся последним и обходится первым; промах - бесконечность, она отсекается
+            int near = leftEntry <= rightEntry ? left : left + 1;
+            if (Math.max(leftEntry, rightEntry) < best) {
+                stack[top++] = near == left ? left + 1 : left;
+            }
+            if (Math.min(leftEntry, rightEntry) < best) {
+                stack[top++] = near;
+            }
+        }
+        if (bestTriangle < 0) {
+            return null;
+        }
+        return new BvhHit(trianglePolygons[bestTriangle], (float) best, new Vector3f(
+                (float) (ray[0] + ray[3] * best), (float) (ray[1] + ray[4] * best), (float) (ray[2] + ray[5] * best)));
+    }
+
+    // Номера полигонов (по возрастанию), у которых хотя бы один треугольник пересекает рамку [min, max]
+    public List<Integer> polygonsInBox(Vector3f min, Vector3f max) {
+        BitSet found = findInBox(min, max);
+        List<Integer> result = new ArrayList<Integer>(found.cardinality());
+        for (int p = found.nextSetBit(0); p >= 0; p = found.nextSetBit(p + 1)) {
+            result.add(p);
+        }
+        return result;
+    }
+
+    // Ближайшая к point точка поверхности или null, если треугольников нет (или все дальше maxDistance)
+    public BvhHit nearest(Vector3f point) {
+        return nearest(point, Float.POSITIVE_INFINITY);
+    }
+
+    public BvhHit nearest(Vector3f point, float maxDistance) {
+        double px = point.x;
+        double py = point.y;
+        double pz = point.z;
+        double best = (double) maxDistance * maxDistance;
+        int bestTriangle = -1;
+        double[] closest = new double[3];
+        double[] bestPoint = new double[3];
+        int[] stack = new int[64];
+        int top = 0;
+        if (nodeTotal > 0) {
+            stack[top++] = 0;
+        }
+        while (top > 0) {
+            int node = stack[--top];
+            if (boxDistanceSquared(node, px, py, pz) > best) {
+                continue;
+            }
+            if (nodeCount[node] > 0) {
+                for (int t = nodeFirst[node]; t < nodeFirst[node] + nodeCount[node]; t++) {
+                    closestPoint(t, px, py, pz, closest);
+                    double dx = closest[0] - px;
+                    double dy = closest[1] - py;
+                    double dz = closest[2] - pz;
+                    double distance = dx * dx + dy * dy + dz * dz;
+                    if (distance < best || (bestTriangle < 0 && distance <= best)) {
+                        best = distance;
+                        bestTriangle = t;
+                        System.arraycopy(closest, 0, bestPoint, 0, 3);
+                    }
+                }
+                continue;
+            }
+            int left = nodeFirst[node];
+            double leftDistance = boxDistanceSquared(left, px, py, pz);
+            double rightDistance = boxDistanceSquared(left + 1, px, py, pz);
+            if (top + 2 > stack.length) {
+                stack = Arrays.copyOf(stack, 2 * stack.length);
+            }
+            int near = leftDistance <= rightDistance ? left : left + 1;
+            if (Math.max(leftDistance, rightDistance) <= best) {
+                stack[top++] = near == left ? left + 1 : left;
+            }
+            if (Math.min(leftDistance, rightDistance) <= best) {
+                stack[top++] = near;
+            }
+        }
+        if (bestTriangle < 0) {
+            return null;
+        }
+        return new BvhHit(trianglePolygons[bestTriangle], (float) Math.sqrt(best),
+                new Vector3f((float) bestPoint[0], (float) bestPoint[1], (float) bestPoint[2]));
+    }
+
+    // Часть модели в рамке [min, max] для ObjWriter: полигоны, пересекающие рамку, и только их вершины,
+    // текстурные координаты и нормали (в исходном порядке, индексы пересчитаны). Диапазоны полигонов сохраняются
+    public Model extract(Vector3f min, Vector3f max) {
+        BitSet selected = findInBox(min, max);
+        int polygonCount = model.polygons.size();
+        int[] vertexMap = new int[model.vertices.size()];
+        int[] textureMap = new int[model.textureVertices.size()];
+        int[] normalMap = new int[model.normals.size()];
+        int[] producedBefore = new int[polygonCount + 1];
+        for (int p = 0; p < polygonCount; p++) {
+            producedBefore[p + 1] = producedBefore[p] + (selected.get(p) ? 1 : 0);
+            if (selected.get(p)) {
+                Polygon polygon = model.polygons.get(p);
+                markUsed(polygon.getVertexIndices(), vertexMap, p, "vertex");
+                markUsed(polygon.getTextureVertexIndices(), textureMap, p, "texture");
+                markUsed(polygon.getNormalIndices(), normalMap, p, "normal");
+            }
+        }
+
+        Model result = new Model();
+        for (int i = 0; i < vertexMap.length; i++) {
+            if (vertexMap[i] != 0) {
+                vertexMap[i] = result.vertices.size();
+                Vector3f v = model.vertices.get(i);
+                result.vertices.add(new Vector3f(v.x, v.y, v.z));
+            }
+        }
+        for (int i = 0; i < textureMap.length; i++) {
+            if (textureMap[i] != 0) {
+                textureMap[i] = result.textureVertices.size();
+                Vector2f vt = model.textureVertices.get(i);
+                result.textureVertices.add(new Vector2f(vt.x, vt.y));
+            }
+        }
+        for (int i = 0; i < normalMap.length; i++) {
+            if (normalMap[i] != 0) {
+                normalMap[i] = result.normals.size();
+                Vector3f vn = model.normals.get(i);
+                result.normals.add(new Vector3f(vn.x, vn.y, vn.z));
+            }
+        }
+        for (int p = selected.nextSetBit(0); p >= 0; p = selected.nextSetBit(p + 1)) {
+            Polygon source = model.polygons.get(p);
+            Polygon polygon = new Polygon();
+            polygon.setVertexIndices(remap(source.getVertexIndices(), vertexMap));
+            if (source.getTextureVertexIndices() != null && !source.getTextureVertexIndices().isEmpty()) {
+                polygon.setTextureVertexIndices(remap(source.getTextureVertexIndices(), textureMap));
+            }
+            if (source.getNormalIndices() != null && !source.getNormalIndices().isEmpty()) {
+                polygon.setNormalIndices(remap(source.getNormalIndices(), normalMap));
+            }
+            result.polygons.add(polygon);
+        }
+        result.materialLibraries.addAll(model.materialLibraries);
+        result.polygonRanges.addAll(PolygonRanges.remap(model.polygonRanges, producedBefore));
+        return result;
+    }
+
+    private BitSet findInBox(Vector3f min, Vector3f max) {
+        if (!(min.x <= max.x && min.y <= max.y && min.z <= max.z)) {
+            throw new IllegalArgumentException("Invalid box: min " + min + " is greater than max " + max);
+        }
+        // Центр и половины сторон рамки запроса, по ним идёт проверка треугольников (теорема о разделяющей оси)
+        double[] box = {((double) min.x + max.x) / 2, ((double) min.y + max.y) / 2, ((double) min.z + max.z) / 2,
+                ((double) max.x - min.x) / 2, ((double) max.y - min.y) / 2, ((double) max.z - min.z) / 2};
+        double[] corners = new double[9];
+        BitSet found = new BitSet(model.polygons.size());
+        int[] stack = new int[64];
+        int top = 0;
+        if (nodeTotal > 0) {
+            stack[top++] = 0;
+        }
+        while (top > 0) {
+            int node = stack[--top];
+            int b = 6 * node;
+            if (nodeBounds[b] > max.x || nodeBounds[b + 1] > max.y || nodeBounds[b + 2] > max.z
+                    || nodeBounds[b + 3] < min.x || nodeBounds[b + 4] < min.y || nodeBounds[b + 5] < min.z) {
+                continue;
+            }
+            if (nodeCount[node] > 0) {
+                for (int t = nodeFirst[node]; t < nodeFirst[node] + nodeCount[node]; t++) {
+                    if (!found.get(trianglePolygons[t]) && overlapsBox(t, box, corners)) {
+                        found.set(trianglePolygons[t]);
+                    }
+                }
+                continue;
+            }
+            if (top + 2 > stack.length) {
+                stack = Arrays.copyOf(stack, 2 * stack.length);
+            }
+            stack[top++] = nodeFirst[node];
+            stack[top++] = nodeFirst[node] + 1;
+        }
+        return found;
+    }
+
+    private void readPositions(int from, int to) {
+        for (int v = from; v < to; v++) {
+            Vector3f vertex = model.vertices.get(v);
+            checkVertex(v, vertex);
+            positions[3 * v] = vertex.x;
+            positions[3 * v + 1] = vertex.y;
+            positions[3 * v + 2] = vertex.z;
+        }
+    }
+
+    // Рамки считаются сравнениями (см. union), с NaN они молча получились бы неверными
+    private static void checkVertex(int v, Vector3f vertex) {
+        if (vertex == null) {
+            throw new IllegalArgumentException("Vertex " + v + " is invalid");
+        }
+        if (!Float.isFinite(vertex.x) || !Float.isFinite(vertex.y) || !Float.isFinite(vertex.z)) {
+            throw new IllegalArgumentException("Vertex " + v + " has a non-finite coordinate: " + vertex);
+        }
+    }
+
+    private void checkVertexCount() {
+        if (model.vertices.size() != positions.length / 3) {
+            throw new IllegalArgumentException("Vertex count changed from " + positions.length / 3 + " to "
+                    + model.vertices.size() + ": the BVH must be rebuilt");
+        }
+    }
+
+    private void buildVertexTriangles() {
+        int vertexCount = positions.length / 3;
+        int[] offsets = new int[vertexCount + 1];
+        for (int j = 0; j < triangles.length; j++) {
+            offsets[triangles[j] + 1]++;
+        }
+        for (int v = 0; v < vertexCount; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] fill = Arrays.copyOf(offsets, vertexCount);
+        int[] list = new int[triangles.length];
+        for (int j = 0; j < triangles.length; j++) {
+            list[fill[triangles[j]]++] = j / 3;
+        }
+        int[] leaves = new int[triangleCount];
+        for (int node = 0; node < nodeTotal; node++) {
+            if (nodeCount[node] > 0) {
+                Arrays.fill(leaves, nodeFirst[node], nodeFirst[node] + nodeCount[node], node);
+            }
+        }
+        vertexTriangleOffsets = offsets;
+        vertexTriangles = list;
+        triangleLeaf = leaves;
+    }
+
+    // Пересчитывает рамку узла по треугольникам листа или по потомкам; true, если она изменилась
+    private boolean refitNode(int node) {
+        float[] box = refitBox;
+        if (nodeCount[node] > 0) {
+            box[0] = box[1] = box[2] = Float.POSITIVE_INFINITY;
+            box[3] = box[4] = box[5] = Float.NEGATIVE_INFINITY;
+            float[] triangleBox = refitTriangle;
+            for (int t = nodeFirst[node]; t < nodeFirst[node] + nodeCount[node]; t++) {
+                triangleBounds(triangles, t, triangleBox, 0);
+                union(box, 0, triangleBox, 0);
+            }
+        } else {
+            System.arraycopy(nodeBounds, 6 * nodeFirst[node], box, 0, 6);
+            union(box, 0, nodeBounds, 6 * (nodeFirst[node] + 1));
+        }
+        if (Arrays.equals(box, 0, 6, nodeBounds, 6 * node, 6 * node + 6)) {
+            return false;
+        }
+        System.arraycopy(box, 0, nodeBounds, 6 * node, 6);
+        return true;
+    }
+
+    private void triangleBounds(int[] corners, int t, float[] box, int offset) {
+        for (int axis = 0; axis < 3; axis++) {
+            float a = positions[3 * corners[3 * t] + axis];
+            float b = positions[3 * corners[3 * t + 1] + axis];
+            float c = positions[3 * corners[3 * t + 2] + axis];
+            box[offset + axis] = Math.min(a, Math.min(b, c));
+            box[offset + 3 + axis] = Math.max(a, Math.max(b, c));
+        }
+    }
+
+    private static void union(float[] box, int offset, float[] other, int otherOffset) {
+        // Сравнения вместо Math.min/max: координаты конечны (см. checkVertex), а построение упирается в это место
+        for (int axis = 0; axis < 3; axis++) {
+            float low = other[otherOffset + axis];
+            float high = other[otherOffset + 3 + axis];
+            if (low < box[offset + axis]) {
+                box[offset + axis] = low;
+            }
+            if (high > box[offset + 3 + axis]) {
+                box[offset + 3 + axis] = high;
+            }
+        }
+    }
+
+    // Расстояние вдоль луча до входа в рамку узла (метод плит) или бесконечность, если луч её не задевает.
+    // ray - начало, единичное направление и обратные компоненты направления
+    private double rayEntry(int node, double[] ray) {
+        int b = 6 * node;
+        double near = 0;
+        double far = Double.POSITIVE_INFINITY;
+        for (int axis = 0; axis < 3; axis++) {
+            double inverse = ray[6 + axis];
+            double t1 = (nodeBounds[b + axis] - ray[axis]) * inverse;
+            double t2 = (nodeBounds[b + 3 + axis] - ray[axis]) * inverse;
+            if (Double.isNaN(t1) || Double.isNaN(t2)) {
+                // Луч лежит в плоскости грани рамки - внутри по этой оси
+                continue;
+            }
+            near = Math.max(near, Math.min(t1, t2));
+            far = Math.min(far, Math.max(t1, t2));
+        }
+        return near <= far ? near : Double.POSITIVE_INFINITY;
+    }
+
+    // Пересечение луча с треугольником (Моллер, Трумбор): расстояние или -1
+    private double intersect(int t, double[] ray) {
+        int a = 3 * triangles[3 * t];
+        int b = 3 * triangles[3 * t + 1];
+        int c = 3 * triangles[3 * t + 2];
+        double e1x = positions[b] - positions[a];
+        double e1y = positions[b + 1] - positions[a + 1];
+        double e1z = positions[b + 2] - positions[a + 2];
+        double e2x = positions[c] - positions[a];
+        double e2y = positions[c + 1] - positions[a + 1];
+        double e2z = positions[c + 2] - positions[a + 2];
+        double px = ray[4] * e2z - ray[5] * e2y;
+        double py = ray[5] * e2x - ray[3] * e2z;
+        double pz = ray[3] * e2y - ray[4] * e2x;
+        double determinant = e1x * px + e1y * py + e1z * pz;
+        if (Math.abs(determinant) < 1e-12) {
+            return -1;
+        }
+        double inverse = 1 / determinant;
+        double sx = ray[0] - positions[a];
+        double sy = ray[1] - positions[a + 1];
+        double sz = ray[2] - positions[a + 2];
+        double u = (sx * px + sy * py + sz * pz) * inverse;
+        if (u < 0 || u > 1) {
+            return -1;
+        }
+        double qx = sy * e1z - sz * e1y;
+        double qy = sz * e1x - sx * e1z;
+        double qz = sx * e1y - sy * e1x;
+        double v = (ray[3] * qx + ray[4] * qy + ray[5] * qz) * inverse;
+        if (v < 0 || u + v > 1) {
+            return -1;
+        }
+        double distance = (e2x * qx + e2y * qy + e2z * qz) * inverse;
+        return distance >= 0 ? distance : -1;
+    }
+
+    private double boxDistanceSquared(int node, double px, double py, double pz) {
+        int b = 6 * node;
+        double dx = Math.max(Math.max(nodeBounds[b] - px, px - nodeBounds[b + 3]), 0);
+        double dy = Math.max(Math.max(nodeBounds[b + 1] - py, py - nodeBounds[b + 4]), 0);
+        double dz = Math.max(Math.max(nodeBounds[b + 2] - pz, pz - nodeBounds[b + 5]), 0);
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    // Ближайшая к p точка треугольника (Эриксон, Real-Time Collision Detection, 5.1.5)
+    private void closestPoint(int t, double px, double py, double pz, double[] result) {
+        int ia = 3 * triangles[3 * t];
+        int ib = 3 * triangles[3 * t + 1];
+        int ic = 3 * triangles[3 * t + 2];
+        double ax = positions[ia];
+        double ay = positions[ia + 1];
+        double az = positions[ia + 2];
+        double abx = positions[ib] - ax;
+        double aby = positions[ib + 1] - ay;
+        double abz = positions[ib + 2] - az;
+        double acx = positions[ic] - ax;
+        double acy = positions[ic + 1] - ay;
+        double acz = positions[ic + 2] - az;
+        double apx = px - ax;
+        double apy = py - ay;
+        double apz = pz - az;
+        double d1 = abx * apx + aby * apy + abz * apz;
+        double d2 = acx * apx + acy * apy + acz * apz;
+        if (d1 <= 0 && d2 <= 0) {
+            setPoint(result, ax, ay, az, abx, aby, abz, 0, acx, acy, acz, 0);
+            return;
+        }
+        double bpx = px - positions[ib];
+        double bpy = py - positions[ib + 1];
+        double bpz = pz - positions[ib + 2];
+        double d3 = abx * bpx + aby * bpy + abz * bpz;
+        double d4 = acx * bpx + acy * bpy + acz * bpz;
+        if (d3 >= 0 && d4 <= d3) {
+            setPoint(result, ax, ay, az, abx, aby, abz, 1, acx, acy, acz, 0);
+            return;
+        }
+        double vc = d1 * d4 - d3 * d2;
+        if (vc <= 0 && d1 >= 0 && d3 <= 0) {
+            setPoint(result, ax, ay, az, abx, aby, abz, d1 / (d1 - d3), acx, acy, acz, 0);
+            return;
+        }
+        double cpx = px - positions[ic];
+        double cpy = py - positions[ic + 1];
+        double cpz = pz - positions[ic + 2];
+        double d5 = abx * cpx + aby * cpy + abz * cpz;
+        double d6 = acx * cpx + acy * cpy + acz * cpz;
+        if (d6 >= 0 && d5 <= d6) {
+            setPoint(result, ax, ay, az, abx, aby, abz, 0, acx, acy, acz, 1);
+            return;
+        }
+        double vb = d5 * d2 - d1 * d6;
+        if (vb <= 0 && d2 >= 0 && d6 <= 0) {
+            setPoint(result, ax, ay, az, abx, aby, abz, 0, acx, acy, acz, d2 / (d2 - d6));
+            return;
+        }
+        double va = d3 * d6 - d5 * d4;
+        if (va <= 0 && d4 - d3 >= 0 && d5 - d6 >= 0) {
+            double w = (d4 - d3) / ((d4 - d3) + (d5 - d6));
+            setPoint(result, ax, ay, az, abx, aby, abz, 1 - w, acx, acy, acz, w);
+            return;
+        }
+        double sum = va + vb + vc;
+        if (sum <= 0) {
+            // Вырожденный треугольник, до этого места доходит только при нулевой площади
+            setPoint(result, ax, ay, az, abx, aby, abz, 0, acx, acy, acz, 0);
+            return;
+        }
+        setPoint(result, ax, ay, az, abx, aby, abz, vb / sum, acx, acy, acz, vc / sum);
+    }
+
+    private static void setPoint(double[] result, double ax, double ay, double az,
+                                 double abx, double aby, double abz, double v,
+                                 double acx, double acy, double acz, double w) {
+        result[0] = ax + abx * v + acx * w;
+        result[1] = ay + aby * v + acy * w;
+        result[2] = az + abz * v + acz * w;
+    }
+
+    // Треугольник пересекает рамку box (центр и половины сторон), если ни одна из 13 осей его не отделяет:
+    // оси рамки, нормаль треугольника и произведения рёбер на оси рамки
+    private boolean overlapsBox(int t, double[] box, double[] corners) {
+        for (int k = 0; k < 3; k++) {
+            int p = 3 * triangles[3 * t + k];
+            for (int axis = 0; axis < 3; axis++) {
+                corners[3 * k + axis] = positions[p + axis] - box[axis];
+            }
+        }
+        if (separates(1, 0, 0, corners, box) || separates(0, 1, 0, corners, box)
+                || separates(0, 0, 1, corners, box)) {
+            return false;
+        }
+        double[] c = corners;
+        double e0x = c[3] - c[0];
+        double e0y = c[4] - c[1];
+        double e0z = c[5] - c[2];
+        double e1x = c[6] - c[3];
+        double e1y = c[7] - c[4];
+        double e1z = c[8] - c[5];
+        double e2x = c[0] - c[6];
+        double e2y = c[1] - c[7];
+        double e2z = c[2] - c[8];
+        if (separates(e0y * e1z - e0z * e1y, e0z * e1x - e0x * e1z, e0x * e1y - e0y * e1x, c, box)) {
+            return false;
+        }
+        // Оси рамки x, y, z, умноженные на рёбра
+        return !(separates(0, -e0z, e0y, c, box) || separates(0, -e1z, e1y, c, box) || separates(0, -e2z, e2y, c, box)
+                || separates(e0z, 0, -e0x, c, box) || separates(e1z, 0, -e1x, c, box) || separates(e2z, 0, -e2x, c, box)
+                || separates(-e0y, e0x, 0, c, box) || separates(-e1y, e1x, 0, c, box) || separates(-e2y, e2x, 0, c, box));
+    }
+
+    private static boolean separates(double x, double y, double z, double[] corners, double[] box) {
+        double p0 = x * corners[0] + y * corners[1] + z * corners[2];
+        double p1 = x * corners[3] + y * corners[4] + z * corners[5];
+        double p2 = x * corners[6] + y * corners[7] + z * corners[8];
+        double radius = box[3] * Math.abs(x) + box[4] * Math.abs(y) + box[5] * Math.abs(z);
+        return Math.min(p0, Math.min(p1, p2)) > radius || Math.max(p0, Math.max(p1, p2)) < -radius;
+    }
+
+    private static void markUsed(List<Integer> indices, int[] used, int polygon, String name) {
+        if (indices == null) {
+            return;
+        }
+        for (int k = 0; k < indices.size(); k++) {
+            ParallelChunks.checkIndex(indices.get(k), polygon, name, k, used.length);
+            used[indices.get(k)] = 1;
+        }
+    }
+
+    private static ArrayList<Integer> remap(List<Integer> indices, int[] map) {
+        ArrayList<Integer> result = new ArrayList<Integer>(indices.size());
+        for (int index : indices) {
+            result.add(map[index]);
+        }
+        return result;
+    }
+
+    // Построение поддеревьев; у каждого потока свой Builder с корзинами, массивы узлов общие
+    // (номера узлов раздаются парами через общий счётчик, отрезки order у задач не пересекаются)
+    private static final class Builder {
+
+        private final float[] boxes;
+        private final float[] centroids;
+        private final int[] order;
+        private final float[] bounds;
+        private final int[] first;
+        private final int[] count;
+        private final int[] parent;
+        private final AtomicInteger nextNode;
+
+        // Корзины трёх осей подряд: ось axis - корзины [axis * BIN_COUNT, axis * BIN_COUNT + bins)
+        private final int[] binCounts = new int[3 * BIN_COUNT];
+        private final float[] binBounds = new float[18 * BIN_COUNT];
+        private final float[] scales = new float[3];
+        private final float[] rightAreas = new float[BIN_COUNT];
+        private final int[] rightCounts = new int[BIN_COUNT];
+        private final float[] sweep = new float[6];
+        private final float[] centroidBox = new float[6];
+
+        Builder(float[] boxes, float[] centroids, int[] order, float[] bounds,
+                int[] first, int[] count, int[] parent, AtomicInteger nextNode) {
+            this.boxes = boxes;
+            this.centroids = centroids;
+            this.order = order;
+            this.bounds = bounds;
+            this.first = first;
+            this.count = count;
+            this.parent = parent;
+            this.nextNode = nextNode;
+        }
+
+        void buildSubtree(int root, int from, int to) {
+            int[] stack = new int[96];
+            int top = 0;
+            stack[top++] = root;
+            stack[top++] = from;
+            stack[top++] = to;
+            while (top > 0) {
+                int end = stack[--top];
+                int start = stack[--top];
+                int node = stack[--top];
+                int mid = split(node, start, end);
+                if (mid < 0) {
+                    continue;
+                }
+                if (top + 6 > stack.length) {
+                    stack = Arrays.copyOf(stack, 2 * stack.length);
+                }
+                stack[top++] = first[node];
+                stack[top++] = start;
+                stack[top++] = mid;
+                stack[top++] = first[node] + 1;
+                stack[top++] = mid;
+                stack[top++] = end;
+            }
+        }
+
+        // Записывает рамку узла и либо делает его листом (возвращает -1), либо создаёт пару потомков
+        // и возвращает границу: order[from, mid) - левый, order[mid, to) - правый
+        int split(int node, int from, int to) {
+            float[] nodeBox = sweep;
+            float[] centroidBox = this.centroidBox;
+            reset(nodeBox, 0);
+            reset(centroidBox, 0);
+            for (int i = from; i < to; i++) {
+                int t = order[i];
+                union(nodeBox, 0, boxes, 6 * t);
+                for (int axis = 0; axis < 3; axis++) {
+                    float c = centroids[3 * t + axis];
+                    centroidBox[axis] = Math.min(centroidBox[axis], c);
+                    centroidBox[3 + axis] = Math.max(centroidBox[3 + axis], c);
+                }
+            }
+            System.arraycopy(nodeBox, 0, bounds, 6 * node, 6);
+            int size = to - from;
+            if (size <= LEAF_SIZE) {
+                return makeLeaf(node, from, size);
+            }
+
+            // Цена разбиения по SAH: площадь левой рамки * число треугольников слева + то же справа.
+            // У маленьких узлов корзин не больше, чем треугольников
+            int bins = Math.min(BIN_COUNT, size);
+            float[] scales = this.scales;
+            for (int axis = 0; axis < 3; axis++) {
+                float extent = centroidBox[3 + axis] - centroidBox[axis];
+                scales[axis] = extent > 0 ? bins / extent : 0;
+                for (int b = axis * BIN_COUNT; b < axis * BIN_COUNT + bins; b++) {
+                    binCounts[b] = 0;
+                    reset(binBounds, 6 * b);
+                }
+            }
+            // Один проход по треугольникам раскладывает их по корзинам всех трёх осей
+            for (int i = from; i < to; i++) {
+                int t = order[i];
+                for (int axis = 0; axis < 3; axis++) {
+                    int b = axis * BIN_COUNT + bin(centroids[3 * t + axis], centroidBox[axis], scales[axis], bins);
+                    binCounts[b]++;
+                    union(binBounds, 6 * b, boxes, 6 * t);
+                }
+            }
+            double bestCost = Double.POSITIVE_INFINITY;
+            int bestAxis = -1;
+            int bestBin = 0;
+            for (int axis = 0; axis < 3; axis++) {
+                if (scales[axis] == 0) {
+                    continue;
+                }
+                int base = axis * BIN_COUNT;
+                reset(sweep, 0);
+                int right = 0;
+                for (int b = bins - 1; b > 0; b--) {
+                    union(sweep, 0, binBounds, 6 * (base + b));
+                    right += binCounts[base + b];
+                    rightAreas[b] = area(sweep);
+                    rightCounts[b] = right;
+                }
+                reset(sweep, 0);
+                int left = 0;
+                for (int b = 1; b < bins; b++) {
+                    union(sweep, 0, binBounds, 6 * (base + b - 1));
+                    left += binCounts[base + b - 1];
+                    if (left == 0 || rightCounts[b] == 0) {
+                        continue;
+                    }
+                    double cost = (double) area(sweep) * left + (double) rightAreas[b] * rightCounts[b];
+                    if (cost < bestCost) {
+                        bestCost = cost;
+                        bestAxis = axis;
+                        bestBin = b;
+                    }
+                }
+            }
+
+            int mid;
+            if (bestAxis < 0) {
+                // Все центры совпадают - делить по положению бессмысленно, большой узел делится пополам
+                if (size <= MAX_LEAF_SIZE) {
+                    return makeLeaf(node, from, size);
+                }
+                mid = (from + to) >>> 1;
+            } else {
+                // Обход потомков стоит примерно как проверка одного треугольника
+                if (size <= MAX_LEAF_SIZE && bestCost >= area(bounds, 6 * node) * (size - 1)) {
+                    return makeLeaf(node, from, size);
+                }
+                float low = centroidBox[bestAxis];
+                float scale = scales[bestAxis];
+                int i = from;
+                int j = to - 1;
+                while (i <= j) {
+                    if (bin(centroids[3 * order[i] + bestAxis], low, scale, bins) < bestBin) {
+                        i++;
+                    } else {
+                        int swap = order[i];
+                        order[i] = order[j];
+                        order[j--] = swap;
+                    }
+                }
+                mid = i;
+            }
+            int left = nextNode.getAndAdd(2);
+            first[node] = left;
+            count[node] = 0;
+            parent[left] = node;
+            parent[left + 1] = node;
+            return mid;
+        }
+
+        private int makeLeaf(int node, int from, int size) {
+            first[node] = from;
+            count[node] = size;
+            return -1;
+        }
+
+        private static int bin(float value, float low, float scale, int bins) {
+            return Math.min(bins - 1, (int) ((value - low) * scale));
+        }
+
+        private static void reset(float[] box, int offset) {
+            box[offset] = Float.POSITIVE_INFINITY;
+            box[offset + 1] = Float.POSITIVE_INFINITY;
+            box[offset + 2] = Float.POSITIVE_INFINITY;
+            box[offset + 3] = Float.NEGATIVE_INFINITY;
+            box[offset + 4] = Float.NEGATIVE_INFINITY;
+            box[offset + 5] = Float.NEGATIVE_INFINITY;
+        }
+
+        private static float area(float[] box) {
+            return area(box, 0);
+        }
+
+        private static float area(float[] box, int offset) {
+            float x = box[offset + 3] - box[offset];
+            float y = box[offset + 4] - box[offset + 1];
+            float z = box[offset + 5] - box[offset + 2];
+            return x * y + y * z + z * x;
+        }
+    }
+}
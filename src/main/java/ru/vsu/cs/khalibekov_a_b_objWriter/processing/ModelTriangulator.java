@@ -0,0 +1,220 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.processing;
+
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.CompactModel;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.Model;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.Polygon;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+// Разбиение полигонов модели на треугольники (см. PolygonTriangulator).
+// Текстурные координаты и нормали углов переносятся в треугольники, порядок полигонов сохраняется.
+// Полигоны меньше чем из 3 вершин отбрасываются.
+public class ModelTriangulator {
+
+    public static CompactModel triangulate(CompactModel model) {
+        return triangulate(model, Runnable::run);
+    }
+
+    public static CompactModel triangulateParallel(CompactModel model) {
+        return triangulate(model, ForkJoinPool.commonPool());
+    }
+
+    public static CompactModel triangulate(CompactModel model, Executor executor) {
+        checkModel(model);
+        int polygonCount = model.getPolygonCount();
+        int[] offsets = model.getPolygonOffsets();
+        int[] vertexIndices = model.getVertexIndices();
+        int[] textureIndices = model.getTextureVertexIndices();
+        int[] normalIndices = model.getNormalIndices();
+        float[] positions = model.getVertexData();
+        int vertexCount = model.getVertexCount();
+
+        // Первый треугольник каждого куска известен заранее, поэтому куски пишут результат независимо
+        int chunkCount = (polygonCount + ParallelChunks.CHUNK_SIZE - 1) / ParallelChunks.CHUNK_SIZE;
+        int[] chunkStarts = new int[chunkCount + 1];
+        // Первый треугольник каждого полигона - для пересчёта диапазонов материалов
+        int[] polygonStarts = model.getPolygonRanges().isEmpty() ? null : new int[polygonCount + 1];
+        long triangleCount = 0;
+        for (int i = 0; i < polygonCount; i++) {
+            if (i % ParallelChunks.CHUNK_SIZE == 0) {
+                chunkStarts[i / ParallelChunks.CHUNK_SIZE] = (int) triangleCount;
+            }
+            if (polygonStarts != null) {
+                polygonStarts[i] = (int) triangleCount;
+            }
+            triangleCount += Math.max(offsets[i + 1] - offsets[i] - 2, 0);
+            if (3 * triangleCount > Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException("Model has too many triangles");
+            }
+        }
+        int triangles = (int) triangleCount;
+        chunkStarts[chunkCount] = triangles;
+        if (polygonStarts != null) {
+            polygonStarts[polygonCount] = triangles;
+        }
+
+        int[] resultOffsets = new int[triangles + 1];
+        int[] resultVertices = new int[Math.max(3 * triangles, 1)];
+        int[] resultTextures = textureIndices == null ? null : new int[resultVertices.length];
+        int[] resultNormals = normalIndices == null ? null : new int[resultVertices.length];
+
+        ParallelChunks.run(polygonCount, executor, (from, to) -> {
+            PolygonTriangulator triangulator = new PolygonTriangulator();
+            int[] corners = new int[48];
+            int triangle = chunkStarts[from / ParallelChunks.CHUNK_SIZE];
+            for (int i = from; i < to; i++) {
+                int start = offsets[i];
+                int count = offsets[i + 1] - start;
+                for (int j = 0; j < count; j++) {
+                    ParallelChunks.checkIndex(vertexIndices[start + j], i, "vertex", j, vertexCount);
+                }
+                if (corners.length < 3 * count) {
+                    corners = new int[3 * count];
+                }
+                int produced = triangulator.triangulate(positions, vertexIndices, start, count, corners);
+                for (int k = 0; k < 3 * produced; k++) {
+                    int source = start + corners[k];
+                    int target = 3 * triangle + k;
+                    resultVertices[target] = vertexIndices[source];
+                    if (resultTextures != null) {
+                        resultTextures[target] = textureIndices[source];
+                    }
+                    if (resultNormals != null) {
+                        resultNormals[target] = normalIndices[source];
+                    }
+                }
+                for (int k = 0; k < produced; k++) {
+                    resultOffsets[triangle + k + 1] = 3 * (triangle + k + 1);
+                }
+                triangle += produced;
+            }
+        });
+
+        int textureCount = model.getTextureVertexCount();
+        int normalCount = model.getNormalCount();
+        CompactModel result = new CompactModel(
+                Arrays.copyOf(positions, 3 * vertexCount), vertexCount,
+                Arrays.copyOf(model.getTextureVertexData(), 2 * textureCount), textureCount,
+                Arrays.copyOf(model.getNormalData(), 3 * normalCount), normalCount,
+                resultOffsets, triangles,
+                resultVertices, resultTextures, resultNormals);
+        result.getMaterialLibraries().addAll(model.getMaterialLibraries());
+        if (polygonStarts != null) {
+            result.getPolygonRanges().addAll(PolygonRanges.remap(model.getPolygonRanges(), polygonStarts));
+        }
+        return result;
+    }
+
+    public static void triangulate(Model model) {
+        triangulate(model, Runnable::run);
+    }
+
+    public static void triangulateParallel(Model model) {
+        triangulate(model, ForkJoinPool.commonPool());
+    }
+
+    // Разбивает полигоны на месте. Треугольники из исходной модели остаются теми же объектами
+    public static void triangulate(Model model, Executor executor) {
+        checkModel(model);
+        List<Polygon> polygons = model.polygons;
+        float[] positions = ModelWelder.toData(model.vertices);
+        int vertexCount = model.vertices.size();
+
+        int chunkCount = (polygons.size() + ParallelChunks.CHUNK_SIZE - 1) / ParallelChunks.CHUNK_SIZE;
+        List<List<Polygon>> chunkResults = new ArrayList<List<Polygon>>(chunkCount);
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            chunkResults.add(null);
+        }
+        ParallelChunks.run(polygons.size(), executor, (from, to) -> {
+            PolygonTriangulator triangulator = new PolygonTriangulator();
+            List<Polygon> result = new ArrayList<Polygon>(to - from);
+            int[] vertices = new int[16];
+            int[] corners = new int[48];
+            for (int i = from; i < to; i++) {
+                Polygon polygon = polygons.get(i);
+                if (polygon == null || polygon.getVertexIndices() == null) {
+                    throw new IllegalArgumentException("Polygon " + i + " is invalid");
+                }
+                ArrayList<Integer> vIndices = polygon.getVertexIndices();
+                ArrayList<Integer> tIndices = cornerIndices(polygon.getTextureVertexIndices(), i, "UV", vIndices.size());
+                ArrayList<Integer> nIndices = cornerIndices(polygon.getNormalIndices(), i, "Normal", vIndices.size());
+                int count = vIndices.size();
+                if (vertices.length < count) {
+                    vertices = new int[count];
+                    corners = new int[3 * count];
+                }
+                // Индексы проверяются у всех полигонов, как в triangulate(CompactModel), а не только у разбиваемых
+                for (int j = 0; j < count; j++) {
+                    vertices[j] = vIndices.get(j);
+                    ParallelChunks.checkIndex(vertices[j], i, "vertex", j, vertexCount);
+                }
+                if (count < 3) {
+                    continue;
+                }
+                if (count == 3) {
+                    result.add(polygon);
+                    continue;
+                }
+
+                int produced = triangulator.triangulate(positions, vertices, 0, count, corners);
+                for (int k = 0; k < produced; k++) {
+                    Polygon triangle = new Polygon();
+                    triangle.setVertexIndices(pick(vIndices, corners, k));
+                    if (tIndices != null) {
+                        triangle.setTextureVertexIndices(pick(tIndices, corners, k));
+                    }
+                    if (nIndices != null) {
+                        triangle.setNormalIndices(pick(nIndices, corners, k));
+                    }
+                    result.add(triangle);
+                }
+            }
+            chunkResults.set(from / ParallelChunks.CHUNK_SIZE, result);
+        });
+
+        ArrayList<Polygon> triangles = new ArrayList<Polygon>();
+        for (List<Polygon> chunk : chunkResults) {
+            triangles.addAll(chunk);
+        }
+        if (!model.polygonRanges.isEmpty()) {
+            int[] polygonStarts = new int[polygons.size() + 1];
+            for (int i = 0; i < polygons.size(); i++) {
+                polygonStarts[i + 1] = polygonStarts[i] + Math.max(polygons.get(i).getVertexIndices().size() - 2, 0);
+            }
+            model.polygonRanges = PolygonRanges.remap(model.polygonRanges, polygonStarts);
+        }
+        model.polygons.clear();
+        model.polygons.addAll(triangles);
+        model.polygons.trimToSize();
+    }
+
+    private static void checkModel(Object model) {
+        if (model == null) {
+            throw new IllegalArgumentException("Invalid model provided!");
+        }
+    }
+
+    // null, если индексов у полигона нет; при несовпадении числа с вершинами - ошибка, как при записи
+    private static ArrayList<Integer> cornerIndices(ArrayList<Integer> indices, int polygonIndex, String name, int count) {
+        if (indices == null || indices.isEmpty()) {
+            return null;
+        }
+        if (indices.size() != count) {
+            throw new IllegalArgumentException("Polygon " + polygonIndex + ": " + name + " count mismatch (" +
+                    indices.size() + " vs " + count + ")");
+        }
+        return indices;
+    }
+
+    private static ArrayList<Integer> pick(ArrayList<Integer> indices, int[] corners, int triangle) {
+        ArrayList<Integer> result = new ArrayList<Integer>(3);
+        for (int k = 3 * triangle; k < 3 * triangle + 3; k++) {
+            result.add(indices.get(corners[k]));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,228 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.processing;
+
+import ru.vsu.cs.khalibekov_a_b_objWriter.math.Vector2f;
+import ru.vsu.cs.khalibekov_a_b_objWriter.math.Vector3f;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.CompactModel;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.Model;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.Polygon;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+// Склейка совпадающих вершин, текстурных координат и нормалей с перенумерацией индексов полигонов.
+// Точки сравниваются покоординатно с точностью epsilon (как Vector3f.equals), из группы совпадающих
+// остаётся первая по порядку, поэтому относительный порядок элементов сохраняется.
+// Элементы, на которые не ссылается ни один полигон, удаляются.
+public class ModelWelder {
+
+    // Допуск по умолчанию - абсолютный, в единицах координат модели (для текстурных координат - в долях текстуры).
+    // 1e-5 больше шага float у координат до ~100 по модулю, поэтому склеивает копии вершин, разошедшиеся
+    // на несколько ulp при экспорте. Для моделей крупнее передавайте допуск порядка 1e-6 от размера модели
+    public static final float DEFAULT_EPSILON = 1e-5f;
+
+    private static final String[] INDEX_NAMES = {"vertex", "texture", "normal"};
+
+    public static CompactModel weld(CompactModel model) {
+        return weld(model, DEFAULT_EPSILON);
+    }
+
+    public static CompactModel weld(CompactModel model, float epsilon) {
+        return weld(model, epsilon, Runnable::run);
+    }
+
+    // Вершины, текстуры и нормали склеиваются параллельно друг другу,
+    // проверка и перенумерация индексов идут кусками полигонов
+    public static CompactModel weldParallel(CompactModel model, float epsilon) {
+        return weld(model, epsilon, ForkJoinPool.commonPool());
+    }
+
+    public static CompactModel weld(CompactModel model, float epsilon, Executor executor) {
+        checkModel(model);
+        int polygonCount = model.getPolygonCount();
+        int[] offsets = model.getPolygonOffsets();
+        int indexCount = model.getIndexCount();
+        int[][] indices = {model.getVertexIndices(), model.getTextureVertexIndices(), model.getNormalIndices()};
+        int[] counts = {model.getVertexCount(), model.getTextureVertexCount(), model.getNormalCount()};
+        float[][] data = {model.getVertexData(), model.getTextureVertexData(), model.getNormalData()};
+
+        boolean[][] referenced = new boolean[3][];
+        for (int kind = 0; kind < 3; kind++) {
+            referenced[kind] = new boolean[counts[kind]];
+        }
+        ParallelChunks.run(polygonCount, executor, (from, to) -> {
+            for (int kind = 0; kind < 3; kind++) {
+                if (indices[kind] != null) {
+                    markReferenced(indices[kind], offsets, from, to, kind, referenced[kind]);
+                }
+            }
+        });
+
+        PointWelder[] welders = new PointWelder[3];
+        int[][] maps = new int[3][];
+        ParallelChunks.run(3, 1, executor, (kind, next) -> {
+            welders[kind] = new PointWelder(kind == 1 ? 2 : 3, epsilon, counts[kind]);
+            maps[kind] = welders[kind].weld(data[kind], counts[kind], referenced[kind]);
+        });
+
+        int[][] remapped = new int[3][];
+        for (int kind = 0; kind < 3; kind++) {
+            remapped[kind] = indices[kind] == null ? null : new int[Math.max(indexCount, 1)];
+        }
+        ParallelChunks.run(polygonCount, executor, (from, to) -> {
+            for (int kind = 0; kind < 3; kind++) {
+                if (indices[kind] != null) {
+                    remap(indices[kind], remapped[kind], maps[kind], offsets[from], offsets[to]);
+                }
+            }
+        });
+
+        CompactModel result = new CompactModel(
+                welders[0].points(), welders[0].size(),
+                welders[1].points(), welders[1].size(),
+                welders[2].points(), welders[2].size(),
+                offsets.clone(), polygonCount,
+                remapped[0], remapped[1], remapped[2]);
+        result.copyGroupsFrom(model);
+        return result;
+    }
+
+    public static void weld(Model model) {
+        weld(model, DEFAULT_EPSILON);
+    }
+
+    public static void weld(Model model, float epsilon) {
+        weld(model, epsilon, Runnable::run);
+    }
+
+    public static void weldParallel(Model model, float epsilon) {
+        weld(model, epsilon, ForkJoinPool.commonPool());
+    }
+
+    // Склеивает элементы на месте: списки модели сокращаются (остаются исходные объекты),
+    // полигоны получают новые списки индексов
+    public static void weld(Model model, float epsilon, Executor executor) {
+        checkModel(model);
+        List<Polygon> polygons = model.polygons;
+        int[] counts = {model.vertices.size(), model.textureVertices.size(), model.normals.size()};
+        float[][] data = {toData(model.vertices), toTextureData(model.textureVertices), toData(model.normals)};
+
+        boolean[][] referenced = new boolean[3][];
+        for (int kind = 0; kind < 3; kind++) {
+            referenced[kind] = new boolean[counts[kind]];
+        }
+        ParallelChunks.run(polygons.size(), executor, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                Polygon polygon = polygons.get(i);
+                if (polygon == null || polygon.getVertexIndices() == null) {
+                    throw new IllegalArgumentException("Polygon " + i + " is invalid");
+                }
+                markReferenced(polygon.getVertexIndices(), i, 0, referenced[0]);
+                markReferenced(polygon.getTextureVertexIndices(), i, 1, referenced[1]);
+                markReferenced(polygon.getNormalIndices(), i, 2, referenced[2]);
+            }
+        });
+
+        int[][] maps = new int[3][];
+        ParallelChunks.run(3, 1, executor, (kind, next) -> {
+            PointWelder welder = new PointWelder(kind == 1 ? 2 : 3, epsilon, counts[kind]);
+            maps[kind] = welder.weld(data[kind], counts[kind], referenced[kind]);
+        });
+
+        ParallelChunks.run(polygons.size(), executor, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                Polygon polygon = polygons.get(i);
+                polygon.setVertexIndices(remap(polygon.getVertexIndices(), maps[0]));
+                if (polygon.getTextureVertexIndices() != null && !polygon.getTextureVertexIndices().isEmpty()) {
+                    polygon.setTextureVertexIndices(remap(polygon.getTextureVertexIndices(), maps[1]));
+                }
+                if (polygon.getNormalIndices() != null && !polygon.getNormalIndices().isEmpty()) {
+                    polygon.setNormalIndices(remap(polygon.getNormalIndices(), maps[2]));
+                }
+            }
+        });
+
+        keepRepresentatives(model.vertices, maps[0]);
+        keepRepresentatives(model.textureVertices, maps[1]);
+        keepRepresentatives(model.normals, maps[2]);
+    }
+
+    private static void checkModel(Object model) {
+        if (model == null) {
+            throw new IllegalArgumentException("Invalid model provided!");
+        }
+    }
+
+    private static void markReferenced(int[] indices, int[] offsets, int from, int to, int kind, boolean[] referenced) {
+        for (int i = from; i < to; i++) {
+            for (int j = offsets[i]; j < offsets[i + 1]; j++) {
+                int index = indices[j];
+                if (index != CompactModel.NO_INDEX) {
+                    ParallelChunks.checkIndex(index, i, INDEX_NAMES[kind], j - offsets[i], referenced.length);
+                    referenced[index] = true;
+                }
+            }
+        }
+    }
+
+    private static void markReferenced(List<Integer> indices, int polygonIndex, int kind, boolean[] referenced) {
+        if (indices == null) {
+            return;
+        }
+        for (int j = 0; j < indices.size(); j++) {
+            int index = indices.get(j);
+            ParallelChunks.checkIndex(index, polygonIndex, INDEX_NAMES[kind], j, referenced.length);
+            referenced[index] = true;
+        }
+    }
+
+    private static void remap(int[] source, int[] target, int[] map, int from, int to) {
+        for (int j = from; j < to; j++) {
+            int index = source[j];
+            target[j] = index == CompactModel.NO_INDEX ? index : map[index];
+        }
+    }
+
+    private static ArrayList<Integer> remap(List<Integer> indices, int[] map) {
+        ArrayList<Integer> result = new ArrayList<Integer>(indices.size());
+        for (Integer index : indices) {
+            result.add(map[index]);
+        }
+        return result;
+    }
+
+    // Новые номера выдаются по возрастанию первого вхождения, поэтому представитель группы -
+    // тот элемент, номер которого совпадает с числом уже оставленных
+    private static <T> void keepRepresentatives(ArrayList<T> elements, int[] map) {
+        int kept = 0;
+        for (int i = 0; i < map.length; i++) {
+            if (map[i] == kept) {
+                elements.set(kept++, elements.get(i));
+            }
+        }
+        elements.subList(kept, elements.size()).clear();
+        elements.trimToSize();
+    }
+
+    static float[] toData(List<Vector3f> vectors) {
+        float[] data = new float[3 * vectors.size()];
+        for (int i = 0; i < vectors.size(); i++) {
+            Vector3f v = vectors.get(i);
+            data[3 * i] = v.x;
+            data[3 * i + 1] = v.y;
+            data[3 * i + 2] = v.z;
+        }
+        return data;
+    }
+
+    private static float[] toTextureData(List<Vector2f> vectors) {
+        float[] data = new float[2 * vectors.size()];
+        for (int i = 0; i < vectors.size(); i++) {
+            Vector2f v = vectors.get(i);
+            data[2 * i] = v.x;
+            data[2 * i + 1] = v.y;
+        }
+        return data;
+    }
+}
@@ -0,0 +1,217 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.processing;
+
+import ru.vsu.cs.khalibekov_a_b_objWriter.math.PolygonNormals;
+import ru.vsu.cs.khalibekov_a_b_objWriter.math.Vector3f;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.CompactModel;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.Model;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.Polygon;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+// Вычисление нормалей модели. Старые нормали заменяются, у каждого угла появляется индекс нормали.
+// FLAT - одна нормаль на полигон (нормаль Ньюэлла, работает и для невыпуклых n-угольников).
+// SMOOTH - одна нормаль на вершину: сумма нормалей прилегающих полигонов с весом по площади.
+// Для SMOOTH сначала по каждой вершине собирается список прилегающих полигонов (CSR, заполняется
+// параллельно через атомарные счётчики без блокировок), затем куски вершин суммируют свои списки.
+// Списки сортируются, поэтому результат не зависит от числа потоков.
+// У вырожденных полигонов и неиспользуемых вершин нормаль нулевая.
+public class NormalGenerator {
+
+    public enum Mode {
+        FLAT,
+        SMOOTH
+    }
+
+    public static CompactModel generate(CompactModel model, Mode mode) {
+        return generate(model, mode, Runnable::run);
+    }
+
+    public static CompactModel generateParallel(CompactModel model, Mode mode) {
+        return generate(model, mode, ForkJoinPool.commonPool());
+    }
+
+    public static CompactModel generate(CompactModel model, Mode mode, Executor executor) {
+        checkModel(model);
+        int polygonCount = model.getPolygonCount();
+        int vertexCount = model.getVertexCount();
+        int[] offsets = model.getPolygonOffsets();
+        int[] vertexIndices = model.getVertexIndices();
+        int indexCount = model.getIndexCount();
+
+        float[] normals = computeNormals(model.getVertexData(), vertexCount, offsets, vertexIndices,
+                polygonCount, mode, executor);
+        int[] normalIndices;
+        if (mode == Mode.SMOOTH) {
+            normalIndices = Arrays.copyOf(vertexIndices, Math.max(indexCount, 1));
+        } else {
+            normalIndices = new int[Math.max(indexCount, 1)];
+            ParallelChunks.run(polygonCount, executor, (from, to) -> {
+                for (int i = from; i < to; i++) {
+                    Arrays.fill(normalIndices, offsets[i], offsets[i + 1], i);
+                }
+            });
+        }
+
+        int textureCount = model.getTextureVertexCount();
+        int[] textureIndices = model.getTextureVertexIndices();
+        CompactModel result = new CompactModel(
+                Arrays.copyOf(model.getVertexData(), 3 * vertexCount), vertexCount,
+                Arrays.copyOf(model.getTextureVertexData(), 2 * textureCount), textureCount,
+                normals, normals.length / 3,
+                Arrays.copyOf(offsets, polygonCount + 1), polygonCount,
+                Arrays.copyOf(vertexIndices, Math.max(indexCount, 1)),
+                textureIndices == null ? null : Arrays.copyOf(textureIndices, Math.max(indexCount, 1)),
+                normalIndices);
+        result.copyGroupsFrom(model);
+        return result;
+    }
+
+    public static void generate(Model model, Mode mode) {
+        generate(model, mode, Runnable::run);
+    }
+
+    public static void generateParallel(Model model, Mode mode) {
+        generate(model, mode, ForkJoinPool.commonPool());
+    }
+
+    // Заменяет model.normals и списки индексов нормалей полигонов на месте
+    public static void generate(Model model, Mode mode, Executor executor) {
+        checkModel(model);
+        List<Polygon> polygons = model.polygons;
+        int polygonCount = polygons.size();
+
+        int[] offsets = new int[polygonCount + 1];
+        for (int i = 0; i < polygonCount; i++) {
+            Polygon polygon = polygons.get(i);
+            if (polygon == null || polygon.getVertexIndices() == null) {
+                throw new IllegalArgumentException("Polygon " + i + " is invalid");
+            }
+            offsets[i + 1] = Math.addExact(offsets[i], polygon.getVertexIndices().size());
+        }
+        int[] vertexIndices = new int[offsets[polygonCount]];
+        ParallelChunks.run(polygonCount, executor, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                List<Integer> indices = polygons.get(i).getVertexIndices();
+                for (int j = 0; j < indices.size(); j++) {
+                    vertexIndices[offsets[i] + j] = indices.get(j);
+                }
+            }
+        });
+
+        float[] normals = computeNormals(ModelWelder.toData(model.vertices), model.vertices.size(),
+                offsets, vertexIndices, polygonCount, mode, executor);
+
+        ParallelChunks.run(polygonCount, executor, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                Polygon polygon = polygons.get(i);
+                ArrayList<Integer> normalIndices;
+                if (mode == Mode.SMOOTH) {
+                    normalIndices = new ArrayList<Integer>(polygon.getVertexIndices());
+                } else {
+                    normalIndices = new ArrayList<Integer>(Collections.nCopies(offsets[i + 1] - offsets[i], i));
+                }
+                polygon.setNormalIndices(normalIndices);
+            }
+        });
+
+        model.normals.clear();
+        model.normals.ensureCapacity(normals.length / 3);
+        for (int i = 0; i < normals.length; i += 3) {
+            model.normals.add(new Vector3f(normals[i], normals[i + 1], normals[i + 2]));
+        }
+    }
+
+    private static void checkModel(Object model) {
+        if (model == null) {
+            throw new IllegalArgumentException("Invalid model provided!");
+        }
+    }
+
+    // Нормали подряд по 3 координаты: по одной на полигон (FLAT) или на вершину (SMOOTH)
+    private static float[] computeNormals(float[] positions, int vertexCount, int[] offsets, int[] vertexIndices,
+                                          int polygonCount, Mode mode, Executor executor) {
+        // Ненормированная нормаль Ньюэлла - её длина равна удвоенной площади полигона
+        float[] faceNormals = new float[3 * polygonCount];
+        ParallelChunks.run(polygonCount, executor, (from, to) -> {
+            double[] normal = new double[3];
+            for (int i = from; i < to; i++) {
+                int start = offsets[i];
+                int count = offsets[i + 1] - start;
+                for (int j = 0; j < count; j++) {
+                    ParallelChunks.checkIndex(vertexIndices[start + j], i, "vertex", j, vertexCount);
+                }
+                PolygonNormals.newell(positions, vertexIndices, start, count, normal);
+                faceNormals[3 * i] = (float) normal[0];
+                faceNormals[3 * i + 1] = (float) normal[1];
+                faceNormals[3 * i + 2] = (float) normal[2];
+            }
+        });
+
+        if (mode == Mode.FLAT) {
+            float[] normals = new float[3 * polygonCount];
+            ParallelChunks.run(polygonCount, executor, (from, to) -> {
+                for (int i = from; i < to; i++) {
+                    normalize(faceNormals[3 * i], faceNormals[3 * i + 1], faceNormals[3 * i + 2], normals, 3 * i);
+                }
+            });
+            return normals;
+        }
+
+        // Число полигонов у каждой вершины, затем начала списков
+        AtomicIntegerArray cursors = new AtomicIntegerArray(vertexCount + 1);
+        ParallelChunks.run(polygonCount, executor, (from, to) -> {
+            for (int j = offsets[from]; j < offsets[to]; j++) {
+                cursors.incrementAndGet(vertexIndices[j] + 1);
+            }
+        });
+        int[] adjacencyStarts = new int[vertexCount + 1];
+        for (int v = 0; v < vertexCount; v++) {
+            adjacencyStarts[v + 1] = adjacencyStarts[v] + cursors.get(v + 1);
+            cursors.set(v + 1, 0);
+        }
+        int[] adjacency = new int[adjacencyStarts[vertexCount]];
+        ParallelChunks.run(polygonCount, executor, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                for (int j = offsets[i]; j < offsets[i + 1]; j++) {
+                    int vertex = vertexIndices[j];
+                    adjacency[adjacencyStarts[vertex] + cursors.getAndIncrement(vertex)] = i;
+                }
+            }
+        });
+
+        float[] normals = new float[3 * vertexCount];
+        ParallelChunks.run(vertexCount, executor, (from, to) -> {
+            for (int v = from; v < to; v++) {
+                int start = adjacencyStarts[v];
+                int end = adjacencyStarts[v + 1];
+                Arrays.sort(adjacency, start, end);
+                double x = 0;
+                double y = 0;
+                double z = 0;
+                for (int k = start; k < end; k++) {
+                    int face = 3 * adjacency[k];
+                    x += faceNormals[face];
+                    y += faceNormals[face + 1];
+                    z += faceNormals[face + 2];
+                }
+                normalize(x, y, z, normals, 3 * v);
+            }
+        });
+        return normals;
+    }
+
+    private static void normalize(double x, double y, double z, float[] target, int offset) {
+        double length = Math.sqrt(x * x + y * y + z * z);
+        if (length > 0) {
+            target[offset] = (float) (x / length);
+            target[offset + 1] = (float) (y / length);
+            target[offset + 2] = (float) (z / length);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.processing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+// Разбиение диапазона [0, count) на куски, выполняемые на Executor
+final class ParallelChunks {
+
+    static final int CHUNK_SIZE = 1 << 16;
+
+    @FunctionalInterface
+    interface ChunkTask {
+        void run(int from, int to);
+    }
+
+    private ParallelChunks() {
+    }
+
+    // Куски дожидаются по порядку, поэтому выброшена будет та же ошибка, что и при последовательном проходе
+    static void run(int count, int chunkSize, Executor executor, ChunkTask task) {
+        List<CompletableFuture<Void>> chunks = new ArrayList<CompletableFuture<Void>>();
+        for (int from = 0; from < count; from += chunkSize) {
+            int chunkFrom = from;
+            int chunkTo = Math.min(count, from + chunkSize);
+            chunks.add(CompletableFuture.runAsync(() -> task.run(chunkFrom, chunkTo), executor));
+        }
+        try {
+            for (CompletableFuture<Void> chunk : chunks) {
+                chunk.join();
+            }
+        } catch (CompletionException e) {
+            for (CompletableFuture<Void> chunk : chunks) {
+                chunk.cancel(false);
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    static void run(int count, Executor executor, ChunkTask task) {
+        run(count, CHUNK_SIZE, executor, task);
+    }
+
+    static void checkIndex(int index, int polygonIndex, String name, int corner, int count) {
+        if (index < 0 || index >= count) {
+            throw new IllegalArgumentException(String.format("Polygon %d, %s %d: index %d out of range [0, %d]",
+                    polygonIndex, name, corner, index, count - 1));
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.processing;
+
+import java.util.Arrays;
+
+// Склейка близких точек размерности dims (2 или 3) за почти линейное время.
+// Точки раскладываются по ячейкам сетки со стороной 2 * epsilon, ячейки хранятся
+// в хэш-таблице с открытой адресацией на примитивных массивах.
+// Точка в пределах epsilon по каждой координате (как в Vector3f.equals) может лежать
+// только в своей ячейке или в соседней со стороны ближайшей границы,
+// поэтому на каждую точку проверяется 2^dims ячеек.
+// При epsilon == 0 склеиваются только точно совпадающие координаты (0.0 и -0.0 равны).
+final class PointWelder {
+
+    private static final int EMPTY = -1;
+
+    private final int dims;
+    private final float epsilon;
+    private final double inverseCellSize;
+
+    // Итоговые точки и их ячейки, подряд по dims
+    private final float[] points;
+    private final long[] cells;
+    private int count;
+
+    private final int[] table;
+    private final int mask;
+
+    private final long[] ownCell;
+    private final long[] probeCell;
+
+    PointWelder(int dims, float epsilon, int capacity) {
+        if (!(epsilon >= 0)) {
+            throw new IllegalArgumentException("Epsilon must not be negative: " + epsilon);
+        }
+        this.dims = dims;
+        this.epsilon = epsilon;
+        this.inverseCellSize = epsilon > 0 ? 1.0 / (2.0 * epsilon) : 0;
+        this.points = new float[dims * capacity];
+        this.cells = new long[dims * capacity];
+        int tableSize = Integer.highestOneBit(Math.max(2 * capacity, 2) - 1) << 1;
+        this.table = new int[tableSize];
+        Arrays.fill(table, EMPTY);
+        this.mask = tableSize - 1;
+        this.ownCell = new long[dims];
+        this.probeCell = new long[dims];
+    }
+
+    // Склеивает точки data в исходном порядке. Возвращает для каждой точки её новый номер,
+    // непомеченные в referenced (если он задан) точки получают -1
+    int[] weld(float[] data, int pointCount, boolean[] referenced) {
+        int[] map = new int[pointCount];
+        for (int i = 0; i < pointCount; i++) {
+            map[i] = referenced == null || referenced[i] ? add(data, i * dims) : -1;
+        }
+        return map;
+    }
+
+    int size() {
+        return count;
+    }
+
+    float[] points() {
+        return Arrays.copyOf(points, dims * count);
+    }
+
+    // Номер уже добавленной точки, совпадающей с data[offset..offset + dims), или новой
+    int add(float[] data, int offset) {
+        for (int d = 0; d < dims; d++) {
+            ownCell[d] = cell(data[offset + d]);
+        }
+
+        if (epsilon > 0) {
+            // По каждой оси соседняя ячейка берётся со стороны ближайшей границы
+            int towardsLower = 0;
+            for (int d = 0; d < dims; d++) {
+                double scaled = data[offset + d] * inverseCellSize;
+                if (scaled - Math.floor(scaled) < 0.5) {
+                    towardsLower |= 1 << d;
+                }
+            }
+            for (int corner = 0; corner < 1 << dims; corner++) {
+                for (int d = 0; d < dims; d++) {
+                    long shift = (corner & (1 << d)) == 0 ? 0 : (towardsLower & (1 << d)) != 0 ? -1 : 1;
+                    probeCell[d] = ownCell[d] + shift;
+                }
+                int found = find(probeCell, data, offset);
+                if (found != EMPTY) {
+                    return found;
+                }
+            }
+        } else {
+            int found = find(ownCell, data, offset);
+            if (found != EMPTY) {
+                return found;
+            }
+        }
+
+        int index = count++;
+        System.arraycopy(data, offset, points, index * dims, dims);
+        System.arraycopy(ownCell, 0, cells, index * dims, dims);
+        int slot = hash(ownCell) & mask;
+        while (table[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = index;
+        return index;
+    }
+
+    private int find(long[] cell, float[] data, int offset) {
+        int slot = hash(cell) & mask;
+        while (true) {
+            int candidate = table[slot];
+            if (candidate == EMPTY) {
+                return EMPTY;
+            }
+            if (sameCell(candidate, cell) && matches(candidate, data, offset)) {
+                return candidate;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private boolean sameCell(int index, long[] cell) {
+        int base = index * dims;
+        for (int d = 0; d < dims; d++) {
+            if (cells[base + d] != cell[d]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean matches(int index, float[] data, int offset) {
+        int base = index * dims;
+        for (int d = 0; d < dims; d++) {
+            float a = points[base + d];
+            float b = data[offset + d];
+            if (epsilon > 0 ? !(Math.abs(a - b) < epsilon) : a != b) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long cell(float value) {
+        if (epsilon > 0) {
+            return (long) Math.floor(value * inverseCellSize);
+        }
+        return Float.floatToIntBits(value == 0 ? 0f : value);
+    }
+
+    private static int hash(long[] cell) {
+        long h = 0;
+        for (long c : cell) {
+            h = (h + c) * 0x9E3779B97F4A7C15L;
+            h ^= h >>> 29;
+        }
+        return (int) (h ^ (h >>> 32));
+    }
+}
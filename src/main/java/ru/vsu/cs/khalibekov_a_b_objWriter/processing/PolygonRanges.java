@@ -0,0 +1,37 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.processing;
+
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.PolygonRange;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Пересчёт диапазонов полигонов (o, g, usemtl, s) после операций, которые меняют число полигонов,
+// но не их порядок (разбиение на треугольники и т. п.)
+final class PolygonRanges {
+
+    private PolygonRanges() {
+    }
+
+    // producedBefore[i] - сколько полигонов результата получено из исходных полигонов [0, i),
+    // длина массива - число исходных полигонов + 1. Опустевшие диапазоны выбрасываются,
+    // а соседи с одинаковыми атрибутами, оказавшиеся рядом, склеиваются
+    static ArrayList<PolygonRange> remap(List<PolygonRange> ranges, int[] producedBefore) {
+        int last = producedBefore.length - 1;
+        ArrayList<PolygonRange> result = new ArrayList<PolygonRange>(ranges.size());
+        for (int r = 0; r < ranges.size(); r++) {
+            int start = producedBefore[Math.min(ranges.get(r).getFirstPolygon(), last)];
+            int end = r + 1 < ranges.size()
+                    ? producedBefore[Math.min(ranges.get(r + 1).getFirstPolygon(), last)]
+                    : producedBefore[last];
+            if (start >= end) {
+                continue;
+            }
+            PolygonRange range = ranges.get(r).withFirstPolygon(start);
+            if (!result.isEmpty() && result.get(result.size() - 1).hasSameAttributes(range)) {
+                continue;
+            }
+            result.add(range);
+        }
+        return result;
+    }
+}
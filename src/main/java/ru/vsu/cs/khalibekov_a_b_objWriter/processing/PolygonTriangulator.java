@@ -0,0 +1,155 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.processing;
+
+import ru.vsu.cs.khalibekov_a_b_objWriter.math.PolygonNormals;
+
+// Разбиение одного полигона на треугольники. Выпуклые полигоны режутся веером,
+// невыпуклые - отсечением ушей в проекции на плоскость, где площадь полигона наибольшая.
+// Треугольники сохраняют обход полигона. Для самопересекающихся и вырожденных полигонов,
+// где ухо не находится, отрезается текущий угол, так что треугольников всегда count - 2.
+// Объект хранит рабочие массивы и не потокобезопасен - по одному на поток.
+final class PolygonTriangulator {
+
+    private float[] xs = new float[16];
+    private float[] ys = new float[16];
+    private int[] prev = new int[16];
+    private int[] next = new int[16];
+    private final double[] normal = new double[3];
+
+    // Записывает в triangles тройки номеров углов (от 0 до count - 1), возвращает число треугольников.
+    // vertices[start..start + count) - индексы вершин полигона, уже проверенные на диапазон
+    int triangulate(float[] positions, int[] vertices, int start, int count, int[] triangles) {
+        if (count < 3) {
+            return 0;
+        }
+        if (count == 3 || !project(positions, vertices, start, count)) {
+            return fan(count, triangles);
+        }
+
+        float orientation = signedArea(count) >= 0 ? 1 : -1;
+        if (isConvex(count, orientation)) {
+            return fan(count, triangles);
+        }
+
+        for (int i = 0; i < count; i++) {
+            prev[i] = i == 0 ? count - 1 : i - 1;
+            next[i] = i == count - 1 ? 0 : i + 1;
+        }
+        int written = 0;
+        int remaining = count;
+        int current = 0;
+        while (remaining > 3) {
+            int ear = -1;
+            int candidate = current;
+            for (int attempt = 0; attempt < remaining; attempt++) {
+                if (isEar(prev[candidate], candidate, next[candidate], orientation)) {
+                    ear = candidate;
+                    break;
+                }
+                candidate = next[candidate];
+            }
+            if (ear < 0) {
+                ear = current;
+            }
+            written = emit(triangles, written, prev[ear], ear, next[ear]);
+            next[prev[ear]] = next[ear];
+            prev[next[ear]] = prev[ear];
+            current = next[ear];
+            remaining--;
+        }
+        emit(triangles, written, prev[current], current, next[current]);
+        return count - 2;
+    }
+
+    private static int fan(int count, int[] triangles) {
+        int written = 0;
+        for (int i = 1; i < count - 1; i++) {
+            written = emit(triangles, written, 0, i, i + 1);
+        }
+        return count - 2;
+    }
+
+    private static int emit(int[] triangles, int written, int a, int b, int c) {
+        triangles[written] = a;
+        triangles[written + 1] = b;
+        triangles[written + 2] = c;
+        return written + 3;
+    }
+
+    // Проекция на координатную плоскость, перпендикулярную наибольшей компоненте нормали Ньюэлла.
+    // false, если у полигона нулевая площадь
+    private boolean project(float[] positions, int[] vertices, int start, int count) {
+        if (xs.length < count) {
+            xs = new float[count];
+            ys = new float[count];
+            prev = new int[count];
+            next = new int[count];
+        }
+        PolygonNormals.newell(positions, vertices, start, count, normal);
+        double ax = Math.abs(normal[0]);
+        double ay = Math.abs(normal[1]);
+        double az = Math.abs(normal[2]);
+        if (ax == 0 && ay == 0 && az == 0) {
+            return false;
+        }
+        int dropped = ax >= ay && ax >= az ? 0 : ay >= az ? 1 : 2;
+        int u = dropped == 0 ? 1 : 0;
+        int v = dropped == 2 ? 1 : 2;
+        for (int i = 0; i < count; i++) {
+            int base = 3 * vertices[start + i];
+            xs[i] = positions[base + u];
+            ys[i] = positions[base + v];
+        }
+        return true;
+    }
+
+    private double signedArea(int count) {
+        double area = 0;
+        for (int i = 0; i < count; i++) {
+            int j = i == count - 1 ? 0 : i + 1;
+            area += (double) xs[i] * ys[j] - (double) xs[j] * ys[i];
+        }
+        return area;
+    }
+
+    private boolean isConvex(int count, float orientation) {
+        for (int i = 0; i < count; i++) {
+            int p = i == 0 ? count - 1 : i - 1;
+            int n = i == count - 1 ? 0 : i + 1;
+            if (cross(p, i, n) * orientation < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isEar(int p, int i, int n, float orientation) {
+        if (cross(p, i, n) * orientation <= 0) {
+            return false;
+        }
+        for (int k = next[n]; k != p; k = next[k]) {
+            if (isInside(k, p, i, n, orientation)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Точки, совпадающие с вершиной треугольника (повторы в полигоне), ухо не загораживают
+    private boolean isInside(int k, int a, int b, int c, float orientation) {
+        if (samePoint(k, a) || samePoint(k, b) || samePoint(k, c)) {
+            return false;
+        }
+        return cross(a, b, k) * orientation >= 0
+                && cross(b, c, k) * orientation >= 0
+                && cross(c, a, k) * orientation >= 0;
+    }
+
+    private boolean samePoint(int a, int b) {
+        return xs[a] == xs[b] && ys[a] == ys[b];
+    }
+
+    private double cross(int a, int b, int c) {
+        return ((double) xs[b] - xs[a]) * ((double) ys[c] - ys[a])
+                - ((double) ys[b] - ys[a]) * ((double) xs[c] - xs[a]);
+    }
+}
@@ -0,0 +1,407 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.processing;
+
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.CompactModel;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.Model;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.Polygon;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.PolygonRange;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+// Перестановка полигонов под кэш вершин видеокарты и затем вершин - в порядке первого использования.
+// Полигоны упорядочиваются алгоритмом Tipsify (Sander, Nehab, Barczak, 2007): веер полигонов вокруг
+// вершины, следующая вершина - из только что выданных, которая ещё останется в кэше, а в тупике -
+// последняя выданная с невыданными полигонами. Всё за линейное время от числа углов.
+// После этого вершины, текстурные координаты и нормали нумеруются по первому использованию,
+// поэтому соседние полигоны ссылаются на соседние элементы (лучше и для кэша процессора, и для сжатия).
+// Полигоны переставляются только внутри своих диапазонов (o, g, usemtl, s), сами диапазоны не меняются.
+// Элементы, на которые нет ссылок, не удаляются, а идут в конце в прежнем порядке.
+public class VertexCacheOptimizer {
+
+    // Размер FIFO-кэша, для которого оптимизируется порядок и считается ACMR
+    public static final int DEFAULT_CACHE_SIZE = 16;
+
+    public static CompactModel optimize(CompactModel model) {
+        return optimize(model, DEFAULT_CACHE_SIZE);
+    }
+
+    public static CompactModel optimize(CompactModel model, int cacheSize) {
+        checkModel(model);
+        checkCacheSize(cacheSize);
+        int polygonCount = model.getPolygonCount();
+        int[] offsets = model.getPolygonOffsets();
+        int[] vIndices = model.getVertexIndices();
+        int[] tIndices = model.getTextureVertexIndices();
+        int[] nIndices = model.getNormalIndices();
+        int vertexCount = model.getVertexCount();
+        int textureCount = model.getTextureVertexCount();
+        int normalCount = model.getNormalCount();
+        checkIndices(offsets, polygonCount, vIndices, "vertex", vertexCount);
+        checkIndices(offsets, polygonCount, tIndices, "texture", textureCount);
+        checkIndices(offsets, polygonCount, nIndices, "normal", normalCount);
+
+        int[] order = polygonOrder(offsets, vIndices, polygonCount, vertexCount,
+                PolygonRange.bounds(model.getPolygonRanges(), polygonCount), cacheSize);
+        int[] vertexMap = firstUseMap(offsets, vIndices, order, vertexCount);
+        int[] textureMap = firstUseMap(offsets, tIndices, order, textureCount);
+        int[] normalMap = firstUseMap(offsets, nIndices, order, normalCount);
+
+        int indexCount = model.getIndexCount();
+        int[] resultOffsets = new int[polygonCount + 1];
+        int[] resultVertices = new int[Math.max(indexCount, 1)];
+        int[] resultTextures = tIndices == null ? null : new int[resultVertices.length];
+        int[] resultNormals = nIndices == null ? null : new int[resultVertices.length];
+        for (int i = 0; i < polygonCount; i++) {
+            int start = offsets[order[i]];
+            int end = offsets[order[i] + 1];
+            int target = resultOffsets[i];
+            remap(vIndices, start, end, vertexMap, resultVertices, target);
+            if (tIndices != null) {
+                remap(tIndices, start, end, textureMap, resultTextures, target);
+            }
+            if (nIndices != null) {
+                remap(nIndices, start, end, normalMap, resultNormals, target);
+            }
+            resultOffsets[i + 1] = target + end - start;
+        }
+
+        CompactModel result = new CompactModel(
+                permute(model.getVertexData(), 3, vertexMap), vertexCount,
+                permute(model.getTextureVertexData(), 2, textureMap), textureCount,
+                permute(model.getNormalData(), 3, normalMap), normalCount,
+                resultOffsets, polygonCount,
+                resultVertices, resultTextures, resultNormals);
+        result.copyGroupsFrom(model);
+        return result;
+    }
+
+    public static VertexCacheReport optimize(Model model) {
+        return optimize(model, DEFAULT_CACHE_SIZE);
+    }
+
+    // Переставляет полигоны и элементы модели на месте (объекты Polygon и векторы остаются теми же,
+    // индексы в списках полигонов заменяются новыми)
+    public static VertexCacheReport optimize(Model model, int cacheSize) {
+        checkModel(model);
+        checkCacheSize(cacheSize);
+        int polygonCount = model.polygons.size();
+        int vertexCount = model.vertices.size();
+        int[][] csr = vertexCsr(model);
+        int[] offsets = csr[0];
+        int[] vIndices = csr[1];
+        checkIndices(model.polygons, Polygon::getTextureVertexIndices, "texture", model.textureVertices.size());
+        checkIndices(model.polygons, Polygon::getNormalIndices, "normal", model.normals.size());
+
+        long triangles = triangleCount(offsets, polygonCount);
+        long missesBefore = cacheMisses(offsets, vIndices, null, polygonCount, vertexCount, cacheSize);
+        int[] order = polygonOrder(offsets, vIndices, polygonCount, vertexCount,
+                PolygonRange.bounds(model.polygonRanges, polygonCount), cacheSize);
+        long missesAfter = cacheMisses(offsets, vIndices, order, polygonCount, vertexCount, cacheSize);
+
+        ArrayList<Polygon> polygons = new ArrayList<Polygon>(polygonCount);
+        for (int p : order) {
+            polygons.add(model.polygons.get(p));
+        }
+        model.polygons = polygons;
+        model.vertices = permute(model.vertices, remap(polygons, Polygon::getVertexIndices, vertexCount));
+        model.textureVertices = permute(model.textureVertices,
+                remap(polygons, Polygon::getTextureVertexIndices, model.textureVertices.size()));
+        model.normals = permute(model.normals, remap(polygons, Polygon::getNormalIndices, model.normals.size()));
+
+        return new VertexCacheReport(cacheSize, triangles, ratio(missesBefore, triangles), ratio(missesAfter, triangles));
+    }
+
+    // Промахи FIFO-кэша из cacheSize вершин на треугольник при отрисовке полигонов по порядку.
+    // Полигон из n вершин - n - 2 треугольника веером; 0, если треугольников нет
+    public static double acmr(CompactModel model, int cacheSize) {
+        checkModel(model);
+        checkCacheSize(cacheSize);
+        int[] offsets = model.getPolygonOffsets();
+        int polygonCount = model.getPolygonCount();
+        checkIndices(offsets, polygonCount, model.getVertexIndices(), "vertex", model.getVertexCount());
+        long misses = cacheMisses(offsets, model.getVertexIndices(), null, polygonCount, model.getVertexCount(), cacheSize);
+        return ratio(misses, triangleCount(offsets, polygonCount));
+    }
+
+    public static double acmr(Model model, int cacheSize) {
+        checkModel(model);
+        checkCacheSize(cacheSize);
+        int[][] csr = vertexCsr(model);
+        long misses = cacheMisses(csr[0], csr[1], null, model.polygons.size(), model.vertices.size(), cacheSize);
+        return ratio(misses, triangleCount(csr[0], model.polygons.size()));
+    }
+
+    // Tipsify отдельно для каждого диапазона полигонов [bounds[r], bounds[r + 1])
+    static int[] polygonOrder(int[] offsets, int[] vIndices, int polygonCount, int vertexCount,
+                              int[] bounds, int cacheSize) {
+        int indexCount = offsets[polygonCount];
+
+        // Полигоны каждой вершины по возрастанию номера: полигоны одного диапазона идут подряд
+        int[] adjacencyStart = new int[vertexCount + 1];
+        for (int j = 0; j < indexCount; j++) {
+            adjacencyStart[vIndices[j] + 1]++;
+        }
+        for (int v = 0; v < vertexCount; v++) {
+            adjacencyStart[v + 1] += adjacencyStart[v];
+        }
+        int[] adjacency = new int[Math.max(indexCount, 1)];
+        int[] cursor = Arrays.copyOf(adjacencyStart, vertexCount);
+        for (int p = 0; p < polygonCount; p++) {
+            for (int j = offsets[p]; j < offsets[p + 1]; j++) {
+                adjacency[cursor[vIndices[j]]++] = p;
+            }
+        }
+        // Дальше cursor[v] - первый полигон вершины, который может быть ещё не выдан
+        System.arraycopy(adjacencyStart, 0, cursor, 0, vertexCount);
+
+        int[] live = new int[vertexCount];
+        int[] stamp = new int[vertexCount];
+        int[] deadEnds = new int[Math.max(indexCount, 1)];
+        boolean[] emitted = new boolean[polygonCount];
+        int[] order = new int[polygonCount];
+        int next = 0;
+        // Вершина в кэше, пока time - stamp[v] <= cacheSize; вначале кэш пуст
+        int time = cacheSize + 1;
+
+        for (int r = 0; r + 1 < bounds.length; r++) {
+            int from = bounds[r];
+            int to = bounds[r + 1];
+            int cornerFrom = offsets[from];
+            int cornerTo = offsets[to];
+            for (int j = cornerFrom; j < cornerTo; j++) {
+                live[vIndices[j]]++;
+            }
+
+            int top = 0;
+            int scan = cornerFrom;
+            int fanning = cornerFrom < cornerTo ? vIndices[cornerFrom] : -1;
+            while (fanning >= 0) {
+                // Все невыданные полигоны вершины
+                int candidatesFrom = top;
+                int end = adjacencyStart[fanning + 1];
+                int c = cursor[fanning];
+                while (c < end && adjacency[c] < from) {
+                    c++;
+                }
+                cursor[fanning] = c;
+                for (; c < end && adjacency[c] < to; c++) {
+                    int p = adjacency[c];
+                    if (emitted[p]) {
+                        continue;
+                    }
+                    emitted[p] = true;
+                    order[next++] = p;
+                    for (int j = offsets[p]; j < offsets[p + 1]; j++) {
+                        int v = vIndices[j];
+                        deadEnds[top++] = v;
+                        live[v]--;
+                        if (time - stamp[v] > cacheSize) {
+                            stamp[v] = time++;
+                        }
+                    }
+                }
+
+                // Из вершин веера - самая давняя в кэше, которая не вытеснится, пока её полигоны выдаются
+                fanning = -1;
+                int bestPriority = -1;
+                for (int i = candidatesFrom; i < top; i++) {
+                    int v = deadEnds[i];
+                    if (live[v] > 0) {
+                        int age = time - stamp[v];
+                        int priority = age + 2 * live[v] <= cacheSize ? age : 0;
+                        if (priority > bestPriority) {
+                            bestPriority = priority;
+                            fanning = v;
+                        }
+                    }
+                }
+                // Тупик: последняя выданная вершина с невыданными полигонами, иначе следующая по порядку
+                while (fanning < 0 && top > 0) {
+                    int v = deadEnds[--top];
+                    if (live[v] > 0) {
+                        fanning = v;
+                    }
+                }
+                while (fanning < 0 && scan < cornerTo) {
+                    int v = vIndices[scan++];
+                    if (live[v] > 0) {
+                        fanning = v;
+                    }
+                }
+            }
+
+            // Полигоны без вершин не попадают ни в один веер
+            for (int p = from; p < to; p++) {
+                if (!emitted[p]) {
+                    emitted[p] = true;
+                    order[next++] = p;
+                }
+            }
+        }
+        return order;
+    }
+
+    // order == null - полигоны по порядку
+    static long cacheMisses(int[] offsets, int[] vIndices, int[] order, int polygonCount, int vertexCount, int cacheSize) {
+        int[] stamp = new int[vertexCount];
+        int time = cacheSize + 1;
+        for (int i = 0; i < polygonCount; i++) {
+            int p = order == null ? i : order[i];
+            for (int j = offsets[p]; j < offsets[p + 1]; j++) {
+                int v = vIndices[j];
+                if (time - stamp[v] > cacheSize) {
+                    stamp[v] = time++;
+                }
+            }
+        }
+        return time - (cacheSize + 1);
+    }
+
+    private static long triangleCount(int[] offsets, int polygonCount) {
+        long triangles = 0;
+        for (int p = 0; p < polygonCount; p++) {
+            triangles += Math.max(offsets[p + 1] - offsets[p] - 2, 0);
+        }
+        return triangles;
+    }
+
+    private static double ratio(long misses, long triangles) {
+        return triangles == 0 ? 0 : (double) misses / triangles;
+    }
+
+    // Новый номер элемента - по первому появлению в полигонах в порядке order, остальные - после
+    private static int[] firstUseMap(int[] offsets, int[] indices, int[] order, int count) {
+        int[] map = new int[count];
+        Arrays.fill(map, -1);
+        int next = 0;
+        if (indices != null) {
+            for (int p : order) {
+                for (int j = offsets[p]; j < offsets[p + 1]; j++) {
+                    int index = indices[j];
+                    if (index != CompactModel.NO_INDEX && map[index] < 0) {
+                        map[index] = next++;
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            if (map[i] < 0) {
+                map[i] = next++;
+            }
+        }
+        return map;
+    }
+
+    private static void remap(int[] source, int from, int to, int[] map, int[] target, int targetFrom) {
+        for (int j = from; j < to; j++) {
+            int index = source[j];
+            target[targetFrom + j - from] = index == CompactModel.NO_INDEX ? index : map[index];
+        }
+    }
+
+    // Элемент i переходит на место map[i]
+    private static float[] permute(float[] data, int components, int[] map) {
+        float[] result = new float[components * map.length];
+        for (int i = 0; i < map.length; i++) {
+            System.arraycopy(data, components * i, result, components * map[i], components);
+        }
+        return result;
+    }
+
+    private static <T> ArrayList<T> permute(ArrayList<T> elements, int[] map) {
+        ArrayList<T> result = new ArrayList<T>(elements);
+        for (int i = 0; i < map.length; i++) {
+            result.set(map[i], elements.get(i));
+        }
+        return result;
+    }
+
+    // Нумерация по первому использованию в уже переставленных полигонах; индексы заменяются в их списках
+    private static int[] remap(List<Polygon> polygons, Function<Polygon, List<Integer>> indicesOf, int count) {
+        int[] map = new int[count];
+        Arrays.fill(map, -1);
+        int next = 0;
+        for (Polygon polygon : polygons) {
+            List<Integer> indices = indicesOf.apply(polygon);
+            if (indices == null) {
+                continue;
+            }
+            for (int k = 0; k < indices.size(); k++) {
+                int index = indices.get(k);
+                if (map[index] < 0) {
+                    map[index] = next++;
+                }
+                indices.set(k, map[index]);
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            if (map[i] < 0) {
+                map[i] = next++;
+            }
+        }
+        return map;
+    }
+
+    // Индексы вершин модели в формате CSR: {смещения полигонов, индексы}
+    private static int[][] vertexCsr(Model model) {
+        List<Polygon> polygons = model.polygons;
+        int[] offsets = new int[polygons.size() + 1];
+        for (int i = 0; i < polygons.size(); i++) {
+            Polygon polygon = polygons.get(i);
+            if (polygon == null || polygon.getVertexIndices() == null) {
+                throw new IllegalArgumentException("Polygon " + i + " is invalid");
+            }
+            offsets[i + 1] = offsets[i] + polygon.getVertexIndices().size();
+        }
+        int[] indices = new int[Math.max(offsets[polygons.size()], 1)];
+        for (int i = 0; i < polygons.size(); i++) {
+            List<Integer> vertexIndices = polygons.get(i).getVertexIndices();
+            for (int k = 0; k < vertexIndices.size(); k++) {
+                int index = vertexIndices.get(k);
+                ParallelChunks.checkIndex(index, i, "vertex", k, model.vertices.size());
+                indices[offsets[i] + k] = index;
+            }
+        }
+        return new int[][]{offsets, indices};
+    }
+
+    private static void checkIndices(int[] offsets, int polygonCount, int[] indices, String name, int count) {
+        if (indices == null) {
+            return;
+        }
+        for (int i = 0; i < polygonCount; i++) {
+            for (int j = offsets[i]; j < offsets[i + 1]; j++) {
+                if (indices[j] != CompactModel.NO_INDEX) {
+                    ParallelChunks.checkIndex(indices[j], i, name, j - offsets[i], count);
+                }
+            }
+        }
+    }
+
+    private static void checkIndices(List<Polygon> polygons, Function<Polygon, List<Integer>> indicesOf,
+                                     String name, int count) {
+        for (int i = 0; i < polygons.size(); i++) {
+            List<Integer> indices = indicesOf.apply(polygons.get(i));
+            if (indices == null) {
+                continue;
+            }
+            for (int k = 0; k < indices.size(); k++) {
+                ParallelChunks.checkIndex(indices.get(k), i, name, k, count);
+            }
+        }
+    }
+
+    private static void checkCacheSize(int cacheSize) {
+        if (cacheSize < 3) {
+            throw new IllegalArgumentException("Vertex cache must hold at least 3 vertices: " + cacheSize);
+        }
+    }
+
+    private static void checkModel(Object model) {
+        if (model == null) {
+            throw new IllegalArgumentException("Invalid model provided!");
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package ru.vsu.cs.khalibekov_a_b_objWriter.processing;
+
+import java.util.Locale;
+
+// Итог VertexCacheOptimizer.optimize: ACMR (промахи кэша вершин на треугольник) до и после
+public final class VertexCacheReport {
+
+    private final int cacheSize;
+    private final long triangleCount;
+    private final double acmrBefore;
+    private final double acmrAfter;
+
+    VertexCacheReport(int cacheSize, long triangleCount, double acmrBefore, double acmrAfter) {
+        this.cacheSize = cacheSize;
+        this.triangleCount = triangleCount;
+        this.acmrBefore = acmrBefore;
+        this.acmrAfter = acmrAfter;
+    }
+
+    public int getCacheSize() {
+        return cacheSize;
+    }
+
+    // Полигон из n вершин считается как n - 2 треугольника
+    public long getTriangleCount() {
+        return triangleCount;
+    }
+
+    public double getAcmrBefore() {
+        return acmrBefore;
+    }
+
+    public double getAcmrAfter() {
+        return acmrAfter;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "ACMR %.3f -> %.3f (FIFO cache of %d, %d triangles)",
+                acmrBefore, acmrAfter, cacheSize, triangleCount);
+    }
+}
@@ -0,0 +1,95 @@
+package ru.vsu.cs.khalibekov_a_b;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.vsu.cs.khalibekov_a_b_objWriter.batch.BatchConverter;
+import ru.vsu.cs.khalibekov_a_b_objWriter.batch.BatchFileResult;
+import ru.vsu.cs.khalibekov_a_b_objWriter.batch.BatchReport;
+import ru.vsu.cs.khalibekov_a_b_objWriter.generator.MeshGenerator;
+import ru.vsu.cs.khalibekov_a_b_objWriter.objreader.ObjReader;
+import ru.vsu.cs.khalibekov_a_b_objWriter.objreader.ObjReaderException;
+import ru.vsu.cs.khalibekov_a_b_objWriter.processing.ModelWelder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+class BatchConverterTest {
+
+    @Test
+    public void testConvertDirectory01() throws IOException, InterruptedException {
+        final Path root = Files.createTempDirectory("batch");
+        try {
+            final Path input = root.resolve("in");
+            Files.createDirectories(input.resolve("nested"));
+            for (int i = 0; i < 30; i++) {
+                new MeshGenerator(MeshGenerator.Shape.SPHERE, 4, i).write((i % 2 == 0 ? input.resolve("nested") : input)
+                        .resolve(i + ".obj").toString());
+            }
+            Files.writeString(input.resolve("broken.obj"), "v 1 2\n");
+
+            final AtomicInteger notified = new AtomicInteger();
+            final BatchReport report = new BatchConverter()
+                    .setReadThreads(2)
+                    .setTransformThreads(3)
+                    .setWriteThreads(2)
+                    .setQueueCapacity(1)
+                    .setTransform(model -> ModelWelder.weld(model, ModelWelder.DEFAULT_EPSILON))
+                    .setListener(result -> notified.incrementAndGet())
+                    .convertDirectory(input, root.resolve("out"));
+
+            Assertions.assertEquals(31, report.getFiles().size());
+            Assertions.assertEquals(31, notified.get());
+            Assertions.assertEquals(30, report.getSucceededCount());
+            final BatchFileResult broken = report.getFiles().stream()
+                    .filter(file -> !file.isSucceeded()).findFirst().orElseThrow();
+            Assertions.assertEquals(input.resolve("broken.obj"), broken.getInput());
+            Assertions.assertInstanceOf(ObjReaderException.class, broken.getFailure());
+
+            // Рёбра куба-сферы склеены: 6 * 25 - 12 * 5 + 8 * 2 вершин
+            final Path converted = root.resolve("out").resolve("nested").resolve("4.obj");
+            Assertions.assertEquals(98, ObjReader.readCompact(converted).getVertexCount());
+            Assertions.assertEquals(Files.size(converted), report.getFiles().stream()
+                    .filter(file -> file.getOutput().equals(converted)).findFirst().orElseThrow().getBytesWritten());
+        } finally {
+            try (Stream<Path> files = Files.walk(root)) {
+                for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.deleteIfExists(path);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testListenerFailure01() throws IOException {
+        final Path root = Files.createTempDirectory("batch");
+        try {
+            final Path input = root.resolve("in.obj");
+            final Path output = root.resolve("out.obj");
+            new MeshGenerator(MeshGenerator.Shape.GRID, 4, 1).write(input.toString());
+
+            // Исключение listener после записи останавливает конвейер, а не превращается во второй результат
+            final AtomicInteger notified = new AtomicInteger();
+            final IllegalStateException exception = Assertions.assertThrows(IllegalStateException.class,
+                    () -> new BatchConverter()
+                            .setListener(result -> {
+                                notified.incrementAndGet();
+                                throw new IllegalStateException("listener");
+                            })
+                            .convert(List.of(input), List.of(output)));
+            Assertions.assertEquals("listener", exception.getMessage());
+            Assertions.assertEquals(1, notified.get());
+            Assertions.assertTrue(Files.exists(output));
+        } finally {
+            try (Stream<Path> files = Files.walk(root)) {
+                for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.deleteIfExists(path);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package ru.vsu.cs.khalibekov_a_b;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.CompactModel;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.Model;
+import ru.vsu.cs.khalibekov_a_b_objWriter.objreader.BinaryModelReader;
+import ru.vsu.cs.khalibekov_a_b_objWriter.objreader.ObjReader;
+import ru.vsu.cs.khalibekov_a_b_objWriter.objwriter.BinaryModelWriter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+
+class BinaryModelTest {
+
+    private static final String FILE_CONTENT = """
+            v 0 0 0
+            v 1 0 0
+            v 1 1 0
+            v 0 1 -2.5
+            vt 0 0
+            vt 1 0
+            vn 0 0 1
+            f 1/1/1 2/2/1 3/2/1
+            f 1//1 3//1 4//1
+            f 1 2 3 4
+            """;
+
+    @Test
+    public void testSaveAndRead01() throws IOException {
+        final CompactModel model = ObjReader.readCompact(FILE_CONTENT);
+        BinaryModelWriter.saveCompactModel(model, "test_binary.bin");
+        try {
+            final CompactModel result = BinaryModelReader.readCompact(Path.of("test_binary.bin"));
+            Assertions.assertEquals(4, result.getVertexCount());
+            Assertions.assertEquals(2, result.getTextureVertexCount());
+            Assertions.assertEquals(3, result.getPolygonCount());
+            Assertions.assertArrayEquals(Arrays.copyOf(model.getVertexData(), 12), result.getVertexData());
+            Assertions.assertArrayEquals(Arrays.copyOf(model.getTextureVertexIndices(), 10), result.getTextureVertexIndices());
+            Assertions.assertArrayEquals(Arrays.copyOf(model.getNormalIndices(), 10), result.getNormalIndices());
+
+            final Model asModel = BinaryModelReader.read(Path.of("test_binary.bin"));
+            Assertions.assertEquals(Arrays.asList(0, 2, 3), asModel.polygons.get(1).getVertexIndices());
+            Assertions.assertTrue(asModel.polygons.get(2).getNormalIndices().isEmpty());
+        } finally {
+            Files.deleteIfExists(Path.of("test_binary.bin"));
+        }
+    }
+
+    @Test
+    public void testCorruptedFile01() throws IOException {
+        BinaryModelWriter.saveModel(ObjReader.read(FILE_CONTENT), "test_binary.bin");
+        try {
+            final byte[] bytes = Files.readAllBytes(Path.of("test_binary.bin"));
+            bytes[bytes.length - 1] ^= 1;
+            Files.write(Path.of("test_binary.bin"), bytes);
+
+            final IOException exception = Assertions.assertThrows(IOException.class,
+                    () -> BinaryModelReader.readCompact(Path.of("test_binary.bin")));
+            Assertions.assertTrue(exception.getMessage().contains("checksum"));
+        } finally {
+            Files.deleteIfExists(Path.of("test_binary.bin"));
+        }
+    }
+
+    @Test
+    public void testReadCached01() throws IOException {
+        final Path file = Files.createTempFile("cached", ".obj");
+        final Path cache = file.resolveSibling(file.getFileName() + ".bin");
+        try {
+            Files.writeString(file, FILE_CONTENT);
+            Assertions.assertEquals(4, ObjReader.readCached(file).vertices.size());
+            Assertions.assertTrue(Files.exists(cache));
+
+            // Кэш используется, пока .obj не изменился
+            final byte[] cached = Files.readAllBytes(cache);
+            Assertions.assertEquals(4, ObjReader.readCompactCached(file).getVertexCount());
+            Assertions.assertArrayEquals(cached, Files.readAllBytes(cache));
+
+            Files.writeString(file, FILE_CONTENT + "v 5 5 5\n");
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+            Assertions.assertEquals(5, ObjReader.readCompactCached(file).getVertexCount());
+            Assertions.assertEquals(5, BinaryModelReader.readCompact(cache).getVertexCount());
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(cache);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package ru.vsu.cs.khalibekov_a_b;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.vsu.cs.khalibekov_a_b_objWriter.math.Vector3f;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.CompactModel;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.Model;
+import ru.vsu.cs.khalibekov_a_b_objWriter.objreader.ObjReader;
+import ru.vsu.cs.khalibekov_a_b_objWriter.objwriter.ObjWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+class CompactModelTest {
+
+    private static final String FILE_CONTENT = """
+            v 0 0 0
+            v 1 0 0
+            v 1 1 0
+            v 0 1 0
+            vt 0 0
+            vt 1 0
+            vt 1 1
+            vn 0 0 1
+            f 1/1/1 2/2/1 3/3/1
+            f 1//1 3//1 4//1
+            f 1 2 3 4
+            """;
+
+    @Test
+    public void testReadCompact01() {
+        final CompactModel result = ObjReader.readCompact(FILE_CONTENT);
+        Assertions.assertEquals(4, result.getVertexCount());
+        Assertions.assertEquals(3, result.getTextureVertexCount());
+        Assertions.assertEquals(1, result.getNormalCount());
+        Assertions.assertEquals(3, result.getPolygonCount());
+        Assertions.assertEquals(10, result.getIndexCount());
+        Assertions.assertEquals(4, result.getPolygonSize(2));
+        Assertions.assertEquals(CompactModel.NO_INDEX, result.getTextureVertexIndices()[3]);
+        Assertions.assertEquals(0, result.getNormalIndices()[3]);
+    }
+
+    @Test
+    public void testConversion01() {
+        final Model model = ObjReader.read(FILE_CONTENT);
+        final Model result = CompactModel.fromModel(model).toModel();
+        Assertions.assertEquals(model.vertices.size(), result.vertices.size());
+        Assertions.assertTrue(result.vertices.get(2).equals(new Vector3f(1, 1, 0)));
+        Assertions.assertEquals(Arrays.asList(0, 2, 3), result.polygons.get(1).getVertexIndices());
+        Assertions.assertTrue(result.polygons.get(1).getTextureVertexIndices().isEmpty());
+        Assertions.assertEquals(Arrays.asList(0, 0, 0), result.polygons.get(1).getNormalIndices());
+    }
+
+    @Test
+    public void testConversionWithoutWarnings01() {
+        // Грани без vt и vn не проходят через сеттеры Polygon - как при ObjReader.read
+        final PrintStream err = System.err;
+        final ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        System.setErr(new PrintStream(captured, true));
+        try {
+            final Model result = ObjReader.readCompact(FILE_CONTENT).toModel();
+            Assertions.assertTrue(result.polygons.get(2).getNormalIndices().isEmpty());
+        } finally {
+            System.setErr(err);
+        }
+        Assertions.assertEquals("", captured.toString());
+    }
+
+    @Test
+    public void testSaveCompactModel01() throws IOException {
+        ObjWriter.saveModel(ObjReader.read(FILE_CONTENT), "test_compact_expected.obj");
+        ObjWriter.saveCompactModel(ObjReader.readCompact(FILE_CONTENT), "test_compact.obj");
+        try {
+            Assertions.assertEquals(Files.readString(Path.of("test_compact_expected.obj")),
+                    Files.readString(Path.of("test_compact.obj")));
+        } finally {
+            Files.deleteIfExists(Path.of("test_compact_expected.obj"));
+            Files.deleteIfExists(Path.of("test_compact.obj"));
+        }
+    }
+}
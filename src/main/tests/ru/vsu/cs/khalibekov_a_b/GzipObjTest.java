@@ -0,0 +1,149 @@
+package ru.vsu.cs.khalibekov_a_b;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.vsu.cs.khalibekov_a_b_objWriter.generator.MeshGenerator;
+import ru.vsu.cs.khalibekov_a_b_objWriter.metrics.ObjMetricsListener;
+import ru.vsu.cs.khalibekov_a_b_objWriter.metrics.ObjOperationStats;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.CompactModel;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.Model;
+import ru.vsu.cs.khalibekov_a_b_objWriter.objreader.ObjReader;
+import ru.vsu.cs.khalibekov_a_b_objWriter.objreader.ObjReaderException;
+import ru.vsu.cs.khalibekov_a_b_objWriter.objwriter.ObjWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+class GzipObjTest {
+
+    @Test
+    public void testCompressedWrite01() throws IOException {
+        // Больше одного куска вершин и больше одного блока распаковки
+        final CompactModel model = new MeshGenerator(MeshGenerator.Shape.SPHERE, 120, 5).generateCompactModel();
+        final Path plain = Files.createTempFile("plain", ".obj");
+        final Path compressed = Files.createTempFile("compressed", ".obj.gz");
+        try {
+            ObjWriter.saveCompactModel(model, plain.toString());
+            ObjWriter.saveCompactModelCompressed(model, compressed.toString());
+
+            final byte[] expected = Files.readAllBytes(plain);
+            Assertions.assertTrue(Files.size(compressed) < expected.length);
+            // GZIPInputStream проверяет и CRC32, и длину
+            try (InputStream in = new GZIPInputStream(Files.newInputStream(compressed))) {
+                Assertions.assertTrue(Arrays.equals(expected, in.readAllBytes()));
+            }
+
+            ObjWriter.saveModelCompressed(model.toModel(), compressed.toString());
+            try (InputStream in = new GZIPInputStream(Files.newInputStream(compressed))) {
+                Assertions.assertTrue(Arrays.equals(expected, in.readAllBytes()));
+            }
+        } finally {
+            Files.deleteIfExists(plain);
+            Files.deleteIfExists(compressed);
+        }
+    }
+
+    @Test
+    public void testCompressedRead01() throws IOException {
+        final CompactModel model = new MeshGenerator(MeshGenerator.Shape.GRID, 150, 2).generateCompactModel();
+        final Path compressed = Files.createTempFile("compressed", ".obj.gz");
+        try {
+            ObjWriter.saveCompactModelCompressed(model, compressed.toString());
+
+            final CompactModel read = ObjReader.readCompact(compressed);
+            Assertions.assertEquals(model.getVertexCount(), read.getVertexCount());
+            final int[] indices = Arrays.copyOf(read.getVertexIndices(), read.getIndexCount());
+            Assertions.assertArrayEquals(Arrays.copyOf(model.getVertexIndices(), model.getIndexCount()), indices);
+            Assertions.assertArrayEquals(indices, Arrays.copyOf(ObjReader.readCompactParallel(compressed).getVertexIndices(), read.getIndexCount()));
+            Assertions.assertArrayEquals(indices, Arrays.copyOf(ObjReader.readCompactMapped(compressed).getVertexIndices(), read.getIndexCount()));
+            try (InputStream in = Files.newInputStream(compressed)) {
+                Assertions.assertEquals(model.getPolygonCount(), ObjReader.read(in).polygons.size());
+            }
+            Assertions.assertThrows(IOException.class, () -> ObjReader.openLazy(compressed));
+        } finally {
+            Files.deleteIfExists(compressed);
+        }
+    }
+
+    @Test
+    public void testCompressedRead02() throws IOException {
+        // Файл gzip, сжатый не нами, и ошибка разбора внутри него - с номером строки распакованного текста
+        final Path compressed = Files.createTempFile("external", ".obj.gz");
+        try {
+            Files.write(compressed, gzip("v 1 2 3\nv 4 5 6\nv 7 8 9\nf 1 2 3\n"));
+            final Model model = ObjReader.read(compressed);
+            Assertions.assertEquals(3, model.vertices.size());
+            Assertions.assertEquals(1, model.polygons.size());
+
+            Files.write(compressed, gzip("v 1 2 3\nv 4 5\n"));
+            final ObjReaderException exception = Assertions.assertThrows(ObjReaderException.class,
+                    () -> ObjReader.read(compressed));
+            Assertions.assertTrue(exception.getMessage().contains("line: 2"));
+
+            // Обрезанный архив
+            final byte[] bytes = gzip("v 1 2 3\n".repeat(1000));
+            Files.write(compressed, Arrays.copyOf(bytes, bytes.length / 2));
+            Assertions.assertThrows(IOException.class, () -> ObjReader.read(compressed));
+        } finally {
+            Files.deleteIfExists(compressed);
+        }
+    }
+
+    @Test
+    public void testCompressedReadMetrics01() throws IOException {
+        final CompactModel model = new MeshGenerator(MeshGenerator.Shape.GRID, 150, 2).generateCompactModel();
+        final Path compressed = Files.createTempFile("compressed", ".obj.gz");
+        final Thread caller = Thread.currentThread();
+        final List<Long> progress = new ArrayList<>();
+        final List<ObjOperationStats> finished = new ArrayList<>();
+        final ObjMetricsListener listener = new ObjMetricsListener() {
+            @Override
+            public long progressInterval() {
+                return 1;
+            }
+
+            @Override
+            public void onProgress(ObjOperationStats.Operation operation, String source, long done, long total) {
+                // Прогресс сообщается в потоке чтения, а не в потоке распаковки
+                Assertions.assertSame(caller, Thread.currentThread());
+                progress.add(done);
+            }
+
+            @Override
+            public void onFinished(ObjOperationStats stats) {
+                finished.add(stats);
+            }
+        };
+        try {
+            ObjWriter.saveCompactModelCompressed(model, compressed.toString());
+            final CompactModel read = ObjReader.readCompact(compressed, listener);
+
+            Assertions.assertEquals(model.getPolygonCount(), read.getPolygonCount());
+            Assertions.assertEquals(1, finished.size());
+            Assertions.assertNull(finished.get(0).getFailure());
+            // Байты и прогресс - по сжатому файлу
+            Assertions.assertEquals(Files.size(compressed), finished.get(0).getBytes());
+            Assertions.assertFalse(progress.isEmpty());
+            Assertions.assertEquals(Files.size(compressed), progress.get(progress.size() - 1));
+        } finally {
+            Files.deleteIfExists(compressed);
+        }
+    }
+
+    private static byte[] gzip(String content) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,214 @@
+package ru.vsu.cs.khalibekov_a_b;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.vsu.cs.khalibekov_a_b_objWriter.generator.MeshGenerator;
+import ru.vsu.cs.khalibekov_a_b_objWriter.math.Vector3f;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.Model;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.Polygon;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.PolygonRange;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.SavedLayout;
+import ru.vsu.cs.khalibekov_a_b_objWriter.objreader.ObjReader;
+import ru.vsu.cs.khalibekov_a_b_objWriter.objwriter.ObjWriter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+class IncrementalSaveTest {
+
+    @Test
+    public void testIndexedPatch01() throws IOException {
+        final Model model = createModel();
+        final Path root = Files.createTempDirectory("incremental");
+        try {
+            final Path file = root.resolve("grid.obj");
+            final Path expected = root.resolve("expected.obj");
+            Assertions.assertFalse(ObjWriter.saveModelIncremental(model, file.toString()));
+            ObjWriter.saveModel(model, expected.toString());
+            Assertions.assertArrayEquals(Files.readAllBytes(expected), Files.readAllBytes(file));
+
+            // Перестановки внутри одного блока не меняют его длину; полигоны 1499 и 1501 - по разные стороны usemtl
+            swapVertices(model, 10, 11);
+            swapPolygons(model, 1499, 1501);
+            model.changes.markVertices(10, 12);
+            model.changes.markPolygon(1499);
+            model.changes.markPolygon(1501);
+            Assertions.assertTrue(ObjWriter.saveModelIncremental(model, file.toString()));
+            Assertions.assertTrue(model.changes.isClean());
+
+            ObjWriter.saveModel(model, expected.toString());
+            Assertions.assertArrayEquals(Files.readAllBytes(expected), Files.readAllBytes(file));
+        } finally {
+            deleteAll(root);
+        }
+    }
+
+    @Test
+    public void testRangeAtBlockBoundary01() throws IOException {
+        // Диапазон b начинается с полигона 1024 - ровно на границе блока INDEXED
+        final StringBuilder obj = new StringBuilder();
+        for (int i = 0; i < 1100; i++) {
+            obj.append("v ").append(i).append(" 0 0\n");
+        }
+        obj.append("usemtl a\n");
+        for (int i = 0; i < 1024; i++) {
+            obj.append("f 1 2 3\n");
+        }
+        obj.append("usemtl b\n");
+        for (int i = 0; i < 10; i++) {
+            obj.append("f 4 5 6\n");
+        }
+        final Model model = ObjReader.read(obj.toString());
+        final Path root = Files.createTempDirectory("incremental");
+        try {
+            final Path file = root.resolve("ranges.obj");
+            final Path expected = root.resolve("expected.obj");
+            ObjWriter.saveModelIncremental(model, file.toString());
+
+            // Строка длиннее ровно на длину "usemtl b\n"
+            model.polygons.get(0).getVertexIndices().set(0, 1000);
+            model.polygons.get(0).getVertexIndices().set(1, 1001);
+            model.polygons.get(0).getVertexIndices().set(2, 1002);
+            model.changes.markPolygon(0);
+            Assertions.assertFalse(ObjWriter.saveModelIncremental(model, file.toString()));
+            ObjWriter.saveModel(model, expected.toString());
+            Assertions.assertArrayEquals(Files.readAllBytes(expected), Files.readAllBytes(file));
+
+            // Правка той же длины в последнем полигоне блока
+            model.polygons.get(1023).getVertexIndices().set(0, 6);
+            model.changes.markPolygon(1023);
+            Assertions.assertTrue(ObjWriter.saveModelIncremental(model, file.toString()));
+            ObjWriter.saveModel(model, expected.toString());
+            Assertions.assertArrayEquals(Files.readAllBytes(expected), Files.readAllBytes(file));
+            assertSameModel(model, ObjReader.read(file));
+        } finally {
+            deleteAll(root);
+        }
+    }
+
+    @Test
+    public void testFixedWidthPatch01() throws IOException {
+        final Model model = createModel();
+        final Path root = Files.createTempDirectory("incremental");
+        try {
+            final Path file = root.resolve("grid.obj");
+            Assertions.assertFalse(ObjWriter.saveModelIncremental(model, file.toString(), SavedLayout.Mode.FIXED_WIDTH));
+            final long size = Files.size(file);
+
+            final Vector3f vertex = model.vertices.get(7);
+            model.vertices.set(7, new Vector3f(-vertex.x - 1, vertex.y, vertex.z));
+            model.changes.markVertex(7);
+            model.polygons.get(2500).getVertexIndices().set(0, 7);
+            model.changes.markPolygon(2500);
+            Assertions.assertTrue(ObjWriter.saveModelIncremental(model, file.toString(), SavedLayout.Mode.FIXED_WIDTH));
+            Assertions.assertEquals(size, Files.size(file));
+            assertSameModel(model, ObjReader.read(file));
+
+            // Строка длиннее ширины записи - файл переписывается целиком
+            model.vertices.set(7, new Vector3f(-123456.5f, vertex.y, vertex.z));
+            model.changes.markVertex(7);
+            Assertions.assertFalse(ObjWriter.saveModelIncremental(model, file.toString(), SavedLayout.Mode.FIXED_WIDTH));
+            assertSameModel(model, ObjReader.read(file));
+        } finally {
+            deleteAll(root);
+        }
+    }
+
+    @Test
+    public void testFullRewrite01() throws IOException {
+        final Model model = createModel();
+        final Path root = Files.createTempDirectory("incremental");
+        try {
+            final Path file = root.resolve("grid.obj");
+            Assertions.assertFalse(ObjWriter.saveModelIncremental(model, file.toString()));
+            // Без правок
+            Assertions.assertTrue(ObjWriter.saveModelIncremental(model, file.toString()));
+
+            // Длина блока изменилась
+            model.vertices.set(0, new Vector3f(-1000.25f, 0, 0));
+            model.changes.markVertex(0);
+            Assertions.assertFalse(ObjWriter.saveModelIncremental(model, file.toString()));
+
+            // Другое число элементов
+            model.vertices.add(new Vector3f(1, 2, 3));
+            Assertions.assertFalse(ObjWriter.saveModelIncremental(model, file.toString()));
+            assertSameModel(model, ObjReader.read(file));
+
+            // Файл изменён после сохранения
+            Files.writeString(file, "v 1 2 3\n");
+            model.changes.markVertex(1);
+            Assertions.assertFalse(ObjWriter.saveModelIncremental(model, file.toString()));
+            assertSameModel(model, ObjReader.read(file));
+
+            // Другой файл
+            Assertions.assertFalse(ObjWriter.saveModelIncremental(model, root.resolve("copy.obj").toString()));
+            Assertions.assertArrayEquals(Files.readAllBytes(file), Files.readAllBytes(root.resolve("copy.obj")));
+        } finally {
+            deleteAll(root);
+        }
+    }
+
+    @Test
+    public void testInvalidPolygon01() throws IOException {
+        final Model model = createModel();
+        final Path root = Files.createTempDirectory("incremental");
+        try {
+            final Path file = root.resolve("grid.obj");
+            ObjWriter.saveModelIncremental(model, file.toString());
+            final byte[] saved = Files.readAllBytes(file);
+
+            model.polygons.get(3).getVertexIndices().set(0, model.vertices.size());
+            model.changes.markPolygon(3);
+            Assertions.assertThrows(IOException.class, () -> ObjWriter.saveModelIncremental(model, file.toString()));
+            Assertions.assertArrayEquals(saved, Files.readAllBytes(file));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> model.changes.markVertices(5, 4));
+        } finally {
+            deleteAll(root);
+        }
+    }
+
+    // Сетка 60x60 с тремя диапазонами полигонов; в каждой секции больше одного блока INDEXED
+    private static Model createModel() {
+        final Model model = new MeshGenerator(MeshGenerator.Shape.GRID, 60, 3).generateModel();
+        model.polygonRanges.add(new PolygonRange(0, null, null, "a", 0));
+        model.polygonRanges.add(new PolygonRange(1500, null, null, "b", 0));
+        model.polygonRanges.add(new PolygonRange(2000, "part", null, "b", 1));
+        return model;
+    }
+
+    private static void swapVertices(Model model, int i, int j) {
+        final Vector3f vertex = model.vertices.get(i);
+        model.vertices.set(i, model.vertices.get(j));
+        model.vertices.set(j, vertex);
+    }
+
+    private static void swapPolygons(Model model, int i, int j) {
+        final Polygon polygon = model.polygons.get(i);
+        model.polygons.set(i, model.polygons.get(j));
+        model.polygons.set(j, polygon);
+    }
+
+    private static void assertSameModel(Model expected, Model actual) {
+        Assertions.assertEquals(expected.vertices.size(), actual.vertices.size());
+        for (int i = 0; i < expected.vertices.size(); i++) {
+            Assertions.assertEquals(expected.vertices.get(i).x, actual.vertices.get(i).x, 1e-5f);
+            Assertions.assertEquals(expected.vertices.get(i).y, actual.vertices.get(i).y, 1e-5f);
+            Assertions.assertEquals(expected.vertices.get(i).z, actual.vertices.get(i).z, 1e-5f);
+        }
+        Assertions.assertEquals(expected.textureVertices.size(), actual.textureVertices.size());
+        Assertions.assertEquals(expected.normals.size(), actual.normals.size());
+        Assertions.assertEquals(expected.polygons.size(), actual.polygons.size());
+        for (int i = 0; i < expected.polygons.size(); i++) {
+            Assertions.assertEquals(expected.polygons.get(i).getVertexIndices(), actual.polygons.get(i).getVertexIndices());
+        }
+        Assertions.assertEquals(expected.polygonRanges, actual.polygonRanges);
+    }
+
+    private static void deleteAll(Path root) throws IOException {
+        for (Path file : Files.list(root).toList()) {
+            Files.delete(file);
+        }
+        Files.delete(root);
+    }
+}
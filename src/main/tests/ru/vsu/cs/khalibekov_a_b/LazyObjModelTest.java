@@ -0,0 +1,128 @@
+package ru.vsu.cs.khalibekov_a_b;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.Model;
+import ru.vsu.cs.khalibekov_a_b_objWriter.objreader.LazyObjModel;
+import ru.vsu.cs.khalibekov_a_b_objWriter.objreader.ObjReader;
+import ru.vsu.cs.khalibekov_a_b_objWriter.objreader.ObjReaderException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+class LazyObjModelTest {
+
+    private static final String FILE_CONTENT = """
+            # interleaved
+            v 0 0 0
+            v 1 0 0
+            vt 0 0
+            v 1 1 0
+            f 1/1 2/1 3/1
+            v 0 1 0
+
+            vn 0 0 1
+            f -4//1 -2//1 -1//1
+            f 1 3 4
+            o part
+            v 2 2 2
+            f 2 5 3 4
+            """;
+
+    @Test
+    public void testLazyMatchesFullRead01() throws IOException {
+        final Path file = Files.createTempFile("lazy", ".obj");
+        final Path index = file.resolveSibling(file.getFileName() + ".idx");
+        try {
+            Files.writeString(file, FILE_CONTENT);
+            final Model model = ObjReader.read(file);
+
+            for (int pass = 0; pass < 2; pass++) {
+                // Второй проход читает сохранённый индекс
+                try (LazyObjModel lazy = LazyObjModel.open(file, 2, 2)) {
+                    Assertions.assertTrue(Files.exists(index));
+                    Assertions.assertEquals(model.vertices.size(), lazy.getVertexCount());
+                    Assertions.assertEquals(model.polygons.size(), lazy.getPolygonCount());
+                    for (int i = model.polygons.size() - 1; i >= 0; i--) {
+                        Assertions.assertEquals(model.polygons.get(i).getVertexIndices(), lazy.getPolygon(i).getVertexIndices());
+                        Assertions.assertEquals(model.polygons.get(i).getTextureVertexIndices(),
+                                lazy.getPolygon(i).getTextureVertexIndices());
+                        Assertions.assertEquals(model.polygons.get(i).getNormalIndices(), lazy.getPolygon(i).getNormalIndices());
+                    }
+                    Assertions.assertEquals(model.vertices.get(4).y, lazy.getVertex(4).y);
+                    Assertions.assertArrayEquals(new float[]{1, 0, 0, 1, 1, 0, 0, 1, 0}, lazy.getVertexData(1, 4));
+                    Assertions.assertEquals(1, lazy.getNormal(0).z);
+                    Assertions.assertEquals(2, lazy.getCachedBlockCount());
+                    Assertions.assertThrows(IndexOutOfBoundsException.class, () -> lazy.getPolygon(4));
+                }
+            }
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(index);
+        }
+    }
+
+    @Test
+    public void testLazyConcurrentAccess01() throws Exception {
+        final StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            content.append("v ").append(i).append(' ').append(-i).append(" 0\n");
+        }
+        for (int i = 0; i < 1998; i++) {
+            content.append("f ").append(i + 1).append(' ').append(i + 2).append(' ').append(i + 3).append('\n');
+        }
+        final Path file = Files.createTempFile("lazy", ".obj");
+        final Path index = file.resolveSibling(file.getFileName() + ".idx");
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            Files.writeString(file, content);
+            try (LazyObjModel lazy = LazyObjModel.open(file, 16, 4)) {
+                // Потоки запрашивают одни и те же блоки, кэш меньше числа блоков
+                final List<Future<?>> tasks = new ArrayList<>();
+                for (int thread = 0; thread < 8; thread++) {
+                    final int shift = thread * 97;
+                    tasks.add(executor.submit(() -> {
+                        for (int k = 0; k < 4000; k++) {
+                            final int i = (k * 31 + shift) % 1998;
+                            Assertions.assertEquals(List.of(i, i + 1, i + 2), lazy.getPolygon(i).getVertexIndices());
+                            Assertions.assertEquals(-i, lazy.getVertex(i).y);
+                        }
+                    }));
+                }
+                for (Future<?> task : tasks) {
+                    task.get();
+                }
+                Assertions.assertEquals(4, lazy.getCachedBlockCount());
+            }
+        } finally {
+            executor.shutdown();
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(index);
+        }
+    }
+
+    @Test
+    public void testLazyErrorLine01() throws IOException {
+        final Path file = Files.createTempFile("lazy", ".obj");
+        final Path index = file.resolveSibling(file.getFileName() + ".idx");
+        try {
+            Files.writeString(file, FILE_CONTENT.replace("f 1 3 4", "f 1 x 4"));
+            try (LazyObjModel lazy = LazyObjModel.open(file, 2, 2)) {
+                Assertions.assertEquals(3, lazy.getPolygon(0).getVertexIndices().size());
+                final ObjReaderException exception = Assertions.assertThrows(ObjReaderException.class,
+                        () -> lazy.getPolygon(2));
+                Assertions.assertEquals("Error parsing OBJ file on line: 11. Failed to parse int value.",
+                        exception.getMessage());
+            }
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(index);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package ru.vsu.cs.khalibekov_a_b;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.CompactModel;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.Model;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.PolygonRange;
+import ru.vsu.cs.khalibekov_a_b_objWriter.objreader.ObjReader;
+import ru.vsu.cs.khalibekov_a_b_objWriter.objwriter.ObjWriter;
+import ru.vsu.cs.khalibekov_a_b_objWriter.processing.MaterialBatchBuilder;
+import ru.vsu.cs.khalibekov_a_b_objWriter.processing.MaterialBatches;
+import ru.vsu.cs.khalibekov_a_b_objWriter.processing.MaterialGrouper;
+import ru.vsu.cs.khalibekov_a_b_objWriter.processing.ModelTriangulator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+class MaterialGroupsTest {
+
+    private static final String SCENE = """
+            mtllib scene.mtl
+            v 0 0 0
+            v 1 0 0
+            v 1 1 0
+            v 0 1 0
+            vt 0 0
+            o box
+            g side
+            usemtl red
+            f 1 2 3
+            f 1 3 4
+            usemtl blue
+            s 1
+            f 1/1 2/1 3/1 4/1
+            g top
+            usemtl red
+            f 2 3 4
+            """;
+
+    @Test
+    public void testReadRanges01() {
+        final Model model = ObjReader.read(SCENE);
+
+        Assertions.assertEquals(List.of("scene.mtl"), model.materialLibraries);
+        Assertions.assertEquals(List.of(
+                new PolygonRange(0, "box", "side", "red", 0),
+                new PolygonRange(2, "box", "side", "blue", 1),
+                new PolygonRange(3, "box", "top", "red", 1)), model.polygonRanges);
+        Assertions.assertEquals(model.polygonRanges, ObjReader.readCompact(SCENE).getPolygonRanges());
+    }
+
+    @Test
+    public void testReadRanges02() {
+        // Строки без граней между ними и повтор того же материала не создают диапазонов
+        final Model model = ObjReader.read("""
+                v 0 0 0
+                v 1 0 0
+                v 0 1 0
+                f 1 2 3
+                usemtl a
+                usemtl b
+                f 1 2 3
+                usemtl b
+                s off
+                f 1 2 3
+                """);
+
+        Assertions.assertEquals(List.of(
+                new PolygonRange(0, null, null, null, 0),
+                new PolygonRange(1, null, null, "b", 0)), model.polygonRanges);
+        Assertions.assertTrue(ObjReader.read("v 0 0 0\nf 1 1 1\n").polygonRanges.isEmpty());
+    }
+
+    @Test
+    public void testWriteRanges01() throws IOException {
+        final Path file = Files.createTempFile("groups", ".obj");
+        try {
+            final CompactModel model = ObjReader.readCompact(SCENE);
+            ObjWriter.saveCompactModel(model, file.toString());
+            final String written = Files.readString(file);
+            Assertions.assertTrue(written.contains("mtllib scene.mtl\n"));
+            Assertions.assertTrue(written.contains("o box\ng side\nusemtl red\nf 1 2 3\nf 1 3 4\nusemtl blue\ns 1\nf "));
+
+            final CompactModel again = ObjReader.readCompact(file);
+            Assertions.assertEquals(model.getPolygonRanges(), again.getPolygonRanges());
+            Assertions.assertEquals(model.getMaterialLibraries(), again.getMaterialLibraries());
+
+            ObjWriter.saveModelParallel(model.toModel(), file.toString());
+            Assertions.assertEquals(written, Files.readString(file));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testGroupByMaterial01() throws IOException {
+        final CompactModel grouped = MaterialGrouper.groupByMaterial(ObjReader.readCompact("""
+                v 0 0 0
+                v 1 0 0
+                v 1 1 0
+                v 0 1 0
+                o box
+                usemtl red
+                f 1 2 3
+                usemtl blue
+                f 1 3 4
+                usemtl red
+                f 2 3 4
+                """));
+
+        Assertions.assertEquals(List.of(
+                new PolygonRange(0, "box", null, "red", 0),
+                new PolygonRange(2, "box", null, "blue", 0)), grouped.getPolygonRanges());
+        Assertions.assertArrayEquals(new int[]{1, 2, 3}, Arrays.copyOfRange(grouped.getVertexIndices(), 3, 6));
+
+        final Path file = Files.createTempFile("grouped", ".obj");
+        try {
+            ObjWriter.saveCompactModel(grouped, file.toString());
+            final long usemtlLines = Files.readAllLines(file).stream().filter(line -> line.startsWith("usemtl")).count();
+            Assertions.assertEquals(2, usemtlLines);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testGroupByMaterial02() throws IOException {
+        // Объекты с общими материалами не перемешиваются, материалы группируются внутри каждого
+        final String scene = """
+                v 0 0 0
+                v 1 0 0
+                v 1 1 0
+                o A
+                usemtl red
+                f 1 2 3
+                usemtl blue
+                f 1 2 3
+                usemtl red
+                f 1 2 3
+                o B
+                usemtl red
+                f 1 2 3
+                usemtl blue
+                f 1 2 3
+                usemtl red
+                f 1 2 3
+                """;
+        final Model model = ObjReader.read(scene);
+        MaterialGrouper.groupByMaterial(model);
+
+        final List<PolygonRange> expected = List.of(
+                new PolygonRange(0, "A", null, "red", 0),
+                new PolygonRange(2, "A", null, "blue", 0),
+                new PolygonRange(3, "B", null, "red", 0),
+                new PolygonRange(5, "B", null, "blue", 0));
+        Assertions.assertEquals(expected, model.polygonRanges);
+        Assertions.assertEquals(expected, MaterialGrouper.groupByMaterial(ObjReader.readCompact(scene)).getPolygonRanges());
+
+        final Path file = Files.createTempFile("grouped", ".obj");
+        try {
+            ObjWriter.saveModel(model, file.toString());
+            final long objectLines = Files.readAllLines(file).stream().filter(line -> line.startsWith("o ")).count();
+            Assertions.assertEquals(2, objectLines);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testTriangulateKeepsRanges01() {
+        final CompactModel triangles = ModelTriangulator.triangulate(ObjReader.readCompact(SCENE));
+
+        Assertions.assertEquals(5, triangles.getPolygonCount());
+        Assertions.assertEquals(List.of(
+                new PolygonRange(0, "box", "side", "red", 0),
+                new PolygonRange(2, "box", "side", "blue", 1),
+                new PolygonRange(4, "box", "top", "red", 1)), triangles.getPolygonRanges());
+    }
+
+    @Test
+    public void testMaterialBatches01() throws IOException {
+        final Path file = Files.createTempFile("batches", ".obj");
+        try {
+            Files.writeString(file, SCENE);
+            final MaterialBatches batches = MaterialBatches.read(file);
+
+            Assertions.assertEquals(2, batches.getBatchCount());
+            Assertions.assertEquals("red", batches.getMaterialName(0));
+            Assertions.assertEquals(9, batches.getBatchIndexCount(0));
+            Assertions.assertEquals(9, batches.getBatchOffset(1));
+            Assertions.assertEquals(6, batches.getBatchIndexCount(batches.findBatch("blue")));
+            // Углы с текстурой и без - разные вершины буфера
+            Assertions.assertEquals(8, batches.getCornerCount());
+            Assertions.assertEquals(5, batches.getStride());
+            Assertions.assertEquals(8 * 5, batches.getInterleavedVertices().length);
+
+            final MaterialBatches fromModel = MaterialBatches.fromModel(ObjReader.readCompact(file));
+            Assertions.assertArrayEquals(batches.getIndices(), fromModel.getIndices());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testMaterialBatchesBadIndex01() {
+        final IllegalArgumentException exception = Assertions.assertThrows(IllegalArgumentException.class,
+                () -> ObjReader.read("v 0 0 0\nv 1 0 0\nv 0 1 0\nvt 0 0\nf 1/1 2/1 3/2\n", new MaterialBatchBuilder()));
+        Assertions.assertEquals("Polygon 0, texture 2: index 1 out of range [0, 0]", exception.getMessage());
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> ObjReader.read("v 0 0 0\nv 1 0 0\nv 0 1 0\nf 1//1 2//1 3//1\n", new MaterialBatchBuilder()));
+    }
+}
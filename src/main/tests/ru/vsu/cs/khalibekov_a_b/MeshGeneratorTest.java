@@ -0,0 +1,59 @@
+package ru.vsu.cs.khalibekov_a_b;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.vsu.cs.khalibekov_a_b_objWriter.generator.MeshGenerator;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.CompactModel;
+import ru.vsu.cs.khalibekov_a_b_objWriter.objreader.ObjReader;
+import ru.vsu.cs.khalibekov_a_b_objWriter.objwriter.ModelValidator;
+import ru.vsu.cs.khalibekov_a_b_objWriter.objwriter.ObjWriter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+class MeshGeneratorTest {
+
+    @Test
+    public void testShuffledSphere01() {
+        final MeshGenerator generator = new MeshGenerator(MeshGenerator.Shape.SPHERE, 8, 7)
+                .setFaceArity(6)
+                .setIndexPattern(MeshGenerator.IndexPattern.SHUFFLED);
+        final CompactModel model = generator.generateCompactModel();
+
+        Assertions.assertEquals(6 * 9 * 9, model.getVertexCount());
+        Assertions.assertEquals(6 * 8 * 4, model.getPolygonCount());
+        Assertions.assertEquals(generator.getPolygonCount(), model.getPolygonCount());
+        Assertions.assertTrue(ModelValidator.validate(model).isValid());
+
+        // Тот же seed - та же сетка
+        final CompactModel again = generator.generateCompactModel();
+        Assertions.assertArrayEquals(model.getVertexData(), again.getVertexData());
+        Assertions.assertArrayEquals(model.getVertexIndices(), again.getVertexIndices());
+    }
+
+    @Test
+    public void testWriteScan01() throws IOException {
+        final MeshGenerator generator = new MeshGenerator(MeshGenerator.Shape.SCAN, 20, 3)
+                .setFaceArity(MeshGenerator.MIXED_ARITY)
+                .setTextures(false);
+        final Path file = Files.createTempFile("scan", ".obj");
+        final Path expected = Files.createTempFile("scan-expected", ".obj");
+        try {
+            generator.write(file.toString());
+            final CompactModel model = ObjReader.readCompact(file);
+            Assertions.assertEquals(21 * 21, model.getNormalCount());
+            Assertions.assertEquals(0, model.getTextureVertexCount());
+            Assertions.assertEquals(generator.getPolygonCount(), model.getPolygonCount());
+            Assertions.assertTrue(model.getPolygonCount() < 2 * 20 * 20);
+
+            // Потоковая запись совпадает с записью построенной модели
+            ObjWriter.saveCompactModel(generator.generateCompactModel(), expected.toString());
+            Assertions.assertTrue(Arrays.equals(Files.readAllBytes(expected), Files.readAllBytes(file)));
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(expected);
+        }
+    }
+}
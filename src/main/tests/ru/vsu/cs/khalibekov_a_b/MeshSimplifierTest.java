@@ -0,0 +1,135 @@
+package ru.vsu.cs.khalibekov_a_b;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.vsu.cs.khalibekov_a_b_objWriter.generator.MeshGenerator;
+import ru.vsu.cs.khalibekov_a_b_objWriter.math.Vector3f;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.CompactModel;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.Model;
+import ru.vsu.cs.khalibekov_a_b_objWriter.objreader.ObjReader;
+import ru.vsu.cs.khalibekov_a_b_objWriter.processing.MeshSimplifier;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+class MeshSimplifierTest {
+
+    @Test
+    public void testSeamsAndBorders01() {
+        // Сетка 8x8 в плоскости z = 0, левая и правая половины - разные куски текстуры
+        final int n = 8;
+        final StringBuilder obj = new StringBuilder();
+        for (int y = 0; y <= n; y++) {
+            for (int x = 0; x <= n; x++) {
+                obj.append("v ").append(x).append(' ').append(y).append(" 0\n");
+            }
+        }
+        for (int half = 0; half < 2; half++) {
+            for (int y = 0; y <= n; y++) {
+                for (int x = 0; x <= n; x++) {
+                    obj.append("vt ").append(x / (float) n).append(' ').append(y / (float) n).append('\n');
+                }
+            }
+        }
+        obj.append("usemtl left\n");
+        appendCells(obj, n, 0, n / 2, 0);
+        obj.append("usemtl right\n");
+        appendCells(obj, n, n / 2, n, (n + 1) * (n + 1));
+
+        final Model model = ObjReader.read(obj.toString());
+        final Model simplified = MeshSimplifier.simplify(model, 0.1f);
+
+        Assertions.assertTrue(simplified.polygons.size() < model.polygons.size() / 2);
+        final Set<String> kept = new HashSet<String>();
+        for (Vector3f v : simplified.vertices) {
+            kept.add((int) v.x + " " + (int) v.y);
+        }
+        // Край сетки и шов по x = 4 остаются на месте
+        for (int i = 0; i <= n; i++) {
+            Assertions.assertTrue(kept.contains(i + " 0"));
+            Assertions.assertTrue(kept.contains(i + " " + n));
+            Assertions.assertTrue(kept.contains("0 " + i));
+            Assertions.assertTrue(kept.contains(n + " " + i));
+            Assertions.assertTrue(kept.contains(n / 2 + " " + i));
+        }
+        Assertions.assertEquals(2, simplified.polygonRanges.size());
+        Assertions.assertEquals("right", simplified.polygonRanges.get(1).getMaterialName());
+        // Треугольники правой половины ссылаются только на правую половину текстуры
+        final int first = simplified.polygonRanges.get(1).getFirstPolygon();
+        for (int p = first; p < simplified.polygons.size(); p++) {
+            for (int index : simplified.polygons.get(p).getVertexIndices()) {
+                Assertions.assertTrue(simplified.vertices.get(index).x >= n / 2);
+            }
+        }
+    }
+
+    @Test
+    public void testLodChain01() {
+        final CompactModel model = new MeshGenerator(MeshGenerator.Shape.SPHERE, 24, 3).generateCompactModel();
+        final List<CompactModel> lods = MeshSimplifier.generateLods(model, new float[]{1f, 0.5f, 0.25f, 0.1f});
+
+        Assertions.assertEquals(4, lods.size());
+        int triangles = 0;
+        for (int p = 0; p < model.getPolygonCount(); p++) {
+            triangles += model.getPolygonOffsets()[p + 1] - model.getPolygonOffsets()[p] - 2;
+        }
+        Assertions.assertEquals(triangles, lods.get(0).getPolygonCount());
+        Assertions.assertEquals((int) Math.ceil(0.5 * triangles), lods.get(1).getPolygonCount());
+        for (int i = 1; i < lods.size(); i++) {
+            Assertions.assertTrue(lods.get(i).getPolygonCount() < lods.get(i - 1).getPolygonCount());
+            Assertions.assertTrue(lods.get(i).getVertexCount() < lods.get(i - 1).getVertexCount());
+        }
+    }
+
+    @Test
+    public void testSaveLods01() throws IOException {
+        final Model model = new MeshGenerator(MeshGenerator.Shape.GRID, 20, 3).setFaceArity(3).generateModel();
+        final Path root = Files.createTempDirectory("lods");
+        try {
+            final List<Path> files = MeshSimplifier.saveLods(model, new float[]{0.5f, 0.2f},
+                    root.resolve("grid.obj").toString());
+
+            Assertions.assertEquals(List.of(root.resolve("grid_lod0.obj"), root.resolve("grid_lod1.obj")), files);
+            final Model lod0 = ObjReader.read(files.get(0));
+            final Model lod1 = ObjReader.read(files.get(1));
+            Assertions.assertEquals(model.polygons.size() / 2, lod0.polygons.size());
+            Assertions.assertTrue(lod1.polygons.size() < lod0.polygons.size());
+        } finally {
+            for (Path file : Files.list(root).toList()) {
+                Files.delete(file);
+            }
+            Files.delete(root);
+        }
+    }
+
+    @Test
+    public void testInvalidRatio01() {
+        final Model model = ObjReader.read("v 0 0 0\nv 1 0 0\nv 0 1 0\nf 1 2 3\n");
+        final IllegalArgumentException exception = Assertions.assertThrows(IllegalArgumentException.class,
+                () -> MeshSimplifier.generateLods(model, new float[]{0.5f, 0f}));
+        Assertions.assertEquals("LOD ratio must be in (0, 1]: 0.0", exception.getMessage());
+    }
+
+    private static void appendCells(StringBuilder obj, int n, int fromX, int toX, int textureOffset) {
+        for (int y = 0; y < n; y++) {
+            for (int x = fromX; x < toX; x++) {
+                final int a = y * (n + 1) + x + 1;
+                final int b = a + 1;
+                final int c = a + n + 2;
+                final int d = a + n + 1;
+                obj.append("f ").append(corner(a, textureOffset)).append(corner(b, textureOffset))
+                        .append(corner(c, textureOffset)).append('\n');
+                obj.append("f ").append(corner(a, textureOffset)).append(corner(c, textureOffset))
+                        .append(corner(d, textureOffset)).append('\n');
+            }
+        }
+    }
+
+    private static String corner(int vertex, int textureOffset) {
+        return vertex + "/" + (vertex + textureOffset) + " ";
+    }
+}
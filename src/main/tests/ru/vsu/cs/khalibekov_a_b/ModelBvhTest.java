@@ -0,0 +1,287 @@
+package ru.vsu.cs.khalibekov_a_b;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.vsu.cs.khalibekov_a_b_objWriter.generator.MeshGenerator;
+import ru.vsu.cs.khalibekov_a_b_objWriter.math.Vector3f;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.Model;
+import ru.vsu.cs.khalibekov_a_b_objWriter.objreader.ObjReader;
+import ru.vsu.cs.khalibekov_a_b_objWriter.objwriter.ObjWriter;
+import ru.vsu.cs.khalibekov_a_b_objWriter.processing.BvhHit;
+import ru.vsu.cs.khalibekov_a_b_objWriter.processing.ModelBvh;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+class ModelBvhTest {
+
+    @Test
+    public void testRaycast01() {
+        final Model model = ObjReader.read("""
+                v 0 0 0
+                v 1 0 0
+                v 1 1 0
+                v 0 1 0
+                v 0 0 2
+                v 1 0 2
+                v 1 1 2
+                v 0 1 2
+                f 1 2 3 4
+                f 5 6 7 8
+                """);
+        final ModelBvh bvh = ModelBvh.build(model);
+
+        final BvhHit hit = bvh.raycast(new Vector3f(0.25f, 0.75f, 5), new Vector3f(0, 0, -2));
+        Assertions.assertEquals(1, hit.getPolygonIndex());
+        Assertions.assertEquals(3, hit.getDistance(), 1e-6);
+        Assertions.assertTrue(new Vector3f(0.25f, 0.75f, 2).equals(hit.getPoint()));
+        // Треугольники двусторонние, дальняя грань - за ближней
+        Assertions.assertEquals(0, bvh.raycast(new Vector3f(0.5f, 0.5f, 1), new Vector3f(0, 0, -1)).getPolygonIndex());
+        Assertions.assertNull(bvh.raycast(new Vector3f(0.25f, 0.75f, 5), new Vector3f(0, 0, -1), 2.5f));
+        Assertions.assertNull(bvh.raycast(new Vector3f(2, 2, 5), new Vector3f(0, 0, -1)));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> bvh.raycast(new Vector3f(0, 0, 0), new Vector3f(0, 0, 0)));
+    }
+
+    @Test
+    public void testQueriesMatchBruteForce01() {
+        final Model model = new MeshGenerator(MeshGenerator.Shape.SCAN, 30, 5).generateModel();
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        final ModelBvh bvh;
+        try {
+            bvh = ModelBvh.build(model, executor);
+        } finally {
+            executor.shutdown();
+        }
+        final Random random = new Random(7);
+        for (int i = 0; i < 200; i++) {
+            final Vector3f point = new Vector3f(random.nextFloat() * 36 - 3, random.nextFloat() * 36 - 3,
+                    random.nextFloat() * 6 - 3);
+            final Vector3f direction = new Vector3f(random.nextFloat() - 0.5f, random.nextFloat() - 0.5f,
+                    random.nextFloat() - 0.5f);
+
+            final BvhHit hit = bvh.raycast(point, direction);
+            final double expectedHit = bruteForceRay(model, point, direction);
+            if (hit == null) {
+                Assertions.assertEquals(Double.POSITIVE_INFINITY, expectedHit);
+            } else {
+                Assertions.assertEquals(expectedHit, hit.getDistance(), 1e-4);
+            }
+
+            final BvhHit nearest = bvh.nearest(point);
+            Assertions.assertEquals(bruteForceNearest(model, point), nearest.getDistance(), 1e-4);
+        }
+
+        final Vector3f min = new Vector3f(10.3f, 10.8f, -2);
+        final Vector3f max = new Vector3f(14.4f, 13.1f, 2);
+        final List<Integer> expected = new ArrayList<Integer>();
+        final ModelBvh single = ModelBvh.build(model);
+        for (int p = 0; p < model.polygons.size(); p++) {
+            // Дерево из одного полигона проверяет только треугольники, без обхода узлов
+            final Model one = new Model();
+            one.vertices = model.vertices;
+            one.polygons.add(model.polygons.get(p));
+            if (!ModelBvh.build(one).polygonsInBox(min, max).isEmpty()) {
+                expected.add(p);
+            }
+        }
+        Assertions.assertFalse(expected.isEmpty());
+        Assertions.assertEquals(expected, bvh.polygonsInBox(min, max));
+        Assertions.assertEquals(expected, single.polygonsInBox(min, max));
+    }
+
+    @Test
+    public void testPolygonsInBox01() {
+        final Model model = ObjReader.read("v 0 0 0\nv 1 0 0\nv 0 1 0\nf 1 2 3\n");
+        final ModelBvh bvh = ModelBvh.build(model);
+
+        Assertions.assertEquals(List.of(0), bvh.polygonsInBox(new Vector3f(0.4f, 0.4f, -1), new Vector3f(1, 1, 1)));
+        // Рамка задевает рамку треугольника, но не сам треугольник
+        Assertions.assertEquals(List.of(), bvh.polygonsInBox(new Vector3f(0.8f, 0.8f, -1), new Vector3f(1, 1, 1)));
+        Assertions.assertEquals(List.of(), bvh.polygonsInBox(new Vector3f(0, 0, 0.1f), new Vector3f(1, 1, 1)));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> bvh.polygonsInBox(new Vector3f(1, 0, 0), new Vector3f(0, 1, 1)));
+    }
+
+    @Test
+    public void testInvalidModel01() {
+        final Model nan = ObjReader.read("v 0 0 0\nv 1 NaN 0\nv 0 1 0\nf 1 2 3\n");
+        Assertions.assertTrue(Float.isNaN(nan.vertices.get(1).y));
+        final IllegalArgumentException exception = Assertions.assertThrows(IllegalArgumentException.class,
+                () -> ModelBvh.build(nan));
+        Assertions.assertTrue(exception.getMessage().startsWith("Vertex 1 has a non-finite coordinate"));
+
+        final Model model = ObjReader.read("v 0 0 0\nv 1 0 0\nv 0 1 0\nf 1 2 3\n");
+        final ModelBvh bvh = ModelBvh.build(model);
+        model.vertices.get(2).x = Float.POSITIVE_INFINITY;
+        Assertions.assertThrows(IllegalArgumentException.class, () -> bvh.refit(2));
+
+        model.vertices.get(2).x = 0;
+        model.polygons.add(null);
+        final IllegalArgumentException nullPolygon = Assertions.assertThrows(IllegalArgumentException.class,
+                () -> ModelBvh.build(model));
+        Assertions.assertEquals("Polygon 1 is invalid", nullPolygon.getMessage());
+    }
+
+    @Test
+    public void testRefit01() {
+        final Model model = new MeshGenerator(MeshGenerator.Shape.GRID, 40, 3).generateModel();
+        final ModelBvh bvh = ModelBvh.build(model);
+        final Vector3f origin = new Vector3f(0.1f, 0.1f, 10);
+        final Vector3f down = new Vector3f(0, 0, -1);
+        final BvhHit before = bvh.raycast(origin, down);
+
+        // Вершины поднимаются над сеткой - рамки пересчитываются только у их листьев и предков
+        final List<Integer> polygon = model.polygons.get(before.getPolygonIndex()).getVertexIndices();
+        final int[] moved = new int[polygon.size()];
+        for (int k = 0; k < moved.length; k++) {
+            moved[k] = polygon.get(k);
+            model.vertices.get(moved[k]).z += 5;
+        }
+        bvh.refit(moved);
+        final BvhHit after = bvh.raycast(origin, down);
+        Assertions.assertEquals(before.getPolygonIndex(), after.getPolygonIndex());
+        Assertions.assertEquals(before.getDistance() - 5, after.getDistance(), 1e-4);
+
+        for (int k = 0; k < moved.length; k++) {
+            model.vertices.get(moved[k]).z -= 5;
+        }
+        bvh.refit();
+        Assertions.assertEquals(before.getDistance(), bvh.raycast(origin, down).getDistance(), 1e-4);
+
+        model.vertices.add(new Vector3f(0, 0, 0));
+        Assertions.assertThrows(IllegalArgumentException.class, bvh::refit);
+    }
+
+    @Test
+    public void testExtract01() throws IOException {
+        final Model model = ObjReader.read("""
+                v 0 0 0
+                v 1 0 0
+                v 1 1 0
+                v 0 1 0
+                v 5 0 0
+                v 6 0 0
+                v 6 1 0
+                vt 0 0
+                vt 1 0
+                vt 1 1
+                vn 0 0 1
+                usemtl near
+                f 5/1/1 6/2/1 7/3/1
+                usemtl far
+                f 1/1/1 2/2/1 3/3/1 4/1/1
+                """);
+        final ModelBvh bvh = ModelBvh.build(model);
+        final Model region = bvh.extract(new Vector3f(4, -1, -1), new Vector3f(7, 2, 1));
+
+        Assertions.assertEquals(3, region.vertices.size());
+        Assertions.assertTrue(new Vector3f(5, 0, 0).equals(region.vertices.get(0)));
+        Assertions.assertEquals(1, region.polygons.size());
+        Assertions.assertEquals(List.of(0, 1, 2), region.polygons.get(0).getVertexIndices());
+        Assertions.assertEquals(List.of(0, 0, 0), region.polygons.get(0).getNormalIndices());
+        Assertions.assertEquals(1, region.polygonRanges.size());
+        Assertions.assertEquals("near", region.polygonRanges.get(0).getMaterialName());
+
+        final Path file = Files.createTempFile("region", ".obj");
+        try {
+            ObjWriter.saveModel(region, file.toString());
+            final Model read = ObjReader.read(file);
+            Assertions.assertEquals(3, read.vertices.size());
+            Assertions.assertEquals(3, read.textureVertices.size());
+            Assertions.assertEquals(1, read.polygons.size());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static double bruteForceRay(Model model, Vector3f origin, Vector3f direction) {
+        double length = Math.sqrt(direction.x * direction.x + direction.y * direction.y + direction.z * direction.z);
+        double[] d = {direction.x / length, direction.y / length, direction.z / length};
+        double best = Double.POSITIVE_INFINITY;
+        for (double[] triangle : triangles(model)) {
+            double[] e1 = {triangle[3] - triangle[0], triangle[4] - triangle[1], triangle[5] - triangle[2]};
+            double[] e2 = {triangle[6] - triangle[0], triangle[7] - triangle[1], triangle[8] - triangle[2]};
+            double[] p = cross(d, e2);
+            double det = dot(e1, p);
+            if (Math.abs(det) < 1e-12) {
+                continue;
+            }
+            double[] s = {origin.x - triangle[0], origin.y - triangle[1], origin.z - triangle[2]};
+            double u = dot(s, p) / det;
+            double[] q = cross(s, e1);
+            double v = dot(d, q) / det;
+            double t = dot(e2, q) / det;
+            if (u >= 0 && v >= 0 && u + v <= 1 && t >= 0) {
+                best = Math.min(best, t);
+            }
+        }
+        return best;
+    }
+
+    // Ближайшая точка треугольника - проекция на его плоскость, если она внутри, иначе ближайшая точка рёбер
+    private static double bruteForceNearest(Model model, Vector3f point) {
+        double[] p = {point.x, point.y, point.z};
+        double best = Double.POSITIVE_INFINITY;
+        for (double[] triangle : triangles(model)) {
+            double[] a = {triangle[0], triangle[1], triangle[2]};
+            double[] b = {triangle[3], triangle[4], triangle[5]};
+            double[] c = {triangle[6], triangle[7], triangle[8]};
+            best = Math.min(best, segmentDistance(p, a, b));
+            best = Math.min(best, segmentDistance(p, b, c));
+            best = Math.min(best, segmentDistance(p, c, a));
+            double[] n = cross(sub(b, a), sub(c, a));
+            double nn = dot(n, n);
+            if (nn == 0) {
+                continue;
+            }
+            double distance = dot(sub(p, a), n) / nn;
+            double[] projected = {p[0] - n[0] * distance, p[1] - n[1] * distance, p[2] - n[2] * distance};
+            if (dot(cross(sub(b, a), sub(projected, a)), n) >= 0 && dot(cross(sub(c, b), sub(projected, b)), n) >= 0
+                    && dot(cross(sub(a, c), sub(projected, c)), n) >= 0) {
+                best = Math.min(best, Math.abs(distance) * Math.sqrt(nn));
+            }
+        }
+        return best;
+    }
+
+    private static double segmentDistance(double[] p, double[] a, double[] b) {
+        double[] ab = sub(b, a);
+        double t = Math.max(0, Math.min(1, dot(sub(p, a), ab) / dot(ab, ab)));
+        double[] closest = {a[0] + ab[0] * t, a[1] + ab[1] * t, a[2] + ab[2] * t};
+        double[] d = sub(p, closest);
+        return Math.sqrt(dot(d, d));
+    }
+
+    private static List<double[]> triangles(Model model) {
+        final List<double[]> result = new ArrayList<double[]>();
+        for (int p = 0; p < model.polygons.size(); p++) {
+            final List<Integer> indices = model.polygons.get(p).getVertexIndices();
+            for (int k = 2; k < indices.size(); k++) {
+                final Vector3f a = model.vertices.get(indices.get(0));
+                final Vector3f b = model.vertices.get(indices.get(k - 1));
+                final Vector3f c = model.vertices.get(indices.get(k));
+                result.add(new double[]{a.x, a.y, a.z, b.x, b.y, b.z, c.x, c.y, c.z});
+            }
+        }
+        return result;
+    }
+
+    private static double[] sub(double[] a, double[] b) {
+        return new double[]{a[0] - b[0], a[1] - b[1], a[2] - b[2]};
+    }
+
+    private static double dot(double[] a, double[] b) {
+        return a[0] * b[0] + a[1] * b[1] + a[2] * b[2];
+    }
+
+    private static double[] cross(double[] a, double[] b) {
+        return new double[]{a[1] * b[2] - a[2] * b[1], a[2] * b[0] - a[0] * b[2], a[0] * b[1] - a[1] * b[0]};
+    }
+}
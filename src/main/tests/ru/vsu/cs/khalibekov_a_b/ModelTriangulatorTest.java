@@ -0,0 +1,86 @@
+package ru.vsu.cs.khalibekov_a_b;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.vsu.cs.khalibekov_a_b_objWriter.math.Vector3f;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.CompactModel;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.Model;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.Polygon;
+import ru.vsu.cs.khalibekov_a_b_objWriter.objreader.ObjReader;
+import ru.vsu.cs.khalibekov_a_b_objWriter.processing.ModelTriangulator;
+import ru.vsu.cs.khalibekov_a_b_objWriter.processing.NormalGenerator;
+
+import java.util.Arrays;
+
+class ModelTriangulatorTest {
+
+    // Невыпуклый L-образный шестиугольник и треугольник под прямым углом к нему
+    private static final String FILE_CONTENT = """
+            v 0 0 0
+            v 2 0 0
+            v 2 1 0
+            v 1 1 0
+            v 1 2 0
+            v 0 2 0
+            v 0 0 -1
+            vt 0 0
+            f 1/1 2/1 3/1 4/1 5/1 6/1
+            f 1 2 7
+            """;
+
+    @Test
+    public void testTriangulateConcave01() {
+        final Model model = ObjReader.read(FILE_CONTENT);
+        ModelTriangulator.triangulateParallel(model);
+
+        Assertions.assertEquals(5, model.polygons.size());
+        double area = 0;
+        for (int i = 0; i < 4; i++) {
+            final Polygon triangle = model.polygons.get(i);
+            Assertions.assertEquals(3, triangle.getVertexIndices().size());
+            Assertions.assertEquals(Arrays.asList(0, 0, 0), triangle.getTextureVertexIndices());
+            final Vector3f a = model.vertices.get(triangle.getVertexIndices().get(0));
+            final Vector3f b = model.vertices.get(triangle.getVertexIndices().get(1));
+            final Vector3f c = model.vertices.get(triangle.getVertexIndices().get(2));
+            final double z = (b.x - a.x) * (c.y - a.y) - (b.y - a.y) * (c.x - a.x);
+            // Обход сохраняется, треугольники не перекрываются
+            Assertions.assertTrue(z > 0);
+            area += z / 2;
+        }
+        Assertions.assertEquals(3, area, 1e-6);
+    }
+
+    @Test
+    public void testTriangulateBadIndex01() {
+        // Треугольник и двуугольник не разбиваются, но индексы у них проверяются так же, как в CompactModel
+        final String triangle = "v 0 0 0\nv 1 0 0\nv 0 1 0\nf 1 2 3\nf 1 2 3\n";
+        final Model model = ObjReader.read(triangle);
+        model.polygons.get(1).getVertexIndices().set(2, 3);
+        final IllegalArgumentException exception = Assertions.assertThrows(IllegalArgumentException.class,
+                () -> ModelTriangulator.triangulate(model));
+        Assertions.assertEquals("Polygon 1, vertex 2: index 3 out of range [0, 2]", exception.getMessage());
+
+        final Model line = ObjReader.read(triangle);
+        line.polygons.get(0).getVertexIndices().set(1, -1);
+        line.polygons.get(0).getVertexIndices().remove(2);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ModelTriangulator.triangulate(line));
+    }
+
+    @Test
+    public void testGenerateNormals01() {
+        final CompactModel flat = NormalGenerator.generate(ObjReader.readCompact(FILE_CONTENT), NormalGenerator.Mode.FLAT);
+        Assertions.assertEquals(2, flat.getNormalCount());
+        Assertions.assertArrayEquals(new float[]{0, 0, 1, 0, 1, 0}, Arrays.copyOf(flat.getNormalData(), 6));
+        Assertions.assertEquals(1, flat.getNormalIndices()[7]);
+
+        final Model model = ObjReader.read(FILE_CONTENT);
+        NormalGenerator.generateParallel(model, NormalGenerator.Mode.SMOOTH);
+        Assertions.assertEquals(7, model.normals.size());
+        Assertions.assertEquals(Arrays.asList(0, 1, 6), model.polygons.get(1).getNormalIndices());
+        // Площадь шестиугольника 3, треугольника 1 - нормаль общей вершины ближе к первому
+        final Vector3f shared = model.normals.get(0);
+        Assertions.assertEquals(0, shared.x, 1e-6);
+        Assertions.assertEquals(1 / Math.sqrt(10), shared.y, 1e-6);
+        Assertions.assertEquals(3 / Math.sqrt(10), shared.z, 1e-6);
+    }
+}
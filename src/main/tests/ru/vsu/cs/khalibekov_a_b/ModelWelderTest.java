@@ -0,0 +1,78 @@
+package ru.vsu.cs.khalibekov_a_b;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.CompactModel;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.Model;
+import ru.vsu.cs.khalibekov_a_b_objWriter.objreader.ObjReader;
+import ru.vsu.cs.khalibekov_a_b_objWriter.processing.ModelWelder;
+
+import java.util.Arrays;
+
+class ModelWelderTest {
+
+    private static final String FILE_CONTENT = """
+            v 0 0 0
+            v 1 0 0
+            v 1 1 0
+            v 5 5 5
+            v 0.00000001 0 0
+            v 1 1 0
+            vt 0 0
+            vt 0 0
+            vn 0 0 1
+            vn 0 0 1
+            f 1/1/1 2/2/2 3/1/1
+            f 5/2/2 3/1/1 6/2/1
+            """;
+
+    @Test
+    public void testWeldCompactModel01() {
+        final CompactModel model = ModelWelder.weldParallel(ObjReader.readCompact(FILE_CONTENT), ModelWelder.DEFAULT_EPSILON);
+
+        // Дубликаты склеены, вершина 5 5 5 не используется и удалена
+        Assertions.assertEquals(3, model.getVertexCount());
+        Assertions.assertEquals(1, model.getTextureVertexCount());
+        Assertions.assertEquals(1, model.getNormalCount());
+        Assertions.assertArrayEquals(new float[]{0, 0, 0, 1, 0, 0, 1, 1, 0}, model.getVertexData());
+        Assertions.assertArrayEquals(new int[]{0, 1, 2, 0, 2, 2},
+                Arrays.copyOf(model.getVertexIndices(), model.getIndexCount()));
+        Assertions.assertArrayEquals(new int[6], Arrays.copyOf(model.getNormalIndices(), model.getIndexCount()));
+    }
+
+    @Test
+    public void testWeldModel01() {
+        final Model model = ObjReader.read(FILE_CONTENT);
+        ModelWelder.weld(model, 0);
+
+        // При epsilon == 0 склеиваются только точные совпадения
+        Assertions.assertEquals(4, model.vertices.size());
+        Assertions.assertEquals(1, model.textureVertices.size());
+        Assertions.assertEquals(Arrays.asList(3, 2, 2), model.polygons.get(1).getVertexIndices());
+        Assertions.assertEquals(Arrays.asList(0, 0, 0), model.polygons.get(1).getNormalIndices());
+    }
+
+    @Test
+    public void testWeldDefaultEpsilon01() {
+        // Копии, разошедшиеся на несколько ulp у координат порядка 10, склеиваются допуском по умолчанию
+        final CompactModel model = ModelWelder.weld(ObjReader.readCompact("""
+                v 10 -20 30
+                v 10.000004 -20.000006 30.000008
+                v 10.001 -20 30
+                f 1 2 3
+                """));
+
+        Assertions.assertEquals(2, model.getVertexCount());
+        Assertions.assertArrayEquals(new int[]{0, 0, 1}, Arrays.copyOf(model.getVertexIndices(), model.getIndexCount()));
+    }
+
+    @Test
+    public void testWeldIndexOutOfRange01() {
+        final Model model = ObjReader.read(FILE_CONTENT);
+        model.polygons.get(1).getVertexIndices().set(2, 10);
+
+        final IllegalArgumentException exception = Assertions.assertThrows(IllegalArgumentException.class,
+                () -> ModelWelder.weld(model));
+        Assertions.assertEquals("Polygon 1, vertex 2: index 10 out of range [0, 5]", exception.getMessage());
+    }
+}
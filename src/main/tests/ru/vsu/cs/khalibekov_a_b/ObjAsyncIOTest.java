@@ -0,0 +1,124 @@
+package ru.vsu.cs.khalibekov_a_b;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.vsu.cs.khalibekov_a_b_objWriter.async.ObjAsyncIO;
+import ru.vsu.cs.khalibekov_a_b_objWriter.generator.MeshGenerator;
+import ru.vsu.cs.khalibekov_a_b_objWriter.metrics.ObjMetrics;
+import ru.vsu.cs.khalibekov_a_b_objWriter.metrics.ObjMetricsListener;
+import ru.vsu.cs.khalibekov_a_b_objWriter.metrics.ObjOperationStats;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.CompactModel;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.Model;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
+
+class ObjAsyncIOTest {
+
+    @Test
+    public void testSaveAndReadAsync01() throws IOException {
+        final Path directory = Files.createTempDirectory("async");
+        final ObjMetrics metrics = new ObjMetrics();
+        try (ObjAsyncIO io = new ObjAsyncIO(2)) {
+            final List<CompletableFuture<Model>> reads = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                final Model model = new MeshGenerator(MeshGenerator.Shape.GRID, 10, i).generateModel();
+                final Path file = directory.resolve(i + ".obj");
+                reads.add(io.saveAsync(model, file).thenCompose(ignored -> io.readAsync(file, null, metrics)));
+            }
+            for (CompletableFuture<Model> read : reads) {
+                Assertions.assertEquals(100, read.join().polygons.size());
+            }
+            Assertions.assertEquals(20, metrics.getReadCount());
+            Assertions.assertEquals(20 * 100, metrics.getFaceLines());
+        } finally {
+            deleteRecursively(directory);
+        }
+    }
+
+    @Test
+    public void testCancelBeforeStart01() throws IOException {
+        final Path directory = Files.createTempDirectory("async");
+        final List<Runnable> tasks = new ArrayList<>();
+        try {
+            final ObjAsyncIO io = new ObjAsyncIO(tasks::add, 1);
+            final CompletableFuture<Void> save = io.saveAsync(
+                    new MeshGenerator(MeshGenerator.Shape.GRID, 10, 1).generateCompactModel(), directory.resolve("a.obj"));
+            save.cancel(false);
+            tasks.forEach(Runnable::run);
+
+            Assertions.assertThrows(CancellationException.class, save::join);
+            try (Stream<Path> files = Files.list(directory)) {
+                Assertions.assertEquals(0, files.count());
+            }
+        } finally {
+            deleteRecursively(directory);
+        }
+    }
+
+    @Test
+    public void testTimeoutKeepsOldFile01() throws IOException {
+        final Path directory = Files.createTempDirectory("async");
+        final ObjAsyncIO io = new ObjAsyncIO(1);
+        final CountDownLatch timedOut = new CountDownLatch(1);
+        final List<ObjOperationStats> finished = new ArrayList<>();
+        // Запись стоит после первого блока, пока таймаут не сработает
+        final ObjMetricsListener blocking = new ObjMetricsListener() {
+            @Override
+            public void onChunk(ObjOperationStats.Operation operation, String source) {
+                try {
+                    timedOut.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+
+            @Override
+            public void onFinished(ObjOperationStats stats) {
+                finished.add(stats);
+            }
+        };
+        try {
+            final Path file = directory.resolve("model.obj");
+            Files.writeString(file, "v 1 2 3\n");
+            final CompactModel model = new MeshGenerator(MeshGenerator.Shape.GRID, 100, 1).generateCompactModel();
+
+            final CompletableFuture<Void> save = io.saveAsync(model, file, Duration.ofMillis(20), blocking);
+            final CompletionException exception = Assertions.assertThrows(CompletionException.class, save::join);
+            Assertions.assertInstanceOf(TimeoutException.class, exception.getCause());
+            timedOut.countDown();
+            // Ждём завершения задачи, прерванной на следующем блоке
+            io.close();
+
+            Assertions.assertEquals("v 1 2 3\n", Files.readString(file));
+            try (Stream<Path> files = Files.list(directory)) {
+                Assertions.assertEquals(1, files.count());
+            }
+            Assertions.assertEquals(1, finished.size());
+            Assertions.assertInstanceOf(CancellationException.class, finished.get(0).getFailure());
+        } finally {
+            timedOut.countDown();
+            io.close();
+            deleteRecursively(directory);
+        }
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package ru.vsu.cs.khalibekov_a_b;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.vsu.cs.khalibekov_a_b_objWriter.generator.MeshGenerator;
+import ru.vsu.cs.khalibekov_a_b_objWriter.metrics.ObjMetrics;
+import ru.vsu.cs.khalibekov_a_b_objWriter.metrics.ObjMetricsListener;
+import ru.vsu.cs.khalibekov_a_b_objWriter.metrics.ObjOperationStats;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.CompactModel;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.Model;
+import ru.vsu.cs.khalibekov_a_b_objWriter.objreader.ObjReader;
+import ru.vsu.cs.khalibekov_a_b_objWriter.objwriter.ObjWriter;
+
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+class ObjMetricsTest {
+
+    @Test
+    public void testWriteAndReadMetrics01() throws Exception {
+        final CompactModel model = new MeshGenerator(MeshGenerator.Shape.GRID, 100, 1).generateCompactModel();
+        final ObjMetrics metrics = new ObjMetrics();
+        final List<Long> progress = new ArrayList<>();
+        final ObjMetricsListener listener = new ObjMetricsListener() {
+            @Override
+            public long progressInterval() {
+                return 10_000;
+            }
+
+            @Override
+            public void onProgress(ObjOperationStats.Operation operation, String source, long done, long total) {
+                progress.add(done);
+            }
+
+            @Override
+            public void onFinished(ObjOperationStats stats) {
+                metrics.onFinished(stats);
+            }
+        };
+
+        final Path file = Files.createTempFile("metrics", ".obj");
+        try {
+            ObjWriter.saveCompactModel(model, file.toString(), listener);
+            // Блоки записи режутся по шагу прогресса
+            Assertions.assertEquals(List.of(10_000L, 20_000L, 30_000L, 40_000L), progress);
+
+            progress.clear();
+            final CompactModel read = ObjReader.readCompact(file, listener);
+            Assertions.assertEquals(model.getPolygonCount(), read.getPolygonCount());
+            Assertions.assertFalse(progress.isEmpty());
+            Assertions.assertEquals(Files.size(file), progress.get(progress.size() - 1));
+
+            Assertions.assertEquals(1, metrics.getReadCount());
+            Assertions.assertEquals(1, metrics.getWriteCount());
+            Assertions.assertEquals(Files.size(file), metrics.getBytesRead());
+            Assertions.assertEquals(Files.size(file), metrics.getBytesWritten());
+            Assertions.assertEquals(2 * 10201, metrics.getVertexLines());
+            Assertions.assertEquals(2 * 10000, metrics.getFaceLines());
+            // 5 комментариев заголовка и 4 пустые строки между секциями
+            Assertions.assertEquals(9, metrics.getOtherLines());
+
+            final ObjectName name = metrics.registerMBean("test");
+            try {
+                Assertions.assertEquals(2 * 10201L,
+                        ManagementFactory.getPlatformMBeanServer().getAttribute(name, "NormalLines"));
+            } finally {
+                metrics.unregisterMBean();
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testFailedWriteMetrics01() throws IOException {
+        final Model model = ObjReader.read("v 0 0 0\nf 1 2 3\n");
+        final ObjMetrics metrics = new ObjMetrics();
+        final Path file = Files.createTempFile("metrics", ".obj");
+        try {
+            Assertions.assertThrows(IOException.class, () -> ObjWriter.saveModel(model, file.toString(), metrics));
+            Assertions.assertEquals(1, metrics.getWriteCount());
+            Assertions.assertEquals(1, metrics.getFailureCount());
+            Assertions.assertEquals(0, metrics.getFaceLines());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -1,11 +1,18 @@
 package ru.vsu.cs.khalibekov_a_b;
 
 import ru.vsu.cs.khalibekov_a_b_objWriter.math.Vector3f;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.Model;
 import ru.vsu.cs.khalibekov_a_b_objWriter.objreader.ObjReader;
 import ru.vsu.cs.khalibekov_a_b_objWriter.objreader.ObjReaderException;
+import ru.vsu.cs.khalibekov_a_b_objWriter.objreader.ObjVisitor;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 
@@ -58,4 +65,134 @@ class ObjReaderTest {
             Assertions.assertEquals(expectedError, exception.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testReadFromStream01() throws IOException {
+        final String fileContent = "# comment\nv 1 2 3\nv 4 5 6\nv 7 8 9\nvt 0 1\nvn 0 0 1\nf 1/1/1 2/1/1 3/1/1\n";
+        final Model result = ObjReader.read(new ByteArrayInputStream(fileContent.getBytes(StandardCharsets.UTF_8)));
+        Assertions.assertEquals(3, result.vertices.size());
+        Assertions.assertEquals(1, result.textureVertices.size());
+        Assertions.assertEquals(1, result.normals.size());
+        Assertions.assertEquals(1, result.polygons.size());
+        Assertions.assertTrue(result.vertices.get(2).equals(new Vector3f(7, 8, 9)));
+        Assertions.assertEquals(Arrays.asList(0, 1, 2), result.polygons.get(0).getVertexIndices());
+    }
+
+    @Test
+    public void testReadFromStream02() {
+        final String fileContent = "v 1 2 3\n\nvt 0 1\nv 1 2\n";
+        try {
+            ObjReader.read(new ByteArrayInputStream(fileContent.getBytes(StandardCharsets.UTF_8)));
+            Assertions.fail();
+
+        } catch (ObjReaderException exception) {
+            String expectedError = "Error parsing OBJ file on line: 4. Too few vertex arguments.";
+            Assertions.assertEquals(expectedError, exception.getMessage());
+
+        } catch (IOException exception) {
+            Assertions.fail(exception);
+        }
+    }
+
+    @Test
+    public void testReadFace01() {
+        final Model result = ObjReader.read("f 1//2 3/4/ 5/6/7\n");
+        Assertions.assertEquals(Arrays.asList(0, 2, 4), result.polygons.get(0).getVertexIndices());
+        Assertions.assertEquals(Arrays.asList(3, 5), result.polygons.get(0).getTextureVertexIndices());
+        Assertions.assertEquals(Arrays.asList(1, 6), result.polygons.get(0).getNormalIndices());
+    }
+
+    @Test
+    public void testReadFace02() {
+        try {
+            ObjReader.read("v 1 2 3\n  \nf 1/2/3/4 1 1\n");
+            Assertions.fail();
+
+        } catch (ObjReaderException exception) {
+            String expectedError = "Error parsing OBJ file on line: 2. Invalid element size.";
+            Assertions.assertEquals(expectedError, exception.getMessage());
+        }
+    }
+
+    @Test
+    public void testReadRelativeIndices01() {
+        final Model result = ObjReader.read("v 0 0 0\nv 1 0 0\nv 0 1 0\nvt 0 0\nf -3/-1 -2/-1 -1/-1\n");
+        Assertions.assertEquals(Arrays.asList(0, 1, 2), result.polygons.get(0).getVertexIndices());
+        Assertions.assertEquals(Arrays.asList(0, 0, 0), result.polygons.get(0).getTextureVertexIndices());
+    }
+
+    @Test
+    public void testReadParallel01() throws IOException {
+        // Файл больше одного куска, грани ссылаются на вершины относительными индексами
+        final StringBuilder fileContent = new StringBuilder("vt 0 0\nvn 0 0 1\n");
+        for (int i = 0; i < 300_000; i++) {
+            fileContent.append("v ").append(i).append(" 0.5 -1.25\n");
+            if (i >= 2) {
+                fileContent.append("f -3/1/1 -2/1/1 -1/-1/-1\n");
+            }
+        }
+        final Path file = Files.createTempFile("parallel", ".obj");
+        try {
+            Files.writeString(file, fileContent);
+            final Model expected = ObjReader.read(file);
+            final Model result = ObjReader.readParallel(file);
+            Assertions.assertEquals(expected.vertices.size(), result.vertices.size());
+            Assertions.assertEquals(expected.polygons.size(), result.polygons.size());
+            for (int i = 0; i < expected.polygons.size(); i++) {
+                Assertions.assertEquals(expected.polygons.get(i).getVertexIndices(), result.polygons.get(i).getVertexIndices());
+                Assertions.assertEquals(expected.polygons.get(i).getNormalIndices(), result.polygons.get(i).getNormalIndices());
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testReadMapped01() throws IOException {
+        final String fileContent = "v 1 2 3\r\nv 4 5 6\r\n\r\nv 7 8 9\nvt 0.5 1\rf 1/1 2/1 -1/1";
+        final Path file = Files.createTempFile("mapped", ".obj");
+        try {
+            Files.writeString(file, fileContent);
+            final Model result = ObjReader.readMapped(file);
+            Assertions.assertEquals(3, result.vertices.size());
+            Assertions.assertTrue(result.vertices.get(2).equals(new Vector3f(7, 8, 9)));
+            Assertions.assertEquals(1, result.textureVertices.size());
+            Assertions.assertEquals(Arrays.asList(0, 1, 2), result.polygons.get(0).getVertexIndices());
+            Assertions.assertEquals(Arrays.asList(0, 0, 0), result.polygons.get(0).getTextureVertexIndices());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testReadVisitor01() {
+        final String fileContent = "# cube\nv 1 -2 3\nv -4 5 0.5\no part\nvt 0 1\nf 1/1 2/1 -1/-1\n";
+        final float[] bounds = {Float.MAX_VALUE, Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE};
+        final ArrayList<String> unknownLines = new ArrayList<>();
+        final int[] faceCorners = new int[1];
+        ObjReader.read(fileContent, new ObjVisitor() {
+            @Override
+            public void onVertex(float x, float y, float z) {
+                bounds[0] = Math.min(bounds[0], x);
+                bounds[1] = Math.min(bounds[1], y);
+                bounds[2] = Math.max(bounds[2], x);
+                bounds[3] = Math.max(bounds[3], y);
+            }
+
+            @Override
+            public void onFace(int[] v, int[] vt, int[] vn, int count) {
+                faceCorners[0] += count;
+                Assertions.assertEquals(1, v[2]);
+                Assertions.assertNull(vn);
+            }
+
+            @Override
+            public void onUnknownLine(CharSequence line, int lineInd) {
+                unknownLines.add(lineInd + ":" + line);
+            }
+        });
+        Assertions.assertArrayEquals(new float[]{-4, -2, 1, 5}, bounds);
+        Assertions.assertEquals(3, faceCorners[0]);
+        Assertions.assertEquals(Arrays.asList("1:# cube", "4:o part"), unknownLines);
+    }
+}
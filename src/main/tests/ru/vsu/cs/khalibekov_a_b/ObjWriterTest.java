@@ -5,7 +5,11 @@ import ru.vsu.cs.khalibekov_a_b_objWriter.math.Vector2f;
 import ru.vsu.cs.khalibekov_a_b_objWriter.math.Vector3f;
 import ru.vsu.cs.khalibekov_a_b_objWriter.model.Model;
 import ru.vsu.cs.khalibekov_a_b_objWriter.model.Polygon;
+import ru.vsu.cs.khalibekov_a_b_objWriter.objwriter.ModelValidator;
+import ru.vsu.cs.khalibekov_a_b_objWriter.objwriter.ObjStreamWriter;
 import ru.vsu.cs.khalibekov_a_b_objWriter.objwriter.ObjWriter;
+import ru.vsu.cs.khalibekov_a_b_objWriter.objwriter.ValidationProblem;
+import ru.vsu.cs.khalibekov_a_b_objWriter.objwriter.ValidationReport;
 
 import java.io.IOException;
 import java.nio.file.Files;
@@ -181,11 +185,136 @@ class ObjWriterTest {
         assertFalse(content.contains("f "));
     }
 
+    @Test
+    void testVertexFormatting() throws IOException {
+        // Координаты должны печататься так же, как String.format("%.6f")
+        float[] values = {0.1f, -0.0000004f, 0.0000005f, 1.0000005f, -123456.79f, 1e20f, Float.NaN};
+        Model model = new Model();
+        for (float value : values) {
+            model.vertices.add(new Vector3f(value, -value, value / 3));
+        }
+
+        ObjWriter.saveModel(model, "test_formatting.obj");
+        String content = Files.readString(Path.of("test_formatting.obj"));
+
+        for (float value : values) {
+            String expected = String.format(java.util.Locale.US, "v %.6f %.6f %.6f\n", value, -value, value / 3);
+            assertTrue(content.contains(expected), expected);
+        }
+    }
+
+    @Test
+    void testSaveModelParallel() throws IOException {
+        // Параллельная запись должна давать тот же файл, что и последовательная
+        Model model = new Model();
+        int size = 150000;
+        for (int i = 0; i < size; i++) {
+            model.vertices.add(new Vector3f(i * 0.5f, -i, i / 7f));
+            model.normals.add(new Vector3f(0, 1, i));
+        }
+        for (int i = 0; i + 2 < size; i++) {
+            Polygon poly = new Polygon();
+            poly.setVertexIndices(new ArrayList<>(Arrays.asList(i, i + 1, i + 2)));
+            poly.setNormalIndices(new ArrayList<>(Arrays.asList(i, i, i)));
+            model.polygons.add(poly);
+        }
+
+        ObjWriter.saveModel(model, "test_sequential.obj");
+        ObjWriter.saveModelParallel(model, "test_parallel.obj");
+
+        assertArrayEquals(Files.readAllBytes(Path.of("test_sequential.obj")),
+                Files.readAllBytes(Path.of("test_parallel.obj")));
+
+        // Ошибка - о первом по порядку неверном полигоне
+        model.polygons.get(size - 10).getVertexIndices().set(0, size);
+        model.polygons.get(100000).getVertexIndices().set(1, -1);
+        Exception exception = assertThrows(IOException.class, () -> {
+            ObjWriter.saveModelParallel(model, "test_parallel.obj");
+        });
+        assertTrue(exception.getMessage().startsWith("Polygon 100000,"), exception.getMessage());
+    }
+
+    @Test
+    void testValidateModel() {
+        // Проверка собирает все проблемы, а не только первую
+        Model model = new Model();
+        model.vertices.addAll(Arrays.asList(
+                new Vector3f(0, 0, 0),
+                new Vector3f(1, 0, 0),
+                new Vector3f(2, 0, 0)
+        ));
+        Polygon outOfRange = new Polygon();
+        outOfRange.setVertexIndices(new ArrayList<>(Arrays.asList(0, 5, 7)));
+        Polygon collinear = new Polygon();
+        collinear.setVertexIndices(new ArrayList<>(Arrays.asList(0, 1, 2)));
+        model.polygons.add(outOfRange);
+        model.polygons.add(null);
+        model.polygons.add(collinear);
+
+        ValidationReport report = ModelValidator.validate(model);
+        assertFalse(report.isValid());
+        assertEquals(4, report.getProblemCount());
+        assertEquals(3, report.getErrorCount());
+        assertEquals(2, report.getCount(ValidationProblem.Type.VERTEX_INDEX_OUT_OF_RANGE));
+        assertEquals(1, report.getCount(ValidationProblem.Type.NULL_POLYGON));
+        assertEquals(2, report.getProblems().get(3).getPolygonIndex());
+        assertEquals(ValidationProblem.Type.DEGENERATE_POLYGON, report.getProblems().get(3).getType());
+
+        ValidationReport bounded = ModelValidator.validateParallel(model, 2);
+        assertEquals(2, bounded.getProblems().size());
+        assertTrue(bounded.isTruncated());
+        assertEquals(4, bounded.getProblemCount());
+    }
+
+    @Test
+    void testFailedSaveKeepsFile() throws IOException {
+        // Ошибка проверки не должна портить уже существующий файл
+        Files.writeString(Path.of("test_wrong_texture.obj"), "previous content");
+        Model model = new Model();
+        model.vertices.add(new Vector3f(0, 0, 0));
+        Polygon poly = new Polygon();
+        poly.setVertexIndices(new ArrayList<>(Arrays.asList(0, 1, 2)));
+        model.polygons.add(poly);
+
+        assertThrows(IOException.class, () -> ObjWriter.saveModel(model, "test_wrong_texture.obj"));
+        assertEquals("previous content", Files.readString(Path.of("test_wrong_texture.obj")));
+    }
+
+    @Test
+    void testStreamWriter() throws IOException {
+        // Потоковая запись в произвольном порядке даёт тот же файл, что и saveModel
+        Model model = new Model();
+        model.vertices.addAll(Arrays.asList(new Vector3f(0, 0, 0), new Vector3f(1, 0, 0), new Vector3f(0, 1, 0)));
+        model.textureVertices.add(new Vector2f(0.5f, 0.25f));
+        Polygon poly = new Polygon();
+        poly.setVertexIndices(new ArrayList<>(Arrays.asList(0, 1, 2)));
+        poly.setTextureVertexIndices(new ArrayList<>(Arrays.asList(0, 0, 0)));
+        model.polygons.add(poly);
+        ObjWriter.saveModel(model, "test_sequential.obj");
+
+        try (ObjStreamWriter writer = new ObjStreamWriter("test_stream.obj")) {
+            writer.vertex(0, 0, 0);
+            writer.face(new int[]{0, 1, 2}, new int[]{0, 0, 0}, null, 3);
+            writer.texCoord(0.5f, 0.25f);
+            writer.vertex(1, 0, 0);
+            writer.vertex(0, 1, 0);
+        }
+        assertEquals(Files.readString(Path.of("test_sequential.obj")), Files.readString(Path.of("test_stream.obj")));
+
+        // Индекс на так и не записанную вершину обнаруживается при закрытии, файл не создаётся
+        ObjStreamWriter writer = new ObjStreamWriter("test_stream_invalid.obj");
+        writer.face(0, 1, 2);
+        writer.vertex(0, 0, 0);
+        assertThrows(IOException.class, writer::close);
+        assertFalse(Files.exists(Path.of("test_stream_invalid.obj")));
+    }
+
     @org.junit.jupiter.api.AfterEach
     void cleanup() throws IOException {
         String[] testFiles = {
                 "test_full.obj", "test_vertex_only.obj", "test_texture_only.obj",
-                "test_normal_only.obj", "test_wrong_texture.obj", "test_empty.obj"
+                "test_normal_only.obj", "test_wrong_texture.obj", "test_empty.obj",
+                "test_formatting.obj", "test_sequential.obj", "test_parallel.obj", "test_stream.obj"
         };
 
         for (String filename : testFiles) {
@@ -0,0 +1,96 @@
+package ru.vsu.cs.khalibekov_a_b;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.vsu.cs.khalibekov_a_b_objWriter.generator.MeshGenerator;
+import ru.vsu.cs.khalibekov_a_b_objWriter.math.Vector3f;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.CompactModel;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.Model;
+import ru.vsu.cs.khalibekov_a_b_objWriter.model.Polygon;
+import ru.vsu.cs.khalibekov_a_b_objWriter.objreader.ObjReader;
+import ru.vsu.cs.khalibekov_a_b_objWriter.processing.VertexCacheOptimizer;
+import ru.vsu.cs.khalibekov_a_b_objWriter.processing.VertexCacheReport;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+class VertexCacheOptimizerTest {
+
+    @Test
+    public void testOptimizeShuffled01() {
+        final CompactModel model = new MeshGenerator(MeshGenerator.Shape.SPHERE, 24, 3)
+                .setFaceArity(3)
+                .setIndexPattern(MeshGenerator.IndexPattern.SHUFFLED)
+                .generateCompactModel();
+        final CompactModel optimized = VertexCacheOptimizer.optimize(model);
+
+        final double before = VertexCacheOptimizer.acmr(model, VertexCacheOptimizer.DEFAULT_CACHE_SIZE);
+        final double after = VertexCacheOptimizer.acmr(optimized, VertexCacheOptimizer.DEFAULT_CACHE_SIZE);
+        Assertions.assertTrue(before > 1.9);
+        Assertions.assertTrue(after < 0.8);
+
+        // Вершины пронумерованы по первому использованию
+        Assertions.assertArrayEquals(new int[]{0, 1, 2}, Arrays.copyOf(optimized.getVertexIndices(), 3));
+        // Те же треугольники с теми же координатами, только в другом порядке
+        Assertions.assertEquals(model.getPolygonCount(), optimized.getPolygonCount());
+        Assertions.assertEquals(triangles(model.toModel()), triangles(optimized.toModel()));
+    }
+
+    @Test
+    public void testOptimizeModel01() {
+        final Model model = ObjReader.read("""
+                v 0 0 0
+                v 1 0 0
+                v 1 1 0
+                v 0 1 0
+                v 5 5 5
+                vt 0 0
+                vt 1 1
+                usemtl a
+                f 3/2 4/1 1/1
+                f 1 2 3
+                usemtl b
+                f 1/1 2/2 4/2
+                """);
+        final Polygon first = model.polygons.get(0);
+        final Vector3f unused = model.vertices.get(4);
+        final VertexCacheReport report = VertexCacheOptimizer.optimize(model);
+
+        Assertions.assertEquals(3, report.getTriangleCount());
+        Assertions.assertEquals(4.0 / 3, report.getAcmrBefore(), 1e-9);
+        Assertions.assertEquals(report.getAcmrAfter(), VertexCacheOptimizer.acmr(model, report.getCacheSize()), 1e-9);
+        // Полигон другого материала не переставляется в чужой диапазон
+        Assertions.assertSame(first, model.polygons.get(0));
+        Assertions.assertEquals(List.of(0, 1, 2), first.getVertexIndices());
+        Assertions.assertEquals(List.of(0, 1, 1), first.getTextureVertexIndices());
+        Assertions.assertTrue(new Vector3f(1, 1, 0).equals(model.vertices.get(0)));
+        Assertions.assertTrue(new Vector3f(0, 1, 0).equals(model.vertices.get(1)));
+        // Неиспользуемая вершина остаётся в конце
+        Assertions.assertSame(unused, model.vertices.get(4));
+        Assertions.assertEquals("b", model.polygonRanges.get(1).getMaterialName());
+        Assertions.assertEquals(2, model.polygonRanges.get(1).getFirstPolygon());
+    }
+
+    @Test
+    public void testInvalidIndex01() {
+        final Model model = ObjReader.read("v 0 0 0\nv 1 0 0\nf 1 2 3\n");
+        final IllegalArgumentException exception = Assertions.assertThrows(IllegalArgumentException.class,
+                () -> VertexCacheOptimizer.optimize(model));
+        Assertions.assertEquals("Polygon 0, vertex 2: index 2 out of range [0, 1]", exception.getMessage());
+    }
+
+    private static List<String> triangles(Model model) {
+        final List<String> result = new ArrayList<String>();
+        for (Polygon polygon : model.polygons) {
+            final List<String> corners = new ArrayList<String>();
+            for (int index : polygon.getVertexIndices()) {
+                final Vector3f v = model.vertices.get(index);
+                corners.add(v.x + " " + v.y + " " + v.z);
+            }
+            result.add(String.join(" / ", corners));
+        }
+        result.sort(null);
+        return result;
+    }
+}